@@ -0,0 +1,731 @@
+/* 
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license. 
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Coordinates;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+
+/**
+ * Use this class as base class, if you want to implement a {@link WebDriverEventListener}
+ * which treats all events the same way and only needs the {@link Step} record. Every
+ * callback of the listener interface is funneled into {@link #onStep(Step)}.
+ * <p>
+ * The same listener can also be fed offline with {@link Step} objects read from a JSON
+ * file written by {@link FullJSONLogger}, see {@link #processSteps(List)}.
+ * 
+ * @since 3.0.23
+ */
+public abstract class AbstractStepListener extends AbstractWebDriverEventListener {
+
+	/**
+	 * Called for each and every event fired by {@link EventFiringWebDriver}.
+	 * 
+	 * @param step step record
+	 */
+	protected abstract void onStep(Step step);
+
+	/**
+	 * Feeds a list of previously recorded steps into this listener and finally calls
+	 * {@link #closeListener()}.
+	 * 
+	 * @param steps list of steps, e.g. read by {@link FullJSONLogger#readStepsFromFile(String)}
+	 */
+	public void processSteps(List<Step> steps) {
+		if (steps != null) {
+			for (Step step : steps) {
+				onStep(step);
+			}
+		}
+		closeListener();
+	}
+
+	@Override
+	public void closeListener() {
+		// no-op by default
+	}
+
+	/*--------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver object.
+	 *--------------------------------------------------------------------*/
+
+	@Override
+	public void beforeClose(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterClose(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFindElementByWebDriver(Step step, By by) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFindElementByWebDriver(Step step, WebElement returnedElement, By by) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFindElementsByWebDriver(Step step, By by) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFindElementsByWebDriver(Step step, List<WebElement> returnedElements, By by) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGet(Step step, String url) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGet(Step step, String url) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetCurrentUrl(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetCurrentUrl(Step step, String url) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetPageSource(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetPageSource(Step step, String source) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetTitle(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetTitle(Step step, String title) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetWindowHandle(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetWindowHandle(Step step, String handle) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetWindowHandles(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetWindowHandles(Step step, Set<String> handles) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeQuit(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterQuit(Step step) {
+		onStep(step);
+	}
+
+	/*--------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver object
+	 * after casting to JavascriptExecutor.
+	 *--------------------------------------------------------------------*/
+
+	@Override
+	public void beforeExecuteAsyncScript(Step step, String script, Object... args) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterExecuteAsyncScript(Step step, String script, Object... args) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeExecuteScript(Step step, String script, Object... args) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterExecuteScript(Step step, String script, Object... args) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFetchProperties(Step step, List<WebElement> elements) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFetchProperties(Step step, List<ElementProperties> properties) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSnapshot(Step step, WebElement root) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeWaitFor(Step step, WaitCondition condition) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+		onStep(step);
+	}
+
+	/*--------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver object
+	 * after casting to TakesScreenshot.
+	 *--------------------------------------------------------------------*/
+
+	@Override
+	public <X> void beforeGetScreenshotAs(Step step, OutputType<X> target) {
+		onStep(step);
+	}
+
+	@Override
+	public <X> void afterGetScreenshotAs(Step step, OutputType<X> target) {
+		onStep(step);
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver.Navigation object.
+	 *---------------------------------------------------------------------------*/
+
+	@Override
+	public void beforeBack(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterBack(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeForward(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterForward(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeRefresh(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterRefresh(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeTo(Step step, String url) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterTo(Step step, String url) {
+		onStep(step);
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver.TargetLocator object.
+	 *---------------------------------------------------------------------------*/
+
+	@Override
+	public void beforeActiveElement(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterActiveElement(Step step, WebElement activeElement) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeAlert(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterAlert(Step step, Alert alert) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeDefaultContent(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterDefaultContent(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFrameByIndex(Step step, int frameIndex) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFrameByIndex(Step step, int frameIndex) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFrameByName(Step step, String frameName) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFrameByName(Step step, String frameName) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFrameByElement(Step step, WebElement frameElement) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFrameByElement(Step step, WebElement frameElement) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeParentFrame(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterParentFrame(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeWindow(Step step, String windowName) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterWindow(Step step, String windowName) {
+		onStep(step);
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver.Timeouts object.
+	 *---------------------------------------------------------------------------*/
+
+	@Override
+	public void beforeImplicitlyWait(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterImplicitlyWait(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforePageLoadTimeout(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterPageLoadTimeout(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		onStep(step);
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from WebDriver.Window object.
+	 *---------------------------------------------------------------------------*/
+
+	@Override
+	public void beforeFullscreen(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFullscreen(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetPosition(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetPosition(Step step, Point targetPosition) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetSizeByWindow(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetSizeByWindow(Step step, Dimension targetSize) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeMaximize(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterMaximize(Step step) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSetPosition(Step step, Point targetPosition) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSetPosition(Step step, Point targetPosition) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSetSize(Step step, Dimension targetSize) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSetSize(Step step, Dimension targetSize) {
+		onStep(step);
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from WebElement object.
+	 *---------------------------------------------------------------------------*/
+
+	@Override
+	public void beforeClick(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterClick(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeClear(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterClear(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFindElementByElement(Step step, By by, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFindElementByElement(Step step, WebElement returnedElement, By by, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeFindElementsByElement(Step step, By by, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterFindElementsByElement(Step step, List<WebElement> returnedElements, By by, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetAttribute(Step step, String name, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetAttribute(Step step, String value, String name, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetCssValue(Step step, String propertyName, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetCssValue(Step step, String propertyName, String value, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetTagName(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetTagName(Step step, String tagName, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetText(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetText(Step step, String text, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeIsDisplayed(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterIsDisplayed(Step step, boolean isDisplayed, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeIsEnabled(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterIsEnabled(Step step, boolean isEnabled, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeIsSelected(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterIsSelected(Step step, boolean isSelected, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetLocation(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetLocation(Step step, Point point, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetSizeByElement(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetSizeByElement(Step step, Dimension dimension, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeGetRect(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterGetRect(Step step, Rectangle rectangle, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSubmit(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSubmit(Step step, WebElement element) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforePressKey(Step step, CharSequence... keyToPress) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterPressKey(Step step, CharSequence... keyToPress) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeReleaseKey(Step step, CharSequence... keyToPress) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterReleaseKey(Step step, CharSequence... keyToPress) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeClickByMouse(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterClickByMouse(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeDoubleClick(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterDoubleClick(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeMouseDown(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterMouseDown(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeMouseUp(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterMouseUp(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		onStep(step);
+	}
+
+	@Override
+	public void beforeContextClick(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void afterContextClick(Step step, Coordinates where) {
+		onStep(step);
+	}
+
+	@Override
+	public void onException(Step step, Cmd cmd, Throwable issue) {
+		onStep(step);
+	}
+}
@@ -149,6 +149,30 @@ public abstract class AbstractWebDriverEventListener implements WebDriverEventLi
 	public void afterExecuteScript(Step step, String script, Object... args) {
 	}
 
+	@Override
+	public void beforeFetchProperties(Step step, List<WebElement> elements) {
+	}
+
+	@Override
+	public void afterFetchProperties(Step step, List<ElementProperties> properties) {
+	}
+
+	@Override
+	public void beforeSnapshot(Step step, WebElement root) {
+	}
+
+	@Override
+	public void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+	}
+
+	@Override
+	public void beforeWaitFor(Step step, WaitCondition condition) {
+	}
+
+	@Override
+	public void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+	}
+
 	/*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object
 	 * after casting to TakesScreenshot.
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Scope in which {@link WebElement#sendKeys(CharSequence...)}, {@link WebElement#click()} and
+ * {@link WebElement#clear()} get queued instead of being sent to the browser one by one. All
+ * queued actions get executed by a single script when the batch gets flushed, which happens
+ * <ul>
+ * <li>when calling {@link #flush()} or {@link #close()},</li>
+ * <li>before any other command of the driver, its elements, navigation, target locator,
+ * options, keyboard or mouse gets executed.</li>
+ * </ul>
+ * Usage:
+ * <pre>
+ * try (ActionBatch batch = driver.batch()) {
+ *     firstName.sendKeys("Jane");
+ *     lastName.sendKeys("Doe");
+ *     save.click();
+ * }
+ * </pre>
+ * Listeners get a before step for each action when it gets queued and an after step when the
+ * batch got executed. The time of the round-trip gets split evenly among the after steps.
+ * <p>
+ * The script emulates the actions by JavaScript: typing sets the value and fires "input" and
+ * "change" events, clicking calls the element's click() method. Keys such as
+ * {@link org.openqa.selenium.Keys#ENTER} cannot be emulated, hence sending them flushes the
+ * batch and sends them as usual. The script stops at the first action failing; it gets reported
+ * as exception of that action and thrown as {@link WebDriverException}, the actions queued after
+ * it get dropped.
+ * <p>
+ * A batch belongs to the thread which opened it.
+ *
+ * @since 3.0.23
+ */
+public final class ActionBatch implements AutoCloseable {
+	private final EventFiringWebDriver driver;
+	private final List<Action> actions = new ArrayList<>();
+
+	ActionBatch(EventFiringWebDriver driver) {
+		this.driver = driver;
+	}
+
+	/**
+	 * @return number of actions queued
+	 */
+	public int size() {
+		return actions.size();
+	}
+
+	/**
+	 * Executes all actions queued.
+	 *
+	 * @throws WebDriverException
+	 *             if any of the actions failed
+	 */
+	public void flush() {
+		driver.flushBatch(this);
+	}
+
+	/**
+	 * Executes all actions queued and ends the batch.
+	 *
+	 * @throws WebDriverException
+	 *             if any of the actions failed
+	 */
+	@Override
+	public void close() {
+		try {
+			flush();
+		} finally {
+			driver.endBatch(this);
+		}
+	}
+
+	void add(Action action) {
+		actions.add(action);
+	}
+
+	List<Action> drain() {
+		List<Action> drained = new ArrayList<>(actions);
+		actions.clear();
+		return drained;
+	}
+
+	/**
+	 * @return true if all the keys can be typed by setting the value of an element
+	 */
+	static boolean isBatchable(CharSequence... keysToSend) {
+		if (keysToSend == null)
+			return false;
+		for (CharSequence keys : keysToSend) {
+			if (keys == null)
+				return false;
+			for (int i = 0; i < keys.length(); i++) {
+				// org.openqa.selenium.Keys live in this private use area
+				char c = keys.charAt(i);
+				if (c >= '\uE000' && c <= '\uF8FF')
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * One action queued.
+	 */
+	static final class Action {
+		// "sendKeys", "click" or "clear" as understood by the batch script
+		final String type;
+		final WebElement element;
+		final String text;
+		// null if nobody observes the command
+		final Step stepBefore;
+		// dispatches the given after step
+		final Consumer<Step> afterAction;
+
+		Action(String type, WebElement element, String text, Step stepBefore, Consumer<Step> afterAction) {
+			this.type = type;
+			this.element = element;
+			this.text = text;
+			this.stepBefore = stepBefore;
+			this.afterAction = afterAction;
+		}
+	}
+}
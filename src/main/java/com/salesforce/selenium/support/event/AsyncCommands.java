@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Runs independent commands, typically reading from several elements, in parallel instead of
+ * one after the other, see {@link EventFiringWebDriver#async()}.
+ * <p>
+ * Commands run on a pool of daemon threads through the EventFiringWebDriver, hence listeners
+ * get the same steps as for commands run by the test thread, timed per thread. The number of
+ * threads is given by {@link EventFiringWebDriver#CONFIG_ASYNC_PARALLELISM}. By default,
+ * drivers talking to the browser via HTTP, i.e. any {@link RemoteWebDriver}, get
+ * {@value #DEFAULT_PARALLELISM} threads, so that their commands travel over several
+ * connections at once, while all other drivers get a single thread, which keeps their commands
+ * serialized.
+ * <p>
+ * Actions queued by an {@link ActionBatch} of the calling thread get executed before a command
+ * gets submitted. Actions such as clicks should not be submitted at all, as their order would
+ * not be defined.
+ *
+ * @since 3.0.23
+ */
+public final class AsyncCommands {
+	/**
+	 * Number of threads used for remote drivers if not configured otherwise: {@value}
+	 */
+	public static final int DEFAULT_PARALLELISM = 4;
+
+	private final EventFiringWebDriver driver;
+	private final ExecutorService executor;
+
+	AsyncCommands(EventFiringWebDriver driver) {
+		this.driver = driver;
+		int defaultParallelism = driver.isRemote() ? DEFAULT_PARALLELISM : 1;
+		int parallelism = Math.max(1, Configuration.getInstance().getInt(EventFiringWebDriver.CONFIG_ASYNC_PARALLELISM, defaultParallelism));
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "AsyncCommands-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Runs the given command on another thread.
+	 *
+	 * @param command
+	 *            function getting the EventFiringWebDriver passed
+	 * @return future completed with the command's result or exception
+	 */
+	public <T> CompletableFuture<T> supply(Function<? super WebDriver, T> command) {
+		driver.flushBatch();
+		return CompletableFuture.supplyAsync(() -> command.apply(driver), executor);
+	}
+
+	/**
+	 * @see WebDriver#getTitle()
+	 */
+	public CompletableFuture<String> getTitle() {
+		return supply(WebDriver::getTitle);
+	}
+
+	/**
+	 * @see WebDriver#getCurrentUrl()
+	 */
+	public CompletableFuture<String> getCurrentUrl() {
+		return supply(WebDriver::getCurrentUrl);
+	}
+
+	/**
+	 * @see WebDriver#findElements(By)
+	 */
+	public CompletableFuture<List<WebElement>> findElements(By by) {
+		return supply(webDriver -> webDriver.findElements(by));
+	}
+
+	/**
+	 * @param element
+	 *            element returned by the EventFiringWebDriver
+	 * @see WebElement#getText()
+	 */
+	public CompletableFuture<String> getText(WebElement element) {
+		return supply(webDriver -> element.getText());
+	}
+
+	/**
+	 * @param element
+	 *            element returned by the EventFiringWebDriver
+	 * @see WebElement#getAttribute(String)
+	 */
+	public CompletableFuture<String> getAttribute(WebElement element, String name) {
+		return supply(webDriver -> element.getAttribute(name));
+	}
+
+	/**
+	 * @param element
+	 *            element returned by the EventFiringWebDriver
+	 * @see WebElement#isDisplayed()
+	 */
+	public CompletableFuture<Boolean> isDisplayed(WebElement element) {
+		return supply(webDriver -> element.isDisplayed());
+	}
+
+	/**
+	 * Reads the texts of all given elements in parallel.
+	 *
+	 * @param elements
+	 *            elements returned by the EventFiringWebDriver
+	 * @return future completed with the texts in the order of the elements, or with the first
+	 *         exception thrown
+	 */
+	public CompletableFuture<List<String>> getTexts(List<WebElement> elements) {
+		List<CompletableFuture<String>> texts = new ArrayList<>(elements.size());
+		for (WebElement element : elements) {
+			texts.add(getText(element));
+		}
+		return CompletableFuture.allOf(texts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+			List<String> result = new ArrayList<>(texts.size());
+			for (CompletableFuture<String> text : texts) {
+				result.add(text.join());
+			}
+			return result;
+		});
+	}
+
+	void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,769 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Coordinates;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
+
+/**
+ * Delivers the events of one {@link EventFiringWebDriver} to a slow listener, e.g. one taking
+ * screenshots or pushing data to a database, on a single thread of its own instead of the test
+ * thread:
+ * <pre>
+ * driver.register(new AsyncEventListener(new MyScreenshotListener()));
+ * </pre>
+ * All events get queued and are passed on in the order they were fired, hence the wrapped
+ * listener sees them one after the other, just like an inline listener. This includes the
+ * before-events, which therefore may reach the listener after the command itself has started.
+ * Listeners which have to act before a command gets executed must stay inline.
+ * <p>
+ * The queue holds up to {@value #DEFAULT_QUEUE_SIZE} events by default, see
+ * {@link EventFiringWebDriver#CONFIG_ASYNC_QUEUE_SIZE}. If the listener falls that far behind,
+ * the test thread waits for free space rather than dropping events.
+ * <p>
+ * Exceptions thrown by the wrapped listener cannot reach the test any longer; they get printed
+ * to System.err. {@link #closeListener()} waits until all queued events have been delivered.
+ * Use one instance per driver.
+ * 
+ * @since 3.0.23
+ */
+public class AsyncEventListener implements WebDriverEventListener {
+	/**
+	 * Number of events the queue holds if {@link EventFiringWebDriver#CONFIG_ASYNC_QUEUE_SIZE}
+	 * is not set: {@value}
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+	private final WebDriverEventListener delegate;
+	private final ExecutorService executor;
+
+	/**
+	 * @param delegate
+	 *            listener to call from the background thread
+	 */
+	public AsyncEventListener(WebDriverEventListener delegate) {
+		this.delegate = delegate;
+		int queueSize = Configuration.getInstance().getInt(EventFiringWebDriver.CONFIG_ASYNC_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+		String threadName = "AsyncEventListener-" + delegate.getClass().getSimpleName();
+		this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+				runnable -> {
+					Thread thread = new Thread(runnable, threadName);
+					thread.setDaemon(true);
+					return thread;
+				}, (runnable, pool) -> {
+					// wait for free space instead of dropping or reordering events
+					try {
+						pool.getQueue().put(runnable);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("Interrupted while queueing event", e);
+					}
+				});
+	}
+
+	/**
+	 * @return listener the events get passed on to
+	 */
+	public WebDriverEventListener getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public Set<Cmd> getCmdsOfInterest() {
+		return delegate.getCmdsOfInterest();
+	}
+
+	@Override
+	public Set<Field> getFieldsOfInterest() {
+		return delegate.getFieldsOfInterest();
+	}
+
+	/**
+	 * Passes on all queued events, then closes the wrapped listener and stops the thread.
+	 */
+	@Override
+	public void closeListener() {
+		if (executor.isShutdown())
+			return;
+
+		submit(delegate::closeListener);
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				// keep draining
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void submit(Runnable event) {
+		if (executor.isShutdown())
+			return;
+
+		executor.execute(() -> {
+			try {
+				event.run();
+			} catch (RuntimeException e) {
+				System.err.println("Listener " + delegate.getClass().getName() + " failed to process event");
+				e.printStackTrace();
+			}
+		});
+	}
+
+	@Override
+	public void beforeClose(Step step) {
+		submit(() -> delegate.beforeClose(step));
+	}
+
+	@Override
+	public void afterClose(Step step) {
+		submit(() -> delegate.afterClose(step));
+	}
+
+	@Override
+	public void beforeFindElementByWebDriver(Step step, By by) {
+		submit(() -> delegate.beforeFindElementByWebDriver(step, by));
+	}
+
+	@Override
+	public void afterFindElementByWebDriver(Step step, WebElement element, By by) {
+		submit(() -> delegate.afterFindElementByWebDriver(step, element, by));
+	}
+
+	@Override
+	public void beforeFindElementsByWebDriver(Step step, By by) {
+		submit(() -> delegate.beforeFindElementsByWebDriver(step, by));
+	}
+
+	@Override
+	public void afterFindElementsByWebDriver(Step step, List<WebElement> elements, By by) {
+		submit(() -> delegate.afterFindElementsByWebDriver(step, elements, by));
+	}
+
+	@Override
+	public void beforeGet(Step step, String url) {
+		submit(() -> delegate.beforeGet(step, url));
+	}
+
+	@Override
+	public void afterGet(Step step, String url) {
+		submit(() -> delegate.afterGet(step, url));
+	}
+
+	@Override
+	public void beforeGetCurrentUrl(Step step) {
+		submit(() -> delegate.beforeGetCurrentUrl(step));
+	}
+
+	@Override
+	public void afterGetCurrentUrl(Step step, String url) {
+		submit(() -> delegate.afterGetCurrentUrl(step, url));
+	}
+
+	@Override
+	public void beforeGetPageSource(Step step) {
+		submit(() -> delegate.beforeGetPageSource(step));
+	}
+
+	@Override
+	public void afterGetPageSource(Step step, String source) {
+		submit(() -> delegate.afterGetPageSource(step, source));
+	}
+
+	@Override
+	public void beforeGetTitle(Step step) {
+		submit(() -> delegate.beforeGetTitle(step));
+	}
+
+	@Override
+	public void afterGetTitle(Step step, String title) {
+		submit(() -> delegate.afterGetTitle(step, title));
+	}
+
+	@Override
+	public void beforeGetWindowHandle(Step step) {
+		submit(() -> delegate.beforeGetWindowHandle(step));
+	}
+
+	@Override
+	public void afterGetWindowHandle(Step step, String handle) {
+		submit(() -> delegate.afterGetWindowHandle(step, handle));
+	}
+
+	@Override
+	public void beforeGetWindowHandles(Step step) {
+		submit(() -> delegate.beforeGetWindowHandles(step));
+	}
+
+	@Override
+	public void afterGetWindowHandles(Step step, Set<String> handles) {
+		submit(() -> delegate.afterGetWindowHandles(step, handles));
+	}
+
+	@Override
+	public void beforeQuit(Step step) {
+		submit(() -> delegate.beforeQuit(step));
+	}
+
+	@Override
+	public void afterQuit(Step step) {
+		submit(() -> delegate.afterQuit(step));
+	}
+
+	@Override
+	public void beforeExecuteAsyncScript(Step step, String script, Object... args) {
+		submit(() -> delegate.beforeExecuteAsyncScript(step, script, args));
+	}
+
+	@Override
+	public void afterExecuteAsyncScript(Step step, String script, Object... args) {
+		submit(() -> delegate.afterExecuteAsyncScript(step, script, args));
+	}
+
+	@Override
+	public void beforeExecuteScript(Step step, String script, Object... args) {
+		submit(() -> delegate.beforeExecuteScript(step, script, args));
+	}
+
+	@Override
+	public void afterExecuteScript(Step step, String script, Object... args) {
+		submit(() -> delegate.afterExecuteScript(step, script, args));
+	}
+
+	@Override
+	public void beforeFetchProperties(Step step, List<WebElement> elements) {
+		submit(() -> delegate.beforeFetchProperties(step, elements));
+	}
+
+	@Override
+	public void afterFetchProperties(Step step, List<ElementProperties> properties) {
+		submit(() -> delegate.afterFetchProperties(step, properties));
+	}
+
+	@Override
+	public void beforeSnapshot(Step step, WebElement root) {
+		submit(() -> delegate.beforeSnapshot(step, root));
+	}
+
+	@Override
+	public void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+		submit(() -> delegate.afterSnapshot(step, snapshot, root));
+	}
+
+	@Override
+	public void beforeWaitFor(Step step, WaitCondition condition) {
+		submit(() -> delegate.beforeWaitFor(step, condition));
+	}
+
+	@Override
+	public void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+		submit(() -> delegate.afterWaitFor(step, condition, element));
+	}
+
+	@Override
+	public <X> void beforeGetScreenshotAs(Step step, OutputType<X> target) {
+		submit(() -> delegate.beforeGetScreenshotAs(step, target));
+	}
+
+	@Override
+	public <X> void afterGetScreenshotAs(Step step, OutputType<X> target) {
+		submit(() -> delegate.afterGetScreenshotAs(step, target));
+	}
+
+	@Override
+	public void beforeBack(Step step) {
+		submit(() -> delegate.beforeBack(step));
+	}
+
+	@Override
+	public void afterBack(Step step) {
+		submit(() -> delegate.afterBack(step));
+	}
+
+	@Override
+	public void beforeForward(Step step) {
+		submit(() -> delegate.beforeForward(step));
+	}
+
+	@Override
+	public void afterForward(Step step) {
+		submit(() -> delegate.afterForward(step));
+	}
+
+	@Override
+	public void beforeRefresh(Step step) {
+		submit(() -> delegate.beforeRefresh(step));
+	}
+
+	@Override
+	public void afterRefresh(Step step) {
+		submit(() -> delegate.afterRefresh(step));
+	}
+
+	@Override
+	public void beforeTo(Step step, String url) {
+		submit(() -> delegate.beforeTo(step, url));
+	}
+
+	@Override
+	public void afterTo(Step step, String url) {
+		submit(() -> delegate.afterTo(step, url));
+	}
+
+	@Override
+	public void beforeActiveElement(Step step) {
+		submit(() -> delegate.beforeActiveElement(step));
+	}
+
+	@Override
+	public void afterActiveElement(Step step, WebElement activeElement) {
+		submit(() -> delegate.afterActiveElement(step, activeElement));
+	}
+
+	@Override
+	public void beforeAlert(Step step) {
+		submit(() -> delegate.beforeAlert(step));
+	}
+
+	@Override
+	public void afterAlert(Step step, Alert alert) {
+		submit(() -> delegate.afterAlert(step, alert));
+	}
+
+	@Override
+	public void beforeDefaultContent(Step step) {
+		submit(() -> delegate.beforeDefaultContent(step));
+	}
+
+	@Override
+	public void afterDefaultContent(Step step) {
+		submit(() -> delegate.afterDefaultContent(step));
+	}
+
+	@Override
+	public void beforeFrameByIndex(Step step, int frameIndex) {
+		submit(() -> delegate.beforeFrameByIndex(step, frameIndex));
+	}
+
+	@Override
+	public void afterFrameByIndex(Step step, int frameIndex) {
+		submit(() -> delegate.afterFrameByIndex(step, frameIndex));
+	}
+
+	@Override
+	public void beforeFrameByName(Step step, String frameName) {
+		submit(() -> delegate.beforeFrameByName(step, frameName));
+	}
+
+	@Override
+	public void afterFrameByName(Step step, String frameName) {
+		submit(() -> delegate.afterFrameByName(step, frameName));
+	}
+
+	@Override
+	public void beforeFrameByElement(Step step, WebElement frameElement) {
+		submit(() -> delegate.beforeFrameByElement(step, frameElement));
+	}
+
+	@Override
+	public void afterFrameByElement(Step step, WebElement frameElement) {
+		submit(() -> delegate.afterFrameByElement(step, frameElement));
+	}
+
+	@Override
+	public void beforeParentFrame(Step step) {
+		submit(() -> delegate.beforeParentFrame(step));
+	}
+
+	@Override
+	public void afterParentFrame(Step step) {
+		submit(() -> delegate.afterParentFrame(step));
+	}
+
+	@Override
+	public void beforeWindow(Step step, String windowName) {
+		submit(() -> delegate.beforeWindow(step, windowName));
+	}
+
+	@Override
+	public void afterWindow(Step step, String windowName) {
+		submit(() -> delegate.afterWindow(step, windowName));
+	}
+
+	@Override
+	public void beforeImplicitlyWait(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.beforeImplicitlyWait(step, time, unit));
+	}
+
+	@Override
+	public void afterImplicitlyWait(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.afterImplicitlyWait(step, time, unit));
+	}
+
+	@Override
+	public void beforePageLoadTimeout(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.beforePageLoadTimeout(step, time, unit));
+	}
+
+	@Override
+	public void afterPageLoadTimeout(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.afterPageLoadTimeout(step, time, unit));
+	}
+
+	@Override
+	public void beforeSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.beforeSetScriptTimeout(step, time, unit));
+	}
+
+	@Override
+	public void afterSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		submit(() -> delegate.afterSetScriptTimeout(step, time, unit));
+	}
+
+	@Override
+	public void beforeFullscreen(Step step) {
+		submit(() -> delegate.beforeFullscreen(step));
+	}
+
+	@Override
+	public void afterFullscreen(Step step) {
+		submit(() -> delegate.afterFullscreen(step));
+	}
+
+	@Override
+	public void beforeGetPosition(Step step) {
+		submit(() -> delegate.beforeGetPosition(step));
+	}
+
+	@Override
+	public void afterGetPosition(Step step, Point targetPosition) {
+		submit(() -> delegate.afterGetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void beforeGetSizeByWindow(Step step) {
+		submit(() -> delegate.beforeGetSizeByWindow(step));
+	}
+
+	@Override
+	public void afterGetSizeByWindow(Step step, Dimension targetSize) {
+		submit(() -> delegate.afterGetSizeByWindow(step, targetSize));
+	}
+
+	@Override
+	public void beforeMaximize(Step step) {
+		submit(() -> delegate.beforeMaximize(step));
+	}
+
+	@Override
+	public void afterMaximize(Step step) {
+		submit(() -> delegate.afterMaximize(step));
+	}
+
+	@Override
+	public void beforeSetPosition(Step step, Point targetPosition) {
+		submit(() -> delegate.beforeSetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void afterSetPosition(Step step, Point targetPosition) {
+		submit(() -> delegate.afterSetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void beforeSetSize(Step step, Dimension targetSize) {
+		submit(() -> delegate.beforeSetSize(step, targetSize));
+	}
+
+	@Override
+	public void afterSetSize(Step step, Dimension targetSize) {
+		submit(() -> delegate.afterSetSize(step, targetSize));
+	}
+
+	@Override
+	public void beforeClick(Step step, WebElement element) {
+		submit(() -> delegate.beforeClick(step, element));
+	}
+
+	@Override
+	public void afterClick(Step step, WebElement element) {
+		submit(() -> delegate.afterClick(step, element));
+	}
+
+	@Override
+	public void beforeClear(Step step, WebElement element) {
+		submit(() -> delegate.beforeClear(step, element));
+	}
+
+	@Override
+	public void afterClear(Step step, WebElement element) {
+		submit(() -> delegate.afterClear(step, element));
+	}
+
+	@Override
+	public void beforeFindElementByElement(Step step, By by, WebElement element) {
+		submit(() -> delegate.beforeFindElementByElement(step, by, element));
+	}
+
+	@Override
+	public void afterFindElementByElement(Step step, WebElement returnedElement, By by, WebElement element) {
+		submit(() -> delegate.afterFindElementByElement(step, returnedElement, by, element));
+	}
+
+	@Override
+	public void beforeFindElementsByElement(Step step, By by, WebElement element) {
+		submit(() -> delegate.beforeFindElementsByElement(step, by, element));
+	}
+
+	@Override
+	public void afterFindElementsByElement(Step step, List<WebElement> returnedElements, By by, WebElement element) {
+		submit(() -> delegate.afterFindElementsByElement(step, returnedElements, by, element));
+	}
+
+	@Override
+	public void beforeGetAttribute(Step step, String name, WebElement element) {
+		submit(() -> delegate.beforeGetAttribute(step, name, element));
+	}
+
+	@Override
+	public void afterGetAttribute(Step step, String value, String name, WebElement element) {
+		submit(() -> delegate.afterGetAttribute(step, value, name, element));
+	}
+
+	@Override
+	public void beforeGetCssValue(Step step, String propertyName, WebElement element) {
+		submit(() -> delegate.beforeGetCssValue(step, propertyName, element));
+	}
+
+	@Override
+	public void afterGetCssValue(Step step, String propertyName, String value, WebElement element) {
+		submit(() -> delegate.afterGetCssValue(step, propertyName, value, element));
+	}
+
+	@Override
+	public void beforeGetTagName(Step step, WebElement element) {
+		submit(() -> delegate.beforeGetTagName(step, element));
+	}
+
+	@Override
+	public void afterGetTagName(Step step, String tagName, WebElement element) {
+		submit(() -> delegate.afterGetTagName(step, tagName, element));
+	}
+
+	@Override
+	public void beforeGetText(Step step, WebElement element) {
+		submit(() -> delegate.beforeGetText(step, element));
+	}
+
+	@Override
+	public void afterGetText(Step step, String text, WebElement element) {
+		submit(() -> delegate.afterGetText(step, text, element));
+	}
+
+	@Override
+	public void beforeIsDisplayed(Step step, WebElement element) {
+		submit(() -> delegate.beforeIsDisplayed(step, element));
+	}
+
+	@Override
+	public void afterIsDisplayed(Step step, boolean isDisplayed, WebElement element) {
+		submit(() -> delegate.afterIsDisplayed(step, isDisplayed, element));
+	}
+
+	@Override
+	public void beforeIsEnabled(Step step, WebElement element) {
+		submit(() -> delegate.beforeIsEnabled(step, element));
+	}
+
+	@Override
+	public void afterIsEnabled(Step step, boolean isEnabled, WebElement element) {
+		submit(() -> delegate.afterIsEnabled(step, isEnabled, element));
+	}
+
+	@Override
+	public void beforeIsSelected(Step step, WebElement element) {
+		submit(() -> delegate.beforeIsSelected(step, element));
+	}
+
+	@Override
+	public void afterIsSelected(Step step, boolean isSelected, WebElement element) {
+		submit(() -> delegate.afterIsSelected(step, isSelected, element));
+	}
+
+	@Override
+	public void beforeGetLocation(Step step, WebElement element) {
+		submit(() -> delegate.beforeGetLocation(step, element));
+	}
+
+	@Override
+	public void afterGetLocation(Step step, Point point, WebElement element) {
+		submit(() -> delegate.afterGetLocation(step, point, element));
+	}
+
+	@Override
+	public void beforeGetSizeByElement(Step step, WebElement element) {
+		submit(() -> delegate.beforeGetSizeByElement(step, element));
+	}
+
+	@Override
+	public void afterGetSizeByElement(Step step, Dimension dimension, WebElement element) {
+		submit(() -> delegate.afterGetSizeByElement(step, dimension, element));
+	}
+
+	@Override
+	public void beforeGetRect(Step step, WebElement element) {
+		submit(() -> delegate.beforeGetRect(step, element));
+	}
+
+	@Override
+	public void afterGetRect(Step step, Rectangle rectangle, WebElement element) {
+		submit(() -> delegate.afterGetRect(step, rectangle, element));
+	}
+
+	@Override
+	public void beforeSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		submit(() -> delegate.beforeSendKeysByElement(step, element, keysToSend));
+	}
+
+	@Override
+	public void afterSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		submit(() -> delegate.afterSendKeysByElement(step, element, keysToSend));
+	}
+
+	@Override
+	public void beforeSubmit(Step step, WebElement element) {
+		submit(() -> delegate.beforeSubmit(step, element));
+	}
+
+	@Override
+	public void afterSubmit(Step step, WebElement element) {
+		submit(() -> delegate.afterSubmit(step, element));
+	}
+
+	@Override
+	public void beforeSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		submit(() -> delegate.beforeSendKeysByKeyboard(step, keysToSend));
+	}
+
+	@Override
+	public void afterSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		submit(() -> delegate.afterSendKeysByKeyboard(step, keysToSend));
+	}
+
+	@Override
+	public void beforePressKey(Step step, CharSequence... keyToPress) {
+		submit(() -> delegate.beforePressKey(step, keyToPress));
+	}
+
+	@Override
+	public void afterPressKey(Step step, CharSequence... keyToPress) {
+		submit(() -> delegate.afterPressKey(step, keyToPress));
+	}
+
+	@Override
+	public void beforeReleaseKey(Step step, CharSequence... keyToRelease) {
+		submit(() -> delegate.beforeReleaseKey(step, keyToRelease));
+	}
+
+	@Override
+	public void afterReleaseKey(Step step, CharSequence... keyToRelease) {
+		submit(() -> delegate.afterReleaseKey(step, keyToRelease));
+	}
+
+	@Override
+	public void beforeClickByMouse(Step step, Coordinates where) {
+		submit(() -> delegate.beforeClickByMouse(step, where));
+	}
+
+	@Override
+	public void afterClickByMouse(Step step, Coordinates where) {
+		submit(() -> delegate.afterClickByMouse(step, where));
+	}
+
+	@Override
+	public void beforeDoubleClick(Step step, Coordinates where) {
+		submit(() -> delegate.beforeDoubleClick(step, where));
+	}
+
+	@Override
+	public void afterDoubleClick(Step step, Coordinates where) {
+		submit(() -> delegate.afterDoubleClick(step, where));
+	}
+
+	@Override
+	public void beforeMouseDown(Step step, Coordinates where) {
+		submit(() -> delegate.beforeMouseDown(step, where));
+	}
+
+	@Override
+	public void afterMouseDown(Step step, Coordinates where) {
+		submit(() -> delegate.afterMouseDown(step, where));
+	}
+
+	@Override
+	public void beforeMouseUp(Step step, Coordinates where) {
+		submit(() -> delegate.beforeMouseUp(step, where));
+	}
+
+	@Override
+	public void afterMouseUp(Step step, Coordinates where) {
+		submit(() -> delegate.afterMouseUp(step, where));
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where) {
+		submit(() -> delegate.beforeMouseMove(step, where));
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where) {
+		submit(() -> delegate.afterMouseMove(step, where));
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		submit(() -> delegate.beforeMouseMove(step, where, xOffset, yOffset));
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		submit(() -> delegate.afterMouseMove(step, where, xOffset, yOffset));
+	}
+
+	@Override
+	public void beforeContextClick(Step step, Coordinates where) {
+		submit(() -> delegate.beforeContextClick(step, where));
+	}
+
+	@Override
+	public void afterContextClick(Step step, Coordinates where) {
+		submit(() -> delegate.afterContextClick(step, where));
+	}
+
+	@Override
+	public void onException(Step step, Cmd cmd, Throwable throwable) {
+		submit(() -> delegate.onException(step, cmd, throwable));
+	}
+}
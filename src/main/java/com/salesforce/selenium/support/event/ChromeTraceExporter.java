@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.salesforce.selenium.support.event.Step.Type;
+import com.salesforce.selenium.support.event.Step.WebDriverInterface;
+
+/**
+ * Converts {@link Step} records into the Chrome Trace Event format, which can be opened in
+ * {@code chrome://tracing} or in Perfetto (https://ui.perfetto.dev).
+ * <p>
+ * Each WebDriver session becomes a process and each thread which issued commands becomes a
+ * track of that process. On each track the events are nested like this:
+ * <ol>
+ * <li>one span for the whole session</li>
+ * <li>one span for each run of consecutive commands using the same {@link WebDriverInterface}</li>
+ * <li>one span for each command, lasting {@link Step#getTimeElapsedStep()} but cut off where it
+ * would overlap the previous command due to the millisecond precision of the time stamps</li>
+ * </ol>
+ * Time spent in the test code between two commands shows up as a gap between the command spans.
+ * Commands which ran into an exception are marked as instant events.
+ * <p>
+ * Use this class either as listener, which writes the trace to
+ * {@link WebDriverEventListener#TESTDROPIN_LOGFILES_DIR}{@code <test name>.trace.json} when the
+ * listener gets closed, or offline on JSON files written by {@link FullJSONLogger}:
+ * <pre>
+ * java com.salesforce.selenium.support.event.ChromeTraceExporter trace.json test1.json test2.json
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class ChromeTraceExporter extends AbstractStepListener {
+	/**
+	 * File name extension of the trace files written by this listener: {@value}
+	 */
+	public static final String FILE_EXTENSION = ".trace.json";
+
+	private static final int MAX_ARG_LENGTH = 256;
+
+	private final String testName;
+	private final String fileName;
+	private final List<Step> steps = new ArrayList<>();
+
+	/**
+	 * @param testName name of the test, used as session name and as file name of the trace
+	 */
+	public ChromeTraceExporter(String testName) {
+		this.testName = testName;
+		this.fileName = TESTDROPIN_LOGFILES_DIR + convertTestname2FileName(testName) + FILE_EXTENSION;
+	}
+
+	@Override
+	protected synchronized void onStep(Step step) {
+		steps.add(step);
+	}
+
+	@Override
+	public synchronized void closeListener() {
+		new File(TESTDROPIN_LOGFILES_DIR).mkdirs();
+		try (Writer writer = new FileWriter(fileName)) {
+			writeTrace(Collections.singletonMap(testName, steps), writer);
+			System.out.println("Done writing trace events to " + fileName);
+		} catch (IOException e) {
+			System.err.println("Error while writing trace events to " + fileName);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes the given sessions as Chrome Trace Event JSON.
+	 *
+	 * @param sessions steps per session name, e.g. per test
+	 * @param writer target of the trace; it will not be closed by this method
+	 * @throws IOException if writing fails
+	 */
+	public static void writeTrace(Map<String, List<Step>> sessions, Writer writer) throws IOException {
+		JsonGenerator json = new JsonFactory().createGenerator(writer);
+		json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		json.writeStartObject();
+		json.writeStringField("displayTimeUnit", "ms");
+		json.writeArrayFieldStart("traceEvents");
+		int pid = 1;
+		for (Map.Entry<String, List<Step>> session : sessions.entrySet()) {
+			writeSession(json, pid++, session.getKey(), session.getValue());
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.flush();
+	}
+
+	private static void writeSession(JsonGenerator json, int pid, String sessionName, List<Step> steps) throws IOException {
+		writeMetadata(json, "process_name", pid, 0, sessionName);
+
+		// split the commands into one track per thread
+		Map<String, List<Step>> stepsPerThread = new LinkedHashMap<>();
+		for (Step step : steps) {
+			if (isCommandEnd(step) || step.getIssue() != null) {
+				String thread = (step.getThreadName() != null) ? step.getThreadName() : "main";
+				stepsPerThread.computeIfAbsent(thread, t -> new ArrayList<>()).add(step);
+			}
+		}
+
+		int tid = 1;
+		for (Map.Entry<String, List<Step>> thread : stepsPerThread.entrySet()) {
+			writeMetadata(json, "thread_name", pid, tid, thread.getKey());
+			writeTrack(json, pid, tid++, sessionName, thread.getValue());
+		}
+	}
+
+	private static void writeTrack(JsonGenerator json, int pid, int tid, String sessionName, List<Step> steps) throws IOException {
+		List<Step> commands = new ArrayList<>();
+		for (Step step : steps) {
+			if (isCommandEnd(step)) {
+				commands.add(step);
+			} else {
+				writeInstant(json, pid, tid, step);
+			}
+		}
+		if (commands.isEmpty())
+			return;
+		commands.sort(Comparator.comparingLong(ChromeTraceExporter::endMicros));
+
+		// the commands of one thread ran one after the other, but a start derived from the millisecond
+		// time stamp and the nanosecond elapsed time may reach up to a millisecond into the previous
+		// command; clamp it to the end of the previous command
+		long[] starts = new long[commands.size()];
+		long[] ends = new long[commands.size()];
+		long previousEnd = Long.MIN_VALUE;
+		for (int i = 0; i < commands.size(); i++) {
+			starts[i] = Math.max(startMicros(commands.get(i)), previousEnd);
+			ends[i] = Math.max(endMicros(commands.get(i)), starts[i]);
+			previousEnd = ends[i];
+		}
+		writeSpan(json, pid, tid, sessionName, "session", starts[0], previousEnd - starts[0]);
+
+		int runStart = 0;
+		for (int i = 1; i <= commands.size(); i++) {
+			if (i == commands.size() || interfaceOf(commands.get(i)) != interfaceOf(commands.get(runStart))) {
+				WebDriverInterface wdIf = interfaceOf(commands.get(runStart));
+				writeSpan(json, pid, tid, (wdIf != null) ? wdIf.name() : "unknown", "interface",
+						starts[runStart], ends[i - 1] - starts[runStart]);
+				for (int j = runStart; j < i; j++) {
+					writeCommand(json, pid, tid, commands.get(j), starts[j], ends[j]);
+				}
+				runStart = i;
+			}
+		}
+	}
+
+	private static void writeCommand(JsonGenerator json, int pid, int tid, Step step, long start, long end) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("name", (step.getCmd() != null) ? step.getCmd().getLongCmdString() : "unknown");
+		json.writeStringField("cat", (step.getTypeOfLog() == Type.AfterAction) ? "action" : "gather");
+		json.writeStringField("ph", "X");
+		json.writeNumberField("ts", start);
+		json.writeNumberField("dur", end - start);
+		json.writeNumberField("pid", pid);
+		json.writeNumberField("tid", tid);
+		writeArgs(json, step);
+		json.writeEndObject();
+	}
+
+	private static void writeInstant(JsonGenerator json, int pid, int tid, Step step) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("name", "exception in " + ((step.getCmd() != null) ? step.getCmd().getLongCmdString() : "unknown"));
+		json.writeStringField("cat", "exception");
+		json.writeStringField("ph", "i");
+		json.writeStringField("s", "t");
+		json.writeNumberField("ts", step.getTimeStamp() * 1000L);
+		json.writeNumberField("pid", pid);
+		json.writeNumberField("tid", tid);
+		writeArgs(json, step);
+		json.writeEndObject();
+	}
+
+	private static void writeSpan(JsonGenerator json, int pid, int tid, String name, String category, long start, long duration)
+			throws IOException {
+		json.writeStartObject();
+		json.writeStringField("name", name);
+		json.writeStringField("cat", category);
+		json.writeStringField("ph", "X");
+		json.writeNumberField("ts", start);
+		json.writeNumberField("dur", duration);
+		json.writeNumberField("pid", pid);
+		json.writeNumberField("tid", tid);
+		json.writeEndObject();
+	}
+
+	private static void writeMetadata(JsonGenerator json, String name, int pid, int tid, String value) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("name", name);
+		json.writeStringField("ph", "M");
+		json.writeNumberField("pid", pid);
+		json.writeNumberField("tid", tid);
+		json.writeObjectFieldStart("args");
+		json.writeStringField("name", value);
+		json.writeEndObject();
+		json.writeEndObject();
+	}
+
+	private static void writeArgs(JsonGenerator json, Step step) throws IOException {
+		json.writeObjectFieldStart("args");
+		json.writeNumberField("stepNumber", step.getStepNumber());
+		json.writeNumberField("recordNumber", step.getRecordNumber());
+		writeArg(json, "recordId", step.getRecordId());
+		writeArg(json, "param1", step.getParam1());
+		writeArg(json, "param2", step.getParam2());
+		writeArg(json, "elementLocator", step.getElementLocator());
+		writeArg(json, "returnValue", step.getReturnValue());
+		if (step.getTimeSinceLastAction() >= 0) {
+			json.writeNumberField("timeSinceLastActionMs", step.getTimeSinceLastAction() / 1000000L);
+		}
+		if (step.getIssue() != null) {
+			writeArg(json, "issue", String.valueOf(step.getIssue().getMessage()));
+		}
+		json.writeEndObject();
+	}
+
+	private static void writeArg(JsonGenerator json, String name, String value) throws IOException {
+		if (value == null)
+			return;
+		json.writeStringField(name, (value.length() > MAX_ARG_LENGTH) ? value.substring(0, MAX_ARG_LENGTH) + "..." : value);
+	}
+
+	private static boolean isCommandEnd(Step step) {
+		return (step.getTypeOfLog() == Type.AfterAction || step.getTypeOfLog() == Type.AfterGather)
+				&& step.getTimeElapsedStep() >= 0;
+	}
+
+	private static WebDriverInterface interfaceOf(Step step) {
+		return (step.getCmd() != null) ? step.getCmd().getWebDriverInterface() : null;
+	}
+
+	/*
+	 * An "after" step gets created at the end of a command, so its time stamp marks the end
+	 * and the elapsed time leads to the begin of the command.
+	 */
+	private static long startMicros(Step step) {
+		return endMicros(step) - step.getTimeElapsedStep() / 1000L;
+	}
+
+	private static long endMicros(Step step) {
+		return step.getTimeStamp() * 1000L;
+	}
+
+	/**
+	 * Converts JSON files written by {@link FullJSONLogger} into one trace file.
+	 *
+	 * @param args name of the trace file to write followed by one or more JSON files to read
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: ChromeTraceExporter <trace file> <step log file> [<step log file> ...]");
+			return;
+		}
+
+		Map<String, List<Step>> sessions = new LinkedHashMap<>();
+		for (int i = 1; i < args.length; i++) {
+			List<Step> steps = FullJSONLogger.readStepsFromFile(args[i]);
+			if (steps != null) {
+				sessions.put(new File(args[i]).getName(), steps);
+			}
+		}
+		try (Writer writer = new FileWriter(args[0])) {
+			writeTrace(sessions, writer);
+			System.out.println("Done writing trace events to " + args[0]);
+		} catch (IOException e) {
+			System.err.println("Error while writing trace events to " + args[0]);
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Configuration of EventFiringWebDriver and its listeners, as defined in the property file
+ * {@link EventFiringWebDriver#PROPERTIES_FILENAME} and overridden by system properties.
+ * <p>
+ * The file gets read once, on first use, into an immutable snapshot. Looking up a value
+ * therefore costs a volatile read and two map lookups, but no file access. {@link #reload()}
+ * replaces the snapshot; if {@link EventFiringWebDriver#CONFIG_WATCH} is set to "true", this
+ * happens automatically whenever the file gets changed.
+ * <p>
+ * Components read their settings when they get created, hence a changed value only affects
+ * drivers and listeners created afterwards.
+ *
+ * @since 3.0.23
+ */
+public final class Configuration {
+	private static final Configuration INSTANCE = new Configuration(Paths.get(EventFiringWebDriver.PROPERTIES_FILENAME));
+
+	private final Path file;
+	private volatile Map<String, String> snapshot;
+	private WatchService watchService;
+
+	private Configuration(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * @return configuration backed by {@link EventFiringWebDriver#PROPERTIES_FILENAME}
+	 */
+	public static Configuration getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the value of the given property by looking up system properties first
+	 * and then the property file.
+	 *
+	 * @param key
+	 *            property key
+	 * @param defaultValue
+	 *            value to return if the property has not been set
+	 * @return value found or default value
+	 */
+	public String get(String key, String defaultValue) {
+		String value = System.getProperty(key);
+		if (value != null)
+			return value;
+		value = snapshot().get(key);
+		return (value != null) ? value : defaultValue;
+	}
+
+	/**
+	 * @param key
+	 *            property key
+	 * @param defaultValue
+	 *            value to return if the property has not been set or is not a number
+	 * @return value found or default value
+	 */
+	public int getInt(String key, int defaultValue) {
+		String value = get(key, null);
+		if (value == null || value.trim().isEmpty())
+			return defaultValue;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			System.err.println("Ignoring invalid value '" + value + "' of property " + key);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * @param key
+	 *            property key
+	 * @param defaultValue
+	 *            value to return if the property has not been set or is not a number
+	 * @return value found or default value
+	 */
+	public long getLong(String key, long defaultValue) {
+		String value = get(key, null);
+		if (value == null || value.trim().isEmpty())
+			return defaultValue;
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			System.err.println("Ignoring invalid value '" + value + "' of property " + key);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * @param key
+	 *            property key
+	 * @param defaultValue
+	 *            value to return if the property has not been set
+	 * @return true if the value found is "true", ignoring case, or the default value
+	 */
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = get(key, null);
+		if (value == null || value.trim().isEmpty())
+			return defaultValue;
+		return "true".equalsIgnoreCase(value.trim());
+	}
+
+	/**
+	 * Reads the property file again. Lookups running meanwhile keep using the previous snapshot.
+	 */
+	public void reload() {
+		snapshot = load();
+	}
+
+	private Map<String, String> snapshot() {
+		Map<String, String> current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = load();
+					snapshot = current;
+					if (getBoolean(EventFiringWebDriver.CONFIG_WATCH, false)) {
+						startWatching();
+					}
+				}
+			}
+		}
+		return current;
+	}
+
+	private Map<String, String> load() {
+		Properties prop = new Properties();
+		try (InputStream input = Files.newInputStream(file)) {
+			prop.load(input);
+		} catch (NoSuchFileException e) {
+			System.out.println("Unable to load config file " + file + " as it does not exist");
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("Unable to load config file " + file + ": " + e.getMessage());
+		}
+		Map<String, String> values = new HashMap<>();
+		for (String key : prop.stringPropertyNames()) {
+			values.put(key, prop.getProperty(key));
+		}
+		return Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Reloads the property file whenever it gets created, changed or deleted, until
+	 * {@link #stopWatching()} gets called. Does nothing if already watching.
+	 */
+	public synchronized void startWatching() {
+		if (watchService != null)
+			return;
+
+		Path absoluteFile = file.toAbsolutePath();
+		final Path fileName = absoluteFile.getFileName();
+		final WatchService service;
+		try {
+			service = FileSystems.getDefault().newWatchService();
+			absoluteFile.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException e) {
+			System.err.println("Unable to watch config file " + file + ": " + e.getMessage());
+			return;
+		}
+		watchService = service;
+		Thread watcher = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = service.take();
+					boolean changed = false;
+					for (WatchEvent<?> event : key.pollEvents()) {
+						changed |= fileName.equals(event.context());
+					}
+					key.reset();
+					if (changed) {
+						reload();
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				; // stopped watching
+			}
+		}, "Configuration-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+	 * Stops reloading the property file on changes.
+	 */
+	public synchronized void stopWatching() {
+		if (watchService == null)
+			return;
+
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			System.err.println("Unable to stop watching config file " + file + ": " + e.getMessage());
+		}
+		watchService = null;
+	}
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Read-only copy of a DOM subtree, including open and synthetic shadow roots, taken by
+ * {@link EventFiringWebDriver#snapshot(WebElement)} in a single round-trip. Texts, attributes
+ * and elements found by selectors get answered from the copy without talking to the browser.
+ * <p>
+ * A snapshot is valid until the next action gets executed through the EventFiringWebDriver;
+ * afterwards each access throws a {@link StaleElementReferenceException}. Changes of the page
+ * not caused by an action, e.g. by timers, are not reflected.
+ * <p>
+ * Elements get found by a subset of CSS selectors: type, universal, id, class and attribute
+ * selectors ({@code =, ~=, ^=, $=, *=}), descendant and child combinators, and groups separated
+ * by commas. Like the shadow paths of {@link com.salesforce.selenium.support.findby.ShadowPathHelper},
+ * {@code "=>"} continues the search in the shadow roots of the elements found so far, e.g.
+ * {@code "flexipage-component2 => lightning-formatted-text"}. Of the {@link By} locators,
+ * id, name, class name, tag name and CSS selector are supported.
+ * <p>
+ * Texts follow the rules of {@link WebElement#getText()} in a simplified way: hidden elements
+ * have no text, block elements start new lines and white space gets collapsed.
+ *
+ * @since 3.0.23
+ */
+public final class DomSnapshot {
+	private static final Pattern SPACES = Pattern.compile("[ \\t\\r\\f\\u00a0]+");
+	private static final Set<String> BLOCK_TAGS = new HashSet<>(Arrays.asList("address", "article", "aside", "blockquote",
+			"dd", "div", "dl", "dt", "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5",
+			"h6", "header", "hr", "li", "main", "nav", "ol", "p", "pre", "section", "table", "tbody", "td", "tfoot", "th",
+			"thead", "tr", "ul"));
+
+	private final Node root;
+	private final int stepNumber;
+	private final IntSupplier currentStepNumber;
+	private final int size;
+
+	/**
+	 * @param result
+	 *            object returned by the snapshot script
+	 * @param stepNumber
+	 *            step number the snapshot was taken at
+	 * @param currentStepNumber
+	 *            supplier of the current step number of the session
+	 */
+	DomSnapshot(Map<?, ?> result, int stepNumber, IntSupplier currentStepNumber) {
+		this.stepNumber = stepNumber;
+		this.currentStepNumber = currentStepNumber;
+		int[] count = new int[1];
+		this.root = new Node(result, null, null, count);
+		this.size = count[0];
+	}
+
+	/**
+	 * @return true if no action has been executed since the snapshot was taken
+	 */
+	public boolean isValid() {
+		return currentStepNumber.getAsInt() == stepNumber;
+	}
+
+	/**
+	 * @return number of elements in the snapshot
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return element the snapshot was taken of
+	 */
+	public Node getRoot() {
+		checkValid();
+		return root;
+	}
+
+	/**
+	 * @see Node#findElement(String)
+	 */
+	public Node findElement(String selector) {
+		return getRoot().findElement(selector);
+	}
+
+	/**
+	 * @see Node#findElements(String)
+	 */
+	public List<Node> findElements(String selector) {
+		return getRoot().findElements(selector);
+	}
+
+	/**
+	 * @see Node#findElement(By)
+	 */
+	public Node findElement(By by) {
+		return getRoot().findElement(by);
+	}
+
+	/**
+	 * @see Node#findElements(By)
+	 */
+	public List<Node> findElements(By by) {
+		return getRoot().findElements(by);
+	}
+
+	@Override
+	public String toString() {
+		return "DomSnapshot [root=" + root.tagName + ", size=" + size + ", stepNumber=" + stepNumber + "]";
+	}
+
+	private void checkValid() {
+		if (!isValid())
+			throw new StaleElementReferenceException(
+					"Snapshot taken at step " + stepNumber + " is stale as an action has been executed since");
+	}
+
+	/**
+	 * Converts the supported {@link By} locators to selectors.
+	 */
+	static String toSelector(By by) {
+		String locator = by.toString();
+		int colon = locator.indexOf(": ");
+		String type = (colon > 0) ? locator.substring(0, colon) : locator;
+		String value = (colon > 0) ? locator.substring(colon + 2) : "";
+		switch (type) {
+		case "By.id":
+			return "[id=\"" + value.replace("\"", "\\\"") + "\"]";
+		case "By.name":
+			return "[name=\"" + value.replace("\"", "\\\"") + "\"]";
+		case "By.className":
+			return "." + value;
+		case "By.tagName":
+		case "By.cssSelector":
+			return value;
+		default:
+			throw new UnsupportedOperationException("Locator not supported by snapshots: " + locator);
+		}
+	}
+
+	/**
+	 * One element of the snapshot.
+	 */
+	public final class Node {
+		private final String tagName;
+		private final Map<String, String> attributes;
+		private final boolean displayed;
+		private final Node parent;
+		private final Node host;
+		// texts and nodes in document order
+		private final List<Object> children;
+		// null if there is no shadow root
+		private final List<Object> shadowChildren;
+
+		private Node(Map<?, ?> result, Node parent, Node host, int[] count) {
+			count[0]++;
+			this.tagName = String.valueOf(result.get("t"));
+			this.parent = parent;
+			this.host = host;
+			this.displayed = Boolean.TRUE.equals(result.get("d"));
+			Map<String, String> attributes = new LinkedHashMap<>();
+			Object fetched = result.get("a");
+			if (fetched instanceof Map<?, ?>) {
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) fetched).entrySet()) {
+					attributes.put(entry.getKey().toString(), String.valueOf(entry.getValue()));
+				}
+			}
+			this.attributes = Collections.unmodifiableMap(attributes);
+			this.children = toChildren(result.get("c"), this, host, count);
+			this.shadowChildren = (result.get("s") instanceof List<?>) ? toChildren(result.get("s"), null, this, count) : null;
+		}
+
+		private List<Object> toChildren(Object fetched, Node parent, Node host, int[] count) {
+			if (!(fetched instanceof List<?>))
+				return Collections.emptyList();
+			List<Object> toReturn = new ArrayList<>();
+			for (Object child : (List<?>) fetched) {
+				toReturn.add((child instanceof Map<?, ?>) ? new Node((Map<?, ?>) child, parent, host, count) : String.valueOf(child));
+			}
+			return toReturn;
+		}
+
+		/**
+		 * @return lower case tag name
+		 */
+		public String getTagName() {
+			checkValid();
+			return tagName;
+		}
+
+		/**
+		 * @param name
+		 *            name of the attribute
+		 * @return value of the attribute, or null if the element does not have it
+		 */
+		public String getAttribute(String name) {
+			checkValid();
+			return attributes.get(name);
+		}
+
+		/**
+		 * @return all attributes by name
+		 */
+		public Map<String, String> getAttributes() {
+			checkValid();
+			return attributes;
+		}
+
+		/**
+		 * @return true if the element got rendered and is not hidden
+		 */
+		public boolean isDisplayed() {
+			checkValid();
+			return displayed;
+		}
+
+		/**
+		 * @return visible text of the element and its descendants, including the content of
+		 *         shadow roots
+		 */
+		public String getText() {
+			checkValid();
+			StringBuilder buffer = new StringBuilder();
+			appendText(buffer);
+			StringBuilder text = new StringBuilder();
+			for (String line : buffer.toString().split("\n")) {
+				String collapsed = SPACES.matcher(line).replaceAll(" ").trim();
+				if (!collapsed.isEmpty()) {
+					text.append(collapsed).append('\n');
+				}
+			}
+			if (text.length() > 0) {
+				text.setLength(text.length() - 1);
+			}
+			return text.toString();
+		}
+
+		/**
+		 * @return parent element, or null for the root of the snapshot and the top elements of
+		 *         a shadow root
+		 */
+		public Node getParent() {
+			checkValid();
+			return parent;
+		}
+
+		/**
+		 * @return element whose shadow root contains this element, or null if it is not part of
+		 *         a shadow root
+		 */
+		public Node getHost() {
+			checkValid();
+			return host;
+		}
+
+		/**
+		 * @return child elements
+		 */
+		public List<Node> getChildren() {
+			checkValid();
+			return elementsOf(children);
+		}
+
+		/**
+		 * @return top elements of the shadow root, or null if the element has no shadow root
+		 */
+		public List<Node> getShadowChildren() {
+			checkValid();
+			return (shadowChildren != null) ? elementsOf(shadowChildren) : null;
+		}
+
+		/**
+		 * @param selector
+		 *            selector as described by {@link DomSnapshot}
+		 * @return first element matching the selector
+		 * @throws NoSuchElementException
+		 *             if no element matches
+		 */
+		public Node findElement(String selector) {
+			List<Node> found = findElements(selector);
+			if (found.isEmpty())
+				throw new NoSuchElementException("Unable to locate element in snapshot: " + selector);
+			return found.get(0);
+		}
+
+		/**
+		 * @param selector
+		 *            selector as described by {@link DomSnapshot}
+		 * @return all descendants matching the selector in document order
+		 */
+		public List<Node> findElements(String selector) {
+			checkValid();
+			List<Node> scopes = Collections.singletonList(this);
+			boolean inShadow = false;
+			for (String part : selector.split("=>")) {
+				SnapshotSelector compiled = SnapshotSelector.parse(part.trim());
+				List<Node> found = new ArrayList<>();
+				for (Node scope : scopes) {
+					if (!inShadow) {
+						scope.collect(scope.children, compiled, found);
+					} else if (scope.shadowChildren != null) {
+						scope.collect(scope.shadowChildren, compiled, found);
+					}
+				}
+				scopes = found;
+				inShadow = true;
+			}
+			return scopes;
+		}
+
+		/**
+		 * @see #findElement(String)
+		 */
+		public Node findElement(By by) {
+			return findElement(toSelector(by));
+		}
+
+		/**
+		 * @see #findElements(String)
+		 */
+		public List<Node> findElements(By by) {
+			return findElements(toSelector(by));
+		}
+
+		@Override
+		public String toString() {
+			String id = attributes.get("id");
+			return "<" + tagName + ((id != null) ? " id=\"" + id + "\"" : "") + ">";
+		}
+
+		String tagName() {
+			return tagName;
+		}
+
+		String attribute(String name) {
+			return attributes.get(name);
+		}
+
+		Node parent() {
+			return parent;
+		}
+
+		// descendants within the same tree, i.e. without entering shadow roots
+		private void collect(List<Object> nodes, SnapshotSelector selector, List<Node> found) {
+			for (Object child : nodes) {
+				if (child instanceof Node) {
+					Node node = (Node) child;
+					if (selector.matches(node)) {
+						found.add(node);
+					}
+					node.collect(node.children, selector, found);
+				}
+			}
+		}
+
+		private void appendText(StringBuilder buffer) {
+			if (!displayed || "script".equals(tagName) || "style".equals(tagName) || "template".equals(tagName))
+				return;
+			if ("br".equals(tagName)) {
+				buffer.append('\n');
+				return;
+			}
+			boolean block = BLOCK_TAGS.contains(tagName);
+			if (block) {
+				buffer.append('\n');
+			}
+			if (shadowChildren != null) {
+				appendText(buffer, shadowChildren);
+			} else {
+				appendText(buffer, children);
+			}
+			if (block) {
+				buffer.append('\n');
+			}
+		}
+
+		private void appendText(StringBuilder buffer, List<Object> nodes) {
+			for (Object child : nodes) {
+				if (child instanceof Node) {
+					Node node = (Node) child;
+					if ("slot".equals(node.tagName) && node.host != null) {
+						// content of the host assigned to this slot
+						node.host.appendSlotted(buffer, node.attributes.get("name"));
+					} else {
+						node.appendText(buffer);
+					}
+				} else {
+					buffer.append(((String) child).replace('\n', ' '));
+				}
+			}
+		}
+
+		private void appendSlotted(StringBuilder buffer, String slotName) {
+			for (Object child : children) {
+				String assignedTo = (child instanceof Node) ? ((Node) child).attributes.get("slot") : null;
+				if ((slotName == null || slotName.isEmpty()) ? assignedTo == null : slotName.equals(assignedTo)) {
+					appendText(buffer, Collections.singletonList(child));
+				}
+			}
+		}
+	}
+
+	private static List<Node> elementsOf(List<Object> nodes) {
+		List<Node> toReturn = new ArrayList<>();
+		for (Object node : nodes) {
+			if (node instanceof Node) {
+				toReturn.add((Node) node);
+			}
+		}
+		return toReturn;
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Properties of one element as fetched by
+ * {@link EventFiringWebDriver#fetchProperties(List, Set, String...)} together with the
+ * properties of other elements in a single round-trip.
+ * <p>
+ * The properties get computed by JavaScript, which follows the same rules as the driver in
+ * most but not all cases: the text is the trimmed {@code innerText}, an element is displayed if
+ * it has a layout box and is neither hidden nor styled {@code display: none}, and attributes are
+ * read by {@code getAttribute()}, hence they are not mixed up with DOM properties.
+ *
+ * @since 3.0.23
+ */
+public final class ElementProperties {
+	/**
+	 * Properties which can be fetched besides attributes.
+	 */
+	public enum Property {
+		/** see {@link WebElement#getText()} */
+		TEXT,
+		/** see {@link WebElement#getTagName()} */
+		TAG_NAME,
+		/** see {@link WebElement#isDisplayed()} */
+		DISPLAYED,
+		/** see {@link WebElement#isEnabled()} */
+		ENABLED,
+		/** see {@link WebElement#isSelected()} */
+		SELECTED,
+		/** see {@link WebElement#getRect()} */
+		RECT
+	}
+
+	private final WebElement element;
+	private final Map<Property, Object> values;
+	private final Map<String, String> attributes;
+
+	private ElementProperties(WebElement element, Map<Property, Object> values, Map<String, String> attributes) {
+		this.element = element;
+		this.values = values;
+		this.attributes = attributes;
+	}
+
+	/**
+	 * @param element
+	 *            element the properties belong to
+	 * @param properties
+	 *            properties requested
+	 * @param result
+	 *            object returned by the script for this element
+	 * @return typed properties
+	 */
+	static ElementProperties fromScriptResult(WebElement element, Set<Property> properties, Map<?, ?> result) {
+		Map<Property, Object> values = new EnumMap<>(Property.class);
+		for (Property property : properties) {
+			Object value = result.get(property.name());
+			switch (property) {
+			case DISPLAYED:
+			case ENABLED:
+			case SELECTED:
+				values.put(property, Boolean.TRUE.equals(value));
+				break;
+			case RECT:
+				List<?> rect = (List<?>) value;
+				values.put(property, new Rectangle(intValue(rect.get(0)), intValue(rect.get(1)), intValue(rect.get(3)),
+						intValue(rect.get(2))));
+				break;
+			default:
+				values.put(property, (value != null) ? value.toString() : null);
+			}
+		}
+		Map<String, String> attributes = new LinkedHashMap<>();
+		Object fetched = result.get("attributes");
+		if (fetched instanceof Map<?, ?>) {
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) fetched).entrySet()) {
+				attributes.put(entry.getKey().toString(), (entry.getValue() != null) ? entry.getValue().toString() : null);
+			}
+		}
+		return new ElementProperties(element, values, Collections.unmodifiableMap(attributes));
+	}
+
+	/**
+	 * @return element as passed to the EventFiringWebDriver
+	 */
+	public WebElement getElement() {
+		return element;
+	}
+
+	/**
+	 * @return trimmed text, see {@link Property#TEXT}
+	 * @throws IllegalStateException
+	 *             if the text has not been fetched
+	 */
+	public String getText() {
+		return (String) get(Property.TEXT);
+	}
+
+	/**
+	 * @return lower case tag name, see {@link Property#TAG_NAME}
+	 * @throws IllegalStateException
+	 *             if the tag name has not been fetched
+	 */
+	public String getTagName() {
+		return (String) get(Property.TAG_NAME);
+	}
+
+	/**
+	 * @return see {@link Property#DISPLAYED}
+	 * @throws IllegalStateException
+	 *             if the property has not been fetched
+	 */
+	public boolean isDisplayed() {
+		return (Boolean) get(Property.DISPLAYED);
+	}
+
+	/**
+	 * @return see {@link Property#ENABLED}
+	 * @throws IllegalStateException
+	 *             if the property has not been fetched
+	 */
+	public boolean isEnabled() {
+		return (Boolean) get(Property.ENABLED);
+	}
+
+	/**
+	 * @return see {@link Property#SELECTED}
+	 * @throws IllegalStateException
+	 *             if the property has not been fetched
+	 */
+	public boolean isSelected() {
+		return (Boolean) get(Property.SELECTED);
+	}
+
+	/**
+	 * @return location relative to the page and size, see {@link Property#RECT}
+	 * @throws IllegalStateException
+	 *             if the rectangle has not been fetched
+	 */
+	public Rectangle getRect() {
+		return (Rectangle) get(Property.RECT);
+	}
+
+	/**
+	 * @param name
+	 *            name of an attribute fetched
+	 * @return value of the attribute, or null if the element does not have it
+	 * @throws IllegalStateException
+	 *             if the attribute has not been fetched
+	 */
+	public String getAttribute(String name) {
+		if (!attributes.containsKey(name))
+			throw new IllegalStateException("Attribute " + name + " has not been fetched");
+		return attributes.get(name);
+	}
+
+	/**
+	 * @return all attributes fetched, by name
+	 */
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return toString(null);
+	}
+
+	/**
+	 * @param masking
+	 *            masking to apply to texts and attributes, or null
+	 * @return properties to log
+	 */
+	String toString(MaskingEngine masking) {
+		String locator = (masking != null) ? Step.getLocatorFromWebElement(element) : null;
+		StringBuilder buffer = new StringBuilder("{");
+		for (Map.Entry<Property, Object> entry : values.entrySet()) {
+			Object value = entry.getValue();
+			if (masking != null && entry.getKey() == Property.TEXT) {
+				value = masking.maskValues((String) value);
+			}
+			buffer.append(entry.getKey()).append('=').append(value).append(", ");
+		}
+		for (Map.Entry<String, String> entry : attributes.entrySet()) {
+			String value = (masking != null) ? masking.maskAttribute(locator, entry.getKey(), entry.getValue()) : entry.getValue();
+			buffer.append('@').append(entry.getKey()).append('=').append(value).append(", ");
+		}
+		if (buffer.length() > 1) {
+			buffer.setLength(buffer.length() - 2);
+		}
+		return buffer.append('}').toString();
+	}
+
+	private Object get(Property property) {
+		if (!values.containsKey(property))
+			throw new IllegalStateException(property + " has not been fetched");
+		return values.get(property);
+	}
+
+	private static int intValue(Object number) {
+		return (number instanceof Number) ? (int) Math.round(((Number) number).doubleValue()) : 0;
+	}
+}
@@ -16,9 +16,9 @@
 //under the License.
 package com.salesforce.selenium.support.event;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -27,13 +27,21 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
@@ -45,8 +53,10 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.ScriptTimeoutException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
@@ -62,9 +72,12 @@ import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.interactions.TouchScreen;
 import org.openqa.selenium.internal.WrapsElement;
 import org.openqa.selenium.logging.Logs;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
 import com.salesforce.dropin.common.BaseData;
+import com.salesforce.selenium.support.event.ElementProperties.Property;
 import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
 import com.salesforce.selenium.support.event.Step.Type;
 
 /**
@@ -75,6 +88,10 @@ import com.salesforce.selenium.support.event.Step.Type;
  * This is an extended version of org.openqa.selenium.support.events.EventFiringWebDriver. See
  * https://seleniumhq.github.io/selenium/docs/api/java/org/openqa/selenium/support/events/EventFiringWebDriver.html
  * for more information.
+ * <p>
+ * One instance may be used by several threads at once, e.g. by the test and a background
+ * thread taking screenshots. Each action gets a step number of its own, and the command
+ * currently executed as well as the time spent in driver and listeners are tracked per thread.
  * 
  * @since 2.0.0
  */
@@ -96,87 +113,382 @@ public class EventFiringWebDriver
 	 * locator.contains(passwordLocatorValue)
 	 * </code>
 	 * <p>
+	 * Several locators can be given as comma separated list, see {@link MaskingEngine}.
 	 * If this key is not set, the default value is "password".
 	 */
 	public static final String CONFIG_PASSWORD_MASK = "password.locator";
+	/**
+	 * Property key for a regular expression matching sensitive values, e.g. tokens or session ids: {@value}
+	 * <p>
+	 * Each match in typed text, script arguments, attribute values or the page source gets
+	 * replaced by '********' in the log files, see {@link MaskingEngine}. Several patterns can be
+	 * combined by '|', e.g. "Bearer [\\w.-]+|JSESSIONID=\\w+". If this key is not set, only
+	 * values of password fields get masked.
+	 */
+	public static final String CONFIG_MASK_VALUES = "mask.values";
+	/**
+	 * Property key for the port of the Prometheus metrics endpoint: {@value}
+	 * <p>
+	 * If this key is set, the {@link PrometheusExporter} gets started on localhost using
+	 * this port and a {@link PrometheusMetricsListener} gets registered with each
+	 * EventFiringWebDriver instance. If this key is not set, no metrics are collected.
+	 */
+	public static final String CONFIG_PROMETHEUS_PORT = "metrics.prometheus.port";
+	/**
+	 * Property key for the commands logged by {@link FullJSONLogger}: {@value}
+	 * <p>
+	 * Comma separated list of {@link Cmd} names, e.g. "get,clickByElement,sendKeysByElement".
+	 * Commands which are neither logged nor observed by any other listener run without creating
+	 * any steps. If this key is not set, all commands are logged.
+	 */
+	public static final String CONFIG_LOG_COMMANDS = "log.commands";
+	/**
+	 * Property key for the number of events an {@link AsyncEventListener} queues: {@value}
+	 * <p>
+	 * If the queue is full, the test thread waits until the listener has caught up. If this key
+	 * is not set, the default value is {@value AsyncEventListener#DEFAULT_QUEUE_SIZE}.
+	 */
+	public static final String CONFIG_ASYNC_QUEUE_SIZE = "listener.async.queue.size";
+	/**
+	 * Property key for the time in milliseconds a listener may spend on one event: {@value}
+	 * <p>
+	 * A listener exceeding this budget too often in a row, see {@link #CONFIG_LISTENER_MAX_BREACHES},
+	 * gets its events passed on asynchronously from then on. If this key is not set, the time
+	 * spent in each listener only gets measured.
+	 */
+	public static final String CONFIG_LISTENER_BUDGET_MILLIS = "listener.budget.millis";
+	/**
+	 * Property key for the number of budget breaches in a row after which a listener gets its
+	 * events passed on asynchronously, or gets disabled if it is asynchronous already: {@value}
+	 * <p>
+	 * If this key is not set, the default value is {@value ListenerDispatcher#DEFAULT_MAX_BUDGET_BREACHES}.
+	 */
+	public static final String CONFIG_LISTENER_MAX_BREACHES = "listener.budget.breaches";
+	/**
+	 * Property key for the number of exceptions in a row after which a listener gets disabled: {@value}
+	 * <p>
+	 * If this key is set, exceptions thrown by listeners get printed instead of being passed on
+	 * to the test. If this key is not set, they are passed on to the test.
+	 */
+	public static final String CONFIG_LISTENER_MAX_FAILURES = "listener.max.failures";
+	/**
+	 * Property key for when found elements get highlighted if "border.color.enabled" is set: {@value}
+	 * <ul>
+	 * <li>"immediate": right after each lookup, using one script for all elements found</li>
+	 * <li>"deferred": before the next command which is not a lookup, using one script for all
+	 * elements found since the previous command</li>
+	 * <li>"async": on a background thread, without delaying the test at all</li>
+	 * </ul>
+	 * If this key is not set, the default value is "immediate".
+	 */
+	public static final String CONFIG_BORDER_COLOR_MODE = "border.color.mode";
+	/**
+	 * Property key for reloading the property file {@link #PROPERTIES_FILENAME} whenever it
+	 * changes: {@value}
+	 * <p>
+	 * If this key is set to "true", see {@link Configuration#startWatching()}. If this key is not
+	 * set, the file only gets read once.
+	 */
+	public static final String CONFIG_WATCH = "config.watch";
+	/**
+	 * Property key for the number of threads running commands submitted via {@link #async()}: {@value}
+	 * <p>
+	 * If this key is not set, the default value is {@value AsyncCommands#DEFAULT_PARALLELISM}
+	 * for remote drivers and 1 for all others.
+	 */
+	public static final String CONFIG_ASYNC_PARALLELISM = "async.parallelism";
+	/**
+	 * Property key for answering gather commands from a cache until the next action: {@value}
+	 * <p>
+	 * If this key is set to "true", the answers of {@link #getTitle()}, {@link #getCurrentUrl()},
+	 * {@link #getWindowHandle()}, {@link #getWindowHandles()} and of the elements'
+	 * {@link WebElement#getTagName()}, {@link WebElement#getCssValue(String)} and
+	 * {@link WebElement#getText()} get reused until the next action, see {@link ReadCache}.
+	 * Listeners still get their steps, answers from the cache are marked by
+	 * {@link Step#isCached()}. If this key is not set, the default value is "false".
+	 */
+	public static final String CONFIG_READ_CACHE = "cache.reads";
+	/**
+	 * Property key for attaching the timing of pages loaded to the steps which loaded them: {@value}
+	 * <p>
+	 * If this key is set to "true", the after steps of {@link #get(String)}, navigating to,
+	 * back, forward, refreshing and of clicks which loaded a new page carry Navigation Timing
+	 * and Core Web Vitals, see {@link PageTiming}. Collecting them takes another round-trip per
+	 * step, clicks included, which gets accounted as framework time. If this key is not set,
+	 * the default value is "false".
+	 */
+	public static final String CONFIG_PAGE_TIMING = "page.timing";
+
+	// proxy constructor per class of wrapped driver or element, see newProxy()
+	private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			return createProxyConstructor(type);
+		}
+	};
 
 	private static final String BORDER_COLORING_ENABLED = "border.color.enabled";
-	private static final String BORDER_COLORING_PREFIX = "arguments[0].style.border='3px solid ";
-	private static final String BORDER_COLORING_POSTFIX = "'";
+	// arguments[0] are the elements, arguments[1] the colors of their borders
+	private static final String BORDER_COLORING_SCRIPT = "var e = arguments[0], c = arguments[1];"
+			+ " for (var i = 0; i < e.length; i++) { e[i].style.border = '3px solid ' + c[i]; }";
+	private static final int BORDER_COLORING_QUEUE_SIZE = 1000;
+	// arguments[0] are the actions as [type, element, text]; returns null or [index, message] of the failed action
+	private static final String BATCH_SCRIPT = "var a = arguments[0];"
+			+ " function fire(e, t) { e.dispatchEvent(new Event(t, { bubbles: true })); }"
+			+ " for (var i = 0; i < a.length; i++) { var e = a[i][1]; try {"
+			+ " if (a[i][0] === 'click') { e.click(); }"
+			+ " else if (a[i][0] === 'clear') { e.value = ''; fire(e, 'input'); fire(e, 'change'); }"
+			+ " else { e.focus(); e.value = (e.value || '') + a[i][2]; fire(e, 'input'); fire(e, 'change'); }"
+			+ " } catch (x) { return [i, String(x)]; } }"
+			+ " return null;";
+	// arguments[0] are the elements, arguments[1] the names of the properties, arguments[2] the names of the attributes
+	private static final String FETCH_PROPERTIES_SCRIPT = "var e = arguments[0], p = arguments[1], a = arguments[2], r = [];"
+			+ " for (var i = 0; i < e.length; i++) { var el = e[i], o = {}, at = {};"
+			+ " for (var j = 0; j < p.length; j++) { var n = p[j];"
+			+ " if (n === 'TEXT') { o[n] = (el.innerText !== undefined ? el.innerText : el.textContent || '').trim(); }"
+			+ " else if (n === 'TAG_NAME') { o[n] = el.tagName.toLowerCase(); }"
+			+ " else if (n === 'DISPLAYED') { var s = window.getComputedStyle(el);"
+			+ " o[n] = el.getClientRects().length > 0 && s.visibility !== 'hidden' && s.display !== 'none'; }"
+			+ " else if (n === 'ENABLED') { o[n] = !el.disabled; }"
+			+ " else if (n === 'SELECTED') { o[n] = !!(el.checked || el.selected); }"
+			+ " else if (n === 'RECT') { var b = el.getBoundingClientRect();"
+			+ " o[n] = [b.left + window.pageXOffset, b.top + window.pageYOffset, b.width, b.height]; } }"
+			+ " for (var k = 0; k < a.length; k++) { at[a[k]] = el.getAttribute(a[k]); }"
+			+ " o.attributes = at; r.push(o); }"
+			+ " return r;";
+	// arguments[0] is the root element or null for the whole document; returns the tree as
+	// {t: tag name, a: attributes, d: displayed, c: children, s: children of the shadow root}
+	private static final String SNAPSHOT_SCRIPT = "function copy(n) { var o = { t: n.tagName.toLowerCase(), a: {}, c: [] };"
+			+ " for (var i = 0; i < n.attributes.length; i++) { o.a[n.attributes[i].name] = n.attributes[i].value; }"
+			+ " o.d = n.getClientRects().length > 0 && window.getComputedStyle(n).visibility !== 'hidden';"
+			+ " if (o.t !== 'script' && o.t !== 'style') { o.c = children(n); }"
+			+ " if (n.shadowRoot) { o.s = children(n.shadowRoot); }"
+			+ " return o; }"
+			+ " function children(n) { var r = [];"
+			+ " for (var c = n.firstChild; c; c = c.nextSibling) {"
+			+ " if (c.nodeType === 1) { r.push(copy(c)); } else if (c.nodeType === 3) { r.push(c.nodeValue); } }"
+			+ " return r; }"
+			+ " return copy(arguments[0] || document.documentElement);";
+	// arguments are the type of the query ("css" or "xpath"), the query, the kind of condition,
+	// the expected text and the timeout in milliseconds; returns [condition met, element]
+	private static final String WAIT_SCRIPT = "var type = arguments[0], query = arguments[1], kind = arguments[2],"
+			+ " text = arguments[3], timeout = arguments[4], done = arguments[arguments.length - 1], finished = false;"
+			+ " function find() { if (type === 'xpath') { return document.evaluate(query, document, null,"
+			+ " XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; } return document.querySelector(query); }"
+			+ " function check() { var e = find();"
+			+ " if (kind === 'gone') { return e ? null : [true, null]; }"
+			+ " if (!e) { return null; }"
+			+ " if (kind === 'visible' && !(e.getClientRects().length > 0 && window.getComputedStyle(e).visibility !== 'hidden')) { return null; }"
+			+ " if (kind === 'text' && (e.innerText !== undefined ? e.innerText : e.textContent || '').trim() !== text) { return null; }"
+			+ " return [true, e]; }"
+			+ " function finish(r) { if (finished) { return; } finished = true; observer.disconnect();"
+			+ " clearTimeout(timer); clearInterval(poll); done(r); }"
+			+ " function recheck() { if (!finished) { var r = check(); if (r) { finish(r); } } }"
+			+ " var observer = new MutationObserver(recheck);"
+			+ " var timer = setTimeout(function() { finish([false, null]); }, timeout);"
+			// style changes without mutations, e.g. by transitions, only get noticed by polling
+			+ " var poll = setInterval(recheck, 250);"
+			+ " observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+			+ " recheck();";
+	// arguments are the quiet period and the timeout in milliseconds; returns [idle, pending requests]
+	private static final String IDLE_SCRIPT = "var quiet = arguments[0], timeout = arguments[1],"
+			+ " done = arguments[arguments.length - 1], w = window, finished = false, checking = false;"
+			// count pending requests and note the last DOM change, installed once per page
+			+ " var n = w.__dropinNetwork;"
+			+ " if (!n) { n = w.__dropinNetwork = { pending: 0, changed: 0 };"
+			+ " new MutationObserver(function() { n.changed = performance.now(); })"
+			+ ".observe(document, { childList: true, subtree: true, attributes: true, characterData: true });"
+			+ " var send = XMLHttpRequest.prototype.send;"
+			+ " XMLHttpRequest.prototype.send = function() { var counted = true; n.pending++;"
+			+ " this.addEventListener('loadend', function() { if (counted) { counted = false; n.pending--; } });"
+			+ " try { return send.apply(this, arguments); } catch (e) { if (counted) { counted = false; n.pending--; } throw e; } };"
+			+ " if (w.fetch) { var f = w.fetch; w.fetch = function() { n.pending++; var p;"
+			+ " try { p = f.apply(this, arguments); } catch (e) { n.pending--; throw e; }"
+			+ " return p.then(function(r) { n.pending--; return r; }, function(e) { n.pending--; throw e; }); }; } }"
+			+ " function busy() { if (document.readyState !== 'complete' || n.pending > 0) { return true; }"
+			+ " return !!(w.$A && w.$A.clientService && typeof w.$A.clientService.inFlightXHRs === 'function'"
+			+ " && w.$A.clientService.inFlightXHRs() > 0); }"
+			// the quiet period began with the last DOM change, the load event or the last resource
+			// loaded, whatever came last; DOM changes before the first wait are covered by the others
+			+ " function lastActivity() { var last = n.changed, nav = performance.getEntriesByType('navigation')[0],"
+			+ " r = performance.getEntriesByType('resource');"
+			+ " if (nav && nav.loadEventEnd > last) { last = nav.loadEventEnd; }"
+			+ " for (var i = r.length - 1; i >= 0 && i >= r.length - 50; i--) { last = Math.max(last, r[i].responseEnd); }"
+			+ " return last; }"
+			+ " function finish(r) { if (finished) { return; } finished = true; clearTimeout(timer); clearInterval(poll); done(r); }"
+			+ " function quietNow() { return !busy() && performance.now() - lastActivity() >= quiet; }"
+			+ " function recheck() { if (finished || checking || !quietNow()) { return; } checking = true;"
+			+ " var idle = w.requestIdleCallback || function(c) { setTimeout(c, 0); };"
+			+ " idle(function() { checking = false; if (quietNow()) { finish([true, 0]); } }, { timeout: quiet }); }"
+			+ " var timer = setTimeout(function() { finish([false, n.pending]); }, timeout);"
+			+ " var poll = setInterval(recheck, 50);"
+			+ " recheck();";
+	// scripts which only look up an element, like those of FindByJS, and hence leave an idle page idle
+	private static final Pattern LOOKUP_SCRIPT = Pattern.compile(
+			"\\s*return document(\\.shadowRoot|\\.querySelector(All)?\\('[^']*'\\)(\\[\\d+\\])?)+\\s*;?\\s*");
+	// returns the Navigation Timing of the current document and Web Vitals replayed by buffered observers
+	private static final String PAGE_TIMING_SCRIPT = "var done = arguments[arguments.length - 1], p = performance,"
+			+ " r = { timeOrigin: p.timeOrigin || p.timing.navigationStart, lcp: -1, cls: -1, inp: -1 },"
+			+ " n = p.getEntriesByType ? p.getEntriesByType('navigation')[0] : null;"
+			+ " if (n) { r.url = n.name; r.dns = n.domainLookupEnd - n.domainLookupStart; r.ttfb = n.responseStart;"
+			+ " r.domContentLoaded = n.domContentLoadedEventEnd || -1; r.load = n.loadEventEnd || -1; }"
+			+ " var win = 0, first = 0, prev = 0, observers = [];"
+			+ " var handlers = { 'largest-contentful-paint': function(e) { r.lcp = e.startTime; },"
+			+ " 'layout-shift': function(e) { if (e.hadRecentInput) { return; }"
+			+ " if (win && e.startTime - prev < 1000 && e.startTime - first < 5000) { win += e.value; }"
+			+ " else { win = e.value; first = e.startTime; } prev = e.startTime; r.cls = Math.max(r.cls, win); },"
+			+ " 'event': function(e) { if (e.interactionId) { r.inp = Math.max(r.inp, e.duration); } } };"
+			+ " Object.keys(handlers).forEach(function(type) { try {"
+			+ " var o = new PerformanceObserver(function(l) { l.getEntries().forEach(handlers[type]); });"
+			+ " o.observe({ type: type, buffered: true, durationThreshold: 16 }); observers.push([o, type]);"
+			+ " if (type == 'layout-shift') { r.cls = Math.max(r.cls, 0); } } catch (e) { } });"
+			+ " setTimeout(function() { observers.forEach(function(o) { o[0].takeRecords().forEach(handlers[o[1]]);"
+			+ " o[0].disconnect(); }); done(r); }, 0);";
 	private static final String[] BORDER_COLORS = new String[] {"red", "orange", "yellow", "green",	"blue",	"purple", "magenta"};
 
-	private static Properties properties;
 	
 	private final WebDriver driver;
 	private final WebDriverEventListener defaultEventListener;
-	private final List<WebDriverEventListener> eventListeners = new ArrayList<>();
-	private final WebDriverEventListener dispatcher = (WebDriverEventListener) Proxy.newProxyInstance(
-			WebDriverEventListener.class.getClassLoader(), new Class[] { WebDriverEventListener.class },
-			new InvocationHandler() {
-				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-					try {
-						method.invoke(defaultEventListener, args);
-						for (WebDriverEventListener eventListener : eventListeners) {
-							method.invoke(eventListener, args);
-						}
-						return null;
-					} catch (InvocationTargetException e) {
-						throw e.getTargetException();
-					}
-				}
-			});
-
-	private Step currentStep = null;
-	private int stepNumber = 1;
-	private int border_color_index = 0;
+	private final ListenerDispatcher dispatcher = new ListenerDispatcher() {
+		@Override
+		protected void beforeDispatch(Step step) {
+			stampTimings(step);
+		}
+
+		@Override
+		protected void afterDispatch(long nanos) {
+			timings.get().frameworkNanos += nanos;
+		}
+	};
+
+	// the same driver may be used by several threads, e.g. a heartbeat or screenshot thread
+	private final ThreadLocal<Step> currentStep = new ThreadLocal<>();
+	private final ThreadLocal<Timings> timings = ThreadLocal.withInitial(Timings::new);
+	// timing and record numbering of this session
+	private final StepClock clock = new StepClock();
+	private final AtomicInteger stepNumber = new AtomicInteger(1);
+	private final AtomicInteger border_color_index = new AtomicInteger();
+	private final HighlightMode highlightMode = HighlightMode.fromProperty();
+	private final MaskingEngine masking = MaskingEngine.fromConfiguration();
+	// batch opened by the current thread, if any
+	private final ThreadLocal<ActionBatch> batches = new ThreadLocal<>();
+	// created on first use of async()
+	private AsyncCommands asyncCommands;
+	// whether the wrapped driver talks to the browser via HTTP
+	private final boolean remote;
+	private final boolean pageTimingEnabled = Configuration.getInstance().getBoolean(CONFIG_PAGE_TIMING, false);
+	// time origin of the last document whose timing got collected
+	private volatile double lastTimeOrigin = -1d;
+	// step number and quiet period at which the page was last seen idle, carried over lookup
+	// scripts; a concurrent wait for another quiet period may cause one wait too many or too few,
+	// but never a wrong answer
+	private volatile int idleStepNumber = -1;
+	private volatile long idleQuietMillis;
+	// null if gather commands don't get cached
+	private final ReadCache readCache = Configuration.getInstance().getBoolean(CONFIG_READ_CACHE, false) ? new ReadCache() : null;
+	// elements waiting to be highlighted in deferred mode
+	private final List<WebElement> pendingHighlights = new ArrayList<>();
+	// highlighting thread in async mode, created on first use
+	private volatile ExecutorService highlighter;
+	// implicit wait in milliseconds as last set via manage().timeouts().implicitlyWait()
+	private volatile long implicitWaitMillis = 0L;
+	// wrappers get created on first use and reused for the whole session; they are immutable,
+	// hence creating one twice by concurrent threads does no harm
+	private EventFiringTargetLocator targetLocatorWrapper;
+	private EventFiringNavigation navigationWrapper;
+	private EventFiringOptions optionsWrapper;
+	private EventFiringKeyboard keyboardWrapper;
+	private EventFiringMouse mouseWrapper;
+	private StepCountingTouchScreen touchWrapper;
+	// wrapper per element; an element stays in here as long as its wrapper is in use
+	private final Map<WebElement, WeakReference<EventFiringWebElement>> elementWrappers = new WeakHashMap<>();
 	
 	private final BaseData<String> data;
 
 	public EventFiringWebDriver(final WebDriver driver, String testName) {
 		data = new WebDriverConfigData();
 		data.setData(WebDriverConfigData.KEY_TESTNAME, testName);
+		remote = driver instanceof RemoteWebDriver;
 
-		Class<?>[] allInterfaces = extractInterfaces(driver);
-
-		this.driver = (WebDriver) Proxy.newProxyInstance(WebDriverEventListener.class.getClassLoader(), allInterfaces,
-				new InvocationHandler() {
-					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-						if ("getWrappedDriver".equals(method.getName())) {
-							return driver;
-						}
+		this.driver = (WebDriver) newProxy(driver, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ("getWrappedDriver".equals(method.getName())) {
+					return driver;
+				}
+				if (method.getDeclaringClass() != Object.class && highlightMode == HighlightMode.DEFERRED) {
+					flushHighlights(method.getName());
+				}
 
-						try {
-							return method.invoke(driver, args);
-						} catch (InvocationTargetException e) {
-							if (currentStep != null) {
-								currentStep.setIssue(e);
-								dispatcher.onException(currentStep, currentStep.getCmd(), e.getTargetException());
-							} else {
-								// create a dummy step
-								Step step = new Step(Type.Exception, stepNumber, Cmd.quit);
-								step.setIssue(e);
-								dispatcher.onException(step, Cmd.quit, e.getTargetException());
-							}
-							throw e.getTargetException();
-						}
+				Object result;
+				long start = System.nanoTime();
+				try {
+					result = method.invoke(driver, args);
+				} catch (InvocationTargetException e) {
+					timings.get().driverNanos += System.nanoTime() - start;
+					if (currentStep.get() != null) {
+						// commands nobody listens to run without a step
+						Step step = createExceptionStep(e.getTargetException());
+						dispatcher.onException(step, step.getCmd(), e.getTargetException());
 					}
-				});
+					throw e.getTargetException();
+				}
+				timings.get().driverNanos += System.nanoTime() - start;
+				return result;
+			}
+		});
 		// standard listener which writes all events to JSON files
 		defaultEventListener = new FullJSONLogger(data.getData("testName"));
+		dispatcher.register(defaultEventListener);
+		registerMetricsListenerIfConfigured();
+	}
+
+	private void registerMetricsListenerIfConfigured() {
+		String port = getProperty(CONFIG_PROMETHEUS_PORT, null);
+		if (port == null || port.trim().isEmpty())
+			return;
+
+		try {
+			PrometheusExporter.start(Integer.parseInt(port.trim()));
+			register(new PrometheusMetricsListener());
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("Unable to start Prometheus metrics endpoint on port " + port + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates a proxy implementing all interfaces of the given object, using the proxy
+	 * constructor cached for the object's class.
+	 */
+	private static Object newProxy(Object object, InvocationHandler handler) {
+		try {
+			return PROXY_CONSTRUCTORS.get(object.getClass()).newInstance(handler);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to create proxy for " + object.getClass().getName(), e);
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	private static Constructor<?> createProxyConstructor(Class<?> clazz) {
+		Class<?> proxyClass = Proxy.getProxyClass(WebDriverEventListener.class.getClassLoader(), extractInterfaces(clazz));
+		try {
+			return proxyClass.getConstructor(InvocationHandler.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Unable to find constructor of proxy for " + clazz.getName(), e);
+		}
 	}
 
-	private Class<?>[] extractInterfaces(Object object) {
+	private static Class<?>[] extractInterfaces(Class<?> clazz) {
 		Set<Class<?>> allInterfaces = new HashSet<>();
 		allInterfaces.add(WrapsDriver.class);
-		if (object instanceof WebElement) {
+		if (WebElement.class.isAssignableFrom(clazz)) {
 			allInterfaces.add(WrapsElement.class);
 		}
-		extractInterfaces(allInterfaces, object.getClass());
+		extractInterfaces(allInterfaces, clazz);
 
 		return allInterfaces.toArray(new Class<?>[allInterfaces.size()]);
 	}
 
-	private void extractInterfaces(Set<Class<?>> addTo, Class<?> clazz) {
+	private static void extractInterfaces(Set<Class<?>> addTo, Class<?> clazz) {
 		if (Object.class.equals(clazz)) {
 			return; // Done
 		}
@@ -192,7 +504,7 @@ public class EventFiringWebDriver
 	 * @return this for method chaining.
 	 */
 	public EventFiringWebDriver register(WebDriverEventListener eventListener) {
-		eventListeners.add(eventListener);
+		dispatcher.register(eventListener);
 		return this;
 	}
 
@@ -202,10 +514,20 @@ public class EventFiringWebDriver
 	 * @return this for method chaining.
 	 */
 	public EventFiringWebDriver unregister(WebDriverEventListener eventListener) {
-		eventListeners.remove(eventListener);
+		// the default listener stays registered for the whole session
+		if (eventListener != defaultEventListener) {
+			dispatcher.unregister(eventListener);
+		}
 		return this;
 	}
 
+	/**
+	 * @return time spent in and state of each registered listener
+	 */
+	public List<ListenerDispatcher.ListenerStats> getListenerStats() {
+		return dispatcher.getListenerStats();
+	}
+
 	public WebDriver getWrappedDriver() {
 		if (driver instanceof WrapsDriver) {
 			return ((WrapsDriver) driver).getWrappedDriver();
@@ -228,27 +550,42 @@ public class EventFiringWebDriver
 
 	@Override
 	public void close() {
-		Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.close);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.close)) {
+			runUnobserved(driver::close);
+			return;
+		}
+
+		int number = stepNumber.getAndIncrement();
+		Step stepBefore = new Step(Type.BeforeAction, number, Cmd.close, clock);
 		dispatcher.beforeClose(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
 		driver.close();
-		Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.close);
+		Step stepAfter = new Step(Type.AfterAction, number, Cmd.close, clock);
 		dispatcher.afterClose(stepAfter);
 	}
 
 	@Override
 	public WebElement findElement(By by) {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.findElementByWebDriver);
-		stepBefore.setParam1(Step.getLocatorFromBy(by));
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.findElementByWebDriver)) {
+			WebElement returnedElement = readUnobserved(() -> driver.findElement(by));
+			highlightElement(returnedElement);
+			return createWebElement(returnedElement);
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.findElementByWebDriver, clock);
+		stepBefore.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
 		dispatcher.beforeFindElementByWebDriver(stepBefore, by);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
 		WebElement returnedElement = driver.findElement(by);
 
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.findElementByWebDriver);
-		stepAfter.setParam1(Step.getLocatorFromBy(by));
-		stepAfter.setReturnValue(Step.getLocatorFromWebElement(returnedElement));
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.findElementByWebDriver, clock);
+		stepAfter.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
+		stepAfter.setLazily(Field.RETURN_VALUE, () -> Step.getLocatorFromWebElement(returnedElement));
 		stepAfter.setReturnObject(returnedElement);
 		dispatcher.afterFindElementByWebDriver(stepAfter, returnedElement, by);
 		highlightElement(returnedElement);
@@ -257,15 +594,27 @@ public class EventFiringWebDriver
 
 	@Override
 	public List<WebElement> findElements(By by) {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.findElementsByWebDriver);
-		stepBefore.setParam1(Step.getLocatorFromBy(by));
-		dispatcher.beforeFindElementByWebDriver(stepBefore, by);
-		currentStep = stepBefore;
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.findElementsByWebDriver)) {
+			List<WebElement> returnedElements = readUnobserved(() -> driver.findElements(by));
+			List<WebElement> returnedAndWrappedElements = new ArrayList<>(returnedElements.size());
+			for (WebElement element : returnedElements) {
+				returnedAndWrappedElements.add(createWebElement(element));
+			}
+			highlightElements(returnedElements);
+			return returnedAndWrappedElements;
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.findElementsByWebDriver, clock);
+		stepBefore.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
+		dispatcher.beforeFindElementsByWebDriver(stepBefore, by);
+		currentStep.set(stepBefore);
 
 		List<WebElement> returnedElements = driver.findElements(by);
 
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.findElementsByWebDriver);
-		stepAfter.setParam1(Step.getLocatorFromBy(by));
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.findElementsByWebDriver, clock);
+		stepAfter.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
 		if (returnedElements.size() > 0) {
 			if (returnedElements.size() == 1)
 				stepAfter.setReturnValue(Step.getLocatorFromWebElement(returnedElements.get(0)));
@@ -279,34 +628,49 @@ public class EventFiringWebDriver
 		List<WebElement> returnedAndWrappedElements = new ArrayList<>(returnedElements.size());
 		for (WebElement element : returnedElements) {
 			returnedAndWrappedElements.add(createWebElement(element));
-			highlightElement(element);
 		}
+		highlightElements(returnedElements);
 		return returnedAndWrappedElements;
 	}
 
 	@Override
 	public void get(String url) {
-		Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.get);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.get)) {
+			runUnobserved(() -> driver.get(url));
+			return;
+		}
+
+		int number = stepNumber.getAndIncrement();
+		Step stepBefore = new Step(Type.BeforeAction, number, Cmd.get, clock);
 		stepBefore.setParam1(url);
 		dispatcher.beforeGet(stepBefore, url);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
 		driver.get(url);
 
-		Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.get);
+		Step stepAfter = new Step(Type.AfterAction, number, Cmd.get, clock);
+		stepAfter.setPageTiming(collectPageTiming(false));
 		stepAfter.setParam1(url);
 		dispatcher.afterGet(stepAfter, url);
 	}
 
 	@Override
 	public String getCurrentUrl() {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getCurrentUrl);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.getCurrentUrl)) {
+			return readUnobserved(() -> read(null, Cmd.getCurrentUrl, null, driver::getCurrentUrl));
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getCurrentUrl, clock);
 		dispatcher.beforeGetCurrentUrl(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
-		String url = driver.getCurrentUrl();
+		String url = read(null, Cmd.getCurrentUrl, null, driver::getCurrentUrl);
 
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getCurrentUrl);
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.getCurrentUrl, clock);
+		stepAfter.setCached(stepBefore.isCached());
 		stepAfter.setReturnValue(url);
 		dispatcher.afterGetCurrentUrl(stepAfter, url);
 		return url; 
@@ -314,13 +678,20 @@ public class EventFiringWebDriver
 
 	@Override
 	public String getTitle() {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getTitle);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.getTitle)) {
+			return readUnobserved(() -> read(null, Cmd.getTitle, null, driver::getTitle));
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getTitle, clock);
 		dispatcher.beforeGetTitle(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
-		String title = driver.getTitle();
+		String title = read(null, Cmd.getTitle, null, driver::getTitle);
 		
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getTitle);
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.getTitle, clock);
+		stepAfter.setCached(stepBefore.isCached());
 		stepAfter.setReturnValue(title);
 		dispatcher.afterGetTitle(stepAfter, title);
 		return title;
@@ -328,13 +699,20 @@ public class EventFiringWebDriver
 
 	@Override
 	public String getWindowHandle() {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getWindowHandle);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.getWindowHandle)) {
+			return readUnobserved(() -> read(null, Cmd.getWindowHandle, null, driver::getWindowHandle));
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getWindowHandle, clock);
 		dispatcher.beforeGetWindowHandle(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
-		String handle = driver.getWindowHandle();
+		String handle = read(null, Cmd.getWindowHandle, null, driver::getWindowHandle);
 
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getWindowHandle);
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.getWindowHandle, clock);
+		stepAfter.setCached(stepBefore.isCached());
 		stepAfter.setReturnValue(handle);
 		dispatcher.afterGetWindowHandle(stepAfter, handle);
 		return handle;
@@ -342,13 +720,20 @@ public class EventFiringWebDriver
 
 	@Override
 	public Set<String> getWindowHandles() {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getWindowHandles);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.getWindowHandles)) {
+			return readUnobserved(() -> read(null, Cmd.getWindowHandles, null, driver::getWindowHandles));
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getWindowHandles, clock);
 		dispatcher.beforeGetWindowHandles(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
-		Set<String> handles = driver.getWindowHandles();
+		Set<String> handles = read(null, Cmd.getWindowHandles, null, driver::getWindowHandles);
 		
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getWindowHandles);
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.getWindowHandles, clock);
+		stepAfter.setCached(stepBefore.isCached());
 		if ((handles != null) && (handles.size() > 0)) {
 			StringBuffer sb = new StringBuffer();
 			for (String h : handles) {
@@ -372,56 +757,77 @@ public class EventFiringWebDriver
 	 */
 	@Override
 	public void quit() {
-		Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.quit);
+		flushBatch();
+		stopHighlighting();
+		synchronized (this) {
+			if (asyncCommands != null) {
+				asyncCommands.shutdown();
+			}
+		}
+		if (!dispatcher.isObserved(Cmd.quit)) {
+			runUnobserved(this::quitDriver);
+			closeListeners();
+			return;
+		}
+
+		int number = stepNumber.getAndIncrement();
+		Step stepBefore = new Step(Type.BeforeAction, number, Cmd.quit, clock);
 		dispatcher.beforeQuit(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
-		try {
-			// occasionally the driver instance "dies" during quitting,
-			// hence throwing a nasty exception which gets TestNG/JUnit into
-			// limbo mode.
-			driver.quit();
-		} catch (Throwable t) {
-			// It's benign to catch and swallow here because you can't do anything
-			// useful with this driver instance anyway.
-			System.err.println("Exception while quitting WebDriver instance: " + t.getMessage());
-			t.printStackTrace();
-		}
+		quitDriver();
 
-		Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.quit);
+		Step stepAfter = new Step(Type.AfterAction, number, Cmd.quit, clock);
 		dispatcher.afterQuit(stepAfter);
 		closeListeners();
 	}
 
 	@Override
 	public String getPageSource() {
-		Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getPageSource);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.getPageSource)) {
+			return readUnobserved(driver::getPageSource);
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getPageSource, clock);
 		dispatcher.beforeGetPageSource(stepBefore);
-		currentStep = stepBefore;
+		currentStep.set(stepBefore);
 
 		String source = driver.getPageSource();
 
-		Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getPageSource);
-		stepAfter.setReturnValue(source);
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.getPageSource, clock);
+		stepAfter.setLazily(Field.RETURN_VALUE, () -> masking.maskValues(source));
 		dispatcher.afterGetPageSource(stepAfter, source);
 		return source;
 	}
 
 	@Override
 	public Object executeScript(String script, Object... args) {
+		flushBatch();
 		if (driver instanceof JavascriptExecutor) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.executeScript);
-			stepBefore.setParam1(script);
-			// TODO handle args
+			if (!dispatcher.isObserved(Cmd.executeScript)) {
+				int number = stepNumber.get();
+				Object result = callUnobserved(() -> ((JavascriptExecutor) driver).executeScript(script, unpackWrappedArgs(args)));
+				keepIdle(script, number);
+				return result;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.executeScript, clock);
+			stepBefore.setLazily(Field.PARAM1, () -> masking.maskValues(script));
+			stepBefore.setLazily(Field.PARAM2, () -> masking.maskArguments(args));
 			dispatcher.beforeExecuteScript(stepBefore, script, args);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Object[] usedArgs = unpackWrappedArgs(args);
 			Object result = ((JavascriptExecutor) driver).executeScript(script, usedArgs);
+			keepIdle(script, number);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.executeScript);
-			stepAfter.setParam1(script);
-			// TODO handle args and returned result
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.executeScript, clock);
+			stepAfter.setLazily(Field.PARAM1, () -> masking.maskValues(script));
+			stepAfter.setLazily(Field.PARAM2, () -> masking.maskArguments(args));
+			// TODO handle returned result
 			dispatcher.afterExecuteScript(stepAfter, script, args);
 			return result;
 		}
@@ -430,19 +836,26 @@ public class EventFiringWebDriver
 
 	@Override
 	public Object executeAsyncScript(String script, Object... args) {
+		flushBatch();
 		if (driver instanceof JavascriptExecutor) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.executeAsyncScript);
-			stepBefore.setParam1(script);
-			// TODO handle args
+			if (!dispatcher.isObserved(Cmd.executeAsyncScript)) {
+				return callUnobserved(() -> ((JavascriptExecutor) driver).executeAsyncScript(script, unpackWrappedArgs(args)));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.executeAsyncScript, clock);
+			stepBefore.setLazily(Field.PARAM1, () -> masking.maskValues(script));
+			stepBefore.setLazily(Field.PARAM2, () -> masking.maskArguments(args));
 			dispatcher.beforeExecuteAsyncScript(stepBefore, script, args);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Object[] usedArgs = unpackWrappedArgs(args);
 			Object result = ((JavascriptExecutor) driver).executeAsyncScript(script, usedArgs);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.executeAsyncScript);
-			stepAfter.setParam1(script);
-			// TODO handle args and returned result
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.executeAsyncScript, clock);
+			stepAfter.setLazily(Field.PARAM1, () -> masking.maskValues(script));
+			stepAfter.setLazily(Field.PARAM2, () -> masking.maskArguments(args));
+			// TODO handle returned result
 			dispatcher.afterExecuteAsyncScript(stepAfter, script, args);
 			return result;
 		}
@@ -450,10 +863,17 @@ public class EventFiringWebDriver
 	}
 
 	private Object[] unpackWrappedArgs(Object... args) {
-		// Walk the args: the various drivers expect unpacked versions of the elements
-		Object[] usedArgs = new Object[args.length];
+		// Walk the args: the various drivers expect unpacked versions of the elements;
+		// arrays, lists and maps only get copied if they contain wrapped elements
+		Object[] usedArgs = args;
 		for (int i = 0; i < args.length; i++) {
-			usedArgs[i] = unpackWrappedElement(args[i]);
+			Object unpacked = unpackWrappedElement(args[i]);
+			if (unpacked != args[i]) {
+				if (usedArgs == args) {
+					usedArgs = args.clone();
+				}
+				usedArgs[i] = unpacked;
+			}
 		}
 		return usedArgs;
 	}
@@ -461,18 +881,33 @@ public class EventFiringWebDriver
 	private Object unpackWrappedElement(Object arg) {
 		if (arg instanceof List<?>) {
 			List<?> aList = (List<?>) arg;
-			List<Object> toReturn = new ArrayList<>();
+			List<Object> toReturn = null;
+			int i = 0;
 			for (Object anAList : aList) {
-				toReturn.add(unpackWrappedElement(anAList));
+				Object unpacked = unpackWrappedElement(anAList);
+				if (toReturn == null && unpacked != anAList) {
+					toReturn = new ArrayList<>(aList.size());
+					toReturn.addAll(aList.subList(0, i));
+				}
+				if (toReturn != null) {
+					toReturn.add(unpacked);
+				}
+				i++;
 			}
-			return toReturn;
+			return (toReturn != null) ? toReturn : arg;
 		} else if (arg instanceof Map<?, ?>) {
 			Map<?, ?> aMap = (Map<?, ?>) arg;
-			Map<Object, Object> toReturn = new HashMap<>();
-			for (Object key : aMap.keySet()) {
-				toReturn.put(key, unpackWrappedElement(aMap.get(key)));
+			Map<Object, Object> toReturn = null;
+			for (Map.Entry<?, ?> entry : aMap.entrySet()) {
+				Object unpacked = unpackWrappedElement(entry.getValue());
+				if (unpacked != entry.getValue()) {
+					if (toReturn == null) {
+						toReturn = new HashMap<>(aMap);
+					}
+					toReturn.put(entry.getKey(), unpacked);
+				}
 			}
-			return toReturn;
+			return (toReturn != null) ? toReturn : arg;
 		} else if (arg instanceof EventFiringWebElement) {
 			return ((EventFiringWebElement) arg).getWrappedElement();
 		} else {
@@ -483,16 +918,22 @@ public class EventFiringWebDriver
 	// TODO add to WebDriverEventListener interface
 	@Override
 	public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException {
+		flushBatch();
 		if (driver instanceof TakesScreenshot) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.getScreenshotAs);
+			if (!dispatcher.isObserved(Cmd.getScreenshotAs)) {
+				return callUnobserved(() -> ((TakesScreenshot) driver).getScreenshotAs(target));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.getScreenshotAs, clock);
 			String targetString = (target != null) ? target.toString() : null;
 			stepBefore.setParam1(targetString);
 			dispatcher.beforeGetScreenshotAs(stepBefore, target);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			X result = ((TakesScreenshot) driver).getScreenshotAs(target);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.getScreenshotAs);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.getScreenshotAs, clock);
 			stepAfter.setParam1(targetString);
 			dispatcher.afterGetScreenshotAs(stepAfter, target);
 			return result;
@@ -502,27 +943,62 @@ public class EventFiringWebDriver
 
 	@Override
 	public TargetLocator switchTo() {
-		return new EventFiringTargetLocator(driver.switchTo());
+		EventFiringTargetLocator wrapper = targetLocatorWrapper;
+		if (wrapper == null) {
+			wrapper = new EventFiringTargetLocator(driver.switchTo());
+			targetLocatorWrapper = wrapper;
+		}
+		return wrapper;
 	}
 
 	@Override
 	public Navigation navigate() {
-		return new EventFiringNavigation(driver.navigate());
+		EventFiringNavigation wrapper = navigationWrapper;
+		if (wrapper == null) {
+			wrapper = new EventFiringNavigation(driver.navigate());
+			navigationWrapper = wrapper;
+		}
+		return wrapper;
 	}
 
 	@Override
 	public Options manage() {
-		return new EventFiringOptions(driver.manage());
+		EventFiringOptions wrapper = optionsWrapper;
+		if (wrapper == null) {
+			wrapper = new EventFiringOptions(driver.manage());
+			optionsWrapper = wrapper;
+		}
+		return wrapper;
 	}
 
+	/**
+	 * Returns the wrapper of the given element, reusing the one created before for an equal
+	 * element, i.e. the same element in the browser. A reused wrapper takes over the given
+	 * element's string, so that its steps report the locator of this lookup.
+	 */
 	private WebElement createWebElement(WebElement from) {
-		return new EventFiringWebElement(from);
+		synchronized (elementWrappers) {
+			WeakReference<EventFiringWebElement> reference = elementWrappers.get(from);
+			EventFiringWebElement wrapper = (reference != null) ? reference.get() : null;
+			if (wrapper == null) {
+				wrapper = new EventFiringWebElement(from);
+				elementWrappers.put(from, new WeakReference<>(wrapper));
+			} else {
+				wrapper.foundElement = from;
+			}
+			return wrapper;
+		}
 	}
 
 	@Override
 	public Keyboard getKeyboard() {
 		if (driver instanceof HasInputDevices) {
-			return new EventFiringKeyboard();
+			EventFiringKeyboard wrapper = keyboardWrapper;
+			if (wrapper == null) {
+				wrapper = new EventFiringKeyboard();
+				keyboardWrapper = wrapper;
+			}
+			return wrapper;
 		} else {
 			throw new UnsupportedOperationException(
 					"Underlying driver does not implement advanced user interactions yet.");
@@ -532,7 +1008,12 @@ public class EventFiringWebDriver
 	@Override
 	public Mouse getMouse() {
 		if (driver instanceof HasInputDevices) {
-			return new EventFiringMouse();
+			EventFiringMouse wrapper = mouseWrapper;
+			if (wrapper == null) {
+				wrapper = new EventFiringMouse();
+				mouseWrapper = wrapper;
+			}
+			return wrapper;
 		} else {
 			throw new UnsupportedOperationException(
 					"Underlying driver does not implement advanced user interactions yet.");
@@ -542,8 +1023,12 @@ public class EventFiringWebDriver
 	@Override
 	public TouchScreen getTouch() {
 		if (driver instanceof HasTouchScreen) {
-			// We do not support calls to this interface and hence we simply pass on the instance
-			return ((HasTouchScreen) driver).getTouch();
+			StepCountingTouchScreen wrapper = touchWrapper;
+			if (wrapper == null) {
+				wrapper = new StepCountingTouchScreen();
+				touchWrapper = wrapper;
+			}
+			return wrapper;
 		} else {
 			throw new UnsupportedOperationException(
 					"Underlying driver does not implement advanced user interactions yet.");
@@ -553,7 +1038,7 @@ public class EventFiringWebDriver
 	@Override
 	public void perform(Collection<Sequence> actions) {
 		if (driver instanceof Interactive) {
-			((Interactive) driver).perform(actions);
+			performUnreported(() -> ((Interactive) driver).perform(actions));
 			return;
 		}
 		throw new UnsupportedOperationException(
@@ -564,7 +1049,7 @@ public class EventFiringWebDriver
 	@Override
 	public void resetInputState() {
 		if (driver instanceof Interactive) {
-			((Interactive) driver).resetInputState();
+			performUnreported(() -> ((Interactive) driver).resetInputState());
 			return;
 		}
 		throw new UnsupportedOperationException(
@@ -574,6 +1059,7 @@ public class EventFiringWebDriver
 
 	@Override
 	public Capabilities getCapabilities() {
+		flushBatch();
 		if (driver instanceof HasCapabilities) {
 			return ((HasCapabilities) driver).getCapabilities();
 		}
@@ -588,75 +1074,128 @@ public class EventFiringWebDriver
 
 		private final WebElement element;
 		private final WebElement underlyingElement;
+		// equal to the underlying element, but as returned by the latest lookup; its string
+		// carries the locator of that lookup
+		private volatile WebElement foundElement;
 
 		private EventFiringWebElement(final WebElement element) {
-			this.element = (WebElement) Proxy.newProxyInstance(WebDriverEventListener.class.getClassLoader(),
-					extractInterfaces(element), new InvocationHandler() {
-						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-							if (method.getName().equals("getWrappedElement")) {
-								return element;
-							}
-							try {
-								return method.invoke(element, args);
-							} catch (InvocationTargetException e) {
-								Step step = new Step(Type.Exception, stepNumber, Cmd.quit);
-								step.setIssue(e);
-								dispatcher.onException(step, Cmd.quit, e.getTargetException());
-								throw e.getTargetException();
-							}
+			this.element = (WebElement) newProxy(element, new InvocationHandler() {
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if (method.getName().equals("getWrappedElement")) {
+						return element;
+					}
+					if (method.getDeclaringClass() != Object.class && highlightMode == HighlightMode.DEFERRED) {
+						flushHighlights(method.getName());
+					}
+					Object result;
+					long start = System.nanoTime();
+					try {
+						result = method.invoke(element, args);
+					} catch (InvocationTargetException e) {
+						timings.get().driverNanos += System.nanoTime() - start;
+						if (currentStep.get() != null) {
+							// commands nobody listens to run without a step
+							Step step = createExceptionStep(e.getTargetException());
+							dispatcher.onException(step, step.getCmd(), e.getTargetException());
 						}
-					});
+						throw e.getTargetException();
+					}
+					timings.get().driverNanos += System.nanoTime() - start;
+					return result;
+				}
+			});
 			this.underlyingElement = element;
+			this.foundElement = element;
+		}
+
+		/*
+		 * Gets the locator of the latest lookup for a lazily set field of a step, fixed to the
+		 * lookup at the time of calling.
+		 */
+		private Supplier<String> locator() {
+			WebElement found = foundElement;
+			return () -> Step.getLocatorFromWebElement(found);
 		}
 
 		@Override
 		public void click() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.clickByElement);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
-			currentStep = stepBefore;
+			ActionBatch batch = batches.get();
+			if (batch != null) {
+				enqueue(batch, "click", null, Cmd.clickByElement);
+				return;
+			}
+			if (!dispatcher.isObserved(Cmd.clickByElement)) {
+				runUnobserved(element::click);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.clickByElement, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
+			currentStep.set(stepBefore);
 
 			dispatcher.beforeClick(stepBefore, element);
 
 			element.click();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.clickByElement);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.clickByElement, clock);
+			stepAfter.setPageTiming(collectPageTiming(true));
+			stepAfter.setLazily(Field.PARAM1, locator());
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterClick(stepAfter, element);
 		}
 
 		@Override
 		public void clear() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.clear);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			ActionBatch batch = batches.get();
+			if (batch != null) {
+				enqueue(batch, "clear", null, Cmd.clear);
+				return;
+			}
+			if (!dispatcher.isObserved(Cmd.clear)) {
+				runUnobserved(element::clear);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.clear, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeClear(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			element.clear();
 			
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.clear);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.clear, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterClear(stepAfter, element);
 		}
 
 		@Override
 		public WebElement findElement(By by) {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.findElementByElement);
-			stepBefore.setParam1(Step.getLocatorFromBy(by));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.findElementByElement)) {
+				WebElement returnedElement = readUnobserved(() -> element.findElement(by));
+				highlightElement(element);
+				return createWebElement(returnedElement);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.findElementByElement, clock);
+			stepBefore.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeFindElementByElement(stepBefore, by, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebElement returnedElement = element.findElement(by);
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.findElementByElement);
-			stepAfter.setParam1(Step.getLocatorFromBy(by));
-			stepAfter.setReturnValue(Step.getLocatorFromWebElement(returnedElement));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.findElementByElement, clock);
+			stepAfter.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
+			stepAfter.setLazily(Field.RETURN_VALUE, () -> Step.getLocatorFromWebElement(returnedElement));
 			stepAfter.setReturnObject(returnedElement);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterFindElementByElement(stepAfter, returnedElement, by, element);
 			highlightElement(element);
 			return createWebElement(returnedElement);
@@ -664,16 +1203,28 @@ public class EventFiringWebDriver
 
 		@Override
 		public List<WebElement> findElements(By by) {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.findElementsByElement);
-			stepBefore.setParam1(Step.getLocatorFromBy(by));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
-			dispatcher.beforeFindElementByElement(stepBefore, by, element);
-			currentStep = stepBefore;
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.findElementsByElement)) {
+				List<WebElement> returnedElements = readUnobserved(() -> element.findElements(by));
+				List<WebElement> returnedAndWrappedElements = new ArrayList<>(returnedElements.size());
+				for (WebElement element : returnedElements) {
+					returnedAndWrappedElements.add(createWebElement(element));
+				}
+				highlightElements(returnedElements);
+				return returnedAndWrappedElements;
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.findElementsByElement, clock);
+			stepBefore.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
+			dispatcher.beforeFindElementsByElement(stepBefore, by, element);
+			currentStep.set(stepBefore);
 
 			List<WebElement> returnedElements = element.findElements(by);
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.findElementsByElement);
-			stepAfter.setParam1(Step.getLocatorFromBy(by));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.findElementsByElement, clock);
+			stepAfter.setLazily(Field.PARAM1, () -> Step.getLocatorFromBy(by));
 			if (returnedElements.size() > 0) {
 				if (returnedElements.size() == 1)
 					stepAfter.setReturnValue(Step.getLocatorFromWebElement(returnedElements.get(0)));
@@ -682,242 +1233,356 @@ public class EventFiringWebDriver
 							+ (returnedElements.size() - 1) + " more");				
 			}
 			stepAfter.setReturnObject(returnedElements);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterFindElementsByElement(stepAfter, returnedElements, by, element);
 
 			List<WebElement> returnedAndWrappedElements = new ArrayList<>(returnedElements.size());
 			for (WebElement element : returnedElements) {
 				returnedAndWrappedElements.add(createWebElement(element));
-				highlightElement(element);
 			}
+			highlightElements(returnedElements);
 			return returnedAndWrappedElements;
 		}
 
 		@Override
 		public String getAttribute(String name) {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getAttribute);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getAttribute)) {
+				return readUnobserved(() -> element.getAttribute(name));
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getAttribute, clock);
 			stepBefore.setParam1(name);
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetAttribute(stepBefore, name, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			String value = element.getAttribute(name);
 			
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getAttribute);
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getAttribute, clock);
 			stepAfter.setParam1(name);
-			stepAfter.setReturnValue(value);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			Supplier<String> locator = locator();
+			stepAfter.setLazily(Field.RETURN_VALUE, () -> masking.maskAttribute(locator.get(), name, value));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetAttribute(stepAfter, value, name, element);
 			return value;
 		}
 
 		@Override
 		public String getCssValue(String propertyName) {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getCssValue);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getCssValue)) {
+				return readUnobserved(() -> read(underlyingElement, Cmd.getCssValue, propertyName, () -> element.getCssValue(propertyName)));
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getCssValue, clock);
 			stepBefore.setParam1(propertyName);
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetCssValue(stepBefore, propertyName, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
-			String value = element.getCssValue(propertyName);
+			String value = read(underlyingElement, Cmd.getCssValue, propertyName, () -> element.getCssValue(propertyName));
 			
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getCssValue);
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getCssValue, clock);
+			stepAfter.setCached(stepBefore.isCached());
 			stepAfter.setParam1(propertyName);
 			stepAfter.setReturnValue(value);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetCssValue(stepAfter, propertyName, value, element);
 			return value;
 		}
 
 		@Override
 		public String getTagName() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getTagName);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getTagName)) {
+				return readUnobserved(() -> read(underlyingElement, Cmd.getTagName, null, element::getTagName));
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getTagName, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetTagName(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
-			String tagName = element.getTagName();
+			String tagName = read(underlyingElement, Cmd.getTagName, null, element::getTagName);
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getTagName);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getTagName, clock);
+			stepAfter.setCached(stepBefore.isCached());
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue(tagName);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetTagName(stepAfter, tagName, element);
 			return tagName;
 		}
 
 		@Override
 		public String getText() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getText);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getText)) {
+				return readUnobserved(() -> read(underlyingElement, Cmd.getText, null, element::getText));
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getText, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetText(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
-			String text = element.getText();
+			String text = read(underlyingElement, Cmd.getText, null, element::getText);
 			
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getText);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getText, clock);
+			stepAfter.setCached(stepBefore.isCached());
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue(text);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetText(stepAfter, text, element);
 			return text;
 		}
 
 		@Override
 		public boolean isDisplayed() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.isDisplayed);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.isDisplayed)) {
+				return callUnobserved(element::isDisplayed);
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.isDisplayed, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeIsDisplayed(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			boolean isDisplayed = element.isDisplayed();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber++, Cmd.isDisplayed);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.isDisplayed, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue("" + isDisplayed);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterIsDisplayed(stepAfter, isDisplayed, element);
 			return isDisplayed;
 		}
 
 		@Override
 		public boolean isEnabled() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.isEnabled);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.isEnabled)) {
+				return callUnobserved(element::isEnabled);
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.isEnabled, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeIsEnabled(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			boolean isEnabled = element.isEnabled();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber++, Cmd.isEnabled);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.isEnabled, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue("" + isEnabled);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterIsEnabled(stepAfter, isEnabled, element);
 			return isEnabled;
 		}
 
 		@Override
 		public boolean isSelected() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.isSelected);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.isSelected)) {
+				return callUnobserved(element::isSelected);
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.isSelected, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeIsSelected(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			boolean isSelected = element.isSelected();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber++, Cmd.isSelected);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.isSelected, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue("" + isSelected);
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterIsSelected(stepAfter, isSelected, element);
 			return isSelected;
 		}
 
 		@Override
 		public Point getLocation() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getLocation);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getLocation)) {
+				return readUnobserved(element::getLocation);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getLocation, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetLocation(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Point point = element.getLocation();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getLocation);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getLocation, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue(point.toString());
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetLocation(stepAfter, point, element);
 			return point;
 		}
 
 		@Override
 		public Dimension getSize() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getSizeByElement);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getSizeByElement)) {
+				return readUnobserved(element::getSize);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getSizeByElement, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetSizeByElement(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Dimension dimension = element.getSize();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getSizeByElement);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getSizeByElement, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue(dimension.toString());
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetSizeByElement(stepAfter, dimension, element);
 			return dimension;
 		}
 
 		@Override
 		public Rectangle getRect() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getRect);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getRect)) {
+				return readUnobserved(element::getRect);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getRect, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeGetRect(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Rectangle rect = element.getRect();
 
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getRect);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getRect, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			stepAfter.setReturnValue(rect.toString());
-			stepAfter.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.afterGetRect(stepAfter, rect, element);
 			return rect;
 		}
 
 		@Override
 		public void sendKeys(CharSequence... keysToSend) {
-			String param1 = Step.getLocatorFromWebElement(element);
-			String param2 = maskTextIfPassword(param1, keysToSend);
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.sendKeysByElement);
+			ActionBatch batch = batches.get();
+			if (batch != null && ActionBatch.isBatchable(keysToSend)) {
+				enqueue(batch, "sendKeys", String.join("", keysToSend), Cmd.sendKeysByElement);
+				return;
+			}
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.sendKeysByElement)) {
+				runUnobserved(() -> element.sendKeys(keysToSend));
+				return;
+			}
+
+			String param1 = Step.getLocatorFromWebElement(foundElement);
+			String param2 = masking.maskKeys(param1, keysToSend);
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.sendKeysByElement, clock);
 			stepBefore.setParam1(param1);
 			stepBefore.setParam2(param2);
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeSendKeysByElement(stepBefore, element, param2);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			element.sendKeys(keysToSend);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.sendKeysByElement);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.sendKeysByElement, clock);
 			stepAfter.setParam1(param1);
 			stepAfter.setParam2(param2);
 			dispatcher.afterSendKeysByElement(stepAfter, element, param2);
 		}
 
-		private String maskTextIfPassword(String param1, CharSequence... keysToSend) {
-			String param2 = "********";
-			if (!param1.contains(getProperty(CONFIG_PASSWORD_MASK, "password"))) {
-				StringBuffer buffer = new StringBuffer();
-				if ((keysToSend != null) && (keysToSend.length > 0)) {
-					for (int i = 0; i < keysToSend.length; i++) {
-						buffer.append(keysToSend[i]);
-					}
-				}
-				param2 = buffer.toString();
+		/*
+		 * Queues the given command, dispatching its before step right away and its after step
+		 * once the batch got executed.
+		 */
+		private void enqueue(ActionBatch batch, String type, String text, Cmd cmd) {
+			if (!dispatcher.isObserved(cmd)) {
+				runUnobserved(() -> batch.add(new ActionBatch.Action(type, underlyingElement, text, null, null)));
+				return;
+			}
+
+			String param2 = (text != null) ? masking.maskKeys(Step.getLocatorFromWebElement(foundElement), text) : null;
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, cmd, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setParam2(param2);
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
+			switch (cmd) {
+			case clickByElement:
+				dispatcher.beforeClick(stepBefore, element);
+				break;
+			case clear:
+				dispatcher.beforeClear(stepBefore, element);
+				break;
+			default:
+				dispatcher.beforeSendKeysByElement(stepBefore, element, param2);
 			}
-			return param2;
+			currentStep.set(stepBefore);
+
+			batch.add(new ActionBatch.Action(type, underlyingElement, text, stepBefore, stepAfter -> {
+				stepAfter.setLazily(Field.PARAM1, locator());
+				stepAfter.setParam2(param2);
+				stepAfter.setLazily(Field.ELEMENT_LOCATOR, locator());
+				switch (cmd) {
+				case clickByElement:
+					dispatcher.afterClick(stepAfter, element);
+					break;
+				case clear:
+					dispatcher.afterClear(stepAfter, element);
+					break;
+				default:
+					dispatcher.afterSendKeysByElement(stepAfter, element, param2);
+				}
+			}));
 		}
 
 		@Override
 		public void submit() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.submit);
-			stepBefore.setParam1(Step.getLocatorFromWebElement(element));
-			stepBefore.setElementLocator(Step.getLocatorFromWebElement(element));
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.submit)) {
+				runUnobserved(element::submit);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.submit, clock);
+			stepBefore.setLazily(Field.PARAM1, locator());
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, locator());
 			dispatcher.beforeSubmit(stepBefore, element);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			element.submit();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.submit);
-			stepAfter.setParam1(Step.getLocatorFromWebElement(element));
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.submit, clock);
+			stepAfter.setLazily(Field.PARAM1, locator());
 			dispatcher.afterSubmit(stepAfter, element);
 		}
 
@@ -946,7 +1611,7 @@ public class EventFiringWebDriver
 
 		@Override
 		public String toString() {
-			return underlyingElement.toString();
+			return foundElement.toString();
 		}
 
 		public WebDriver getWrappedDriver() {
@@ -960,6 +1625,7 @@ public class EventFiringWebDriver
 
 		@Override
 		public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
+			flushBatch();
 			return element.getScreenshotAs(outputType);
 		}
 	}
@@ -978,37 +1644,61 @@ public class EventFiringWebDriver
 
 		@Override
 		public void back() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.back);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.back)) {
+				runUnobserved(navigation::back);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.back, clock);
 			dispatcher.beforeBack(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			navigation.back();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.back);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.back, clock);
+			stepAfter.setPageTiming(collectPageTiming(false));
 			dispatcher.afterBack(stepAfter);
 		}
 
 		@Override
 		public void forward() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.forward);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.forward)) {
+				runUnobserved(navigation::forward);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.forward, clock);
 			dispatcher.beforeForward(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			navigation.forward();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.forward);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.forward, clock);
+			stepAfter.setPageTiming(collectPageTiming(false));
 			dispatcher.afterForward(stepAfter);
 		}
 
 		@Override
 		public void refresh() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.refresh);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.refresh)) {
+				runUnobserved(navigation::refresh);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.refresh, clock);
 			dispatcher.beforeRefresh(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			navigation.refresh();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.refresh);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.refresh, clock);
+			stepAfter.setPageTiming(collectPageTiming(false));
 			dispatcher.afterRefresh(stepAfter);
 		}
 
@@ -1019,13 +1709,22 @@ public class EventFiringWebDriver
 
 		@Override
 		public void to(String url) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.to);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.to)) {
+				runUnobserved(() -> navigation.to(url));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.to, clock);
 			stepBefore.setParam1(url);
-			currentStep = stepBefore;
+			dispatcher.beforeTo(stepBefore, url);
+			currentStep.set(stepBefore);
 
 			navigation.to(url);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.to);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.to, clock);
+			stepAfter.setPageTiming(collectPageTiming(false));
 			stepAfter.setParam1(url);
 			dispatcher.afterTo(stepAfter, url);
 		}
@@ -1033,7 +1732,9 @@ public class EventFiringWebDriver
 
 	private class EventFiringOptions implements Options {
 
-		private Options options;
+		private final Options options;
+		private EventFiringTimeouts timeoutsWrapper;
+		private EventFiringWindow windowWrapper;
 
 		private EventFiringOptions(Options options) {
 			this.options = options;
@@ -1046,39 +1747,50 @@ public class EventFiringWebDriver
 
 		@Override
 		public void addCookie(Cookie cookie) {
+			flushBatch();
 			options.addCookie(cookie);
 		}
 
 		@Override
 		public void deleteCookieNamed(String name) {
+			flushBatch();
 			options.deleteCookieNamed(name);
 		}
 
 		@Override
 		public void deleteCookie(Cookie cookie) {
+			flushBatch();
 			options.deleteCookie(cookie);
 		}
 
 		@Override
 		public void deleteAllCookies() {
+			flushBatch();
 			options.deleteAllCookies();
 		}
 
 		@Override
 		public Set<Cookie> getCookies() {
+			flushBatch();
 			Set<Cookie> cookies = options.getCookies(); 
 			return cookies;
 		}
 
 		@Override
 		public Cookie getCookieNamed(String name) {
+			flushBatch();
 			Cookie cookie = options.getCookieNamed(name); 
 			return cookie;
 		}
 
 		@Override
 		public Timeouts timeouts() {
-			return new EventFiringTimeouts(options.timeouts());
+			EventFiringTimeouts wrapper = timeoutsWrapper;
+			if (wrapper == null) {
+				wrapper = new EventFiringTimeouts(options.timeouts());
+				timeoutsWrapper = wrapper;
+			}
+			return wrapper;
 		}
 
 		@Override
@@ -1088,7 +1800,12 @@ public class EventFiringWebDriver
 
 		@Override
 		public Window window() {
-			return new EventFiringWindow(options.window());
+			EventFiringWindow wrapper = windowWrapper;
+			if (wrapper == null) {
+				wrapper = new EventFiringWindow(options.window());
+				windowWrapper = wrapper;
+			}
+			return wrapper;
 		}
 	}
 
@@ -1102,15 +1819,24 @@ public class EventFiringWebDriver
 
 		@Override
 		public Timeouts implicitlyWait(long time, TimeUnit unit) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.implicitlyWait);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.implicitlyWait)) {
+				runUnobserved(() -> timeouts.implicitlyWait(time, unit));
+				implicitWaitMillis = TimeUnit.MILLISECONDS.convert(time, unit);
+				return this;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.implicitlyWait, clock);
 			stepBefore.setParam1("" + time);
 			stepBefore.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.beforeImplicitlyWait(stepBefore, time, unit);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			timeouts.implicitlyWait(time, unit);
+			implicitWaitMillis = TimeUnit.MILLISECONDS.convert(time, unit);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.implicitlyWait);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.implicitlyWait, clock);
 			stepAfter.setParam1("" + time);
 			stepAfter.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.afterImplicitlyWait(stepAfter, time, unit);
@@ -1119,15 +1845,22 @@ public class EventFiringWebDriver
 
 		@Override
 		public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.pageLoadTimeout);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.pageLoadTimeout)) {
+				runUnobserved(() -> timeouts.pageLoadTimeout(time, unit));
+				return this;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.pageLoadTimeout, clock);
 			stepBefore.setParam1("" + time);
 			stepBefore.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.beforePageLoadTimeout(stepBefore, time, unit);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			timeouts.pageLoadTimeout(time, unit);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.pageLoadTimeout);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.pageLoadTimeout, clock);
 			stepAfter.setParam1("" + time);
 			stepAfter.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.afterPageLoadTimeout(stepAfter, time, unit);
@@ -1136,14 +1869,21 @@ public class EventFiringWebDriver
 
 		@Override
 		public Timeouts setScriptTimeout(long time, TimeUnit unit) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.setScriptTimeout);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.setScriptTimeout)) {
+				runUnobserved(() -> timeouts.setScriptTimeout(time, unit));
+				return this;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.setScriptTimeout, clock);
 			stepBefore.setParam1("" + time);
 			stepBefore.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.beforeSetScriptTimeout(stepBefore, time, unit);
 
 			timeouts.setScriptTimeout(time, unit);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.pageLoadTimeout);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.setScriptTimeout, clock);
 			stepAfter.setParam1("" + time);
 			stepAfter.setParam2("" + TimeUnit.MILLISECONDS.convert(time, unit));
 			dispatcher.afterSetScriptTimeout(stepAfter, time, unit);
@@ -1157,7 +1897,7 @@ public class EventFiringWebDriver
 
 	private class EventFiringTargetLocator implements TargetLocator {
 
-		private TargetLocator targetLocator;
+		private final TargetLocator targetLocator;
 
 		private EventFiringTargetLocator(TargetLocator targetLocator) {
 			this.targetLocator = targetLocator;
@@ -1165,14 +1905,20 @@ public class EventFiringWebDriver
 
 		@Override
 		public WebElement activeElement() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.activeElement);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.activeElement)) {
+				return createWebElement(callUnobserved(targetLocator::activeElement));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.activeElement, clock);
 			dispatcher.beforeActiveElement(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebElement activeElement = targetLocator.activeElement();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.activeElement);
-			stepAfter.setReturnValue(Step.getLocatorFromWebElement(activeElement));
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.activeElement, clock);
+			stepAfter.setLazily(Field.RETURN_VALUE, () -> Step.getLocatorFromWebElement(activeElement));
 			stepAfter.setReturnObject(activeElement);
 			dispatcher.afterActiveElement(stepAfter, activeElement);
 			return createWebElement(activeElement);
@@ -1180,42 +1926,60 @@ public class EventFiringWebDriver
 
 		@Override
 		public Alert alert() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.alert);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.alert)) {
+				return new StepCountingAlert(callUnobserved(targetLocator::alert));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.alert, clock);
 			dispatcher.beforeAlert(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			Alert alert = targetLocator.alert();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.alert);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.alert, clock);
 			stepAfter.setReturnValue(alert.toString());
 			stepAfter.setReturnObject(alert);
 			dispatcher.afterAlert(stepAfter, alert);
-			return alert;
+			return new StepCountingAlert(alert);
 		}
 
 		@Override
 		public WebDriver defaultContent() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.defaultContent);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.defaultContent)) {
+				return callUnobserved(targetLocator::defaultContent);
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.defaultContent, clock);
 			dispatcher.beforeDefaultContent(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver frameDriver = targetLocator.defaultContent();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.defaultContent);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.defaultContent, clock);
 			dispatcher.afterDefaultContent(stepAfter);
 			return frameDriver;
 		}
 
 		@Override
 		public WebDriver frame(int frameIndex) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.frameByIndex);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.frameByIndex)) {
+				return callUnobserved(() -> targetLocator.frame(frameIndex));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.frameByIndex, clock);
 			stepBefore.setParam1("" + frameIndex);
 			dispatcher.beforeFrameByIndex(stepBefore, frameIndex);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver frameDriver = targetLocator.frame(frameIndex);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.frameByIndex);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.frameByIndex, clock);
 			stepAfter.setParam1("" + frameIndex);
 			dispatcher.afterFrameByIndex(stepAfter, frameIndex);
 			return frameDriver;
@@ -1223,14 +1987,20 @@ public class EventFiringWebDriver
 
 		@Override
 		public WebDriver frame(String frameName) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.frameByName);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.frameByName)) {
+				return callUnobserved(() -> targetLocator.frame(frameName));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.frameByName, clock);
 			stepBefore.setParam1(frameName);
 			dispatcher.beforeFrameByName(stepBefore, frameName);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver frameDriver = targetLocator.frame(frameName);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.frameByName);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.frameByName, clock);
 			stepAfter.setParam1(frameName);
 			dispatcher.afterFrameByName(stepAfter, frameName);
 			return frameDriver;
@@ -1238,14 +2008,20 @@ public class EventFiringWebDriver
 
 		@Override
 		public WebDriver frame(WebElement frameElement) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.frameByElement);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.frameByElement)) {
+				return callUnobserved(() -> targetLocator.frame(frameElement));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.frameByElement, clock);
 			stepBefore.setParam1(frameElement.toString());
 			dispatcher.beforeFrameByElement(stepBefore, frameElement);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver frameDriver = targetLocator.frame(frameElement);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.frameByElement);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.frameByElement, clock);
 			stepAfter.setParam1(frameElement.toString());
 			dispatcher.afterFrameByElement(stepAfter, frameElement);
 			return frameDriver;
@@ -1253,33 +2029,82 @@ public class EventFiringWebDriver
 
 		@Override
 		public WebDriver parentFrame() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.parentFrame);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.parentFrame)) {
+				return callUnobserved(targetLocator::parentFrame);
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.parentFrame, clock);
 			dispatcher.beforeParentFrame(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver frameDriver = targetLocator.parentFrame();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.parentFrame);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.parentFrame, clock);
 			dispatcher.afterParentFrame(stepAfter);
 			return frameDriver;
 		}
 
 		@Override
 		public WebDriver window(String windowName) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.window);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.window)) {
+				return callUnobserved(() -> targetLocator.window(windowName));
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.window, clock);
 			stepBefore.setParam1(windowName);
 			dispatcher.beforeWindow(stepBefore, windowName);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			WebDriver windowDriver = targetLocator.window(windowName);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.window);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.window, clock);
 			stepAfter.setParam1(windowName);
 			dispatcher.afterWindow(stepAfter, windowName);
 			return windowDriver;
 		}
 	}
 
+	/*
+	 * Alert commands don't get reported as steps, but accepting, dismissing and typing get
+	 * executed as actions nevertheless, as they may change the page.
+	 */
+	private class StepCountingAlert implements Alert {
+		private final Alert alert;
+
+		private StepCountingAlert(Alert alert) {
+			this.alert = alert;
+		}
+
+		@Override
+		public void dismiss() {
+			performUnreported(alert::dismiss);
+		}
+
+		@Override
+		public void accept() {
+			performUnreported(alert::accept);
+		}
+
+		@Override
+		public String getText() {
+			return alert.getText();
+		}
+
+		@Override
+		public void sendKeys(String keysToSend) {
+			performUnreported(() -> alert.sendKeys(keysToSend));
+		}
+
+		@Override
+		public String toString() {
+			return alert.toString();
+		}
+	}
+
 	/*---------------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver.Window object.
 	 *---------------------------------------------------------------------------*/
@@ -1293,25 +2118,38 @@ public class EventFiringWebDriver
 
 		@Override
 		public void fullscreen() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.fullscreen);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.fullscreen)) {
+				runUnobserved(window::fullscreen);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.fullscreen, clock);
 			dispatcher.beforeFullscreen(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 			
 			window.fullscreen();
 			
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.fullscreen);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.fullscreen, clock);
 			dispatcher.afterFullscreen(stepAfter);
 		}
 
 		@Override
 		public Point getPosition() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getPosition);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getPosition)) {
+				return readUnobserved(window::getPosition);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getPosition, clock);
 			dispatcher.beforeGetPosition(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 			
 			Point point = window.getPosition();
 			
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getPosition);
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getPosition, clock);
 			stepAfter.setReturnValue(point.toString());
 			stepAfter.setReturnObject(point);
 			dispatcher.afterGetPosition(stepAfter, point);
@@ -1320,13 +2158,19 @@ public class EventFiringWebDriver
 
 		@Override
 		public Dimension getSize() {
-			Step stepBefore = new Step(Type.BeforeGather, stepNumber, Cmd.getSizeByWindow);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.getSizeByWindow)) {
+				return readUnobserved(window::getSize);
+			}
+
+			int number = stepNumber.get();
+			Step stepBefore = new Step(Type.BeforeGather, number, Cmd.getSizeByWindow, clock);
 			dispatcher.beforeGetSizeByWindow(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 			
 			Dimension size = window.getSize();
 			
-			Step stepAfter = new Step(Type.AfterGather, stepNumber, Cmd.getSizeByWindow);
+			Step stepAfter = new Step(Type.AfterGather, number, Cmd.getSizeByWindow, clock);
 			stepAfter.setReturnValue(size.toString());
 			stepAfter.setReturnObject(size);
 			dispatcher.afterGetSizeByWindow(stepAfter, size);
@@ -1335,42 +2179,63 @@ public class EventFiringWebDriver
 
 		@Override
 		public void maximize() {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.maximize);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.maximize)) {
+				runUnobserved(window::maximize);
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.maximize, clock);
 			dispatcher.beforeMaximize(stepBefore);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			window.maximize();
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.maximize);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.maximize, clock);
 			dispatcher.afterMaximize(stepAfter);
 		}
 
 		@Override
 		public void setPosition(Point targetPosition) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.setPosition);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.setPosition)) {
+				runUnobserved(() -> window.setPosition(targetPosition));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.setPosition, clock);
 			String targetPositionString = (targetPosition != null) ? targetPosition.toString() : null;
 			stepBefore.setParam1(targetPositionString);
 			dispatcher.beforeSetPosition(stepBefore, targetPosition);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			window.setPosition(targetPosition);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.setPosition);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.setPosition, clock);
 			stepAfter.setParam1(targetPositionString);
 			dispatcher.afterSetPosition(stepAfter, targetPosition);
 		}
 
 		@Override
 		public void setSize(Dimension targetSize) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.setSizeByWindow);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.setSizeByWindow)) {
+				runUnobserved(() -> window.setSize(targetSize));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.setSizeByWindow, clock);
 			String targetSizeString = (targetSize != null) ? targetSize.toString() : null;
 			stepBefore.setParam1(targetSizeString);
 			dispatcher.beforeSetSize(stepBefore, targetSize);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			window.setSize(targetSize);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.setSizeByWindow);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.setSizeByWindow, clock);
 			stepAfter.setParam1(targetSizeString);
 			dispatcher.afterSetSize(stepAfter, targetSize);
 		}
@@ -1389,45 +2254,66 @@ public class EventFiringWebDriver
 
 		@Override
 		public void sendKeys(CharSequence... keysToSend) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.sendKeysByKeyboard);
-			String keysToSendString = (keysToSend != null) ? keysToSend.toString() : null;
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.sendKeysByKeyboard)) {
+				runUnobserved(() -> keyboard.sendKeys(keysToSend));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.sendKeysByKeyboard, clock);
+			String keysToSendString = (keysToSend != null) ? masking.maskKeys(null, keysToSend) : null;
 			stepBefore.setParam1(keysToSendString);
 			dispatcher.beforeSendKeysByKeyboard(stepBefore, keysToSend);
-			currentStep = stepBefore;
+			currentStep.set(stepBefore);
 
 			keyboard.sendKeys(keysToSend);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.sendKeysByKeyboard);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.sendKeysByKeyboard, clock);
 			stepAfter.setParam1(keysToSendString);
-			dispatcher.afterSendKeysByKeyboard(stepBefore, keysToSend);
+			dispatcher.afterSendKeysByKeyboard(stepAfter, keysToSend);
 		}
 
 		@Override
 		public void pressKey(CharSequence keyToPress) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.pressKey);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.pressKey)) {
+				runUnobserved(() -> keyboard.pressKey(keyToPress));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.pressKey, clock);
 			String keyToPressString = (keyToPress != null) ? keyToPress.toString() : null;
 			stepBefore.setParam1(keyToPressString);
 			dispatcher.beforePressKey(stepBefore, keyToPress);
 
 			keyboard.pressKey(keyToPress);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.pressKey);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.pressKey, clock);
 			stepAfter.setParam1(keyToPressString);
-			dispatcher.afterPressKey(stepBefore, keyToPress);
+			dispatcher.afterPressKey(stepAfter, keyToPress);
 		}
 
 		@Override
 		public void releaseKey(CharSequence keyToRelease) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.releaseKey);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.releaseKey)) {
+				runUnobserved(() -> keyboard.releaseKey(keyToRelease));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.releaseKey, clock);
 			String keyToReleaseString = (keyToRelease != null) ? keyToRelease.toString() : null;
 			stepBefore.setParam1(keyToReleaseString);
 			dispatcher.beforeReleaseKey(stepBefore, keyToRelease);
 
 			keyboard.releaseKey(keyToRelease);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.releaseKey);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.releaseKey, clock);
 			stepAfter.setParam1(keyToReleaseString);
-			dispatcher.afterReleaseKey(stepBefore, keyToRelease);
+			dispatcher.afterReleaseKey(stepAfter, keyToRelease);
 		}
 	}
 
@@ -1444,77 +2330,119 @@ public class EventFiringWebDriver
 
 		@Override
 		public void click(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.clickByMouse);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.clickByMouse)) {
+				runUnobserved(() -> mouse.click(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.clickByMouse, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeClickByMouse(stepBefore, where);
 
 			mouse.click(where);
 			
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.clickByMouse);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.clickByMouse, clock);
 			stepAfter.setParam1(whereString);
-			dispatcher.afterClickByMouse(stepBefore, where);
+			dispatcher.afterClickByMouse(stepAfter, where);
 		}
 
 		@Override
 		public void doubleClick(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.doubleClick);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.doubleClick)) {
+				runUnobserved(() -> mouse.doubleClick(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.doubleClick, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeDoubleClick(stepBefore, where);
 
 			mouse.doubleClick(where);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber, Cmd.doubleClick);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.doubleClick, clock);
 			stepAfter.setParam1(whereString);
 			dispatcher.afterDoubleClick(stepAfter, where);
 		}
 
 		@Override
 		public void mouseDown(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.mouseDown);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.mouseDown)) {
+				runUnobserved(() -> mouse.mouseDown(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.mouseDown, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeMouseDown(stepBefore, where);
 
 			mouse.mouseDown(where);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber, Cmd.mouseDown);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.mouseDown, clock);
 			stepAfter.setParam1(whereString);
 			dispatcher.afterMouseDown(stepAfter, where);
 		}
 
 		@Override
 		public void mouseUp(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.mouseUp);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.mouseUp)) {
+				runUnobserved(() -> mouse.mouseUp(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.mouseUp, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeMouseUp(stepBefore, where);
 
 			mouse.mouseUp(where);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber, Cmd.mouseUp);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.mouseUp, clock);
 			stepAfter.setParam1(whereString);
 			dispatcher.afterMouseUp(stepAfter, where);
 		}
 
 		@Override
 		public void mouseMove(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.mouseMove);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.mouseMove)) {
+				runUnobserved(() -> mouse.mouseMove(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.mouseMove, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeMouseMove(stepBefore, where);
 
 			mouse.mouseMove(where);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber, Cmd.mouseMove);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.mouseMove, clock);
 			stepAfter.setParam1(whereString);
 			dispatcher.afterMouseMove(stepAfter, where);
 		}
 
 		@Override
 		public void mouseMove(Coordinates where, long xOffset, long yOffset) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.mouseMoveWithOffset);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.mouseMoveWithOffset)) {
+				runUnobserved(() -> mouse.mouseMove(where, xOffset, yOffset));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.mouseMoveWithOffset, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			stepBefore.setParam2(xOffset + ", " + yOffset);
@@ -1522,7 +2450,7 @@ public class EventFiringWebDriver
 
 			mouse.mouseMove(where, xOffset, yOffset);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber, Cmd.mouseMoveWithOffset);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.mouseMoveWithOffset, clock);
 			stepAfter.setParam1(whereString);
 			stepAfter.setParam2(xOffset + ", " + yOffset);
 			dispatcher.afterMouseMove(stepAfter, where, xOffset, yOffset);
@@ -1530,43 +2458,786 @@ public class EventFiringWebDriver
 
 		@Override
 		public void contextClick(Coordinates where) {
-			Step stepBefore = new Step(Type.BeforeAction, stepNumber, Cmd.contextClick);
+			flushBatch();
+			if (!dispatcher.isObserved(Cmd.contextClick)) {
+				runUnobserved(() -> mouse.contextClick(where));
+				return;
+			}
+
+			int number = stepNumber.getAndIncrement();
+			Step stepBefore = new Step(Type.BeforeAction, number, Cmd.contextClick, clock);
 			String whereString = (where != null) ? where.toString() : null;
 			stepBefore.setParam1(whereString);
 			dispatcher.beforeContextClick(stepBefore, where);
 
 			mouse.contextClick(where);
 
-			Step stepAfter = new Step(Type.AfterAction, stepNumber++, Cmd.contextClick);
+			Step stepAfter = new Step(Type.AfterAction, number, Cmd.contextClick, clock);
 			stepAfter.setParam1(whereString);
-			dispatcher.afterContextClick(stepBefore, where);
+			dispatcher.afterContextClick(stepAfter, where);
+		}
+	}
+
+	/*---------------------------------------------------------------------------
+	 * Section for all commands called directly from TouchScreen object.
+	 *---------------------------------------------------------------------------*/
+
+	/*
+	 * Touch commands don't get reported as steps, but get executed as actions nevertheless.
+	 */
+	private class StepCountingTouchScreen implements TouchScreen {
+		private final TouchScreen touch;
+
+		private StepCountingTouchScreen() {
+			this.touch = ((HasTouchScreen) driver).getTouch();
+		}
+
+		@Override
+		public void singleTap(Coordinates where) {
+			performUnreported(() -> touch.singleTap(where));
+		}
+
+		@Override
+		public void down(int x, int y) {
+			performUnreported(() -> touch.down(x, y));
+		}
+
+		@Override
+		public void up(int x, int y) {
+			performUnreported(() -> touch.up(x, y));
+		}
+
+		@Override
+		public void move(int x, int y) {
+			performUnreported(() -> touch.move(x, y));
+		}
+
+		@Override
+		public void scroll(Coordinates where, int xOffset, int yOffset) {
+			performUnreported(() -> touch.scroll(where, xOffset, yOffset));
+		}
+
+		@Override
+		public void doubleTap(Coordinates where) {
+			performUnreported(() -> touch.doubleTap(where));
+		}
+
+		@Override
+		public void longPress(Coordinates where) {
+			performUnreported(() -> touch.longPress(where));
+		}
+
+		@Override
+		public void scroll(int xOffset, int yOffset) {
+			performUnreported(() -> touch.scroll(xOffset, yOffset));
+		}
+
+		@Override
+		public void flick(int xSpeed, int ySpeed) {
+			performUnreported(() -> touch.flick(xSpeed, ySpeed));
+		}
+
+		@Override
+		public void flick(Coordinates where, int xOffset, int yOffset, int speed) {
+			performUnreported(() -> touch.flick(where, xOffset, yOffset, speed));
+		}
+	}
+
+	/**
+	 * Opens a batch for the current thread, see {@link ActionBatch}.
+	 * 
+	 * @return new batch, to be closed by the caller
+	 * @throws IllegalStateException
+	 *             if the current thread has opened a batch already
+	 */
+	public ActionBatch batch() {
+		if (!(driver instanceof JavascriptExecutor))
+			throw new UnsupportedOperationException("Underlying driver instance does not support executing javascript");
+		if (batches.get() != null)
+			throw new IllegalStateException("A batch has been opened by this thread already");
+
+		ActionBatch batch = new ActionBatch(this);
+		batches.set(batch);
+		return batch;
+	}
+
+	/**
+	 * Gets the facade for running commands in parallel, see {@link AsyncCommands}.
+	 * 
+	 * @return facade, the same for the whole session
+	 */
+	public synchronized AsyncCommands async() {
+		if (asyncCommands == null) {
+			asyncCommands = new AsyncCommands(this);
+		}
+		return asyncCommands;
+	}
+
+	/**
+	 * Gets the cache answering gather commands, see {@link #CONFIG_READ_CACHE}.
+	 * 
+	 * @return cache, or null if gather commands don't get cached
+	 */
+	public ReadCache getReadCache() {
+		return readCache;
+	}
+
+	/**
+	 * Fetches properties and attributes of all given elements by a single script instead of
+	 * calling each getter of each element, see {@link ElementProperties}. Listeners get one
+	 * pair of steps for the whole fetch.
+	 * 
+	 * @param elements
+	 *            elements returned by this driver
+	 * @param properties
+	 *            properties to fetch
+	 * @param attributeNames
+	 *            names of the attributes to fetch
+	 * @return properties in the order of the elements
+	 */
+	public List<ElementProperties> fetchProperties(List<WebElement> elements, Set<Property> properties, String... attributeNames) {
+		if (!(driver instanceof JavascriptExecutor))
+			throw new UnsupportedOperationException("Underlying driver instance does not support executing javascript");
+		Set<Property> requested = properties.isEmpty() ? EnumSet.noneOf(Property.class) : EnumSet.copyOf(properties);
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.fetchProperties)) {
+			return readUnobserved(() -> fetch(elements, requested, attributeNames));
+		}
+
+		int number = stepNumber.get();
+		String fetched = describeFetch(requested, attributeNames);
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.fetchProperties, clock);
+		stepBefore.setParam1(fetched);
+		stepBefore.setParam2(String.valueOf(elements.size()));
+		dispatcher.beforeFetchProperties(stepBefore, elements);
+		currentStep.set(stepBefore);
+
+		List<ElementProperties> result = fetch(elements, requested, attributeNames);
+
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.fetchProperties, clock);
+		stepAfter.setParam1(fetched);
+		stepAfter.setParam2(String.valueOf(elements.size()));
+		stepAfter.setLazily(Field.RETURN_VALUE, () -> {
+			StringBuilder buffer = new StringBuilder("[");
+			for (ElementProperties elementProperties : result) {
+				buffer.append(elementProperties.toString(masking)).append(", ");
+			}
+			if (buffer.length() > 1) {
+				buffer.setLength(buffer.length() - 2);
+			}
+			return buffer.append(']').toString();
+		});
+		dispatcher.afterFetchProperties(stepAfter, result);
+		return result;
+	}
+
+	/**
+	 * Finds all elements by the given locator and fetches their properties, see
+	 * {@link #fetchProperties(List, Set, String...)}. Takes two round-trips, no matter how
+	 * many elements get found.
+	 * 
+	 * @param by
+	 *            locator of the elements
+	 * @param properties
+	 *            properties to fetch
+	 * @param attributeNames
+	 *            names of the attributes to fetch
+	 * @return properties in the order of the elements found
+	 */
+	public List<ElementProperties> findAndFetchProperties(By by, Set<Property> properties, String... attributeNames) {
+		return fetchProperties(findElements(by), properties, attributeNames);
+	}
+
+	/**
+	 * Takes a snapshot of the whole document, see {@link #snapshot(WebElement)}.
+	 * 
+	 * @return snapshot, valid until the next action
+	 */
+	public DomSnapshot snapshot() {
+		return snapshot(null);
+	}
+
+	/**
+	 * Copies the given element and all its descendants, including the content of shadow roots,
+	 * by a single script. Reading texts and attributes and finding elements of the snapshot
+	 * happens without any further round-trip, see {@link DomSnapshot}.
+	 * 
+	 * @param root
+	 *            element returned by this driver, or null for the whole document
+	 * @return snapshot, valid until the next action
+	 */
+	public DomSnapshot snapshot(WebElement root) {
+		if (!(driver instanceof JavascriptExecutor))
+			throw new UnsupportedOperationException("Underlying driver instance does not support executing javascript");
+		flushBatch();
+		if (!dispatcher.isObserved(Cmd.snapshot)) {
+			return readUnobserved(() -> takeSnapshot(root));
+		}
+
+		int number = stepNumber.get();
+		Step stepBefore = new Step(Type.BeforeGather, number, Cmd.snapshot, clock);
+		if (root != null) {
+			stepBefore.setLazily(Field.ELEMENT_LOCATOR, () -> Step.getLocatorFromWebElement(root));
+		}
+		dispatcher.beforeSnapshot(stepBefore, root);
+		currentStep.set(stepBefore);
+
+		DomSnapshot snapshot = takeSnapshot(root);
+
+		Step stepAfter = new Step(Type.AfterGather, number, Cmd.snapshot, clock);
+		if (root != null) {
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, () -> Step.getLocatorFromWebElement(root));
+		}
+		stepAfter.setReturnValue(snapshot.size() + " elements");
+		dispatcher.afterSnapshot(stepAfter, snapshot, root);
+		return snapshot;
+	}
+
+	/**
+	 * Waits in the browser until the given condition is met, see {@link WaitCondition}.
+	 * Instead of polling the browser, a script observes all changes of the DOM and returns as
+	 * soon as the condition holds, hence waiting takes a single round-trip. The timeout has to
+	 * be shorter than the script timeout set by {@link Timeouts#setScriptTimeout(long, TimeUnit)}.
+	 * <p>
+	 * Listeners get one pair of action steps for the whole wait; as the page has changed when
+	 * the condition gets met, the wait counts as action. An exception to this is waiting for
+	 * the page to be idle when it has been seen idle before and no action has been executed
+	 * since, apart from scripts which only look up an element like those of
+	 * {@link com.salesforce.selenium.support.findby.FindByJS}; such a wait returns right away,
+	 * without any round-trip and without steps.
+	 * 
+	 * @param condition
+	 *            condition to wait for
+	 * @param timeout
+	 *            maximum time to wait
+	 * @param unit
+	 *            unit of the timeout
+	 * @return element meeting the condition, or null if waited for its absence
+	 * @throws TimeoutException
+	 *             if the condition has not been met in time
+	 */
+	public WebElement waitFor(WaitCondition condition, long timeout, TimeUnit unit) {
+		if (!(driver instanceof JavascriptExecutor))
+			throw new UnsupportedOperationException("Underlying driver instance does not support executing javascript");
+		flushBatch();
+		long timeoutMillis = TimeUnit.MILLISECONDS.convert(timeout, unit);
+		if (condition.isFrameworkIdle() && stepNumber.get() == idleStepNumber && condition.getQuietMillis() <= idleQuietMillis)
+			return null;
+		if (!dispatcher.isObserved(Cmd.waitFor)) {
+			WebElement element = callUnobserved(() -> await(condition, timeoutMillis));
+			seenIdle(condition, stepNumber.get());
+			return element;
+		}
+
+		int number = stepNumber.getAndIncrement();
+		Step stepBefore = new Step(Type.BeforeAction, number, Cmd.waitFor, clock);
+		stepBefore.setParam1(condition.toString());
+		stepBefore.setParam2(timeoutMillis + " ms");
+		dispatcher.beforeWaitFor(stepBefore, condition);
+		currentStep.set(stepBefore);
+
+		WebElement element = await(condition, timeoutMillis);
+		seenIdle(condition, number + 1);
+
+		Step stepAfter = new Step(Type.AfterAction, number, Cmd.waitFor, clock);
+		stepAfter.setParam1(condition.toString());
+		stepAfter.setParam2(timeoutMillis + " ms");
+		if (element != null) {
+			stepAfter.setLazily(Field.ELEMENT_LOCATOR, () -> Step.getLocatorFromWebElement(element));
+		}
+		dispatcher.afterWaitFor(stepAfter, condition, element);
+		return element;
+	}
+
+	/**
+	 * Waits until Aura, LWC and the network have been quiet for
+	 * {@value WaitCondition#DEFAULT_QUIET_MILLIS} ms, see {@link WaitCondition#frameworkIdle()}.
+	 * 
+	 * @param timeout
+	 *            maximum time to wait
+	 * @param unit
+	 *            unit of the timeout
+	 * @throws TimeoutException
+	 *             if the page has not become idle in time
+	 */
+	public void waitForFrameworkIdle(long timeout, TimeUnit unit) {
+		waitFor(WaitCondition.frameworkIdle(), timeout, unit);
+	}
+
+	boolean isRemote() {
+		return remote;
+	}
+
+	/*
+	 * Keeps the page idle across the given script if it only looked up an element and the page
+	 * was idle before.
+	 */
+	private void keepIdle(String script, int number) {
+		if (idleStepNumber == number && LOOKUP_SCRIPT.matcher(script).matches()) {
+			idleStepNumber = stepNumber.get();
+		}
+	}
+
+	/*
+	 * Notes the step number after a successful wait for the page to be idle.
+	 */
+	private void seenIdle(WaitCondition condition, int number) {
+		if (condition.isFrameworkIdle()) {
+			idleQuietMillis = condition.getQuietMillis();
+			idleStepNumber = number;
+		}
+	}
+
+	private List<ElementProperties> fetch(List<WebElement> elements, Set<Property> properties, String... attributeNames) {
+		if (elements.isEmpty())
+			return new ArrayList<>();
+
+		List<String> propertyNames = new ArrayList<>(properties.size());
+		for (Property property : properties) {
+			propertyNames.add(property.name());
+		}
+		Object result = ((JavascriptExecutor) driver).executeScript(FETCH_PROPERTIES_SCRIPT, unpackWrappedElement(elements),
+				propertyNames, Arrays.asList(attributeNames));
+		if (!(result instanceof List<?>) || ((List<?>) result).size() != elements.size())
+			throw new WebDriverException("Unexpected result of fetching properties: " + result);
+
+		List<?> fetched = (List<?>) result;
+		List<ElementProperties> toReturn = new ArrayList<>(elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			toReturn.add(ElementProperties.fromScriptResult(elements.get(i), properties, (Map<?, ?>) fetched.get(i)));
+		}
+		return toReturn;
+	}
+
+	private DomSnapshot takeSnapshot(WebElement root) {
+		int number = stepNumber.get();
+		Object result = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, unpackWrappedElement(root));
+		if (!(result instanceof Map<?, ?>))
+			throw new WebDriverException("Unexpected result of taking a snapshot: " + result);
+		return new DomSnapshot((Map<?, ?>) result, number, stepNumber::get);
+	}
+
+	private WebElement await(WaitCondition condition, long timeoutMillis) {
+		Object result;
+		try {
+			if (condition.isFrameworkIdle()) {
+				result = ((JavascriptExecutor) driver).executeAsyncScript(IDLE_SCRIPT, condition.getQuietMillis(), timeoutMillis);
+			} else {
+				String[] query = condition.query();
+				result = ((JavascriptExecutor) driver).executeAsyncScript(WAIT_SCRIPT, query[0], query[1], condition.getKind(),
+						condition.getText(), timeoutMillis);
+			}
+		} catch (ScriptTimeoutException e) {
+			throw new TimeoutException("Script timeout hit while waiting for " + condition, e);
+		}
+		if (!(result instanceof List<?>) || ((List<?>) result).size() != 2)
+			throw new WebDriverException("Unexpected result of waiting for " + condition + ": " + result);
+
+		List<?> outcome = (List<?>) result;
+		if (!Boolean.TRUE.equals(outcome.get(0))) {
+			TimeoutException issue = new TimeoutException("Timed out after " + timeoutMillis + " ms waiting for " + condition);
+			if (currentStep.get() != null) {
+				Step step = createExceptionStep(issue);
+				dispatcher.onException(step, step.getCmd(), issue);
+			}
+			throw issue;
+		}
+		return (outcome.get(1) instanceof WebElement) ? createWebElement((WebElement) outcome.get(1)) : null;
+	}
+
+	private static String describeFetch(Set<Property> properties, String... attributeNames) {
+		StringBuilder buffer = new StringBuilder();
+		for (Property property : properties) {
+			buffer.append(property).append(',');
+		}
+		for (String attributeName : attributeNames) {
+			buffer.append('@').append(attributeName).append(',');
+		}
+		if (buffer.length() > 0) {
+			buffer.setLength(buffer.length() - 1);
+		}
+		return buffer.toString();
+	}
+
+	/*
+	 * Answers the given gather command from the read cache if enabled and still valid,
+	 * otherwise calls the reader. Answers from the cache get marked on the current step.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T read(Object target, Cmd cmd, Object arg, Supplier<T> reader) {
+		if (readCache == null)
+			return reader.get();
+
+		int number = stepNumber.get();
+		Object answer = readCache.get(target, cmd, arg, number);
+		if (answer != ReadCache.MISS) {
+			Step step = currentStep.get();
+			if (step != null) {
+				step.setCached(true);
+			}
+			return (T) answer;
+		}
+		T value = reader.get();
+		readCache.put(target, cmd, arg, number, value);
+		return value;
+	}
+
+	void endBatch(ActionBatch batch) {
+		if (batches.get() == batch) {
+			batches.remove();
+		}
+	}
+
+	/*
+	 * Fast path of an action no listener is interested in: no steps get created, but the step
+	 * number advances like for any other action.
+	 */
+	private void runUnobserved(Runnable action) {
+		currentStep.set(null);
+		action.run();
+		stepNumber.incrementAndGet();
+	}
+
+	/*
+	 * Fast path of an action no listener is interested in, returning the action's result.
+	 */
+	private <T> T callUnobserved(Supplier<T> action) {
+		currentStep.set(null);
+		T result = action.get();
+		stepNumber.incrementAndGet();
+		return result;
+	}
+
+	/*
+	 * Fast path of a gather command no listener is interested in: no steps get created and the
+	 * step number stays the same.
+	 */
+	private <T> T readUnobserved(Supplier<T> gather) {
+		currentStep.set(null);
+		return gather.get();
+	}
+
+	/*
+	 * Executes an action which does not get reported as step, like the W3C actions, touch and
+	 * alert commands. Like any other action, it advances the step number, even if it failed halfway,
+	 * so that answers read before don't get reused.
+	 */
+	private void performUnreported(Runnable action) {
+		flushBatch();
+		currentStep.set(null);
+		try {
+			action.run();
+		} finally {
+			stepNumber.incrementAndGet();
+		}
+	}
+
+	void flushBatch() {
+		ActionBatch batch = batches.get();
+		if (batch != null && batch.size() > 0) {
+			flushBatch(batch);
+		}
+	}
+
+	/**
+	 * Executes all actions queued by the given batch with a single script and dispatches
+	 * their after steps, or the exception of the action which failed. The step of the command
+	 * which caused the flush stays the current one.
+	 */
+	void flushBatch(ActionBatch batch) {
+		List<ActionBatch.Action> actions = batch.drain();
+		if (actions.isEmpty())
+			return;
+
+		List<List<Object>> scriptArgs = new ArrayList<>(actions.size());
+		for (ActionBatch.Action action : actions) {
+			scriptArgs.add(Arrays.asList(action.type, action.element, action.text));
+		}
+		Step current = currentStep.get();
+		try {
+			// an exception thrown by the script as a whole gets attributed to the first action
+			currentStep.set(actions.get(0).stepBefore);
+			long start = System.nanoTime();
+			Object result = ((JavascriptExecutor) driver).executeScript(BATCH_SCRIPT, scriptArgs);
+			long nanos = System.nanoTime() - start;
+
+			int failed = -1;
+			String message = null;
+			if (result instanceof List<?> && ((List<?>) result).size() == 2) {
+				failed = ((Number) ((List<?>) result).get(0)).intValue();
+				message = String.valueOf(((List<?>) result).get(1));
+			}
+			int executed = (failed >= 0) ? failed : actions.size();
+			for (int i = 0; i < executed; i++) {
+				ActionBatch.Action action = actions.get(i);
+				if (action.stepBefore != null) {
+					Step stepAfter = new Step(Type.AfterAction, action.stepBefore.getStepNumber(), action.stepBefore.getCmd(), clock);
+					stepAfter.setTimeElapsedStep(nanos / executed);
+					action.afterAction.accept(stepAfter);
+				}
+			}
+			if (failed >= 0) {
+				ActionBatch.Action action = actions.get(failed);
+				WebDriverException issue = new WebDriverException("Batched action " + (failed + 1) + " of " + actions.size()
+						+ " (" + action.type + ") failed, dropped the remaining " + (actions.size() - failed - 1) + ": " + message);
+				currentStep.set(action.stepBefore);
+				if (action.stepBefore != null) {
+					Step step = createExceptionStep(issue);
+					dispatcher.onException(step, step.getCmd(), issue);
+				}
+				throw issue;
+			}
+		} finally {
+			currentStep.set(current);
+		}
+	}
+
+	private void quitDriver() {
+		try {
+			// occasionally the driver instance "dies" during quitting,
+			// hence throwing a nasty exception which gets TestNG/JUnit into
+			// limbo mode.
+			driver.quit();
+		} catch (Throwable t) {
+			// It's benign to catch and swallow here because you can't do anything
+			// useful with this driver instance anyway.
+			System.err.println("Exception while quitting WebDriver instance: " + t.getMessage());
+			t.printStackTrace();
 		}
 	}
 
 	private void closeListeners() {
-		defaultEventListener.closeListener();
-		for (WebDriverEventListener eventListener : eventListeners) {
-			eventListener.closeListener();
+		dispatcher.closeListener();
+		if (PrometheusExporter.isRunning()) {
+			for (ListenerDispatcher.ListenerStats stats : dispatcher.getListenerStats()) {
+				PrometheusExporter.recordListener(stats.getListener().getClass().getName(), stats.getEvents(), stats.getNanos());
+			}
 		}
 	}
 
 	private void highlightElement(WebElement element) {
-		// only draw a border if the system property "border.color.enabled" is set to TRUE
-		if (!"true".equalsIgnoreCase(System.getProperty(BORDER_COLORING_ENABLED, "false")))
+		highlightElements(Collections.singletonList(element));
+	}
+
+	/**
+	 * Draws a border around each of the given elements, as configured by
+	 * {@link #CONFIG_BORDER_COLOR_MODE}.
+	 */
+	private void highlightElements(List<WebElement> elements) {
+		// only draw a border if the property "border.color.enabled" is set to TRUE
+		if (elements.isEmpty() || !(driver instanceof JavascriptExecutor)
+				|| !Configuration.getInstance().getBoolean(BORDER_COLORING_ENABLED, false))
 			return;
 
-		// draw a border around the element
-	    if (driver instanceof JavascriptExecutor) {
-	    	// choose from seven border colors for each call
-			String color = BORDER_COLORS[border_color_index % BORDER_COLORS.length];
-			border_color_index = border_color_index + 1;
+		switch (highlightMode) {
+		case DEFERRED:
+			synchronized (pendingHighlights) {
+				pendingHighlights.addAll(elements);
+			}
+			break;
+		case ASYNC:
+			final List<WebElement> toHighlight = new ArrayList<>(elements);
+			highlighter().execute(() -> {
+				try {
+					executeHighlightScript(toHighlight);
+				} catch (RuntimeException e) {
+					System.err.println("Unable to highlight elements: " + e.getMessage());
+				}
+			});
+			break;
+		default:
+			executeHighlightScript(elements);
+		}
+	}
+
+	/**
+	 * Highlights the elements found since the previous command, unless the given method of
+	 * driver or element is a lookup itself. Quitting or closing the browser drops them.
+	 */
+	private void flushHighlights(String methodName) {
+		List<WebElement> elements;
+		synchronized (pendingHighlights) {
+			if (pendingHighlights.isEmpty())
+				return;
+			switch (methodName) {
+			case "findElement":
+			case "findElements":
+				return;
+			case "quit":
+			case "close":
+				pendingHighlights.clear();
+				return;
+			default:
+				elements = new ArrayList<>(pendingHighlights);
+				pendingHighlights.clear();
+			}
+		}
+		executeHighlightScript(elements);
+	}
+
+	private void executeHighlightScript(List<WebElement> elements) {
+		// the script goes through the driver proxy but counts as framework time
+		Timings threadTimings = timings.get();
+		long driverNanosBefore = threadTimings.driverNanos;
+		long start = System.nanoTime();
+		// choose from seven border colors for each element
+		List<String> colors = new ArrayList<>(elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			colors.add(BORDER_COLORS[(border_color_index.getAndIncrement() & Integer.MAX_VALUE) % BORDER_COLORS.length]);
+		}
+		try {
+			// decorate all elements with a border at once
+			((JavascriptExecutor) driver).executeScript(BORDER_COLORING_SCRIPT, elements, colors);
+		} catch (StaleElementReferenceException sere) {
+			; // ignore this exception, which could happen after a findElements() call
+		}
+		threadTimings.frameworkNanos += System.nanoTime() - start;
+		threadTimings.driverNanos = driverNanosBefore;
+	}
+
+	/*
+	 * Collects the timing of the current document if configured. Returns null if not
+	 * configured, if the timing is not available, or if only a newly loaded document is of
+	 * interest and the document is still the same as at the last collection.
+	 */
+	private PageTiming collectPageTiming(boolean onlyIfNavigated) {
+		if (!pageTimingEnabled || !(driver instanceof JavascriptExecutor))
+			return null;
+
+		// the script goes through the driver proxy but counts as framework time, and it must
+		// neither fail nor be reported as part of the step
+		Timings threadTimings = timings.get();
+		long driverNanosBefore = threadTimings.driverNanos;
+		long start = System.nanoTime();
+		Step step = currentStep.get();
+		currentStep.set(null);
+		try {
+			Object result = ((JavascriptExecutor) driver).executeAsyncScript(PAGE_TIMING_SCRIPT);
+			if (!(result instanceof Map<?, ?>))
+				return null;
+			PageTiming timing = PageTiming.fromScriptResult((Map<?, ?>) result);
+			double previousTimeOrigin = lastTimeOrigin;
+			lastTimeOrigin = timing.getTimeOrigin();
+			return (onlyIfNavigated && timing.getTimeOrigin() == previousTimeOrigin) ? null : timing;
+		} catch (WebDriverException e) {
+			System.err.println("Unable to collect page timing: " + e.getMessage());
+			return null;
+		} finally {
+			currentStep.set(step);
+			threadTimings.frameworkNanos += System.nanoTime() - start;
+			threadTimings.driverNanos = driverNanosBefore;
+		}
+	}
+
+	private ExecutorService highlighter() {
+		ExecutorService executor = highlighter;
+		if (executor == null) {
+			synchronized (pendingHighlights) {
+				executor = highlighter;
+				if (executor == null) {
+					// a single thread keeps the order; borders are cosmetic, hence drop them if it falls behind
+					executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+							new ArrayBlockingQueue<>(BORDER_COLORING_QUEUE_SIZE), runnable -> {
+								Thread thread = new Thread(runnable, "EventFiringWebDriver-highlighter");
+								thread.setDaemon(true);
+								return thread;
+							}, new ThreadPoolExecutor.DiscardPolicy());
+					highlighter = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	private void stopHighlighting() {
+		ExecutorService executor = highlighter;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		synchronized (pendingHighlights) {
+			pendingHighlights.clear();
+		}
+	}
+
+	/*
+	 * When found elements get highlighted, see CONFIG_BORDER_COLOR_MODE.
+	 */
+	private enum HighlightMode {
+		IMMEDIATE, DEFERRED, ASYNC;
+
+		private static HighlightMode fromProperty() {
+			String mode = getProperty(CONFIG_BORDER_COLOR_MODE, "immediate");
 			try {
-				// decorate element with a border
-		        ((JavascriptExecutor)driver).executeScript(BORDER_COLORING_PREFIX + color + BORDER_COLORING_POSTFIX, element);
-			} catch (StaleElementReferenceException sere) {
-				; // ignore this exception, which could happen after a findElements() call
+				return valueOf(mode.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				System.err.println("Unknown value '" + mode + "' of " + CONFIG_BORDER_COLOR_MODE + ", using 'immediate' instead");
+				return IMMEDIATE;
 			}
-	    }
+		}
+	}
+
+	/**
+	 * Attaches the driver and framework time measured since the previous step to the given
+	 * step, right before it gets dispatched to the listeners.
+	 * <p>
+	 * Driver time is only measured for calls going through the proxies wrapping the driver
+	 * and its elements. Navigation, TargetLocator, Timeouts, Window, Keyboard and Mouse
+	 * objects get called directly, hence their steps do not get any driver time.
+	 */
+	private void stampTimings(Step step) {
+		Timings threadTimings = timings.get();
+		step.setTimeInFramework(threadTimings.frameworkNanos);
+		threadTimings.frameworkNanos = 0L;
+		Type type = step.getTypeOfLog();
+		if ((type == Type.AfterAction || type == Type.AfterGather || type == Type.Exception)
+				&& isCalledViaProxy(step.getCmd())) {
+			step.setTimeInDriver(threadTimings.driverNanos);
+		}
+		threadTimings.driverNanos = 0L;
+		if (step.getCmd() != null && step.getCmd().isLookup()) {
+			step.setImplicitWait(implicitWaitMillis);
+		}
+	}
+
+	/**
+	 * Creates the step reporting an exception thrown by the wrapped driver or one of its
+	 * elements. It takes over command, parameters and locator of the command currently
+	 * executed, so that the time spent until the exception, e.g. waiting for an element
+	 * which never showed up, gets attributed to that command.
+	 */
+	private Step createExceptionStep(Throwable issue) {
+		Step current = currentStep.get();
+		Step step = new Step(Type.Exception, current.getStepNumber(), current.getCmd(), clock);
+		step.setParam1(current.getParam1());
+		step.setParam2(current.getParam2());
+		step.setElementLocator(current.getElementLocator());
+		step.setIssue(issue);
+		stampTimings(step);
+		return step;
+	}
+
+	/*
+	 * Time measured on one thread since the last step it dispatched.
+	 */
+	private static final class Timings {
+		// time spent in the wrapped driver
+		private long driverNanos;
+		// time spent in listeners and highlighting
+		private long frameworkNanos;
+	}
+
+	private static boolean isCalledViaProxy(Cmd cmd) {
+		if (cmd == null)
+			return false;
+		switch (cmd.getWebDriverInterface()) {
+		case WebDriver:
+		case JavascriptExecutor:
+		case TakesScreenshot:
+		case WebElement:
+			return true;
+		default:
+			return false;
+		}
 	}
 
 	/**
@@ -1575,7 +3246,7 @@ public class EventFiringWebDriver
 	 * If there is still nothing found, it will return the default value.
 	 * 
 	 * This allows to define proper values in a file but to (occasionally) override
-	 * them by setting a system property.
+	 * them by setting a system property. The file gets read only once, see {@link Configuration}.
 	 * 
 	 * @param key property key
 	 * @param defaultValue string value to return if property has not been set
@@ -1583,22 +3254,7 @@ public class EventFiringWebDriver
 	 * property file {@link #PROPERTIES_FILENAME}
 	 */
 	public static String getProperty(String key, String defaultValue) {
-		String value = System.getProperty(key);
-		return (value != null) ? value : getProperties().getProperty(key, defaultValue);
-	}
-	
-	private static Properties getProperties() {
-		if (properties != null)
-			return properties;
-		
-		Properties prop = new Properties();
-		try (InputStream input = new FileInputStream(PROPERTIES_FILENAME)) {
-			prop.load(input);
-		} catch (IOException ex) {
-			// Warn only one time that config file is not present (or corrupt?)
-			System.out.println("Unable to load config file " + PROPERTIES_FILENAME);
-		}
-		return prop;
+		return Configuration.getInstance().get(key, defaultValue);
 	}
 	
 	/**
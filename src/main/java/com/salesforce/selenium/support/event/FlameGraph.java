@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Folds {@link Step} records of one or many tests into stacks of the form
+ * <pre>
+ * test;page URL;command;locator
+ * </pre>
+ * weighted by the time the commands took, so that it becomes visible at a glance which
+ * pages and locators burn the most driver time across a test suite.
+ * <p>
+ * The result can be written as
+ * <ul>
+ * <li>collapsed stacks, as consumed by flamegraph.pl and most other flame graph tools,</li>
+ * <li>a self-contained SVG flame graph, or</li>
+ * <li>a speedscope (https://www.speedscope.app) JSON file.</li>
+ * </ul>
+ * All weights are in microseconds. Page URLs are stripped of query and fragment, and path
+ * segments looking like record IDs are replaced by <code>{id}</code> to merge the same page
+ * visited with different records.
+ * <p>
+ * Feed it either offline with {@link #addSteps(String, List)} or live by registering the
+ * listener returned by {@link #createListener(String)} with each driver of the suite:
+ * <pre>
+ * java com.salesforce.selenium.support.event.FlameGraph target/suite test1.json test2.json
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class FlameGraph {
+	private static final String UNKNOWN_PAGE = "(unknown page)";
+	private static final Pattern RECORD_ID = Pattern.compile("[a-zA-Z0-9]{15}|[a-zA-Z0-9]{18}");
+	private static final Pattern NUMBER = Pattern.compile("\\d+");
+	private static final Pattern CONTAINS_DIGIT = Pattern.compile(".*\\d.*");
+
+	private static final int SVG_WIDTH = 1200;
+	private static final int SVG_FRAME_HEIGHT = 16;
+	private static final int SVG_PADDING = 10;
+	private static final double SVG_CHAR_WIDTH = 7.0;
+
+	private final Map<String, Long> stacks = new TreeMap<>();
+
+	/**
+	 * Folds the steps of one test into the stacks.
+	 *
+	 * @param testName name of the test, used as root frame
+	 * @param steps steps recorded for this test
+	 */
+	public synchronized void addSteps(String testName, List<Step> steps) {
+		if (steps == null)
+			return;
+
+		String page = UNKNOWN_PAGE;
+		for (Step step : steps) {
+			if (step.getCmd() == null)
+				continue;
+			switch (step.getCmd()) {
+			case get:
+			case to:
+				if (step.getParam1() != null)
+					page = normalizeUrl(step.getParam1());
+				break;
+			case getCurrentUrl:
+				if (step.getTypeOfLog() == Type.AfterGather && step.getReturnValue() != null)
+					page = normalizeUrl(step.getReturnValue());
+				break;
+			default:
+			}
+
+			if ((step.getTypeOfLog() == Type.AfterAction || step.getTypeOfLog() == Type.AfterGather)
+					&& step.getTimeElapsedStep() >= 0) {
+				StringBuilder stack = new StringBuilder();
+				stack.append(frame(testName)).append(';').append(frame(page)).append(';')
+						.append(frame(step.getCmd().getLongCmdString()));
+				String locator = locatorOf(step);
+				if (locator != null)
+					stack.append(';').append(frame(locator));
+				stacks.merge(stack.toString(), step.getTimeElapsedStep() / 1000L, Long::sum);
+			}
+		}
+	}
+
+	/**
+	 * @param testName name of the test, used as root frame
+	 * @return listener which folds all steps of the test into this flame graph when it gets closed
+	 */
+	public WebDriverEventListener createListener(final String testName) {
+		return new AbstractStepListener() {
+			private final List<Step> steps = new ArrayList<>();
+
+			@Override
+			protected synchronized void onStep(Step step) {
+				steps.add(step);
+			}
+
+			@Override
+			public synchronized void closeListener() {
+				addSteps(testName, steps);
+				steps.clear();
+			}
+		};
+	}
+
+	/**
+	 * @return copy of the folded stacks with their weight in microseconds
+	 */
+	public synchronized Map<String, Long> getStacks() {
+		return new TreeMap<>(stacks);
+	}
+
+	/**
+	 * Writes the stacks in the collapsed format: one line per stack, frames separated by ';'
+	 * and followed by a blank and the weight.
+	 *
+	 * @param writer target; it will not be closed by this method
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeCollapsed(Writer writer) throws IOException {
+		for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+			writer.write(entry.getKey());
+			writer.write(' ');
+			writer.write(Long.toString(entry.getValue()));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes the stacks in the speedscope file format using one weighted sample per stack.
+	 *
+	 * @param name name of the profile
+	 * @param writer target; it will not be closed by this method
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeSpeedscope(String name, Writer writer) throws IOException {
+		Map<String, Integer> frameIndex = new HashMap<>();
+		List<String> frames = new ArrayList<>();
+		long total = 0L;
+		for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+			for (String frame : entry.getKey().split(";")) {
+				if (!frameIndex.containsKey(frame)) {
+					frameIndex.put(frame, frames.size());
+					frames.add(frame);
+				}
+			}
+			total += entry.getValue();
+		}
+
+		JsonGenerator json = new JsonFactory().createGenerator(writer);
+		json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		json.writeStartObject();
+		json.writeStringField("$schema", "https://www.speedscope.app/file-format-schema.json");
+		json.writeStringField("name", name);
+		json.writeStringField("exporter", FlameGraph.class.getName());
+		json.writeObjectFieldStart("shared");
+		json.writeArrayFieldStart("frames");
+		for (String frame : frames) {
+			json.writeStartObject();
+			json.writeStringField("name", frame);
+			json.writeEndObject();
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.writeArrayFieldStart("profiles");
+		json.writeStartObject();
+		json.writeStringField("type", "sampled");
+		json.writeStringField("name", name);
+		json.writeStringField("unit", "microseconds");
+		json.writeNumberField("startValue", 0);
+		json.writeNumberField("endValue", total);
+		json.writeArrayFieldStart("samples");
+		for (String stack : stacks.keySet()) {
+			json.writeStartArray();
+			for (String frame : stack.split(";")) {
+				json.writeNumber(frameIndex.get(frame));
+			}
+			json.writeEndArray();
+		}
+		json.writeEndArray();
+		json.writeArrayFieldStart("weights");
+		for (Long weight : stacks.values()) {
+			json.writeNumber(weight);
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.writeEndArray();
+		json.writeEndObject();
+		json.flush();
+	}
+
+	/**
+	 * Renders the stacks as a self-contained SVG flame graph. Hovering over a frame shows
+	 * its full name and the time spent.
+	 *
+	 * @param title title shown on top of the graph
+	 * @param writer target; it will not be closed by this method
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void writeSvg(String title, Writer writer) throws IOException {
+		Node root = new Node("all");
+		for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+			Node node = root;
+			node.weight += entry.getValue();
+			for (String frame : entry.getKey().split(";")) {
+				node = node.children.computeIfAbsent(frame, Node::new);
+				node.weight += entry.getValue();
+			}
+		}
+
+		int depth = root.depth();
+		int height = (depth + 1) * SVG_FRAME_HEIGHT + 3 * SVG_PADDING + SVG_FRAME_HEIGHT;
+		double scale = (root.weight > 0) ? (SVG_WIDTH - 2.0 * SVG_PADDING) / root.weight : 0.0;
+
+		writer.write("<?xml version=\"1.0\" standalone=\"no\"?>\n");
+		writer.write("<svg version=\"1.1\" width=\"" + SVG_WIDTH + "\" height=\"" + height
+				+ "\" xmlns=\"http://www.w3.org/2000/svg\" font-family=\"Verdana\" font-size=\"12\">\n");
+		writer.write("<rect x=\"0\" y=\"0\" width=\"100%\" height=\"100%\" fill=\"#f8f8f8\"/>\n");
+		writer.write("<text x=\"" + (SVG_WIDTH / 2) + "\" y=\"" + (SVG_PADDING + SVG_FRAME_HEIGHT - 4)
+				+ "\" text-anchor=\"middle\" font-size=\"16\">" + escapeXml(title) + "</text>\n");
+		writeSvgNode(writer, root, SVG_PADDING, height - SVG_PADDING - SVG_FRAME_HEIGHT, scale, 0);
+		writer.write("</svg>\n");
+		writer.flush();
+	}
+
+	private void writeSvgNode(Writer writer, Node node, double x, int y, double scale, int level) throws IOException {
+		double width = node.weight * scale;
+		if (width < 0.1)
+			return;
+
+		String label = node.name + " (" + formatMicros(node.weight) + ")";
+		writer.write("<g><title>" + escapeXml(label) + "</title>");
+		writer.write(String.format(Locale.ROOT,
+				"<rect x=\"%.1f\" y=\"%d\" width=\"%.1f\" height=\"%d\" fill=\"%s\" rx=\"2\" ry=\"2\"/>", x, y, width,
+				SVG_FRAME_HEIGHT - 1, color(node.name, level)));
+		int maxChars = (int) ((width - 6) / SVG_CHAR_WIDTH);
+		if (maxChars >= 3) {
+			String text = (node.name.length() > maxChars) ? node.name.substring(0, maxChars - 2) + ".." : node.name;
+			writer.write(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\">%s</text>", x + 3,
+					y + SVG_FRAME_HEIGHT - 4, escapeXml(text)));
+		}
+		writer.write("</g>\n");
+
+		double childX = x;
+		for (Node child : node.children.values()) {
+			writeSvgNode(writer, child, childX, y - SVG_FRAME_HEIGHT, scale, level + 1);
+			childX += child.weight * scale;
+		}
+	}
+
+	/**
+	 * Strips query and fragment of the URL and replaces path segments looking like
+	 * record IDs or numbers by <code>{id}</code>.
+	 *
+	 * @param url URL as used by the test
+	 * @return normalized URL
+	 */
+	public static String normalizeUrl(String url) {
+		String normalized = url;
+		int cut = normalized.indexOf('?');
+		if (cut >= 0)
+			normalized = normalized.substring(0, cut);
+		cut = normalized.indexOf('#');
+		if (cut >= 0)
+			normalized = normalized.substring(0, cut);
+
+		String[] segments = normalized.split("/", -1);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < segments.length; i++) {
+			if (i > 0)
+				sb.append('/');
+			// keep scheme and host as-is
+			boolean isPath = i >= 3 || !normalized.contains("://");
+			boolean isId = NUMBER.matcher(segments[i]).matches()
+					|| (RECORD_ID.matcher(segments[i]).matches() && CONTAINS_DIGIT.matcher(segments[i]).matches());
+			sb.append((isPath && isId) ? "{id}" : segments[i]);
+		}
+		return sb.toString();
+	}
+
+	private static String locatorOf(Step step) {
+		if (step.getElementLocator() != null)
+			return step.getElementLocator();
+		switch (step.getCmd()) {
+		case findElementByWebDriver:
+		case findElementsByWebDriver:
+			return step.getParam1();
+		default:
+			return null;
+		}
+	}
+
+	private static String frame(String name) {
+		// ';' separates frames, line breaks separate stacks
+		return name.replace(';', ',').replace('\n', ' ').replace('\r', ' ');
+	}
+
+	private static String formatMicros(long micros) {
+		return String.format(Locale.ROOT, "%.3f s", micros / 1e6);
+	}
+
+	private static String color(String name, int level) {
+		int hash = name.hashCode() & 0x7fffffff;
+		int red = 205 + hash % 50;
+		int green = (level == 0) ? 80 : 70 + (hash / 50) % 150;
+		int blue = 40 + (hash / 7500) % 30;
+		return "rgb(" + red + "," + green + "," + blue + ")";
+	}
+
+	private static String escapeXml(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+	private static class Node {
+		private final String name;
+		private final Map<String, Node> children = new TreeMap<>();
+		private long weight;
+
+		Node(String name) {
+			this.name = name;
+		}
+
+		int depth() {
+			int max = 0;
+			for (Node child : children.values()) {
+				max = Math.max(max, child.depth() + 1);
+			}
+			return max;
+		}
+	}
+
+	/**
+	 * Folds JSON files written by {@link FullJSONLogger} into one flame graph and writes
+	 * {@code <prefix>.folded}, {@code <prefix>.svg} and {@code <prefix>.speedscope.json}.
+	 *
+	 * @param args output file prefix followed by one or more JSON files to read
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: FlameGraph <output prefix> <step log file> [<step log file> ...]");
+			return;
+		}
+
+		FlameGraph flameGraph = new FlameGraph();
+		for (int i = 1; i < args.length; i++) {
+			String testName = new File(args[i]).getName().replaceAll("\\.json$", "");
+			flameGraph.addSteps(testName, FullJSONLogger.readStepsFromFile(args[i]));
+		}
+		String prefix = args[0];
+		try (Writer collapsed = new FileWriter(prefix + ".folded");
+				Writer svg = new FileWriter(prefix + ".svg");
+				Writer speedscope = new FileWriter(prefix + ".speedscope.json")) {
+			flameGraph.writeCollapsed(collapsed);
+			flameGraph.writeSvg("WebDriver time by test, page, command and locator", svg);
+			flameGraph.writeSpeedscope(new File(prefix).getName(), speedscope);
+			System.out.println("Done writing flame graph to " + prefix + ".svg");
+		} catch (IOException e) {
+			System.err.println("Error while writing flame graph to " + prefix);
+			e.printStackTrace();
+		}
+	}
+}
@@ -10,6 +10,8 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -42,7 +44,9 @@ import com.salesforce.selenium.support.event.Step.Cmd;
 public class FullJSONLogger extends AbstractWebDriverEventListener {
 	private static final int BATCHSIZE = 1000;
 	private String fileName = null;
-	private List<Step> logEntries = new ArrayList<>();
+	// steps may be fired by several threads using the same driver
+	private List<Step> logEntries = Collections.synchronizedList(new ArrayList<>());
+	private final Set<Cmd> cmdsOfInterest;
 
 	/**
 	 * Define the file name of the JSON file without the ".json" extension. It will be
@@ -55,6 +59,32 @@ public class FullJSONLogger extends AbstractWebDriverEventListener {
 	 */
 	public FullJSONLogger(String testName) {
 		this.fileName = TESTDROPIN_LOGFILES_DIR + convertTestname2FileName(testName) + ".json";
+		this.cmdsOfInterest = parseCmds(EventFiringWebDriver.getProperty(EventFiringWebDriver.CONFIG_LOG_COMMANDS, null));
+	}
+
+	/**
+	 * @return commands configured by {@link EventFiringWebDriver#CONFIG_LOG_COMMANDS}; all commands
+	 * if that property is not set
+	 */
+	@Override
+	public Set<Cmd> getCmdsOfInterest() {
+		return cmdsOfInterest;
+	}
+
+	static Set<Cmd> parseCmds(String cmdNames) {
+		if (cmdNames == null || cmdNames.trim().isEmpty())
+			return EnumSet.allOf(Cmd.class);
+
+		Set<Cmd> cmds = EnumSet.noneOf(Cmd.class);
+		for (String cmdName : cmdNames.split(",")) {
+			try {
+				cmds.add(Cmd.valueOf(cmdName.trim()));
+			} catch (IllegalArgumentException e) {
+				System.err.println("Ignoring unknown command '" + cmdName.trim() + "' in property "
+						+ EventFiringWebDriver.CONFIG_LOG_COMMANDS);
+			}
+		}
+		return cmds;
 	}
 
 	/*--------------------------------------------------------------------
@@ -176,6 +206,36 @@ public class FullJSONLogger extends AbstractWebDriverEventListener {
 		logEntries.add(step);
 	}
 
+	@Override
+	public void beforeFetchProperties(Step step, List<WebElement> elements) {
+		logEntries.add(step);
+	}
+
+	@Override
+	public void afterFetchProperties(Step step, List<ElementProperties> properties) {
+		logEntries.add(step);
+	}
+
+	@Override
+	public void beforeSnapshot(Step step, WebElement root) {
+		logEntries.add(step);
+	}
+
+	@Override
+	public void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+		logEntries.add(step);
+	}
+
+	@Override
+	public void beforeWaitFor(Step step, WaitCondition condition) {
+		logEntries.add(step);
+	}
+
+	@Override
+	public void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+		logEntries.add(step);
+	}
+
 	/*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object
 	 * after casting to TakesScreenshot.
@@ -696,6 +756,11 @@ public class FullJSONLogger extends AbstractWebDriverEventListener {
 			return;
 		}
 
+		List<Step> entries;
+		synchronized (logEntries) {
+			entries = new ArrayList<>(logEntries);
+		}
+
 		ObjectMapper objectMapper = new ObjectMapper();
     	//Set pretty printing of json
     	objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
@@ -703,18 +768,18 @@ public class FullJSONLogger extends AbstractWebDriverEventListener {
 		SequenceWriter seqWriter = null;
 		try {
 			seqWriter = objectMapper.writerWithDefaultPrettyPrinter().writeValuesAsArray(new FileWriter(fileName));
-			int numOfLogEntries = logEntries.size();
+			int numOfLogEntries = entries.size();
 			int numOfBatches = numOfLogEntries / BATCHSIZE;
 			int lowerIndex = 0;
 			int upperIndex = BATCHSIZE;
 			for (int batchNo = 0; batchNo < numOfBatches; batchNo++) {
-				List<Step> logEntriesBatch = logEntries.subList(lowerIndex, upperIndex);
+				List<Step> logEntriesBatch = entries.subList(lowerIndex, upperIndex);
 				seqWriter.writeAll(logEntriesBatch);
 				lowerIndex = lowerIndex + BATCHSIZE;
 				upperIndex = upperIndex + BATCHSIZE;
 			}
 			if (lowerIndex < numOfLogEntries) {
-				List<Step> logEntriesBatch = logEntries.subList(lowerIndex, numOfLogEntries);
+				List<Step> logEntriesBatch = entries.subList(lowerIndex, numOfLogEntries);
 				seqWriter.writeAll(logEntriesBatch);
 			}
 			System.out.println("Done writing WebDriver log entries to " + fileName);
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Accounts for the time element lookups spend waiting for the implicit wait, as set via
+ * <code>driver.manage().timeouts().implicitlyWait()</code> on an {@link EventFiringWebDriver}.
+ * <p>
+ * A lookup gets charged against the implicit wait if
+ * <ul>
+ * <li>it <b>failed</b>, i.e. findElement() threw an exception after waiting for the element,</li>
+ * <li>it found the element to be <b>absent</b>, i.e. findElements() returned an empty list after
+ * waiting the whole implicit wait, or</li>
+ * <li>it was <b>slow</b>, i.e. it took longer than the median lookup of the same test plus a
+ * margin; the time exceeding the median is charged.</li>
+ * </ul>
+ * The charged time never exceeds the implicit wait in effect. Lookups recorded without an implicit
+ * wait, e.g. by older versions or because the wait had been set on the wrapped driver directly,
+ * are not charged.
+ * <p>
+ * The report lists the seconds lost per locator and per test. Feed it either offline with
+ * {@link #addSteps(String, List)} or live by registering the listener returned by
+ * {@link #createListener(String)} with each driver of the suite:
+ * <pre>
+ * java com.salesforce.selenium.support.event.ImplicitWaitReport target/implicitwait.txt test1.json test2.json
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class ImplicitWaitReport {
+	/**
+	 * Time in milliseconds a successful lookup may exceed the median lookup before it gets
+	 * charged as slow, unless defined otherwise: {@value}
+	 */
+	public static final long DEFAULT_SLOW_MARGIN_MILLIS = 250L;
+
+	private static final Comparator<LocatorBurn> BY_LOST_TIME = Comparator.comparingLong(LocatorBurn::getLostNanos).reversed();
+
+	private final long slowMarginNanos;
+	private final Map<String, List<LocatorBurn>> burnsPerTest = new LinkedHashMap<>();
+
+	public ImplicitWaitReport() {
+		this(DEFAULT_SLOW_MARGIN_MILLIS);
+	}
+
+	/**
+	 * @param slowMarginMillis time in milliseconds a successful lookup may exceed the median lookup
+	 * of its test before it gets charged as slow
+	 */
+	public ImplicitWaitReport(long slowMarginMillis) {
+		this.slowMarginNanos = TimeUnit.MILLISECONDS.toNanos(slowMarginMillis);
+	}
+
+	/**
+	 * Analyzes the lookups of one test and adds the result to this report.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @return charged lookups per locator, the most expensive locator first
+	 */
+	public synchronized List<LocatorBurn> addSteps(String testName, List<Step> steps) {
+		List<LocatorBurn> burns = analyze(testName, steps, slowMarginNanos);
+		burnsPerTest.put(testName, burns);
+		return burns;
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return listener which adds all steps of the test to this report when it gets closed
+	 */
+	public WebDriverEventListener createListener(final String testName) {
+		return new AbstractStepListener() {
+			private final List<Step> steps = new ArrayList<>();
+
+			@Override
+			protected synchronized void onStep(Step step) {
+				if (step.getCmd() != null && step.getCmd().isLookup()) {
+					steps.add(step);
+				}
+			}
+
+			@Override
+			public synchronized void closeListener() {
+				addSteps(testName, steps);
+				steps.clear();
+			}
+		};
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return charged lookups per locator of the given test, the most expensive locator first
+	 */
+	public synchronized List<LocatorBurn> getLocators(String testName) {
+		List<LocatorBurn> burns = burnsPerTest.get(testName);
+		return (burns != null) ? new ArrayList<>(burns) : Collections.<LocatorBurn>emptyList();
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return time in nanoseconds the given test lost waiting for elements
+	 */
+	public synchronized long getLostNanos(String testName) {
+		long lost = 0L;
+		for (LocatorBurn burn : getLocators(testName)) {
+			lost += burn.lostNanos;
+		}
+		return lost;
+	}
+
+	/**
+	 * @return charged lookups per locator summed up over all tests, the most expensive locator first
+	 */
+	public synchronized List<LocatorBurn> getSuiteLocators() {
+		Map<String, LocatorBurn> suite = new LinkedHashMap<>();
+		for (List<LocatorBurn> burns : burnsPerTest.values()) {
+			for (LocatorBurn burn : burns) {
+				LocatorBurn sum = suite.computeIfAbsent(burn.locator, l -> new LocatorBurn(null, l));
+				sum.lookups += burn.lookups;
+				sum.failed += burn.failed;
+				sum.absent += burn.absent;
+				sum.slow += burn.slow;
+				sum.lostNanos += burn.lostNanos;
+			}
+		}
+		List<LocatorBurn> result = new ArrayList<>(suite.values());
+		Collections.sort(result, BY_LOST_TIME);
+		return result;
+	}
+
+	/**
+	 * Writes the report as plain text. Only locators which lost time are listed.
+	 *
+	 * @param writer target; it will not be closed by this method
+	 */
+	public synchronized void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("Time lost to implicit waits");
+		out.println("===========================");
+		long total = 0L;
+		for (String testName : burnsPerTest.keySet()) {
+			long lost = getLostNanos(testName);
+			total += lost;
+			out.println(String.format(Locale.ROOT, "%-60s %10.3f s", testName, seconds(lost)));
+		}
+		out.println(String.format(Locale.ROOT, "%-60s %10.3f s", "Suite", seconds(total)));
+
+		for (Map.Entry<String, List<LocatorBurn>> test : burnsPerTest.entrySet()) {
+			printLocators(out, "Locators of " + test.getKey(), test.getValue());
+		}
+		printLocators(out, "Locators of the suite", getSuiteLocators());
+		out.flush();
+	}
+
+	private static void printLocators(PrintWriter out, String title, List<LocatorBurn> burns) {
+		if (burns.isEmpty() || burns.get(0).lostNanos == 0L)
+			return;
+		out.println();
+		out.println(title + ":");
+		out.println(String.format(Locale.ROOT, "%10s %8s %8s %8s %8s  %s", "Lost [s]", "Lookups", "Failed", "Absent",
+				"Slow", "Locator"));
+		for (LocatorBurn burn : burns) {
+			if (burn.lostNanos == 0L)
+				break;
+			out.println(String.format(Locale.ROOT, "%10.3f %8d %8d %8d %8d  %s", seconds(burn.lostNanos), burn.lookups,
+					burn.failed, burn.absent, burn.slow, burn.locator));
+		}
+	}
+
+	/**
+	 * Analyzes the lookups of one test.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @param slowMarginNanos time a successful lookup may exceed the median lookup before it gets
+	 * charged as slow
+	 * @return charged lookups per locator, the most expensive locator first
+	 */
+	public static List<LocatorBurn> analyze(String testName, List<Step> steps, long slowMarginNanos) {
+		if (steps == null || steps.isEmpty())
+			return Collections.emptyList();
+
+		// lookups ending a command, i.e. with a result or an exception
+		List<Step> lookups = new ArrayList<>();
+		List<Long> foundTimes = new ArrayList<>();
+		for (Step step : steps) {
+			if (step.getCmd() == null || !step.getCmd().isLookup() || step.getTimeElapsedStep() < 0L)
+				continue;
+			if (step.getTypeOfLog() == Type.AfterGather) {
+				lookups.add(step);
+				if (!isAbsent(step)) {
+					foundTimes.add(lookupNanos(step));
+				}
+			} else if (step.getTypeOfLog() == Type.Exception) {
+				lookups.add(step);
+			}
+		}
+		long median = 0L;
+		if (!foundTimes.isEmpty()) {
+			Collections.sort(foundTimes);
+			median = foundTimes.get(foundTimes.size() / 2);
+		}
+
+		Map<String, LocatorBurn> burns = new LinkedHashMap<>();
+		for (Step step : lookups) {
+			String locator = (step.getParam1() != null) ? step.getParam1() : "unknown";
+			LocatorBurn burn = burns.computeIfAbsent(locator, l -> new LocatorBurn(testName, l));
+			burn.lookups++;
+			if (step.getImplicitWait() <= 0L)
+				continue;
+
+			long waitNanos = TimeUnit.MILLISECONDS.toNanos(step.getImplicitWait());
+			long time = lookupNanos(step);
+			if (step.getTypeOfLog() == Type.Exception) {
+				burn.failed++;
+				burn.lostNanos += Math.min(time, waitNanos);
+			} else if (isAbsent(step)) {
+				burn.absent++;
+				burn.lostNanos += Math.min(time, waitNanos);
+			} else if (time > median + slowMarginNanos) {
+				burn.slow++;
+				burn.lostNanos += Math.min(time - median, waitNanos);
+			}
+		}
+		List<LocatorBurn> result = new ArrayList<>(burns.values());
+		Collections.sort(result, BY_LOST_TIME);
+		return result;
+	}
+
+	/*
+	 * findElements() does not fail for missing elements but waits the whole implicit wait and
+	 * returns an empty list, which leaves the return value of the step unset.
+	 */
+	private static boolean isAbsent(Step step) {
+		return (step.getCmd() == Cmd.findElementsByWebDriver || step.getCmd() == Cmd.findElementsByElement)
+				&& step.getReturnValue() == null;
+	}
+
+	private static long lookupNanos(Step step) {
+		return (step.getTimeInDriver() >= 0L) ? step.getTimeInDriver() : step.getTimeElapsedStep();
+	}
+
+	private static double seconds(long nanos) {
+		return nanos / 1e9;
+	}
+
+	/**
+	 * Lookups of one locator and the time they lost waiting for the implicit wait.
+	 */
+	public static class LocatorBurn {
+		private final String testName;
+		private final String locator;
+		private int lookups;
+		private int failed;
+		private int absent;
+		private int slow;
+		private long lostNanos;
+
+		LocatorBurn(String testName, String locator) {
+			this.testName = testName;
+			this.locator = locator;
+		}
+
+		/**
+		 * @return name of the test or null if summed up over the suite
+		 */
+		public String getTestName() {
+			return testName;
+		}
+
+		public String getLocator() {
+			return locator;
+		}
+
+		public int getLookups() {
+			return lookups;
+		}
+
+		public int getFailed() {
+			return failed;
+		}
+
+		public int getAbsent() {
+			return absent;
+		}
+
+		public int getSlow() {
+			return slow;
+		}
+
+		public long getLostNanos() {
+			return lostNanos;
+		}
+	}
+
+	/**
+	 * Analyzes JSON files written by {@link FullJSONLogger} and writes one report for all of them.
+	 *
+	 * @param args name of the report file followed by one or more JSON files to read
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: ImplicitWaitReport <report file> <step log file> [<step log file> ...]");
+			return;
+		}
+
+		ImplicitWaitReport report = new ImplicitWaitReport();
+		for (int i = 1; i < args.length; i++) {
+			String testName = new File(args[i]).getName().replaceAll("\\.json$", "");
+			report.addSteps(testName, FullJSONLogger.readStepsFromFile(args[i]));
+		}
+		try (Writer writer = new FileWriter(args[0])) {
+			report.write(writer);
+			System.out.println("Done writing implicit wait report to " + args[0]);
+		} catch (IOException e) {
+			System.err.println("Error while writing implicit wait report to " + args[0]);
+			e.printStackTrace();
+		}
+	}
+}
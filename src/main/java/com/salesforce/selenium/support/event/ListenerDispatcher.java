@@ -0,0 +1,1121 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Coordinates;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
+
+/**
+ * Forwards each event to all registered listeners by plain method calls.
+ * <p>
+ * The listeners are kept in an array which is never modified but replaced as a whole by
+ * {@link #register(WebDriverEventListener)} and {@link #unregister(WebDriverEventListener)}.
+ * Hence dispatching an event neither locks nor copies anything and calls each listener directly,
+ * instead of going through reflection, boxing of arguments and wrapping of exceptions as a
+ * {@link java.lang.reflect.Proxy} does.
+ * <p>
+ * Each event is only passed on to the listeners interested in its command, see
+ * {@link WebDriverEventListener#getCmdsOfInterest()}, and the step loses all fields none of
+ * these listeners is interested in, see {@link WebDriverEventListener#getFieldsOfInterest()}.
+ * <p>
+ * The time spent in each listener gets measured, see {@link #getListenerStats()}. If a budget
+ * per event is configured, a listener which exceeds it {@link #getMaxBudgetBreaches()} times
+ * in a row gets demoted to an {@link AsyncEventListener}, or disabled if it already is one. As
+ * passing on an event asynchronously includes waiting for space in the queue, a demoted listener
+ * which keeps falling behind exceeds the budget again and gets disabled as well.
+ * <p>
+ * Exceptions thrown by a listener are passed on to the caller and skip the remaining listeners,
+ * unless a maximum number of failures is configured: then they get printed and the listener
+ * gets disabled after that many failures in a row.
+ * 
+ * @since 3.0.23
+ */
+public class ListenerDispatcher implements WebDriverEventListener {
+	/**
+	 * Number of budget breaches in a row after which a listener gets demoted if
+	 * {@link EventFiringWebDriver#CONFIG_LISTENER_MAX_BREACHES} is not set: {@value}
+	 */
+	public static final int DEFAULT_MAX_BUDGET_BREACHES = 5;
+
+	private static final Cmd[] CMDS = Cmd.values();
+
+	/**
+	 * Delivery state of a registered listener.
+	 */
+	public enum State {
+		/** events get passed on by the thread which fired them */
+		INLINE,
+		/** events get passed on by an {@link AsyncEventListener} after too many budget breaches */
+		ASYNC,
+		/** events are no longer passed on */
+		DISABLED
+	}
+
+	private final long budgetNanos;
+	private final int maxBudgetBreaches;
+	private final int maxFailures;
+	private volatile Routing routing = new Routing(new Guard[0]);
+
+	/**
+	 * Creates a dispatcher configured by the properties
+	 * {@link EventFiringWebDriver#CONFIG_LISTENER_BUDGET_MILLIS},
+	 * {@link EventFiringWebDriver#CONFIG_LISTENER_MAX_BREACHES} and
+	 * {@link EventFiringWebDriver#CONFIG_LISTENER_MAX_FAILURES}.
+	 */
+	public ListenerDispatcher() {
+		this(TimeUnit.MILLISECONDS.toNanos(Configuration.getInstance().getInt(EventFiringWebDriver.CONFIG_LISTENER_BUDGET_MILLIS, 0)),
+				Configuration.getInstance().getInt(EventFiringWebDriver.CONFIG_LISTENER_MAX_BREACHES, DEFAULT_MAX_BUDGET_BREACHES),
+				Configuration.getInstance().getInt(EventFiringWebDriver.CONFIG_LISTENER_MAX_FAILURES, 0));
+	}
+
+	/**
+	 * @param budgetNanos
+	 *            time in nanoseconds a listener may spend on one event; 0 for no budget
+	 * @param maxBudgetBreaches
+	 *            number of budget breaches in a row after which a listener gets demoted
+	 * @param maxFailures
+	 *            number of exceptions in a row after which a listener gets disabled; 0 to pass
+	 *            on all exceptions to the caller
+	 */
+	public ListenerDispatcher(long budgetNanos, int maxBudgetBreaches, int maxFailures) {
+		this.budgetNanos = budgetNanos;
+		this.maxBudgetBreaches = Math.max(1, maxBudgetBreaches);
+		this.maxFailures = maxFailures;
+	}
+
+	/**
+	 * @param eventListener
+	 *            the event listener to register
+	 */
+	public synchronized void register(WebDriverEventListener eventListener) {
+		Guard[] guards = routing.guards;
+		Guard[] newGuards = Arrays.copyOf(guards, guards.length + 1);
+		newGuards[guards.length] = new Guard(eventListener);
+		routing = new Routing(newGuards);
+	}
+
+	/**
+	 * @param eventListener
+	 *            the event listener to unregister; only its first registration gets removed
+	 */
+	public synchronized void unregister(WebDriverEventListener eventListener) {
+		Guard[] guards = routing.guards;
+		for (int i = 0; i < guards.length; i++) {
+			if (guards[i].listener.equals(eventListener)) {
+				Guard[] newGuards = new Guard[guards.length - 1];
+				System.arraycopy(guards, 0, newGuards, 0, i);
+				System.arraycopy(guards, i + 1, newGuards, i, guards.length - i - 1);
+				routing = new Routing(newGuards);
+				if (guards[i].state == State.ASYNC) {
+					// stop the thread of the demoted listener
+					guards[i].target.closeListener();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return registered listeners in the order they get called
+	 */
+	public List<WebDriverEventListener> getListeners() {
+		Guard[] guards = routing.guards;
+		List<WebDriverEventListener> listeners = new ArrayList<>(guards.length);
+		for (Guard guard : guards) {
+			listeners.add(guard.listener);
+		}
+		return Collections.unmodifiableList(listeners);
+	}
+
+	/**
+	 * @return time spent in and state of each registered listener, in the order of registration
+	 */
+	public List<ListenerStats> getListenerStats() {
+		Guard[] guards = routing.guards;
+		List<ListenerStats> stats = new ArrayList<>(guards.length);
+		for (Guard guard : guards) {
+			stats.add(new ListenerStats(guard));
+		}
+		return stats;
+	}
+
+	/**
+	 * @return time in nanoseconds a listener may spend on one event; 0 if there is no budget
+	 */
+	public long getBudgetNanos() {
+		return budgetNanos;
+	}
+
+	/**
+	 * @return number of budget breaches in a row after which a listener gets demoted
+	 */
+	public int getMaxBudgetBreaches() {
+		return maxBudgetBreaches;
+	}
+
+	/**
+	 * @param cmd
+	 *            command to check
+	 * @return true if at least one registered listener is interested in the given command
+	 */
+	public boolean isObserved(Cmd cmd) {
+		return routing.guardsPerCmd[cmd.ordinal()].length > 0;
+	}
+
+	/**
+	 * Called right before a step gets passed on to the listeners. Does nothing by default.
+	 * @param step
+	 *            step record
+	 */
+	protected void beforeDispatch(Step step) {
+		// no-op
+	}
+
+	/**
+	 * Called after an event has been passed on to the listeners. Does nothing by default.
+	 * @param nanos
+	 *            time in nanoseconds spent in the listeners
+	 */
+	protected void afterDispatch(long nanos) {
+		// no-op
+	}
+
+	private Guard[] prepare(Step step) {
+		Routing current = routing;
+		beforeDispatch(step);
+		if (step.getCmd() != null) {
+			step.retainFields(current.fieldsPerCmd.get(step.getCmd().ordinal()));
+		}
+		return current.guardsFor(step);
+	}
+
+	/*
+	 * Passes the given step on to the listeners interested in it.
+	 */
+	private void dispatch(Step step, Consumer<WebDriverEventListener> event) {
+		dispatch(prepare(step), event);
+	}
+
+	/*
+	 * Passes an event on to the given listeners, measuring the time spent in each of them
+	 * and handling their failures.
+	 */
+	private void dispatch(Guard[] targets, Consumer<WebDriverEventListener> event) {
+		long start = System.nanoTime();
+		long end = start;
+		try {
+			for (Guard guard : targets) {
+				try {
+					event.accept(guard.target);
+					guard.succeeded();
+				} catch (RuntimeException e) {
+					guard.failed(e);
+				} finally {
+					end = guard.finished(end);
+				}
+			}
+		} finally {
+			afterDispatch(end - start);
+		}
+	}
+
+	private void demote(Guard guard) {
+		synchronized (this) {
+			if (guard.state == State.DISABLED)
+				return;
+
+			if (guard.state == State.INLINE && !(guard.target instanceof AsyncEventListener)) {
+				System.err.println("Listener " + guard.getName() + " exceeded its budget of "
+						+ TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms " + maxBudgetBreaches
+						+ " times in a row; passing on further events asynchronously");
+				guard.target = new AsyncEventListener(guard.listener);
+				guard.state = State.ASYNC;
+				return;
+			}
+			disable(guard, "exceeded its budget of " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms "
+					+ maxBudgetBreaches + " times in a row although it is asynchronous already");
+		}
+		// pass on the events queued so far and stop the thread, outside the lock as this waits
+		try {
+			guard.target.closeListener();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private synchronized void disable(Guard guard, String reason) {
+		if (guard.state == State.DISABLED)
+			return;
+
+		System.err.println("Listener " + guard.getName() + " " + reason + "; disabling it");
+		guard.state = State.DISABLED;
+		// rebuild the routing without the disabled listener
+		routing = new Routing(routing.guards);
+	}
+
+	/*
+	 * A registered listener together with its interests, time spent and delivery state.
+	 */
+	private final class Guard {
+		private final WebDriverEventListener listener;
+		private final Set<Cmd> cmds;
+		private final Set<Field> fields;
+		private final LongAdder events = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final LongAdder budgetBreaches = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final AtomicInteger breachesInARow = new AtomicInteger();
+		private final AtomicInteger failuresInARow = new AtomicInteger();
+		private volatile WebDriverEventListener target;
+		private volatile State state = State.INLINE;
+
+		Guard(WebDriverEventListener listener) {
+			this.listener = listener;
+			this.target = listener;
+			// EnumSet.copyOf() would fail on empty sets of other types
+			this.cmds = EnumSet.noneOf(Cmd.class);
+			this.cmds.addAll(listener.getCmdsOfInterest());
+			this.fields = EnumSet.noneOf(Field.class);
+			this.fields.addAll(listener.getFieldsOfInterest());
+		}
+
+		String getName() {
+			return listener.getClass().getName();
+		}
+
+		/*
+		 * Accounts the time since the given start and returns the current time, which is the
+		 * start of the next listener; this saves reading the clock twice per listener.
+		 */
+		long finished(long start) {
+			long now = System.nanoTime();
+			long elapsed = now - start;
+			events.increment();
+			nanos.add(elapsed);
+			if (elapsed > maxNanos.get()) {
+				maxNanos.accumulateAndGet(elapsed, Math::max);
+			}
+			if (budgetNanos <= 0L)
+				return now;
+
+			if (elapsed <= budgetNanos) {
+				breachesInARow.set(0);
+			} else {
+				budgetBreaches.increment();
+				if (breachesInARow.incrementAndGet() >= maxBudgetBreaches) {
+					breachesInARow.set(0);
+					demote(this);
+				}
+			}
+			return now;
+		}
+
+		void failed(RuntimeException e) {
+			failures.increment();
+			if (maxFailures <= 0)
+				throw e;
+
+			System.err.println("Listener " + getName() + " failed to process event");
+			e.printStackTrace();
+			if (failuresInARow.incrementAndGet() >= maxFailures) {
+				disable(this, "failed " + maxFailures + " times in a row");
+			}
+		}
+
+		void succeeded() {
+			if (maxFailures > 0) {
+				failuresInARow.set(0);
+			}
+		}
+	}
+
+	/**
+	 * Time spent in and state of one registered listener.
+	 */
+	public static class ListenerStats {
+		private final WebDriverEventListener listener;
+		private final State state;
+		private final long events;
+		private final long nanos;
+		private final long maxNanos;
+		private final long budgetBreaches;
+		private final long failures;
+
+		private ListenerStats(Guard guard) {
+			this.listener = guard.listener;
+			this.state = guard.state;
+			this.events = guard.events.sum();
+			this.nanos = guard.nanos.sum();
+			this.maxNanos = guard.maxNanos.get();
+			this.budgetBreaches = guard.budgetBreaches.sum();
+			this.failures = guard.failures.sum();
+		}
+
+		public WebDriverEventListener getListener() {
+			return listener;
+		}
+
+		public State getState() {
+			return state;
+		}
+
+		/**
+		 * @return number of events passed on to the listener
+		 */
+		public long getEvents() {
+			return events;
+		}
+
+		/**
+		 * @return total time in nanoseconds spent in the listener
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return longest time in nanoseconds spent on one event
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * @return number of events on which the listener exceeded its budget
+		 */
+		public long getBudgetBreaches() {
+			return budgetBreaches;
+		}
+
+		/**
+		 * @return number of exceptions thrown by the listener
+		 */
+		public long getFailures() {
+			return failures;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%s: %s, %d events, %.3f ms total, %.3f ms max, %d budget breaches, %d failures",
+					listener.getClass().getName(), state, events, nanos / 1e6, maxNanos / 1e6, budgetBreaches, failures);
+		}
+	}
+
+	/*
+	 * Immutable snapshot of the registered listeners and the listeners interested in each command.
+	 */
+	private static final class Routing {
+		private final Guard[] guards;
+		private final Guard[] active;
+		private final Guard[][] guardsPerCmd;
+		private final List<Set<Field>> fieldsPerCmd;
+
+		Routing(Guard[] guards) {
+			this.guards = guards;
+			List<Guard> enabled = new ArrayList<>(guards.length);
+			for (Guard guard : guards) {
+				if (guard.state != State.DISABLED) {
+					enabled.add(guard);
+				}
+			}
+			this.active = enabled.toArray(new Guard[enabled.size()]);
+			this.guardsPerCmd = new Guard[CMDS.length][];
+			this.fieldsPerCmd = new ArrayList<>(CMDS.length);
+			for (Cmd cmd : CMDS) {
+				List<Guard> interested = new ArrayList<>();
+				Set<Field> fields = EnumSet.noneOf(Field.class);
+				for (Guard guard : active) {
+					if (guard.cmds.contains(cmd)) {
+						interested.add(guard);
+						fields.addAll(guard.fields);
+					}
+				}
+				guardsPerCmd[cmd.ordinal()] = interested.toArray(new Guard[interested.size()]);
+				fieldsPerCmd.add(fields);
+			}
+		}
+
+		Guard[] guardsFor(Step step) {
+			return (step.getCmd() != null) ? guardsPerCmd[step.getCmd().ordinal()] : active;
+		}
+	}
+
+	@Override
+	public void beforeClose(Step step) {
+		dispatch(step, l -> l.beforeClose(step));
+	}
+
+	@Override
+	public void afterClose(Step step) {
+		dispatch(step, l -> l.afterClose(step));
+	}
+
+	@Override
+	public void beforeFindElementByWebDriver(Step step, By by) {
+		dispatch(step, l -> l.beforeFindElementByWebDriver(step, by));
+	}
+
+	@Override
+	public void afterFindElementByWebDriver(Step step, WebElement element, By by) {
+		dispatch(step, l -> l.afterFindElementByWebDriver(step, element, by));
+	}
+
+	@Override
+	public void beforeFindElementsByWebDriver(Step step, By by) {
+		dispatch(step, l -> l.beforeFindElementsByWebDriver(step, by));
+	}
+
+	@Override
+	public void afterFindElementsByWebDriver(Step step, List<WebElement> elements, By by) {
+		dispatch(step, l -> l.afterFindElementsByWebDriver(step, elements, by));
+	}
+
+	@Override
+	public void beforeGet(Step step, String url) {
+		dispatch(step, l -> l.beforeGet(step, url));
+	}
+
+	@Override
+	public void afterGet(Step step, String url) {
+		dispatch(step, l -> l.afterGet(step, url));
+	}
+
+	@Override
+	public void beforeGetCurrentUrl(Step step) {
+		dispatch(step, l -> l.beforeGetCurrentUrl(step));
+	}
+
+	@Override
+	public void afterGetCurrentUrl(Step step, String url) {
+		dispatch(step, l -> l.afterGetCurrentUrl(step, url));
+	}
+
+	@Override
+	public void beforeGetPageSource(Step step) {
+		dispatch(step, l -> l.beforeGetPageSource(step));
+	}
+
+	@Override
+	public void afterGetPageSource(Step step, String source) {
+		dispatch(step, l -> l.afterGetPageSource(step, source));
+	}
+
+	@Override
+	public void beforeGetTitle(Step step) {
+		dispatch(step, l -> l.beforeGetTitle(step));
+	}
+
+	@Override
+	public void afterGetTitle(Step step, String title) {
+		dispatch(step, l -> l.afterGetTitle(step, title));
+	}
+
+	@Override
+	public void beforeGetWindowHandle(Step step) {
+		dispatch(step, l -> l.beforeGetWindowHandle(step));
+	}
+
+	@Override
+	public void afterGetWindowHandle(Step step, String handle) {
+		dispatch(step, l -> l.afterGetWindowHandle(step, handle));
+	}
+
+	@Override
+	public void beforeGetWindowHandles(Step step) {
+		dispatch(step, l -> l.beforeGetWindowHandles(step));
+	}
+
+	@Override
+	public void afterGetWindowHandles(Step step, Set<String> handles) {
+		dispatch(step, l -> l.afterGetWindowHandles(step, handles));
+	}
+
+	@Override
+	public void beforeQuit(Step step) {
+		dispatch(step, l -> l.beforeQuit(step));
+	}
+
+	@Override
+	public void afterQuit(Step step) {
+		dispatch(step, l -> l.afterQuit(step));
+	}
+
+	@Override
+	public void beforeExecuteAsyncScript(Step step, String script, Object... args) {
+		dispatch(step, l -> l.beforeExecuteAsyncScript(step, script, args));
+	}
+
+	@Override
+	public void afterExecuteAsyncScript(Step step, String script, Object... args) {
+		dispatch(step, l -> l.afterExecuteAsyncScript(step, script, args));
+	}
+
+	@Override
+	public void beforeExecuteScript(Step step, String script, Object... args) {
+		dispatch(step, l -> l.beforeExecuteScript(step, script, args));
+	}
+
+	@Override
+	public void afterExecuteScript(Step step, String script, Object... args) {
+		dispatch(step, l -> l.afterExecuteScript(step, script, args));
+	}
+
+	@Override
+	public void beforeFetchProperties(Step step, List<WebElement> elements) {
+		dispatch(step, l -> l.beforeFetchProperties(step, elements));
+	}
+
+	@Override
+	public void afterFetchProperties(Step step, List<ElementProperties> properties) {
+		dispatch(step, l -> l.afterFetchProperties(step, properties));
+	}
+
+	@Override
+	public void beforeSnapshot(Step step, WebElement root) {
+		dispatch(step, l -> l.beforeSnapshot(step, root));
+	}
+
+	@Override
+	public void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+		dispatch(step, l -> l.afterSnapshot(step, snapshot, root));
+	}
+
+	@Override
+	public void beforeWaitFor(Step step, WaitCondition condition) {
+		dispatch(step, l -> l.beforeWaitFor(step, condition));
+	}
+
+	@Override
+	public void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+		dispatch(step, l -> l.afterWaitFor(step, condition, element));
+	}
+
+	@Override
+	public <X> void beforeGetScreenshotAs(Step step, OutputType<X> target) {
+		dispatch(step, l -> l.beforeGetScreenshotAs(step, target));
+	}
+
+	@Override
+	public <X> void afterGetScreenshotAs(Step step, OutputType<X> target) {
+		dispatch(step, l -> l.afterGetScreenshotAs(step, target));
+	}
+
+	@Override
+	public void beforeBack(Step step) {
+		dispatch(step, l -> l.beforeBack(step));
+	}
+
+	@Override
+	public void afterBack(Step step) {
+		dispatch(step, l -> l.afterBack(step));
+	}
+
+	@Override
+	public void beforeForward(Step step) {
+		dispatch(step, l -> l.beforeForward(step));
+	}
+
+	@Override
+	public void afterForward(Step step) {
+		dispatch(step, l -> l.afterForward(step));
+	}
+
+	@Override
+	public void beforeRefresh(Step step) {
+		dispatch(step, l -> l.beforeRefresh(step));
+	}
+
+	@Override
+	public void afterRefresh(Step step) {
+		dispatch(step, l -> l.afterRefresh(step));
+	}
+
+	@Override
+	public void beforeTo(Step step, String url) {
+		dispatch(step, l -> l.beforeTo(step, url));
+	}
+
+	@Override
+	public void afterTo(Step step, String url) {
+		dispatch(step, l -> l.afterTo(step, url));
+	}
+
+	@Override
+	public void beforeActiveElement(Step step) {
+		dispatch(step, l -> l.beforeActiveElement(step));
+	}
+
+	@Override
+	public void afterActiveElement(Step step, WebElement activeElement) {
+		dispatch(step, l -> l.afterActiveElement(step, activeElement));
+	}
+
+	@Override
+	public void beforeAlert(Step step) {
+		dispatch(step, l -> l.beforeAlert(step));
+	}
+
+	@Override
+	public void afterAlert(Step step, Alert alert) {
+		dispatch(step, l -> l.afterAlert(step, alert));
+	}
+
+	@Override
+	public void beforeDefaultContent(Step step) {
+		dispatch(step, l -> l.beforeDefaultContent(step));
+	}
+
+	@Override
+	public void afterDefaultContent(Step step) {
+		dispatch(step, l -> l.afterDefaultContent(step));
+	}
+
+	@Override
+	public void beforeFrameByIndex(Step step, int frameIndex) {
+		dispatch(step, l -> l.beforeFrameByIndex(step, frameIndex));
+	}
+
+	@Override
+	public void afterFrameByIndex(Step step, int frameIndex) {
+		dispatch(step, l -> l.afterFrameByIndex(step, frameIndex));
+	}
+
+	@Override
+	public void beforeFrameByName(Step step, String frameName) {
+		dispatch(step, l -> l.beforeFrameByName(step, frameName));
+	}
+
+	@Override
+	public void afterFrameByName(Step step, String frameName) {
+		dispatch(step, l -> l.afterFrameByName(step, frameName));
+	}
+
+	@Override
+	public void beforeFrameByElement(Step step, WebElement frameElement) {
+		dispatch(step, l -> l.beforeFrameByElement(step, frameElement));
+	}
+
+	@Override
+	public void afterFrameByElement(Step step, WebElement frameElement) {
+		dispatch(step, l -> l.afterFrameByElement(step, frameElement));
+	}
+
+	@Override
+	public void beforeParentFrame(Step step) {
+		dispatch(step, l -> l.beforeParentFrame(step));
+	}
+
+	@Override
+	public void afterParentFrame(Step step) {
+		dispatch(step, l -> l.afterParentFrame(step));
+	}
+
+	@Override
+	public void beforeWindow(Step step, String windowName) {
+		dispatch(step, l -> l.beforeWindow(step, windowName));
+	}
+
+	@Override
+	public void afterWindow(Step step, String windowName) {
+		dispatch(step, l -> l.afterWindow(step, windowName));
+	}
+
+	@Override
+	public void beforeImplicitlyWait(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.beforeImplicitlyWait(step, time, unit));
+	}
+
+	@Override
+	public void afterImplicitlyWait(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.afterImplicitlyWait(step, time, unit));
+	}
+
+	@Override
+	public void beforePageLoadTimeout(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.beforePageLoadTimeout(step, time, unit));
+	}
+
+	@Override
+	public void afterPageLoadTimeout(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.afterPageLoadTimeout(step, time, unit));
+	}
+
+	@Override
+	public void beforeSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.beforeSetScriptTimeout(step, time, unit));
+	}
+
+	@Override
+	public void afterSetScriptTimeout(Step step, long time, TimeUnit unit) {
+		dispatch(step, l -> l.afterSetScriptTimeout(step, time, unit));
+	}
+
+	@Override
+	public void beforeFullscreen(Step step) {
+		dispatch(step, l -> l.beforeFullscreen(step));
+	}
+
+	@Override
+	public void afterFullscreen(Step step) {
+		dispatch(step, l -> l.afterFullscreen(step));
+	}
+
+	@Override
+	public void beforeGetPosition(Step step) {
+		dispatch(step, l -> l.beforeGetPosition(step));
+	}
+
+	@Override
+	public void afterGetPosition(Step step, Point targetPosition) {
+		dispatch(step, l -> l.afterGetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void beforeGetSizeByWindow(Step step) {
+		dispatch(step, l -> l.beforeGetSizeByWindow(step));
+	}
+
+	@Override
+	public void afterGetSizeByWindow(Step step, Dimension targetSize) {
+		dispatch(step, l -> l.afterGetSizeByWindow(step, targetSize));
+	}
+
+	@Override
+	public void beforeMaximize(Step step) {
+		dispatch(step, l -> l.beforeMaximize(step));
+	}
+
+	@Override
+	public void afterMaximize(Step step) {
+		dispatch(step, l -> l.afterMaximize(step));
+	}
+
+	@Override
+	public void beforeSetPosition(Step step, Point targetPosition) {
+		dispatch(step, l -> l.beforeSetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void afterSetPosition(Step step, Point targetPosition) {
+		dispatch(step, l -> l.afterSetPosition(step, targetPosition));
+	}
+
+	@Override
+	public void beforeSetSize(Step step, Dimension targetSize) {
+		dispatch(step, l -> l.beforeSetSize(step, targetSize));
+	}
+
+	@Override
+	public void afterSetSize(Step step, Dimension targetSize) {
+		dispatch(step, l -> l.afterSetSize(step, targetSize));
+	}
+
+	@Override
+	public void beforeClick(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeClick(step, element));
+	}
+
+	@Override
+	public void afterClick(Step step, WebElement element) {
+		dispatch(step, l -> l.afterClick(step, element));
+	}
+
+	@Override
+	public void beforeClear(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeClear(step, element));
+	}
+
+	@Override
+	public void afterClear(Step step, WebElement element) {
+		dispatch(step, l -> l.afterClear(step, element));
+	}
+
+	@Override
+	public void beforeFindElementByElement(Step step, By by, WebElement element) {
+		dispatch(step, l -> l.beforeFindElementByElement(step, by, element));
+	}
+
+	@Override
+	public void afterFindElementByElement(Step step, WebElement returnedElement, By by, WebElement element) {
+		dispatch(step, l -> l.afterFindElementByElement(step, returnedElement, by, element));
+	}
+
+	@Override
+	public void beforeFindElementsByElement(Step step, By by, WebElement element) {
+		dispatch(step, l -> l.beforeFindElementsByElement(step, by, element));
+	}
+
+	@Override
+	public void afterFindElementsByElement(Step step, List<WebElement> returnedElements, By by, WebElement element) {
+		dispatch(step, l -> l.afterFindElementsByElement(step, returnedElements, by, element));
+	}
+
+	@Override
+	public void beforeGetAttribute(Step step, String name, WebElement element) {
+		dispatch(step, l -> l.beforeGetAttribute(step, name, element));
+	}
+
+	@Override
+	public void afterGetAttribute(Step step, String value, String name, WebElement element) {
+		dispatch(step, l -> l.afterGetAttribute(step, value, name, element));
+	}
+
+	@Override
+	public void beforeGetCssValue(Step step, String propertyName, WebElement element) {
+		dispatch(step, l -> l.beforeGetCssValue(step, propertyName, element));
+	}
+
+	@Override
+	public void afterGetCssValue(Step step, String propertyName, String value, WebElement element) {
+		dispatch(step, l -> l.afterGetCssValue(step, propertyName, value, element));
+	}
+
+	@Override
+	public void beforeGetTagName(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeGetTagName(step, element));
+	}
+
+	@Override
+	public void afterGetTagName(Step step, String tagName, WebElement element) {
+		dispatch(step, l -> l.afterGetTagName(step, tagName, element));
+	}
+
+	@Override
+	public void beforeGetText(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeGetText(step, element));
+	}
+
+	@Override
+	public void afterGetText(Step step, String text, WebElement element) {
+		dispatch(step, l -> l.afterGetText(step, text, element));
+	}
+
+	@Override
+	public void beforeIsDisplayed(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeIsDisplayed(step, element));
+	}
+
+	@Override
+	public void afterIsDisplayed(Step step, boolean isDisplayed, WebElement element) {
+		dispatch(step, l -> l.afterIsDisplayed(step, isDisplayed, element));
+	}
+
+	@Override
+	public void beforeIsEnabled(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeIsEnabled(step, element));
+	}
+
+	@Override
+	public void afterIsEnabled(Step step, boolean isEnabled, WebElement element) {
+		dispatch(step, l -> l.afterIsEnabled(step, isEnabled, element));
+	}
+
+	@Override
+	public void beforeIsSelected(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeIsSelected(step, element));
+	}
+
+	@Override
+	public void afterIsSelected(Step step, boolean isSelected, WebElement element) {
+		dispatch(step, l -> l.afterIsSelected(step, isSelected, element));
+	}
+
+	@Override
+	public void beforeGetLocation(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeGetLocation(step, element));
+	}
+
+	@Override
+	public void afterGetLocation(Step step, Point point, WebElement element) {
+		dispatch(step, l -> l.afterGetLocation(step, point, element));
+	}
+
+	@Override
+	public void beforeGetSizeByElement(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeGetSizeByElement(step, element));
+	}
+
+	@Override
+	public void afterGetSizeByElement(Step step, Dimension dimension, WebElement element) {
+		dispatch(step, l -> l.afterGetSizeByElement(step, dimension, element));
+	}
+
+	@Override
+	public void beforeGetRect(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeGetRect(step, element));
+	}
+
+	@Override
+	public void afterGetRect(Step step, Rectangle rectangle, WebElement element) {
+		dispatch(step, l -> l.afterGetRect(step, rectangle, element));
+	}
+
+	@Override
+	public void beforeSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		dispatch(step, l -> l.beforeSendKeysByElement(step, element, keysToSend));
+	}
+
+	@Override
+	public void afterSendKeysByElement(Step step, WebElement element, CharSequence... keysToSend) {
+		dispatch(step, l -> l.afterSendKeysByElement(step, element, keysToSend));
+	}
+
+	@Override
+	public void beforeSubmit(Step step, WebElement element) {
+		dispatch(step, l -> l.beforeSubmit(step, element));
+	}
+
+	@Override
+	public void afterSubmit(Step step, WebElement element) {
+		dispatch(step, l -> l.afterSubmit(step, element));
+	}
+
+	@Override
+	public void beforeSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		dispatch(step, l -> l.beforeSendKeysByKeyboard(step, keysToSend));
+	}
+
+	@Override
+	public void afterSendKeysByKeyboard(Step step, CharSequence... keysToSend) {
+		dispatch(step, l -> l.afterSendKeysByKeyboard(step, keysToSend));
+	}
+
+	@Override
+	public void beforePressKey(Step step, CharSequence... keyToPress) {
+		dispatch(step, l -> l.beforePressKey(step, keyToPress));
+	}
+
+	@Override
+	public void afterPressKey(Step step, CharSequence... keyToPress) {
+		dispatch(step, l -> l.afterPressKey(step, keyToPress));
+	}
+
+	@Override
+	public void beforeReleaseKey(Step step, CharSequence... keyToRelease) {
+		dispatch(step, l -> l.beforeReleaseKey(step, keyToRelease));
+	}
+
+	@Override
+	public void afterReleaseKey(Step step, CharSequence... keyToRelease) {
+		dispatch(step, l -> l.afterReleaseKey(step, keyToRelease));
+	}
+
+	@Override
+	public void beforeClickByMouse(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeClickByMouse(step, where));
+	}
+
+	@Override
+	public void afterClickByMouse(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterClickByMouse(step, where));
+	}
+
+	@Override
+	public void beforeDoubleClick(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeDoubleClick(step, where));
+	}
+
+	@Override
+	public void afterDoubleClick(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterDoubleClick(step, where));
+	}
+
+	@Override
+	public void beforeMouseDown(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeMouseDown(step, where));
+	}
+
+	@Override
+	public void afterMouseDown(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterMouseDown(step, where));
+	}
+
+	@Override
+	public void beforeMouseUp(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeMouseUp(step, where));
+	}
+
+	@Override
+	public void afterMouseUp(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterMouseUp(step, where));
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeMouseMove(step, where));
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterMouseMove(step, where));
+	}
+
+	@Override
+	public void beforeMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		dispatch(step, l -> l.beforeMouseMove(step, where, xOffset, yOffset));
+	}
+
+	@Override
+	public void afterMouseMove(Step step, Coordinates where, long xOffset, long yOffset) {
+		dispatch(step, l -> l.afterMouseMove(step, where, xOffset, yOffset));
+	}
+
+	@Override
+	public void beforeContextClick(Step step, Coordinates where) {
+		dispatch(step, l -> l.beforeContextClick(step, where));
+	}
+
+	@Override
+	public void afterContextClick(Step step, Coordinates where) {
+		dispatch(step, l -> l.afterContextClick(step, where));
+	}
+
+	@Override
+	public void onException(Step step, Cmd cmd, Throwable throwable) {
+		dispatch(routing.guardsFor(step), l -> l.onException(step, cmd, throwable));
+	}
+
+	@Override
+	public void closeListener() {
+		for (Guard guard : routing.guards) {
+			if (guard.state == State.DISABLED) {
+				// give it a chance to release its resources, but do not let it fail the test
+				try {
+					guard.target.closeListener();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			} else {
+				guard.target.closeListener();
+			}
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * Hides sensitive data such as passwords, tokens or session ids before it gets written to a
+ * {@link Step}.
+ * <p>
+ * Two kinds of rules are supported, both compiled once when the engine gets created:
+ * <ul>
+ * <li>Sensitive locators, see {@link EventFiringWebDriver#CONFIG_PASSWORD_MASK}: everything typed
+ * into or read from the "value" attribute of such an element gets replaced by {@value #MASK}.
+ * All locators are looked for at once by an Aho-Corasick automaton, hence the cost does not
+ * grow with the number of locators.</li>
+ * <li>Sensitive values, see {@link EventFiringWebDriver#CONFIG_MASK_VALUES}: each match of this
+ * regular expression gets replaced by {@value #MASK}, wherever it shows up in typed text,
+ * script arguments, attribute values or the page source.</li>
+ * </ul>
+ * Text without any match gets returned as is, without being copied.
+ *
+ * @since 3.0.23
+ */
+public final class MaskingEngine {
+	/**
+	 * Replacement for sensitive data: {@value}
+	 */
+	public static final String MASK = "********";
+
+	private final Automaton sensitiveLocators;
+	private final Pattern sensitiveValues;
+
+	/**
+	 * @param sensitiveLocators
+	 *            substrings identifying the locators of sensitive elements
+	 * @param sensitiveValues
+	 *            regular expression matching sensitive values; null or empty for none
+	 */
+	public MaskingEngine(Collection<String> sensitiveLocators, String sensitiveValues) {
+		this.sensitiveLocators = new Automaton(sensitiveLocators);
+		this.sensitiveValues = (sensitiveValues != null && !sensitiveValues.isEmpty()) ? Pattern.compile(sensitiveValues) : null;
+	}
+
+	/**
+	 * Creates an engine using the rules currently defined by {@link Configuration}.
+	 * An invalid regular expression for values gets reported and ignored.
+	 *
+	 * @return new engine
+	 */
+	public static MaskingEngine fromConfiguration() {
+		Configuration config = Configuration.getInstance();
+		List<String> locators = new ArrayList<>();
+		for (String locator : config.get(EventFiringWebDriver.CONFIG_PASSWORD_MASK, "password").split(",")) {
+			if (!locator.trim().isEmpty()) {
+				locators.add(locator.trim());
+			}
+		}
+		String values = config.get(EventFiringWebDriver.CONFIG_MASK_VALUES, null);
+		try {
+			return new MaskingEngine(locators, values);
+		} catch (PatternSyntaxException e) {
+			System.err.println("Ignoring invalid value of property " + EventFiringWebDriver.CONFIG_MASK_VALUES + ": " + e.getMessage());
+			return new MaskingEngine(locators, null);
+		}
+	}
+
+	/**
+	 * @param locator
+	 *            locator of an element
+	 * @return true if the locator contains any of the sensitive locators
+	 */
+	public boolean isSensitiveLocator(String locator) {
+		return locator != null && sensitiveLocators.containsAny(locator);
+	}
+
+	/**
+	 * @param text
+	 *            any text
+	 * @return given text with each sensitive value replaced by {@value #MASK}
+	 */
+	public String maskValues(String text) {
+		if (text == null || sensitiveValues == null)
+			return text;
+
+		Matcher matcher = sensitiveValues.matcher(text);
+		if (!matcher.find())
+			return text;
+
+		StringBuffer buffer = new StringBuffer(text.length());
+		do {
+			matcher.appendReplacement(buffer, MASK);
+		} while (matcher.find());
+		matcher.appendTail(buffer);
+		return buffer.toString();
+	}
+
+	/**
+	 * @param locator
+	 *            locator of the element the keys get sent to
+	 * @param keysToSend
+	 *            keys as passed to {@link WebElement#sendKeys(CharSequence...)}
+	 * @return keys to log
+	 */
+	public String maskKeys(String locator, CharSequence... keysToSend) {
+		if (isSensitiveLocator(locator))
+			return MASK;
+
+		StringBuilder buffer = new StringBuilder();
+		if (keysToSend != null) {
+			for (CharSequence keys : keysToSend) {
+				buffer.append(keys);
+			}
+		}
+		return maskValues(buffer.toString());
+	}
+
+	/**
+	 * @param locator
+	 *            locator of the element the attribute was read from
+	 * @param name
+	 *            name of the attribute
+	 * @param value
+	 *            value of the attribute
+	 * @return value to log
+	 */
+	public String maskAttribute(String locator, String name, String value) {
+		if (value != null && "value".equals(name) && isSensitiveLocator(locator))
+			return MASK;
+		return maskValues(value);
+	}
+
+	/**
+	 * Renders the arguments of a script. Elements are shown by their locators. If any of them
+	 * is a sensitive element, all texts get masked as they might be meant for that element.
+	 *
+	 * @param args
+	 *            arguments as passed to executeScript() or executeAsyncScript()
+	 * @return arguments to log
+	 */
+	public String maskArguments(Object... args) {
+		if (args == null || args.length == 0)
+			return null;
+
+		boolean maskTexts = false;
+		for (Object arg : args) {
+			if (arg instanceof WebElement && isSensitiveLocator(Step.getLocatorFromWebElement((WebElement) arg))) {
+				maskTexts = true;
+				break;
+			}
+		}
+		StringBuilder buffer = new StringBuilder();
+		appendArgument(buffer, Arrays.asList(args), maskTexts);
+		return buffer.toString();
+	}
+
+	private void appendArgument(StringBuilder buffer, Object arg, boolean maskTexts) {
+		if (arg instanceof WebElement) {
+			buffer.append(Step.getLocatorFromWebElement((WebElement) arg));
+		} else if (arg instanceof Collection<?>) {
+			buffer.append('[');
+			String separator = "";
+			for (Object item : (Collection<?>) arg) {
+				buffer.append(separator);
+				appendArgument(buffer, item, maskTexts);
+				separator = ", ";
+			}
+			buffer.append(']');
+		} else if (arg instanceof Map<?, ?>) {
+			buffer.append('{');
+			String separator = "";
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) arg).entrySet()) {
+				buffer.append(separator).append(entry.getKey()).append('=');
+				appendArgument(buffer, entry.getValue(), maskTexts);
+				separator = ", ";
+			}
+			buffer.append('}');
+		} else if (arg instanceof CharSequence) {
+			buffer.append(maskTexts ? MASK : maskValues(arg.toString()));
+		} else {
+			buffer.append(arg);
+		}
+	}
+
+	/*
+	 * Aho-Corasick automaton finding any of a set of substrings in a single pass.
+	 */
+	private static final class Automaton {
+		// per state: transitions by character, state to continue with on mismatch, and
+		// whether any of the substrings ends here
+		private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+		private final int[] failure;
+		private final boolean[] accepting;
+
+		private Automaton(Collection<String> substrings) {
+			List<Boolean> ends = new ArrayList<>();
+			transitions.add(new HashMap<>());
+			ends.add(Boolean.FALSE);
+			for (String substring : substrings) {
+				int state = 0;
+				for (int i = 0; i < substring.length(); i++) {
+					Integer next = transitions.get(state).get(substring.charAt(i));
+					if (next == null) {
+						next = transitions.size();
+						transitions.get(state).put(substring.charAt(i), next);
+						transitions.add(new HashMap<>());
+						ends.add(Boolean.FALSE);
+					}
+					state = next;
+				}
+				ends.set(state, Boolean.TRUE);
+			}
+
+			failure = new int[transitions.size()];
+			accepting = new boolean[transitions.size()];
+			for (int state = 0; state < accepting.length; state++) {
+				accepting[state] = ends.get(state);
+			}
+			// breadth first, so the failure state of the parent is known already
+			Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+			while (!queue.isEmpty()) {
+				int state = queue.remove();
+				for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+					int next = transition.getValue();
+					int fallback = failure[state];
+					while (fallback != 0 && !transitions.get(fallback).containsKey(transition.getKey())) {
+						fallback = failure[fallback];
+					}
+					Integer target = transitions.get(fallback).get(transition.getKey());
+					failure[next] = (target != null) ? target : 0;
+					accepting[next] |= accepting[failure[next]];
+					queue.add(next);
+				}
+			}
+		}
+
+		private boolean containsAny(String text) {
+			if (accepting[0])
+				return true; // empty substring
+			if (transitions.get(0).isEmpty())
+				return false;
+
+			int state = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				Integer next;
+				while ((next = transitions.get(state).get(c)) == null && state != 0) {
+					state = failure[state];
+				}
+				state = (next != null) ? next : 0;
+				if (accepting[state])
+					return true;
+			}
+			return false;
+		}
+	}
+}
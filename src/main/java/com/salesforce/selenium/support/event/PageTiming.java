@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.Map;
+
+/**
+ * Navigation Timing and Core Web Vitals of a page as attached to the step which loaded it, see
+ * {@link EventFiringWebDriver#CONFIG_PAGE_TIMING} and {@link Step#getPageTiming()}.
+ * <p>
+ * All times are in milliseconds since the navigation started; values the browser did not
+ * report, e.g. the load time of a page still loading, are -1.
+ * <ul>
+ * <li>LCP is the start time of the last largest-contentful-paint entry.</li>
+ * <li>CLS is the largest session window of layout shifts not caused by user input, as defined
+ * by the Web Vitals.</li>
+ * <li>INP is the longest interaction on the page so far; as pages loaded by a test have hardly
+ * seen any interactions, it is mostly -1.</li>
+ * </ul>
+ *
+ * @since 3.0.23
+ */
+public class PageTiming {
+	private String url;
+	private double timeOrigin = -1d;
+	private double dns = -1d;
+	private double ttfb = -1d;
+	private double domContentLoaded = -1d;
+	private double load = -1d;
+	private double lcp = -1d;
+	private double cls = -1d;
+	private double inp = -1d;
+
+	/**
+	 * Empty Default constructor to be used by de-serialization.
+	 */
+	public PageTiming() {
+		// no-op
+	}
+
+	/**
+	 * @param result
+	 *            object returned by the timing script
+	 * @return timing
+	 */
+	static PageTiming fromScriptResult(Map<?, ?> result) {
+		PageTiming timing = new PageTiming();
+		Object url = result.get("url");
+		timing.url = (url != null) ? url.toString() : null;
+		timing.timeOrigin = number(result.get("timeOrigin"));
+		timing.dns = number(result.get("dns"));
+		timing.ttfb = number(result.get("ttfb"));
+		timing.domContentLoaded = number(result.get("domContentLoaded"));
+		timing.load = number(result.get("load"));
+		timing.lcp = number(result.get("lcp"));
+		timing.cls = number(result.get("cls"));
+		timing.inp = number(result.get("inp"));
+		return timing;
+	}
+
+	private static double number(Object value) {
+		return (value instanceof Number) ? ((Number) value).doubleValue() : -1d;
+	}
+
+	/**
+	 * @return URL of the document as navigated to
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	/**
+	 * @return start of the navigation in milliseconds since the epoch; identifies the document
+	 */
+	public double getTimeOrigin() {
+		return timeOrigin;
+	}
+
+	public void setTimeOrigin(double timeOrigin) {
+		this.timeOrigin = timeOrigin;
+	}
+
+	/**
+	 * @return time spent on the DNS lookup
+	 */
+	public double getDns() {
+		return dns;
+	}
+
+	public void setDns(double dns) {
+		this.dns = dns;
+	}
+
+	/**
+	 * @return time to the first byte of the response
+	 */
+	public double getTtfb() {
+		return ttfb;
+	}
+
+	public void setTtfb(double ttfb) {
+		this.ttfb = ttfb;
+	}
+
+	/**
+	 * @return time until the DOMContentLoaded event has been handled
+	 */
+	public double getDomContentLoaded() {
+		return domContentLoaded;
+	}
+
+	public void setDomContentLoaded(double domContentLoaded) {
+		this.domContentLoaded = domContentLoaded;
+	}
+
+	/**
+	 * @return time until the load event has been handled
+	 */
+	public double getLoad() {
+		return load;
+	}
+
+	public void setLoad(double load) {
+		this.load = load;
+	}
+
+	/**
+	 * @return Largest Contentful Paint
+	 */
+	public double getLcp() {
+		return lcp;
+	}
+
+	public void setLcp(double lcp) {
+		this.lcp = lcp;
+	}
+
+	/**
+	 * @return Cumulative Layout Shift, a score without unit
+	 */
+	public double getCls() {
+		return cls;
+	}
+
+	public void setCls(double cls) {
+		this.cls = cls;
+	}
+
+	/**
+	 * @return Interaction to Next Paint
+	 */
+	public double getInp() {
+		return inp;
+	}
+
+	public void setInp(double inp) {
+		this.inp = inp;
+	}
+
+	@Override
+	public String toString() {
+		return "PageTiming [url=" + url + ", dns=" + dns + ", ttfb=" + ttfb + ", domContentLoaded=" + domContentLoaded
+				+ ", load=" + load + ", lcp=" + lcp + ", cls=" + cls + ", inp=" + inp + "]";
+	}
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Collects metrics on all {@link EventFiringWebDriver} instances running in this JVM and
+ * serves them in the Prometheus text format on {@code http://localhost:<port>/metrics}.
+ * <p>
+ * The metrics get fed by {@link PrometheusMetricsListener} instances, one per WebDriver session.
+ * The endpoint is optional: either call {@link #start(int)} yourself or set the property
+ * {@link EventFiringWebDriver#CONFIG_PROMETHEUS_PORT} and each {@link EventFiringWebDriver}
+ * will start the endpoint and register a listener on its own.
+ * <p>
+ * Exposed metrics:
+ * <ul>
+ * <li>{@code webdriver_command_duration_seconds} - histogram per {@link Cmd}</li>
+ * <li>{@code webdriver_active_sessions} - number of WebDriver sessions not yet quit</li>
+ * <li>{@code webdriver_commands_total} - number of commands executed</li>
+ * <li>{@code webdriver_commands_per_second} - command rate over the last {@value #RATE_WINDOW_SECONDS} seconds</li>
+ * <li>{@code webdriver_exceptions_total} - number of exceptions by exception type</li>
+ * <li>{@code webdriver_listener_events_total} - number of events passed on per listener class,
+ * added when a session quits</li>
+ * <li>{@code webdriver_listener_seconds_total} - time spent in listeners per listener class,
+ * added when a session quits</li>
+ * <li>{@code webdriver_read_cache_hits_total} - number of gather commands answered by a {@link ReadCache}</li>
+ * <li>{@code webdriver_read_cache_misses_total} - number of gather commands a {@link ReadCache} had no answer for</li>
+ * </ul>
+ *
+ * @since 3.0.23
+ */
+public final class PrometheusExporter {
+	/**
+	 * Path on which the metrics get served: {@value}
+	 */
+	public static final String METRICS_PATH = "/metrics";
+	/**
+	 * Number of seconds used to calculate the command rate: {@value}
+	 */
+	public static final int RATE_WINDOW_SECONDS = 10;
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final double[] BUCKETS = new double[] { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 30.0 };
+
+	private static final Map<Cmd, Histogram> commandDurations = new ConcurrentHashMap<>();
+	private static final Map<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+	private static final Map<String, LongAdder> listenerEvents = new ConcurrentHashMap<>();
+	private static final Map<String, DoubleAdder> listenerSeconds = new ConcurrentHashMap<>();
+	private static final LongAdder commandsTotal = new LongAdder();
+	private static final LongAdder readCacheHits = new LongAdder();
+	private static final LongAdder readCacheMisses = new LongAdder();
+	private static final AtomicInteger activeSessions = new AtomicInteger();
+	private static final RateCounter commandRate = new RateCounter(RATE_WINDOW_SECONDS);
+	private static final AtomicReference<HttpServer> server = new AtomicReference<>();
+
+	private PrometheusExporter() {
+		// static access only
+	}
+
+	/**
+	 * Starts the HTTP endpoint on the loopback interface, unless it is already running.
+	 *
+	 * @param port port to listen on; use 0 to pick any free port
+	 * @return port the endpoint is listening on
+	 * @throws IOException if the port cannot be bound
+	 */
+	public static synchronized int start(int port) throws IOException {
+		HttpServer running = server.get();
+		if (running != null)
+			return running.getAddress().getPort();
+
+		final HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.createContext(METRICS_PATH, PrometheusExporter::handle);
+		// the dispatcher thread of the HTTP server inherits the daemon flag of the thread
+		// calling start(); make sure the endpoint never keeps the test JVM alive
+		Thread starter = new Thread(httpServer::start, "prometheus-exporter-start");
+		starter.setDaemon(true);
+		starter.start();
+		try {
+			starter.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		server.set(httpServer);
+		System.out.println("Info: serving WebDriver metrics on http://localhost:" + httpServer.getAddress().getPort() + METRICS_PATH);
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * Stops the HTTP endpoint, if running. Collected metrics are kept.
+	 */
+	public static synchronized void stop() {
+		HttpServer running = server.getAndSet(null);
+		if (running != null)
+			running.stop(0);
+	}
+
+	/**
+	 * @return true if the HTTP endpoint is running
+	 */
+	public static boolean isRunning() {
+		return server.get() != null;
+	}
+
+	/**
+	 * Resets all collected metrics. Mainly useful for testing.
+	 */
+	public static void reset() {
+		commandDurations.clear();
+		exceptions.clear();
+		listenerEvents.clear();
+		listenerSeconds.clear();
+		commandsTotal.reset();
+		readCacheHits.reset();
+		readCacheMisses.reset();
+		activeSessions.set(0);
+		commandRate.reset();
+	}
+
+	static void sessionStarted() {
+		activeSessions.incrementAndGet();
+	}
+
+	static void sessionEnded() {
+		activeSessions.decrementAndGet();
+	}
+
+	static void recordCommand(Cmd cmd, long elapsedNanos) {
+		commandsTotal.increment();
+		commandRate.increment();
+		if (cmd != null && elapsedNanos >= 0) {
+			commandDurations.computeIfAbsent(cmd, c -> new Histogram()).observe(elapsedNanos / 1e9);
+		}
+	}
+
+	static void recordException(Throwable issue) {
+		String type = (issue != null) ? issue.getClass().getName() : "unknown";
+		exceptions.computeIfAbsent(type, t -> new LongAdder()).increment();
+	}
+
+	static void recordListener(String listener, long events, long nanos) {
+		listenerEvents.computeIfAbsent(listener, l -> new LongAdder()).add(events);
+		listenerSeconds.computeIfAbsent(listener, l -> new DoubleAdder()).add(nanos / 1e9);
+	}
+
+	static void recordReadCache(boolean hit) {
+		(hit ? readCacheHits : readCacheMisses).increment();
+	}
+
+	/**
+	 * Renders all metrics in the Prometheus text exposition format.
+	 *
+	 * @return current metrics as text
+	 */
+	public static String scrape() {
+		StringBuilder sb = new StringBuilder(4096);
+
+		sb.append("# HELP webdriver_command_duration_seconds Duration of WebDriver commands.\n");
+		sb.append("# TYPE webdriver_command_duration_seconds histogram\n");
+		for (Map.Entry<Cmd, Histogram> entry : new TreeMap<>(commandDurations).entrySet()) {
+			entry.getValue().render(sb, "webdriver_command_duration_seconds", "cmd=\"" + entry.getKey().name() + "\"");
+		}
+
+		sb.append("# HELP webdriver_active_sessions Number of WebDriver sessions which have not been quit yet.\n");
+		sb.append("# TYPE webdriver_active_sessions gauge\n");
+		sb.append("webdriver_active_sessions ").append(activeSessions.get()).append('\n');
+
+		sb.append("# HELP webdriver_commands_total Number of WebDriver commands executed.\n");
+		sb.append("# TYPE webdriver_commands_total counter\n");
+		sb.append("webdriver_commands_total ").append(commandsTotal.sum()).append('\n');
+
+		sb.append("# HELP webdriver_commands_per_second WebDriver commands per second over the last ")
+				.append(RATE_WINDOW_SECONDS).append(" seconds.\n");
+		sb.append("# TYPE webdriver_commands_per_second gauge\n");
+		sb.append("webdriver_commands_per_second ").append(commandRate.perSecond()).append('\n');
+
+		sb.append("# HELP webdriver_exceptions_total Number of exceptions thrown by WebDriver commands.\n");
+		sb.append("# TYPE webdriver_exceptions_total counter\n");
+		for (Map.Entry<String, LongAdder> entry : new TreeMap<>(exceptions).entrySet()) {
+			sb.append("webdriver_exceptions_total{type=\"").append(escapeLabelValue(entry.getKey())).append("\"} ")
+					.append(entry.getValue().sum()).append('\n');
+		}
+
+		sb.append("# HELP webdriver_listener_events_total Number of events passed on to WebDriver event listeners.\n");
+		sb.append("# TYPE webdriver_listener_events_total counter\n");
+		for (Map.Entry<String, LongAdder> entry : new TreeMap<>(listenerEvents).entrySet()) {
+			sb.append("webdriver_listener_events_total{listener=\"").append(escapeLabelValue(entry.getKey())).append("\"} ")
+					.append(entry.getValue().sum()).append('\n');
+		}
+
+		sb.append("# HELP webdriver_listener_seconds_total Time spent in WebDriver event listeners.\n");
+		sb.append("# TYPE webdriver_listener_seconds_total counter\n");
+		for (Map.Entry<String, DoubleAdder> entry : new TreeMap<>(listenerSeconds).entrySet()) {
+			sb.append("webdriver_listener_seconds_total{listener=\"").append(escapeLabelValue(entry.getKey())).append("\"} ")
+					.append(entry.getValue().sum()).append('\n');
+		}
+
+		sb.append("# HELP webdriver_read_cache_hits_total Number of gather commands answered by the read cache.\n");
+		sb.append("# TYPE webdriver_read_cache_hits_total counter\n");
+		sb.append("webdriver_read_cache_hits_total ").append(readCacheHits.sum()).append('\n');
+
+		sb.append("# HELP webdriver_read_cache_misses_total Number of gather commands the read cache had no answer for.\n");
+		sb.append("# TYPE webdriver_read_cache_misses_total counter\n");
+		sb.append("webdriver_read_cache_misses_total ").append(readCacheMisses.sum()).append('\n');
+		return sb.toString();
+	}
+
+	private static void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	static String escapeLabelValue(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	/**
+	 * Histogram with the fixed buckets defined in {@link PrometheusExporter#BUCKETS}.
+	 */
+	private static class Histogram {
+		private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1];
+		private final DoubleAdder sum = new DoubleAdder();
+
+		Histogram() {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = new LongAdder();
+			}
+		}
+
+		void observe(double seconds) {
+			int i = 0;
+			while (i < BUCKETS.length && seconds > BUCKETS[i]) {
+				i++;
+			}
+			counts[i].increment();
+			sum.add(seconds);
+		}
+
+		void render(StringBuilder sb, String name, String labels) {
+			long cumulative = 0L;
+			for (int i = 0; i < BUCKETS.length; i++) {
+				cumulative += counts[i].sum();
+				sb.append(name).append("_bucket{").append(labels).append(",le=\"").append(BUCKETS[i]).append("\"} ")
+						.append(cumulative).append('\n');
+			}
+			cumulative += counts[BUCKETS.length].sum();
+			sb.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(cumulative).append('\n');
+			sb.append(name).append("_sum{").append(labels).append("} ").append(sum.sum()).append('\n');
+			sb.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+		}
+	}
+
+	/**
+	 * Counts events per second in a ring of one-second slots.
+	 */
+	private static class RateCounter {
+		private final long[] slotSecond;
+		private final long[] slotCount;
+
+		RateCounter(int windowSeconds) {
+			slotSecond = new long[windowSeconds];
+			slotCount = new long[windowSeconds];
+		}
+
+		synchronized void increment() {
+			long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+			int slot = (int) (now % slotSecond.length);
+			if (slotSecond[slot] != now) {
+				slotSecond[slot] = now;
+				slotCount[slot] = 0L;
+			}
+			slotCount[slot]++;
+		}
+
+		synchronized double perSecond() {
+			long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+			long total = 0L;
+			for (int i = 0; i < slotSecond.length; i++) {
+				if (now - slotSecond[i] < slotSecond.length) {
+					total += slotCount[i];
+				}
+			}
+			return (double) total / slotSecond.length;
+		}
+
+		synchronized void reset() {
+			for (int i = 0; i < slotSecond.length; i++) {
+				slotSecond[i] = 0L;
+				slotCount[i] = 0L;
+			}
+		}
+	}
+}
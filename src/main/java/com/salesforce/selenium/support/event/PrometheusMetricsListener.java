@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Feeds the {@link Step} records of one WebDriver session into the JVM-wide metrics
+ * served by {@link PrometheusExporter}.
+ * <p>
+ * Register one instance per {@link EventFiringWebDriver}. The session is counted as active
+ * from creation of this listener until {@link #closeListener()} gets called, which
+ * {@link EventFiringWebDriver#quit()} does for all registered listeners.
+ *
+ * @since 3.0.23
+ */
+public class PrometheusMetricsListener extends AbstractStepListener {
+	private boolean isClosed = false;
+
+	public PrometheusMetricsListener() {
+		PrometheusExporter.sessionStarted();
+	}
+
+	@Override
+	protected void onStep(Step step) {
+		Type type = step.getTypeOfLog();
+		if (type == Type.AfterAction || type == Type.AfterGather) {
+			PrometheusExporter.recordCommand(step.getCmd(), step.getTimeElapsedStep());
+		}
+	}
+
+	@Override
+	public Set<Field> getFieldsOfInterest() {
+		// only command and timings are exported
+		return EnumSet.noneOf(Field.class);
+	}
+
+	@Override
+	public void onException(Step step, Cmd cmd, Throwable issue) {
+		PrometheusExporter.recordException(issue);
+	}
+
+	@Override
+	public synchronized void closeListener() {
+		if (!isClosed) {
+			isClosed = true;
+			PrometheusExporter.sessionEnded();
+		}
+	}
+}
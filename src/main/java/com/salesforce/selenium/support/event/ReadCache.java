@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+
+/**
+ * Answers of gather commands, valid until the next action, see
+ * {@link EventFiringWebDriver#CONFIG_READ_CACHE}.
+ * <p>
+ * Each answer gets stored with the step number it was read at. As the step number only
+ * changes when an action begins, an answer is valid as long as the step number is still the
+ * same; the first lookup after an action drops all answers. W3C actions performed by
+ * {@link org.openqa.selenium.interactions.Actions}, touch commands and accepting, dismissing or
+ * typing into alerts advance the step number as well, although they are not reported as steps.
+ * <p>
+ * The cache knows about actions executed through the EventFiringWebDriver only. Pages changing
+ * by themselves, e.g. by timers or push notifications, will not be noticed, and answers read by
+ * one thread while another one executes an action may survive that action.
+ *
+ * @since 3.0.23
+ */
+public final class ReadCache {
+	/**
+	 * Returned by {@link #get(Object, Cmd, Object, int)} if there is no valid answer.
+	 */
+	static final Object MISS = new Object();
+
+	private final Map<Key, Object> answers = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	// step number all answers stored belong to
+	private volatile int stepNumber = -1;
+
+	/**
+	 * @param target
+	 *            element the command was called for, or null for the driver
+	 * @param cmd
+	 *            gather command
+	 * @param arg
+	 *            argument of the command, or null
+	 * @param currentStepNumber
+	 *            current step number of the session
+	 * @return answer stored or {@link #MISS}
+	 */
+	Object get(Object target, Cmd cmd, Object arg, int currentStepNumber) {
+		Object answer = (stepNumber == currentStepNumber) ? answers.get(new Key(target, cmd, arg)) : null;
+		if (answer == null) {
+			misses.increment();
+			if (PrometheusExporter.isRunning()) {
+				PrometheusExporter.recordReadCache(false);
+			}
+			return MISS;
+		}
+		hits.increment();
+		if (PrometheusExporter.isRunning()) {
+			PrometheusExporter.recordReadCache(true);
+		}
+		// mutable answers get copied, so that callers can't change the answer stored
+		return (answer instanceof Set<?>) ? new LinkedHashSet<>((Set<?>) answer) : answer;
+	}
+
+	void put(Object target, Cmd cmd, Object arg, int currentStepNumber, Object answer) {
+		if (answer == null)
+			return;
+		if (stepNumber != currentStepNumber) {
+			synchronized (this) {
+				if (stepNumber != currentStepNumber) {
+					answers.clear();
+					stepNumber = currentStepNumber;
+				}
+			}
+		}
+		answers.put(new Key(target, cmd, arg), (answer instanceof Set<?>) ? new LinkedHashSet<>((Set<?>) answer) : answer);
+	}
+
+	/**
+	 * @return number of commands answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of commands sent to the browser as there was no valid answer
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ReadCache [hits=" + getHits() + ", misses=" + getMisses() + "]";
+	}
+
+	/*
+	 * Command and its target.
+	 */
+	private static final class Key {
+		private final Object target;
+		private final Cmd cmd;
+		private final Object arg;
+
+		private Key(Object target, Cmd cmd, Object arg) {
+			this.target = target;
+			this.cmd = cmd;
+			this.arg = arg;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return cmd == other.cmd && Objects.equals(target, other.target) && Objects.equals(arg, other.arg);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(target, cmd, arg);
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+import com.salesforce.selenium.support.event.Step.WebDriverInterface;
+
+/**
+ * Finds wasteful patterns in recorded steps, each of which costs a round-trip to the browser
+ * or grid:
+ * <ul>
+ * <li>{@link Waste#REPEATED_LOOKUP}: the same locator is looked up again although no action
+ * happened since the previous lookup,</li>
+ * <li>{@link Waste#REPEATED_READ}: the same value, e.g. getText() or isDisplayed() of the same
+ * element, is read again although no action happened in between, typically in a polling loop,</li>
+ * <li>{@link Waste#URL_AFTER_CLICK}: getCurrentUrl() is called right after a click, and</li>
+ * <li>{@link Waste#REDUNDANT_DEFAULT_CONTENT}: switchTo().defaultContent() is called although
+ * no frame has been entered since the previous call.</li>
+ * </ul>
+ * For each finding the round-trips and the driver time which could be saved get estimated from
+ * the recorded steps.
+ * <p>
+ * Feed it either offline with {@link #addSteps(String, List)} or live by registering the
+ * listener returned by {@link #createListener(String)} with each driver of the suite:
+ * <pre>
+ * java com.salesforce.selenium.support.event.RedundantCommandDetector target/redundant.txt test1.json test2.json
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class RedundantCommandDetector {
+	/**
+	 * Wasteful patterns detected in the recorded steps.
+	 */
+	public enum Waste {
+		REPEATED_LOOKUP("same locator looked up again without an action in between",
+				"keep the returned WebElement and reuse it until the page changes"),
+		REPEATED_READ("same value read again without an action in between",
+				"use an ExpectedCondition with a longer polling interval or wait inside the browser via executeAsyncScript()"),
+		URL_AFTER_CLICK("getCurrentUrl() right after a click",
+				"only check the URL after clicks which are expected to navigate"),
+		REDUNDANT_DEFAULT_CONTENT("switchTo().defaultContent() while already in the default content",
+				"switch back only after having switched into a frame");
+
+		private final String description;
+		private final String suggestion;
+
+		private Waste(String description, String suggestion) {
+			this.description = description;
+			this.suggestion = suggestion;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		public String getSuggestion() {
+			return suggestion;
+		}
+	}
+
+	private static final Comparator<Finding> BY_SAVED_TIME = Comparator.comparingLong(Finding::getSavedNanos).reversed();
+
+	private final Map<String, List<Finding>> findingsPerTest = new LinkedHashMap<>();
+
+	/**
+	 * Analyzes the steps of one test and adds the findings to this report.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @return findings of the test, the most expensive one first
+	 */
+	public synchronized List<Finding> addSteps(String testName, List<Step> steps) {
+		List<Finding> findings = analyze(testName, steps);
+		findingsPerTest.put(testName, findings);
+		return findings;
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return listener which adds all steps of the test to this report when it gets closed
+	 */
+	public WebDriverEventListener createListener(final String testName) {
+		return new AbstractStepListener() {
+			private final List<Step> steps = new ArrayList<>();
+
+			@Override
+			protected synchronized void onStep(Step step) {
+				if (step.getTypeOfLog() == Type.AfterAction || step.getTypeOfLog() == Type.AfterGather) {
+					steps.add(step);
+				}
+			}
+
+			@Override
+			public synchronized void closeListener() {
+				addSteps(testName, steps);
+				steps.clear();
+			}
+		};
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return findings of the given test, the most expensive one first
+	 */
+	public synchronized List<Finding> getFindings(String testName) {
+		List<Finding> findings = findingsPerTest.get(testName);
+		return (findings != null) ? new ArrayList<>(findings) : Collections.<Finding>emptyList();
+	}
+
+	/**
+	 * Writes the report as plain text.
+	 *
+	 * @param writer target; it will not be closed by this method
+	 */
+	public synchronized void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("Redundant commands");
+		out.println("==================");
+		out.println(String.format(Locale.ROOT, "%-60s %12s %12s", "Test", "Round-trips", "Saving [s]"));
+		int totalRoundTrips = 0;
+		long totalSaved = 0L;
+		for (Map.Entry<String, List<Finding>> test : findingsPerTest.entrySet()) {
+			int roundTrips = 0;
+			long saved = 0L;
+			for (Finding finding : test.getValue()) {
+				roundTrips += finding.occurrences;
+				saved += finding.savedNanos;
+			}
+			totalRoundTrips += roundTrips;
+			totalSaved += saved;
+			out.println(String.format(Locale.ROOT, "%-60s %12d %12.3f", test.getKey(), roundTrips, seconds(saved)));
+		}
+		out.println(String.format(Locale.ROOT, "%-60s %12d %12.3f", "Suite", totalRoundTrips, seconds(totalSaved)));
+
+		for (Map.Entry<String, List<Finding>> test : findingsPerTest.entrySet()) {
+			if (test.getValue().isEmpty())
+				continue;
+			out.println();
+			out.println("Findings of " + test.getKey() + ":");
+			for (Finding finding : test.getValue()) {
+				out.println(String.format(Locale.ROOT, "%10.3f s %5dx %s: %s (first at step %d)", seconds(finding.savedNanos),
+						finding.occurrences, finding.waste.getDescription(), finding.subject, finding.firstStepNumber));
+				out.println("                   -> " + finding.waste.getSuggestion());
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Analyzes the steps of one test.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @return findings of the test, the most expensive one first
+	 */
+	public static List<Finding> analyze(String testName, List<Step> steps) {
+		if (steps == null || steps.isEmpty())
+			return Collections.emptyList();
+
+		Map<String, Finding> findings = new LinkedHashMap<>();
+		// lookups and reads since the last action
+		Set<String> lookups = new HashSet<>();
+		Set<String> reads = new HashSet<>();
+		boolean inDefaultContent = false;
+		Step previous = null;
+		for (Step step : steps) {
+			Type type = step.getTypeOfLog();
+			Cmd cmd = step.getCmd();
+			if (cmd == null || (type != Type.AfterAction && type != Type.AfterGather))
+				continue;
+
+			if (type == Type.AfterAction) {
+				lookups.clear();
+				reads.clear();
+				if (cmd == Cmd.defaultContent) {
+					if (inDefaultContent) {
+						add(findings, testName, Waste.REDUNDANT_DEFAULT_CONTENT, cmd.getLongCmdString(), step);
+					}
+					inDefaultContent = true;
+				} else if (cmd == Cmd.get || cmd.getWebDriverInterface() == WebDriverInterface.Navigation) {
+					// loading a page always ends up in its top level document
+					inDefaultContent = true;
+				} else if (cmd.getWebDriverInterface() == WebDriverInterface.TargetLocator) {
+					// frames and windows change the context
+					inDefaultContent = false;
+				}
+			} else if (cmd.isLookup()) {
+				String key = subject(step);
+				if (!lookups.add(key)) {
+					add(findings, testName, Waste.REPEATED_LOOKUP, key, step);
+				}
+			} else {
+				String key = subject(step);
+				if (cmd == Cmd.getCurrentUrl && previous != null && isClick(previous.getCmd())) {
+					add(findings, testName, Waste.URL_AFTER_CLICK, key, step);
+					reads.add(key);
+				} else if (!reads.add(key)) {
+					add(findings, testName, Waste.REPEATED_READ, key, step);
+				}
+			}
+			previous = step;
+		}
+
+		List<Finding> result = new ArrayList<>(findings.values());
+		Collections.sort(result, BY_SAVED_TIME);
+		return result;
+	}
+
+	private static void add(Map<String, Finding> findings, String testName, Waste waste, String subject, Step step) {
+		Finding finding = findings.computeIfAbsent(waste + subject, k -> new Finding(testName, waste, subject, step.getStepNumber()));
+		finding.occurrences++;
+		long time = (step.getTimeInDriver() >= 0L) ? step.getTimeInDriver() : step.getTimeElapsedStep();
+		finding.savedNanos += Math.max(0L, time);
+	}
+
+	private static String subject(Step step) {
+		StringBuilder sb = new StringBuilder(step.getCmd().getLongCmdString());
+		if (step.getElementLocator() != null) {
+			sb.append(" on ").append(step.getElementLocator());
+		}
+		if (step.getParam1() != null && !step.getParam1().equals(step.getElementLocator())) {
+			sb.append(' ').append(step.getParam1());
+		}
+		return sb.toString();
+	}
+
+	private static boolean isClick(Cmd cmd) {
+		return cmd == Cmd.clickByElement || cmd == Cmd.clickByMouse || cmd == Cmd.doubleClick || cmd == Cmd.submit;
+	}
+
+	private static double seconds(long nanos) {
+		return nanos / 1e9;
+	}
+
+	/**
+	 * Redundant commands of one kind and subject within a test.
+	 */
+	public static class Finding {
+		private final String testName;
+		private final Waste waste;
+		private final String subject;
+		private final int firstStepNumber;
+		private int occurrences;
+		private long savedNanos;
+
+		Finding(String testName, Waste waste, String subject, int firstStepNumber) {
+			this.testName = testName;
+			this.waste = waste;
+			this.subject = subject;
+			this.firstStepNumber = firstStepNumber;
+		}
+
+		public String getTestName() {
+			return testName;
+		}
+
+		public Waste getWaste() {
+			return waste;
+		}
+
+		/**
+		 * @return command and locator the finding is about
+		 */
+		public String getSubject() {
+			return subject;
+		}
+
+		public int getFirstStepNumber() {
+			return firstStepNumber;
+		}
+
+		/**
+		 * @return number of redundant commands, i.e. round-trips which could be saved
+		 */
+		public int getOccurrences() {
+			return occurrences;
+		}
+
+		/**
+		 * @return time in nanoseconds which could be saved
+		 */
+		public long getSavedNanos() {
+			return savedNanos;
+		}
+	}
+
+	/**
+	 * Analyzes JSON files written by {@link FullJSONLogger} and writes one report for all of them.
+	 *
+	 * @param args name of the report file followed by one or more JSON files to read
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: RedundantCommandDetector <report file> <step log file> [<step log file> ...]");
+			return;
+		}
+
+		RedundantCommandDetector detector = new RedundantCommandDetector();
+		for (int i = 1; i < args.length; i++) {
+			String testName = new File(args[i]).getName().replaceAll("\\.json$", "");
+			detector.addSteps(testName, FullJSONLogger.readStepsFromFile(args[i]));
+		}
+		try (Writer writer = new FileWriter(args[0])) {
+			detector.write(writer);
+			System.out.println("Done writing redundant command report to " + args[0]);
+		} catch (IOException e) {
+			System.err.println("Error while writing redundant command report to " + args[0]);
+			e.printStackTrace();
+		}
+	}
+}
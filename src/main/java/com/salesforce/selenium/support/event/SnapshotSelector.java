@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.InvalidSelectorException;
+
+import com.salesforce.selenium.support.event.DomSnapshot.Node;
+
+/**
+ * Selector matching the elements of a {@link DomSnapshot}, supporting the subset of CSS
+ * described there. Compiled selectors get cached as snapshots are typically queried by the
+ * same selectors again and again.
+ *
+ * @since 3.0.23
+ */
+final class SnapshotSelector {
+	private static final int MAX_CACHED = 1000;
+	private static final Map<String, SnapshotSelector> COMPILED = new ConcurrentHashMap<>();
+
+	// alternatives separated by commas; each one is a chain of compounds, the last one matching
+	// the element itself
+	private final List<Compound[]> alternatives;
+
+	private SnapshotSelector(List<Compound[]> alternatives) {
+		this.alternatives = alternatives;
+	}
+
+	/**
+	 * @param selector
+	 *            selector without shadow path separators
+	 * @return compiled selector
+	 * @throws InvalidSelectorException
+	 *             if the selector is empty or uses unsupported syntax
+	 */
+	static SnapshotSelector parse(String selector) {
+		SnapshotSelector compiled = COMPILED.get(selector);
+		if (compiled == null) {
+			compiled = new Parser(selector).parse();
+			if (COMPILED.size() >= MAX_CACHED) {
+				COMPILED.clear();
+			}
+			COMPILED.put(selector, compiled);
+		}
+		return compiled;
+	}
+
+	boolean matches(Node node) {
+		for (Compound[] chain : alternatives) {
+			if (matches(node, chain, chain.length - 1))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean matches(Node node, Compound[] chain, int index) {
+		Compound compound = chain[index];
+		if (!compound.matches(node))
+			return false;
+		if (index == 0)
+			return true;
+
+		if (compound.childOfPrevious) {
+			Node parent = node.parent();
+			return parent != null && matches(parent, chain, index - 1);
+		}
+		for (Node ancestor = node.parent(); ancestor != null; ancestor = ancestor.parent()) {
+			if (matches(ancestor, chain, index - 1))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Type selector and conditions an element has to meet.
+	 */
+	private static final class Compound {
+		// null for any type
+		private String tagName;
+		private final List<Condition> conditions = new ArrayList<>();
+		// true if combined by '>' with the compound before, false if combined by white space
+		private boolean childOfPrevious;
+
+		boolean matches(Node node) {
+			if (tagName != null && !tagName.equals(node.tagName()))
+				return false;
+			for (Condition condition : conditions) {
+				if (!condition.matches(node.attribute(condition.attribute)))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/*
+	 * Condition on one attribute; id and class selectors are conditions on the attributes
+	 * "id" and "class".
+	 */
+	private static final class Condition {
+		private final String attribute;
+		// 0 for presence only, otherwise one of '=', '~', '^', '$', '*'
+		private final char operator;
+		private final String value;
+
+		Condition(String attribute, char operator, String value) {
+			this.attribute = attribute;
+			this.operator = operator;
+			this.value = value;
+		}
+
+		boolean matches(String actual) {
+			if (actual == null)
+				return false;
+			switch (operator) {
+			case 0:
+				return true;
+			case '=':
+				return actual.equals(value);
+			case '~':
+				for (String word : actual.trim().split("\\s+")) {
+					if (word.equals(value))
+						return true;
+				}
+				return false;
+			case '^':
+				return !value.isEmpty() && actual.startsWith(value);
+			case '$':
+				return !value.isEmpty() && actual.endsWith(value);
+			default:
+				return !value.isEmpty() && actual.contains(value);
+			}
+		}
+	}
+
+	/*
+	 * Recursive descent parser of the supported syntax.
+	 */
+	private static final class Parser {
+		private final String selector;
+		private int pos;
+
+		Parser(String selector) {
+			this.selector = selector;
+		}
+
+		SnapshotSelector parse() {
+			List<Compound[]> alternatives = new ArrayList<>();
+			do {
+				alternatives.add(parseChain());
+			} while (consume(','));
+			if (pos < selector.length())
+				throw invalid("unexpected '" + selector.charAt(pos) + "'");
+			return new SnapshotSelector(alternatives);
+		}
+
+		private Compound[] parseChain() {
+			List<Compound> chain = new ArrayList<>();
+			skipSpaces();
+			chain.add(parseCompound());
+			while (true) {
+				boolean spaces = skipSpaces();
+				if (pos >= selector.length() || selector.charAt(pos) == ',')
+					break;
+				boolean child = consume('>');
+				if (!child && !spaces)
+					throw invalid("unexpected '" + selector.charAt(pos) + "'");
+				skipSpaces();
+				Compound compound = parseCompound();
+				compound.childOfPrevious = child;
+				chain.add(compound);
+			}
+			return chain.toArray(new Compound[0]);
+		}
+
+		private Compound parseCompound() {
+			Compound compound = new Compound();
+			int start = pos;
+			if (consume('*')) {
+				// any type
+			} else if (pos < selector.length() && isNameChar(selector.charAt(pos))) {
+				compound.tagName = parseName().toLowerCase();
+			}
+			while (pos < selector.length()) {
+				char c = selector.charAt(pos);
+				if (c == '#') {
+					pos++;
+					compound.conditions.add(new Condition("id", '=', parseName()));
+				} else if (c == '.') {
+					pos++;
+					compound.conditions.add(new Condition("class", '~', parseName()));
+				} else if (c == '[') {
+					pos++;
+					compound.conditions.add(parseAttribute());
+				} else if (c == ':') {
+					throw invalid("pseudo-classes are not supported");
+				} else {
+					break;
+				}
+			}
+			if (pos == start)
+				throw invalid("selector expected");
+			return compound;
+		}
+
+		private Condition parseAttribute() {
+			skipSpaces();
+			String attribute = parseName();
+			skipSpaces();
+			char operator = 0;
+			String value = null;
+			if (consume('=')) {
+				operator = '=';
+			} else if (pos + 1 < selector.length() && selector.charAt(pos + 1) == '=' && "~^$*".indexOf(selector.charAt(pos)) >= 0) {
+				operator = selector.charAt(pos);
+				pos += 2;
+			}
+			if (operator != 0) {
+				skipSpaces();
+				value = parseValue();
+				skipSpaces();
+			}
+			if (!consume(']'))
+				throw invalid("']' expected");
+			return new Condition(attribute, operator, value);
+		}
+
+		private String parseValue() {
+			if (pos < selector.length() && (selector.charAt(pos) == '"' || selector.charAt(pos) == '\'')) {
+				char quote = selector.charAt(pos++);
+				StringBuilder value = new StringBuilder();
+				while (pos < selector.length() && selector.charAt(pos) != quote) {
+					char c = selector.charAt(pos++);
+					if (c == '\\' && pos < selector.length()) {
+						c = selector.charAt(pos++);
+					}
+					value.append(c);
+				}
+				if (!consume(quote))
+					throw invalid("unterminated string");
+				return value.toString();
+			}
+			return parseName();
+		}
+
+		private String parseName() {
+			StringBuilder name = new StringBuilder();
+			while (pos < selector.length()) {
+				char c = selector.charAt(pos);
+				if (c == '\\' && pos + 1 < selector.length()) {
+					name.append(selector.charAt(pos + 1));
+					pos += 2;
+				} else if (isNameChar(c)) {
+					name.append(c);
+					pos++;
+				} else {
+					break;
+				}
+			}
+			if (name.length() == 0)
+				throw invalid("name expected");
+			return name.toString();
+		}
+
+		private boolean skipSpaces() {
+			int start = pos;
+			while (pos < selector.length() && Character.isWhitespace(selector.charAt(pos))) {
+				pos++;
+			}
+			return pos > start;
+		}
+
+		private boolean consume(char c) {
+			if (pos < selector.length() && selector.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private static boolean isNameChar(char c) {
+			return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c > 0x7f;
+		}
+
+		private InvalidSelectorException invalid(String reason) {
+			return new InvalidSelectorException("Invalid selector '" + selector + "' at " + pos + ": " + reason);
+		}
+	}
+}
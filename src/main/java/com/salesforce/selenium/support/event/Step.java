@@ -6,7 +6,11 @@
  */
 package com.salesforce.selenium.support.event;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +35,10 @@ import com.fasterxml.jackson.annotation.JsonProperty.Access;
  */
 public class Step {
 	public enum Type { BeforeAction, AfterAction, BeforeGather, AfterGather, Exception }
+	/**
+	 * Fields which listeners may declare to need, see {@link WebDriverEventListener#getFieldsOfInterest()}.
+	 */
+	public enum Field { PARAM1, PARAM2, RETURN_VALUE, ELEMENT_LOCATOR }
 	// TODO add Alert
 	public enum WebDriverInterface { WebDriver, JavascriptExecutor, Navigation, TargetLocator, Timeouts, Window, WebElement, Keyboard, Mouse, TakesScreenshot }
 	public enum Cmd {
@@ -48,6 +56,9 @@ public class Step {
 		// commands called directly from WebDriver object after casting to JavascriptExecutor
 		executeAsyncScript(WebDriverInterface.JavascriptExecutor, "executeAsyncScript"),
 		executeScript(WebDriverInterface.JavascriptExecutor, "executeScript"),
+		fetchProperties(WebDriverInterface.JavascriptExecutor, "fetchProperties"),
+		snapshot(WebDriverInterface.JavascriptExecutor, "snapshot"),
+		waitFor(WebDriverInterface.JavascriptExecutor, "waitFor"),
 		// commands called directly from WebDriver object after casting to TakesScreenshot
 		getScreenshotAs(WebDriverInterface.TakesScreenshot, "getScreenshotAs"),
 		// commands called directly from WebDriver.Navigation object
@@ -117,6 +128,14 @@ public class Step {
 			return this.shortCmdString;
 		}
 
+		/**
+		 * @return true if this command looks up elements and hence waits up to the implicit wait
+		 */
+		public boolean isLookup() {
+			return this == findElementByWebDriver || this == findElementsByWebDriver || this == findElementByElement
+					|| this == findElementsByElement;
+		}
+
 		public WebDriverInterface getWebDriverInterface() {
 			return this.wdIf;
 		}
@@ -167,15 +186,29 @@ public class Step {
 		}
 	}
 
-	private static long timeMarkerElapsedStep;
-	private static long timeMarkerSinceLastStep;
-	private static int lastRecordNumber = 1;
+	// sample string:
+	// "[[RemoteWebDriver: firefox on WINDOWS (a66f78e9668e4aa3b066239459f969fe)] -> xpath: .//*[@id='Country__c_body']/table/tbody/tr[2]/th/a]"
+	private static final Pattern ELEMENT_PATTERN = Pattern.compile("(\\[\\[.+\\] -> )(.+)\\]");
+	// sample string:
+	// "xpath: .//*[@id='Country__c_body']/table/tbody/tr[2]/th/a]"
+	private static final Pattern LOCATOR_PATTERN = Pattern.compile("(\\S+): (.+)");
+	private static final Pattern LINK_TEXT_PATTERN = Pattern.compile("(link text): (.+)");
+	// sample string:
+	// "By.xpath: .//*[@id='thePage:j_id39:searchblock:test:j_id45_lkwgt']/img"
+	private static final Pattern BY_PATTERN = Pattern.compile("By.(\\S+): (.+)");
+	private static final Field[] FIELDS = Field.values();
 
 	private int recordNumber = -1;
+	private String recordId;
+	@JsonIgnore
+	private String sessionId;
 	private int stepNumber = -1;
 	private long timeStamp = -1L; // System.currentTimeMillis()
 	private long timeSinceLastAction = -1L; // measured from end of last action to begin of current action
 	private long timeElapsedStep = -1L; // measured from begin of current command to end of current command
+	private long timeInDriver = -1L; // time spent in the wrapped WebDriver during the current command
+	private long timeInFramework = -1L; // time spent in listeners and highlighting since the previous step
+	private long implicitWait = -1L; // implicit wait in milliseconds in effect during a lookup
 	private Type typeOfLog;
 	private Cmd cmd;
 	private String param1;
@@ -186,6 +219,12 @@ public class Step {
 	@JsonProperty(access = Access.READ_ONLY)
 	private Throwable issue;
 	private String elementLocator;
+	private String threadName;
+	private boolean cached; // true if the return value was taken from the ReadCache
+	private PageTiming pageTiming; // timing of the page loaded by this step, if collected
+	// suppliers of fields which get computed on first access only
+	@JsonIgnore
+	private volatile Map<Field, Supplier<String>> lazyFields;
 
 	/**
 	 * Empty Default constructor to be used by de-serialization.
@@ -194,27 +233,48 @@ public class Step {
 		// no-op
 	}
 
+	/**
+	 * Creates a step measured by a clock shared by all steps created this way. Use it for
+	 * tests and offline analysis only; drivers running in parallel have to use a clock each,
+	 * see {@link #Step(Type, int, Cmd, StepClock)}.
+	 */
 	public Step(Type typeOfLog, int stepNumber, Cmd cmd) {
-		this.recordNumber = Step.lastRecordNumber++;
+		this(typeOfLog, stepNumber, cmd, StepClock.DEFAULT);
+	}
+
+	/**
+	 * @param typeOfLog type of this step
+	 * @param stepNumber number of the command
+	 * @param cmd command
+	 * @param clock timing state of the session this step belongs to
+	 */
+	public Step(Type typeOfLog, int stepNumber, Cmd cmd, StepClock clock) {
+		StepClock.ThreadState state = clock.state();
+		this.recordNumber = clock.nextRecordNumber(state);
+		this.sessionId = clock.getSessionId();
 		this.typeOfLog = typeOfLog;
 		this.stepNumber = stepNumber;
 		this.cmd = cmd;
 		this.timeStamp = System.currentTimeMillis();
+		this.threadName = Thread.currentThread().getName();
 		
 		switch(typeOfLog) {
 		case BeforeAction:
-			timeStampsForBeginAction();
-			timeStampsForBeginStep();
+			if (stepNumber > 1) {
+				timeSinceLastAction = clock.beginAction();
+			}
+			clock.beginStep(state);
 			break;
 		case AfterAction:
-			timeStampsForAfterAction();
-			timeStampsForAfterStep();
+			clock.endAction();
+			timeElapsedStep = clock.endStep(state);
 			break;
 		case BeforeGather:
-			timeStampsForBeginStep();
+			clock.beginStep(state);
 			break;
 		case AfterGather:
-			timeStampsForAfterStep();
+		case Exception:
+			timeElapsedStep = clock.endStep(state);
 			break;
 		default:
 		}
@@ -228,6 +288,21 @@ public class Step {
 		this.recordNumber = recordNumber;
 	}
 
+	/**
+	 * @return id of this record, unique across sessions; null for records read from log files
+	 *         written before record ids were introduced
+	 */
+	public String getRecordId() {
+		if (recordId == null && sessionId != null) {
+			recordId = sessionId + "-" + recordNumber;
+		}
+		return recordId;
+	}
+
+	public void setRecordId(String recordId) {
+		this.recordId = recordId;
+	}
+
 	public int getStepNumber() {
 		return stepNumber;
 	}
@@ -260,6 +335,54 @@ public class Step {
 		this.timeElapsedStep = timeElapsedStep;
 	}
 
+	/**
+	 * Time in nanoseconds spent inside the wrapped WebDriver instance, i.e. the pure driver
+	 * or wire time of the command. Only set on steps of type {@link Type#AfterAction},
+	 * {@link Type#AfterGather} and {@link Type#Exception}.
+	 * 
+	 * @return driver time in nanoseconds or -1 if not measured
+	 */
+	public long getTimeInDriver() {
+		return timeInDriver;
+	}
+
+	public void setTimeInDriver(long timeInDriver) {
+		this.timeInDriver = timeInDriver;
+	}
+
+	/**
+	 * Time in nanoseconds spent by {@link EventFiringWebDriver} in its listeners and in
+	 * highlighting elements since the previous step got dispatched.
+	 * <p>
+	 * For a "before" step this is the overhead following the previous command, i.e. part of
+	 * {@link #getTimeSinceLastAction()}. For an "after" step this is the overhead of dispatching
+	 * the "before" step, i.e. part of {@link #getTimeElapsedStep()}.
+	 * 
+	 * @return framework time in nanoseconds or -1 if not measured
+	 */
+	public long getTimeInFramework() {
+		return timeInFramework;
+	}
+
+	public void setTimeInFramework(long timeInFramework) {
+		this.timeInFramework = timeInFramework;
+	}
+
+	/**
+	 * Implicit wait in milliseconds which was in effect while a lookup command was executed, as
+	 * set via <code>driver.manage().timeouts().implicitlyWait()</code>. Only set on steps of
+	 * commands for which {@link Cmd#isLookup()} returns true.
+	 * 
+	 * @return implicit wait in milliseconds or -1 if unknown
+	 */
+	public long getImplicitWait() {
+		return implicitWait;
+	}
+
+	public void setImplicitWait(long implicitWait) {
+		this.implicitWait = implicitWait;
+	}
+
 	public Type getTypeOfLog() {
 		return typeOfLog;
 	}
@@ -277,27 +400,36 @@ public class Step {
 	}
 
 	public String getParam1() {
-		return param1;
+		return (lazyFields == null) ? param1 : resolve(Field.PARAM1);
 	}
 
 	public void setParam1(String param1) {
 		this.param1 = param1;
+		if (lazyFields != null) {
+			dropLazily(Field.PARAM1);
+		}
 	}
 
 	public String getParam2() {
-		return param2;
+		return (lazyFields == null) ? param2 : resolve(Field.PARAM2);
 	}
 
 	public void setParam2(String param2) {
 		this.param2 = param2;
+		if (lazyFields != null) {
+			dropLazily(Field.PARAM2);
+		}
 	}
 
 	public String getReturnValue() {
-		return returnValue;
+		return (lazyFields == null) ? returnValue : resolve(Field.RETURN_VALUE);
 	}
 
 	public void setReturnValue(String returnValue) {
 		this.returnValue = returnValue;
+		if (lazyFields != null) {
+			dropLazily(Field.RETURN_VALUE);
+		}
 	}
 
 	public Object getReturnObject() {
@@ -317,11 +449,131 @@ public class Step {
 	}
 
 	public String getElementLocator() {
-		return elementLocator;
+		return (lazyFields == null) ? elementLocator : resolve(Field.ELEMENT_LOCATOR);
 	}
 
 	public void setElementLocator(String elementLocator) {
 		this.elementLocator = elementLocator;
+		if (lazyFields != null) {
+			dropLazily(Field.ELEMENT_LOCATOR);
+		}
+	}
+
+	/**
+	 * Sets the given field to a value which gets computed on first access only, e.g. because
+	 * formatting a locator is expensive and might not be needed by any listener.
+	 * 
+	 * @param field field to set
+	 * @param supplier computes the value of the field
+	 */
+	public synchronized void setLazily(Field field, Supplier<String> supplier) {
+		write(field, null);
+		if (lazyFields == null) {
+			lazyFields = new EnumMap<>(Field.class);
+		}
+		lazyFields.put(field, supplier);
+	}
+
+	/**
+	 * Clears all fields not contained in the given set, without computing them if they have
+	 * been set lazily.
+	 * 
+	 * @param fields fields to keep
+	 */
+	public void retainFields(Set<Field> fields) {
+		if (fields.size() == FIELDS.length)
+			return;
+		synchronized (this) {
+			for (Field field : FIELDS) {
+				if (!fields.contains(field)) {
+					write(field, null);
+					dropLazily(field);
+				}
+			}
+		}
+	}
+
+	private synchronized String resolve(Field field) {
+		if (lazyFields != null) {
+			Supplier<String> supplier = lazyFields.get(field);
+			if (supplier != null) {
+				write(field, supplier.get());
+				dropLazily(field);
+			}
+		}
+		return read(field);
+	}
+
+	private synchronized void dropLazily(Field field) {
+		if (lazyFields != null) {
+			lazyFields.remove(field);
+			if (lazyFields.isEmpty()) {
+				lazyFields = null;
+			}
+		}
+	}
+
+	private String read(Field field) {
+		switch (field) {
+		case PARAM1:
+			return param1;
+		case PARAM2:
+			return param2;
+		case RETURN_VALUE:
+			return returnValue;
+		default:
+			return elementLocator;
+		}
+	}
+
+	private void write(Field field, String value) {
+		switch (field) {
+		case PARAM1:
+			param1 = value;
+			break;
+		case PARAM2:
+			param2 = value;
+			break;
+		case RETURN_VALUE:
+			returnValue = value;
+			break;
+		default:
+			elementLocator = value;
+		}
+	}
+
+	/**
+	 * @return name of the thread which created this step
+	 */
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public void setThreadName(String threadName) {
+		this.threadName = threadName;
+	}
+
+	/**
+	 * @return true if the command was answered by the {@link ReadCache} instead of the browser
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+
+	public void setCached(boolean cached) {
+		this.cached = cached;
+	}
+
+	/**
+	 * @return timing of the page loaded by this step, or null if not collected, see
+	 *         {@link EventFiringWebDriver#CONFIG_PAGE_TIMING}
+	 */
+	public PageTiming getPageTiming() {
+		return pageTiming;
+	}
+
+	public void setPageTiming(PageTiming pageTiming) {
+		this.pageTiming = pageTiming;
 	}
 
 	@Override
@@ -331,12 +583,15 @@ public class Step {
 		buffer.append("type:").append(typeOfLog).append(",");
 		buffer.append("timestamp:").append(timeStamp).append(" ms,");
 		buffer.append("cmd:").append(cmd);
+		String param1 = getParam1();
 		if (param1 != null) {
 			buffer.append(",").append("param1:").append(param1);
 		}
+		String param2 = getParam2();
 		if (param2 != null) {
 			buffer.append(",").append("param2:").append(param2);
 		}
+		String returnValue = getReturnValue();
 		if (returnValue != null) {
 			buffer.append(",").append("returned:").append(returnValue).append(",");
 		}
@@ -349,6 +604,18 @@ public class Step {
 		if (timeElapsedStep != -1L) {
 			buffer.append(",").append("executed in:").append(formattedNanoTime(timeElapsedStep));
 		}
+		if (timeInDriver != -1L) {
+			buffer.append(",").append("in driver:").append(formattedNanoTime(timeInDriver));
+		}
+		if (implicitWait != -1L) {
+			buffer.append(",").append("implicit wait:").append(implicitWait).append(" ms");
+		}
+		if (cached) {
+			buffer.append(",").append("cached");
+		}
+		if (pageTiming != null) {
+			buffer.append(",").append("page timing:").append(pageTiming);
+		}
 		if (issue != null) {
 			buffer.append(",").append("issue:").append(issue.getMessage());
 		}
@@ -363,24 +630,6 @@ public class Step {
 		return timeString;
 	}
 
-	private void timeStampsForBeginAction() {
-		if (stepNumber > 1) {
-			timeSinceLastAction = System.nanoTime() - timeMarkerSinceLastStep;
-		}
-	}
-
-	private void timeStampsForAfterAction() {
-		timeMarkerSinceLastStep = System.nanoTime();
-	}
-
-	private void timeStampsForBeginStep() {
-		timeMarkerElapsedStep = System.nanoTime();
-	}
-
-	private void timeStampsForAfterStep() {
-		timeElapsedStep = System.nanoTime() - timeMarkerElapsedStep;
-	}
-
 	public static String getLocatorFromWebElement(WebElement elem) {
 		return (elem != null) ? getLocatorFromWebElement(elem.toString()) : null;
 	}
@@ -389,10 +638,7 @@ public class Step {
 		if (locator == null)
 			return null;
 
-		// sample string:
-		// "[[RemoteWebDriver: firefox on WINDOWS (a66f78e9668e4aa3b066239459f969fe)] -> xpath: .//*[@id='Country__c_body']/table/tbody/tr[2]/th/a]"
-		Pattern outerPattern = Pattern.compile("(\\[\\[.+\\] -> )(.+)\\]");
-		Matcher outerMatcher = outerPattern.matcher(locator);
+		Matcher outerMatcher = ELEMENT_PATTERN.matcher(locator);
 		if (!outerMatcher.matches()) {
 			// return toString() as-is
 			return locator;
@@ -400,14 +646,10 @@ public class Step {
 
 		// try to get the locator
 		locator = locator.substring(outerMatcher.start(2), outerMatcher.end(2));
-		// sample string:
-		// "xpath: .//*[@id='Country__c_body']/table/tbody/tr[2]/th/a]"
-		Pattern innerPattern = Pattern.compile("(\\S+): (.+)");
-		Matcher innerMatcher = innerPattern.matcher(locator);
+		Matcher innerMatcher = LOCATOR_PATTERN.matcher(locator);
 		boolean isLinkText = false;
 		if (!innerMatcher.matches()) {
-			innerPattern = Pattern.compile("(link text): (.+)");
-			innerMatcher = innerPattern.matcher(locator);
+			innerMatcher = LINK_TEXT_PATTERN.matcher(locator);
 			if (innerMatcher.matches()) {
 				isLinkText = true;
 			} else {
@@ -444,10 +686,7 @@ public class Step {
 	public static String getLocatorFromBy(String locator) {
 		if (locator == null)
 			return null;
-		// sample string:
-		// "By.xpath: .//*[@id='thePage:j_id39:searchblock:test:j_id45_lkwgt']/img"
-		Pattern pattern = Pattern.compile("By.(\\S+): (.+)");
-		Matcher matcher = pattern.matcher(locator);
+		Matcher matcher = BY_PATTERN.matcher(locator);
 		if (!matcher.matches()) {
 			// return what we got as-is
 			return locator;
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timing and numbering state of one WebDriver session, used by {@link Step} to measure how
+ * long a command took and how much time passed since the previous action.
+ * <p>
+ * Each {@link EventFiringWebDriver} owns a clock of its own, hence drivers running in parallel
+ * do not disturb each other's measurements. Within a session the begin of the current command
+ * is tracked per thread, while the end of the last action is shared by all threads.
+ * <p>
+ * Record numbers are unique within the session. Each thread takes blocks of
+ * {@value #RECORD_NUMBER_BLOCK_SIZE} numbers from a shared counter and hands them out without
+ * any synchronization; a session used by a single thread therefore gets consecutive numbers.
+ * Combined with the randomly chosen session id they form record ids which are unique across
+ * sessions and JVMs, see {@link Step#getRecordId()}.
+ *
+ * @since 3.0.23
+ */
+public class StepClock {
+	/**
+	 * Number of record numbers a thread reserves at once: {@value}
+	 */
+	public static final int RECORD_NUMBER_BLOCK_SIZE = 64;
+
+	/**
+	 * Clock used by steps created without a clock, e.g. for tests or offline analysis.
+	 */
+	static final StepClock DEFAULT = new StepClock();
+
+	private final String sessionId;
+	private final AtomicInteger nextRecordBlock = new AtomicInteger(1);
+	private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+	// end of the last action of any thread; 0 if there was no action yet
+	private volatile long lastActionEnd = 0L;
+
+	/**
+	 * Creates a clock with a random session id.
+	 */
+	public StepClock() {
+		this(Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36));
+	}
+
+	/**
+	 * @param sessionId
+	 *            prefix of all record ids of this session
+	 */
+	public StepClock(String sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public String getSessionId() {
+		return sessionId;
+	}
+
+	ThreadState state() {
+		return threadState.get();
+	}
+
+	void beginStep(ThreadState state) {
+		state.stepBegin = System.nanoTime();
+	}
+
+	long endStep(ThreadState state) {
+		return System.nanoTime() - state.stepBegin;
+	}
+
+	/**
+	 * @return time in nanoseconds since the end of the last action, or -1 if there was none
+	 */
+	long beginAction() {
+		long end = lastActionEnd;
+		return (end != 0L) ? System.nanoTime() - end : -1L;
+	}
+
+	void endAction() {
+		lastActionEnd = System.nanoTime();
+	}
+
+	int nextRecordNumber(ThreadState state) {
+		if (state.nextRecordNumber == state.recordNumberLimit) {
+			state.nextRecordNumber = nextRecordBlock.getAndAdd(RECORD_NUMBER_BLOCK_SIZE);
+			state.recordNumberLimit = state.nextRecordNumber + RECORD_NUMBER_BLOCK_SIZE;
+		}
+		return state.nextRecordNumber++;
+	}
+
+	/*
+	 * State of one thread using the session.
+	 */
+	static final class ThreadState {
+		private long stepBegin;
+		private int nextRecordNumber;
+		private int recordNumberLimit;
+	}
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Splits the wall-clock time of tests into
+ * <ul>
+ * <li><b>driver time</b>: time spent inside the wrapped WebDriver, see {@link Step#getTimeInDriver()},</li>
+ * <li><b>framework overhead</b>: time spent in listeners, highlighting and step bookkeeping,
+ * see {@link Step#getTimeInFramework()}, and</li>
+ * <li><b>think time</b>: everything else, i.e. time spent in the test code between two commands
+ * including any <code>Thread.sleep()</code>.</li>
+ * </ul>
+ * In addition it lists the worst gaps between two commands together with the steps surrounding
+ * each gap, per test and for the whole suite.
+ * <p>
+ * Steps recorded by older versions do not carry driver and framework times. For those steps the
+ * whole elapsed time of a command is counted as driver time.
+ * Gaps between two actions are measured in nanoseconds by {@link Step#getTimeSinceLastAction()},
+ * gaps next to a gather only with the millisecond precision of the time stamps.
+ * <p>
+ * Feed it either offline with {@link #addSteps(String, List)} or live by registering the
+ * listener returned by {@link #createListener(String)} with each driver of the suite:
+ * <pre>
+ * java com.salesforce.selenium.support.event.ThinkTimeReport target/thinktime.txt test1.json test2.json
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class ThinkTimeReport {
+	/**
+	 * Number of worst gaps listed per test and for the suite unless defined otherwise: {@value}
+	 */
+	public static final int DEFAULT_NUMBER_OF_GAPS = 10;
+
+	private static final Comparator<Gap> BY_DURATION = Comparator.comparingLong(Gap::getNanos).reversed();
+
+	private final int numberOfGaps;
+	private final List<Breakdown> tests = new ArrayList<>();
+
+	public ThinkTimeReport() {
+		this(DEFAULT_NUMBER_OF_GAPS);
+	}
+
+	/**
+	 * @param numberOfGaps number of worst gaps to list per test and for the suite
+	 */
+	public ThinkTimeReport(int numberOfGaps) {
+		this.numberOfGaps = numberOfGaps;
+	}
+
+	/**
+	 * Analyzes the steps of one test and adds the result to this report.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @return breakdown of the test
+	 */
+	public synchronized Breakdown addSteps(String testName, List<Step> steps) {
+		Breakdown breakdown = analyze(testName, steps, numberOfGaps);
+		tests.add(breakdown);
+		return breakdown;
+	}
+
+	/**
+	 * @param testName name of the test
+	 * @return listener which adds all steps of the test to this report when it gets closed
+	 */
+	public WebDriverEventListener createListener(final String testName) {
+		return new AbstractStepListener() {
+			private final List<Step> steps = new ArrayList<>();
+
+			@Override
+			protected synchronized void onStep(Step step) {
+				steps.add(step);
+			}
+
+			@Override
+			public synchronized void closeListener() {
+				addSteps(testName, steps);
+				steps.clear();
+			}
+		};
+	}
+
+	/**
+	 * @return breakdown of all tests added so far
+	 */
+	public synchronized List<Breakdown> getTests() {
+		return new ArrayList<>(tests);
+	}
+
+	/**
+	 * @return breakdown summed up over all tests added so far
+	 */
+	public synchronized Breakdown getSuite() {
+		Breakdown suite = new Breakdown("Suite (" + tests.size() + " tests)");
+		List<Gap> gaps = new ArrayList<>();
+		for (Breakdown test : tests) {
+			suite.wallNanos += test.wallNanos;
+			suite.driverNanos += test.driverNanos;
+			suite.frameworkNanos += test.frameworkNanos;
+			suite.thinkNanos += test.thinkNanos;
+			suite.commands += test.commands;
+			gaps.addAll(test.worstGaps);
+		}
+		suite.worstGaps.addAll(worst(gaps, numberOfGaps));
+		return suite;
+	}
+
+	/**
+	 * Writes the report as plain text.
+	 *
+	 * @param writer target; it will not be closed by this method
+	 */
+	public synchronized void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("Think time vs. driver time");
+		out.println("==========================");
+		out.println(String.format(Locale.ROOT, "%-50s %10s %10s %10s %10s %8s", "Test", "Wall [s]", "Driver [s]",
+				"Think [s]", "Overhead", "Commands"));
+		for (Breakdown test : tests) {
+			printBreakdown(out, test);
+		}
+		Breakdown suite = getSuite();
+		printBreakdown(out, suite);
+
+		for (Breakdown test : tests) {
+			printGaps(out, test);
+		}
+		printGaps(out, suite);
+		out.flush();
+	}
+
+	private static void printBreakdown(PrintWriter out, Breakdown breakdown) {
+		out.println(String.format(Locale.ROOT, "%-50s %10.3f %10.3f %10.3f %10.3f %8d", breakdown.getName(),
+				seconds(breakdown.wallNanos), seconds(breakdown.driverNanos), seconds(breakdown.thinkNanos),
+				seconds(breakdown.frameworkNanos), breakdown.commands));
+	}
+
+	private static void printGaps(PrintWriter out, Breakdown breakdown) {
+		if (breakdown.worstGaps.isEmpty())
+			return;
+		out.println();
+		out.println("Worst gaps of " + breakdown.getName() + ":");
+		for (Gap gap : breakdown.worstGaps) {
+			out.println(String.format(Locale.ROOT, "%10.3f s in %s", seconds(gap.nanos), gap.testName));
+			out.println("             after  " + describe(gap.previous));
+			out.println("             before " + describe(gap.next));
+		}
+	}
+
+	/**
+	 * Analyzes the steps of one test.
+	 *
+	 * @param testName name of the test
+	 * @param steps steps recorded for this test
+	 * @param numberOfGaps number of worst gaps to keep
+	 * @return breakdown of the test
+	 */
+	public static Breakdown analyze(String testName, List<Step> steps, int numberOfGaps) {
+		Breakdown breakdown = new Breakdown(testName);
+		if (steps == null || steps.isEmpty())
+			return breakdown;
+
+		long firstStart = Long.MAX_VALUE;
+		long lastEnd = Long.MIN_VALUE;
+		Map<String, Step> lastEndPerThread = new HashMap<>();
+		List<Gap> gaps = new ArrayList<>();
+		for (Step step : steps) {
+			long framework = Math.max(0L, step.getTimeInFramework());
+			breakdown.frameworkNanos += framework;
+
+			Type type = step.getTypeOfLog();
+			String thread = (step.getThreadName() != null) ? step.getThreadName() : "main";
+			if (type == Type.BeforeAction || type == Type.BeforeGather) {
+				firstStart = Math.min(firstStart, step.getTimeStamp());
+				Step previous = lastEndPerThread.get(thread);
+				if (previous != null) {
+					long gapNanos = gapNanos(previous, step) - framework;
+					if (gapNanos > 0L) {
+						gaps.add(new Gap(testName, gapNanos, previous, step));
+					}
+				}
+			} else if (type == Type.AfterAction || type == Type.AfterGather || type == Type.Exception) {
+				lastEnd = Math.max(lastEnd, step.getTimeStamp());
+				lastEndPerThread.put(thread, step);
+				if (step.getTimeElapsedStep() >= 0L) {
+					breakdown.commands++;
+					long elapsed = step.getTimeElapsedStep();
+					if (step.getTimeInDriver() >= 0L) {
+						breakdown.driverNanos += step.getTimeInDriver();
+						// bookkeeping inside the command which is neither driver nor listener time
+						breakdown.frameworkNanos += Math.max(0L, elapsed - step.getTimeInDriver() - framework);
+					} else {
+						breakdown.driverNanos += Math.max(0L, elapsed - framework);
+					}
+				}
+			}
+		}
+
+		if (firstStart != Long.MAX_VALUE && lastEnd != Long.MIN_VALUE && lastEnd > firstStart) {
+			breakdown.wallNanos = TimeUnit.MILLISECONDS.toNanos(lastEnd - firstStart);
+		}
+		breakdown.thinkNanos = Math.max(0L, breakdown.wallNanos - breakdown.driverNanos - breakdown.frameworkNanos);
+		breakdown.worstGaps.addAll(worst(gaps, numberOfGaps));
+		return breakdown;
+	}
+
+	/*
+	 * Time from the end of the previous command to the begin of the next one. Actions following an
+	 * action carry this time in nanoseconds, all other gaps fall back to the millisecond time stamps.
+	 */
+	private static long gapNanos(Step previous, Step next) {
+		if (next.getTimeSinceLastAction() >= 0L && previous.getTypeOfLog() == Type.AfterAction)
+			return next.getTimeSinceLastAction();
+		return TimeUnit.MILLISECONDS.toNanos(next.getTimeStamp() - previous.getTimeStamp());
+	}
+
+	private static List<Gap> worst(List<Gap> gaps, int max) {
+		List<Gap> sorted = new ArrayList<>(gaps);
+		Collections.sort(sorted, BY_DURATION);
+		return (sorted.size() > max) ? sorted.subList(0, max) : sorted;
+	}
+
+	private static String describe(Step step) {
+		StringBuilder sb = new StringBuilder();
+		sb.append('#').append(step.getStepNumber()).append(' ').append(step.getTypeOfLog()).append(' ');
+		sb.append((step.getCmd() != null) ? step.getCmd().getLongCmdString() : "unknown");
+		String detail = (step.getElementLocator() != null) ? step.getElementLocator() : step.getParam1();
+		if (detail != null) {
+			sb.append(' ').append((detail.length() > 120) ? detail.substring(0, 120) + "..." : detail);
+		}
+		return sb.toString();
+	}
+
+	private static double seconds(long nanos) {
+		return nanos / 1e9;
+	}
+
+	/**
+	 * Wall-clock time of a test or suite split into driver, think and framework time.
+	 */
+	public static class Breakdown {
+		private final String name;
+		private final List<Gap> worstGaps = new ArrayList<>();
+		private long wallNanos;
+		private long driverNanos;
+		private long thinkNanos;
+		private long frameworkNanos;
+		private int commands;
+
+		Breakdown(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getWallNanos() {
+			return wallNanos;
+		}
+
+		public long getDriverNanos() {
+			return driverNanos;
+		}
+
+		public long getThinkNanos() {
+			return thinkNanos;
+		}
+
+		public long getFrameworkNanos() {
+			return frameworkNanos;
+		}
+
+		public int getCommands() {
+			return commands;
+		}
+
+		public List<Gap> getWorstGaps() {
+			return Collections.unmodifiableList(worstGaps);
+		}
+	}
+
+	/**
+	 * Time spent in the test code between two commands.
+	 */
+	public static class Gap {
+		private final String testName;
+		private final long nanos;
+		private final Step previous;
+		private final Step next;
+
+		Gap(String testName, long nanos, Step previous, Step next) {
+			this.testName = testName;
+			this.nanos = nanos;
+			this.previous = previous;
+			this.next = next;
+		}
+
+		public String getTestName() {
+			return testName;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return step marking the end of the command before the gap
+		 */
+		public Step getPrevious() {
+			return previous;
+		}
+
+		/**
+		 * @return step marking the begin of the command after the gap
+		 */
+		public Step getNext() {
+			return next;
+		}
+	}
+
+	/**
+	 * Analyzes JSON files written by {@link FullJSONLogger} and writes one report for all of them.
+	 *
+	 * @param args name of the report file followed by one or more JSON files to read
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: ThinkTimeReport <report file> <step log file> [<step log file> ...]");
+			return;
+		}
+
+		ThinkTimeReport report = new ThinkTimeReport();
+		for (int i = 1; i < args.length; i++) {
+			String testName = new File(args[i]).getName().replaceAll("\\.json$", "");
+			report.addSteps(testName, FullJSONLogger.readStepsFromFile(args[i]));
+		}
+		try (Writer writer = new FileWriter(args[0])) {
+			report.write(writer);
+			System.out.println("Done writing think time report to " + args[0]);
+		} catch (IOException e) {
+			System.err.println("Error while writing think time report to " + args[0]);
+			e.printStackTrace();
+		}
+	}
+}
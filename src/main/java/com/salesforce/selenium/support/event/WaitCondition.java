@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.selenium.support.event;
+
+import org.openqa.selenium.By;
+
+/**
+ * Condition on an element to wait for by
+ * {@link EventFiringWebDriver#waitFor(WaitCondition, long, java.util.concurrent.TimeUnit)}.
+ * <p>
+ * The condition gets checked in the browser whenever the DOM changes. The element gets located
+ * in the document, not inside shadow roots; of the {@link By} locators, id, name, class name,
+ * tag name, CSS selector and XPath are supported.
+ * <p>
+ * {@link #frameworkIdle()} does not refer to an element but waits until the page has settled,
+ * which replaces fixed sleeps after navigating or saving in Lightning. The page is considered
+ * idle when
+ * <ul>
+ * <li>the document has been loaded completely,</li>
+ * <li>no XMLHttpRequest or fetch() is pending; these get counted from the first wait on,</li>
+ * <li>Aura reports no XMLHttpRequests in flight,</li>
+ * <li>neither the DOM has changed, e.g. by Aura or LWC rendering, nor a resource has been loaded
+ * for the quiet period,</li>
+ * <li>and finally the browser reports an idle period by {@code requestIdleCallback()}.</li>
+ * </ul>
+ * The quiet period is measured back from the last activity, so a page which is idle already
+ * does not make the wait last the quiet period. DOM changes get noticed from the first wait
+ * on; before, the load event and the resources loaded mark the last activity.
+ *
+ * @since 3.0.23
+ */
+public final class WaitCondition {
+	/**
+	 * Time without any DOM changes and network activity after which the page is considered
+	 * idle if not given otherwise: {@value} ms
+	 */
+	public static final long DEFAULT_QUIET_MILLIS = 300L;
+
+	private final String kind;
+	private final By by;
+	private final String text;
+	private final long quietMillis;
+
+	private WaitCondition(String kind, By by, String text, long quietMillis) {
+		this.kind = kind;
+		this.by = by;
+		this.text = text;
+		this.quietMillis = quietMillis;
+		if (by != null) {
+			// fail early for unsupported locators
+			query();
+		}
+	}
+
+	private WaitCondition(String kind, By by, String text) {
+		this(kind, by, text, 0L);
+	}
+
+	/**
+	 * @param by
+	 *            locator of the element
+	 * @return condition met as soon as the element exists
+	 */
+	public static WaitCondition present(By by) {
+		return new WaitCondition("present", by, null);
+	}
+
+	/**
+	 * @param by
+	 *            locator of the element
+	 * @return condition met as soon as the element exists and is displayed
+	 */
+	public static WaitCondition visible(By by) {
+		return new WaitCondition("visible", by, null);
+	}
+
+	/**
+	 * @param by
+	 *            locator of the element
+	 * @param text
+	 *            expected text, compared to the element's trimmed text
+	 * @return condition met as soon as the element exists and has the given text
+	 */
+	public static WaitCondition textEquals(By by, String text) {
+		return new WaitCondition("text", by, text);
+	}
+
+	/**
+	 * @param by
+	 *            locator of the element
+	 * @return condition met as soon as no element matches the locator
+	 */
+	public static WaitCondition gone(By by) {
+		return new WaitCondition("gone", by, null);
+	}
+
+	/**
+	 * @return condition met as soon as Aura, LWC and the network have been quiet for
+	 *         {@value #DEFAULT_QUIET_MILLIS} ms
+	 */
+	public static WaitCondition frameworkIdle() {
+		return frameworkIdle(DEFAULT_QUIET_MILLIS);
+	}
+
+	/**
+	 * @param quietMillis
+	 *            time in milliseconds without DOM changes and network activity
+	 * @return condition met as soon as Aura, LWC and the network have been quiet for the given
+	 *         time
+	 */
+	public static WaitCondition frameworkIdle(long quietMillis) {
+		return new WaitCondition("idle", null, null, quietMillis);
+	}
+
+	/**
+	 * @return locator of the element, or null if waiting for the page to be idle
+	 */
+	public By getBy() {
+		return by;
+	}
+
+	/**
+	 * @return true if the condition is met by the absence of the element
+	 */
+	public boolean isGone() {
+		return "gone".equals(kind);
+	}
+
+	/**
+	 * @return true if the condition is met by the page being idle
+	 */
+	public boolean isFrameworkIdle() {
+		return "idle".equals(kind);
+	}
+
+	long getQuietMillis() {
+		return quietMillis;
+	}
+
+	String getKind() {
+		return kind;
+	}
+
+	String getText() {
+		return text;
+	}
+
+	/**
+	 * @return "css" or "xpath" followed by the expression
+	 */
+	String[] query() {
+		String locator = by.toString();
+		if (locator.startsWith("By.xpath: "))
+			return new String[] { "xpath", locator.substring("By.xpath: ".length()) };
+		return new String[] { "css", DomSnapshot.toSelector(by) };
+	}
+
+	@Override
+	public String toString() {
+		if (isFrameworkIdle())
+			return "frameworkIdle(" + quietMillis + " ms)";
+		return kind + "(" + by + ((text != null) ? ", " + text : "") + ")";
+	}
+}
@@ -16,6 +16,7 @@
 //under the License.
 package com.salesforce.selenium.support.event;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +32,7 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Coordinates;
 
 import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
 
 /**
  * Interface which supports registering of a listener with {@link EventFiringWebDriver}, e.g. for logging
@@ -277,6 +279,79 @@ public interface WebDriverEventListener {
 	 */
 	void afterExecuteScript(Step step, String script, Object... args);
 
+	/**
+	 * Called before {@link EventFiringWebDriver#fetchProperties(List, Set, String...) fetchProperties(List, Set, String...)}.
+	 * @param step
+	 *            step record
+	 * @param elements
+	 *            the WebElements whose properties get fetched
+	 */
+	default void beforeFetchProperties(Step step, List<WebElement> elements) {
+		// no-op
+	}
+
+	/**
+	 * Called after {@link EventFiringWebDriver#fetchProperties(List, Set, String...) fetchProperties(List, Set, String...)}.
+	 * Not called, if an exception is thrown.
+	 * @param step
+	 *            step record
+	 * @param properties
+	 *            the properties fetched, one per element
+	 */
+	default void afterFetchProperties(Step step, List<ElementProperties> properties) {
+		// no-op
+	}
+
+	/**
+	 * Called before {@link EventFiringWebDriver#snapshot(WebElement) snapshot(WebElement)}.
+	 * @param step
+	 *            step record
+	 * @param root
+	 *            the WebElement being copied, or null for the whole document
+	 */
+	default void beforeSnapshot(Step step, WebElement root) {
+		// no-op
+	}
+
+	/**
+	 * Called after {@link EventFiringWebDriver#snapshot(WebElement) snapshot(WebElement)}.
+	 * Not called, if an exception is thrown.
+	 * @param step
+	 *            step record
+	 * @param snapshot
+	 *            the snapshot taken
+	 * @param root
+	 *            the WebElement being copied, or null for the whole document
+	 */
+	default void afterSnapshot(Step step, DomSnapshot snapshot, WebElement root) {
+		// no-op
+	}
+
+	/**
+	 * Called before {@link EventFiringWebDriver#waitFor(WaitCondition, long, TimeUnit) waitFor(WaitCondition, long, TimeUnit)}.
+	 * @param step
+	 *            step record
+	 * @param condition
+	 *            the condition waited for
+	 */
+	default void beforeWaitFor(Step step, WaitCondition condition) {
+		// no-op
+	}
+
+	/**
+	 * Called after {@link EventFiringWebDriver#waitFor(WaitCondition, long, TimeUnit) waitFor(WaitCondition, long, TimeUnit)}.
+	 * Not called, if an exception is thrown, e.g. if the condition was not met in time.
+	 * @param step
+	 *            step record
+	 * @param condition
+	 *            the condition met
+	 * @param element
+	 *            the element meeting the condition, or null if waited for its absence
+	 */
+	default void afterWaitFor(Step step, WaitCondition condition, WebElement element) {
+		// no-op
+	}
+
 	/*--------------------------------------------------------------------
 	 * Section for all commands called directly from WebDriver object
 	 * after casting to TakesScreenshot.
@@ -1268,4 +1343,31 @@ public interface WebDriverEventListener {
 	 * Allows listener implementation to save itself away before the WebDriver instance has ended.
 	 */
 	void closeListener();
+
+	/**
+	 * Declares the commands this listener wants to be notified of. Events of all other commands,
+	 * including their exceptions, are not passed on to this listener. If no listener is interested
+	 * in a command, {@link EventFiringWebDriver} neither creates steps nor formats any strings
+	 * for it.
+	 * <p>
+	 * Gets called once when the listener is registered.
+	 * 
+	 * @return commands of interest; all commands by default
+	 */
+	default Set<Cmd> getCmdsOfInterest() {
+		return EnumSet.allOf(Cmd.class);
+	}
+
+	/**
+	 * Declares the fields of {@link Step} this listener reads. Fields no listener of a command
+	 * is interested in get cleared before the step is passed on, hence they are never computed
+	 * or kept in memory.
+	 * <p>
+	 * Gets called once when the listener is registered.
+	 * 
+	 * @return fields of interest; all fields by default
+	 */
+	default Set<Field> getFieldsOfInterest() {
+		return EnumSet.allOf(Field.class);
+	}
 }
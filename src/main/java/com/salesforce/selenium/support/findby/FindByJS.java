@@ -52,4 +52,15 @@ public @interface FindByJS {
 	 * @return Shadow path as text or empty text if not set
 	 */
 	String shadowPath() default "";
+
+	/**
+	 * Maximum time in milliseconds to wait for Aura, LWC and the network to become idle
+	 * before the element gets located, instead of sleeping a fixed time. Requires the page
+	 * factory to be initialized with an
+	 * {@link com.salesforce.selenium.support.event.EventFiringWebDriver}.
+	 * 
+	 * @return timeout in milliseconds or 0 to locate the element right away
+	 * @see com.salesforce.selenium.support.event.WaitCondition#frameworkIdle()
+	 */
+	long waitForIdleMillis() default 0L;
 }
@@ -9,6 +9,7 @@ package com.salesforce.selenium.support.findby;
 import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
@@ -16,6 +17,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.pagefactory.ElementLocator;
 
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+
 /**
  * Finds an element by using the JavaScript command from its {@link FindByJS} annotation.
  * Please note that this annotation does not support lists.
@@ -27,6 +30,7 @@ public class JSElementLocator implements ElementLocator {
 	private final WebDriver driver;
 	private final String script;
 	private final String shadowPath;
+	private final long waitForIdleMillis;
 
 	/**
 	 * CTOR gets the locator command from {@link FindByJS} annotation if
@@ -40,6 +44,7 @@ public class JSElementLocator implements ElementLocator {
 	    FindByJS findByJs = field.getAnnotation(FindByJS.class);
 	    script = (findByJs != null) ? findByJs.script() : "";
 	    shadowPath = (findByJs != null) ? findByJs.shadowPath() : "";
+	    waitForIdleMillis = (findByJs != null) ? findByJs.waitForIdleMillis() : 0L;
 	}
 
 	/**
@@ -53,6 +58,10 @@ public class JSElementLocator implements ElementLocator {
 	 * <p>
 	 * If the JavaScript command does not start with {@code return document.querySelector}
 	 * this method throws an exception.
+	 * <p>
+	 * If {@link FindByJS#waitForIdleMillis()} is set, this method waits for the page to become
+	 * idle first, see {@link EventFiringWebDriver#waitForFrameworkIdle(long, TimeUnit)}; this
+	 * takes no round-trip if no action has been executed since the page was last seen idle.
 	 * 
 	 * @return object of type {@link WebElement}
 	 * @see org.openqa.selenium.support.pagefactory.ElementLocator#findElement()
@@ -63,6 +72,9 @@ public class JSElementLocator implements ElementLocator {
 	 * <li>the JavaScript code or the shadow path converted into JavaScript code does not return an object at all</li>
 	 * <li>the JavaScript code or the shadow path converted into JavaScript code does not return an object of type {@link WebElement}</li>
 	 * </ul>
+	 * @throws org.openqa.selenium.TimeoutException if the page has not become idle in time
+	 * @throws IllegalStateException if waiting for idle is requested but the driver is not an
+	 * {@link EventFiringWebDriver}
 	 */
 	@Override
 	public WebElement findElement() {
@@ -85,6 +97,11 @@ public class JSElementLocator implements ElementLocator {
 				throw new NoSuchElementException("Not a valid JavaScript command: " + script + "\nit has to start with \"return document.querySelector\"");
 			}
 		}
+		if (waitForIdleMillis > 0L) {
+			if (!(driver instanceof EventFiringWebDriver))
+				throw new IllegalStateException("Waiting for idle requires an EventFiringWebDriver");
+			((EventFiringWebDriver) driver).waitForFrameworkIdle(waitForIdleMillis, TimeUnit.MILLISECONDS);
+		}
 		// Execute JavaScript command and return element found
 		Object obj = ((JavascriptExecutor) driver).executeScript(command);
 		if (!(obj instanceof WebElement)) {
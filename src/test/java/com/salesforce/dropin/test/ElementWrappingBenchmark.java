@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+
+/**
+ * Measures the time EventFiringWebDriver needs to wrap the elements returned by findElements().
+ * The wrapped driver is a stub, hence the result is the overhead added per call.
+ * <p>
+ * Run it from the IDE via {@link #main(String[])} or from the command line after
+ * <code>mvn test-compile</code>:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test class path&gt; org.openjdk.jmh.Main ElementWrappingBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementWrappingBenchmark {
+	@Param({ "1", "500" })
+	public int elementCount;
+
+	private EventFiringWebDriver driver;
+
+	@Setup
+	public void setUp() {
+		final List<WebElement> elements = new ArrayList<>();
+		for (int i = 0; i < elementCount; i++) {
+			elements.add(Stub.element("[stub] -> id: row").create());
+		}
+		WebDriver stub = Stub.driver().returning("findElements", elements).create();
+		// only measure the wrapping, not the listeners
+		System.setProperty(EventFiringWebDriver.CONFIG_LOG_COMMANDS, "quit");
+		driver = new EventFiringWebDriver(stub, "elementWrappingBenchmark");
+	}
+
+	@Benchmark
+	public List<WebElement> findElements() {
+		return driver.findElements(By.className("row"));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ElementWrappingBenchmark.class.getSimpleName()).build()).run();
+	}
+}
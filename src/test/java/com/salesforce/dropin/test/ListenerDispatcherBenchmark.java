@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.ListenerDispatcher;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+import com.salesforce.selenium.support.event.WebDriverEventListener;
+
+/**
+ * Measures the time needed to pass one event on to the listeners, comparing the reflective
+ * {@link Proxy} used by EventFiringWebDriver up to 3.0.22 with {@link ListenerDispatcher}.
+ * <p>
+ * Run it from the IDE via {@link #main(String[])} or from the command line after
+ * <code>mvn test-compile</code>:
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test class path&gt; org.openjdk.jmh.Main ListenerDispatcherBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerDispatcherBenchmark {
+	@Param({ "1", "4" })
+	public int listenerCount;
+
+	private WebDriverEventListener proxyDispatcher;
+	private ListenerDispatcher directDispatcher;
+	private Step step;
+
+	@Setup
+	public void setUp() {
+		final List<WebDriverEventListener> listeners = new ArrayList<>();
+		directDispatcher = new ListenerDispatcher() {
+			private long frameworkNanos;
+
+			@Override
+			protected void afterDispatch(long nanos) {
+				frameworkNanos += nanos;
+			}
+		};
+		for (int i = 0; i < listenerCount; i++) {
+			CountingListener listener = new CountingListener();
+			listeners.add(listener);
+			directDispatcher.register(listener);
+		}
+		proxyDispatcher = (WebDriverEventListener) Proxy.newProxyInstance(
+				WebDriverEventListener.class.getClassLoader(), new Class<?>[] { WebDriverEventListener.class },
+				new InvocationHandler() {
+					private long frameworkNanos;
+
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (args != null && args.length > 0 && args[0] instanceof Step && !"onException".equals(method.getName())) {
+							((Step) args[0]).setTimeInFramework(frameworkNanos);
+						}
+						long start = System.nanoTime();
+						try {
+							for (WebDriverEventListener eventListener : listeners) {
+								method.invoke(eventListener, args);
+							}
+							return null;
+						} catch (InvocationTargetException e) {
+							throw e.getTargetException();
+						} finally {
+							frameworkNanos += System.nanoTime() - start;
+						}
+					}
+				});
+		step = new Step(Type.AfterGather, 1, Cmd.getText);
+	}
+
+	@Benchmark
+	public void proxyAfterGetText() {
+		proxyDispatcher.afterGetText(step, "text", null);
+	}
+
+	@Benchmark
+	public void directAfterGetText() {
+		directDispatcher.afterGetText(step, "text", null);
+	}
+
+	@Benchmark
+	public void proxyBeforeMouseMove() {
+		proxyDispatcher.beforeMouseMove(step, null, 10L, 20L);
+	}
+
+	@Benchmark
+	public void directBeforeMouseMove() {
+		directDispatcher.beforeMouseMove(step, null, 10L, 20L);
+	}
+
+	private static class CountingListener extends AbstractStepListener {
+		private long count;
+
+		@Override
+		protected void onStep(Step step) {
+			count++;
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ListenerDispatcherBenchmark.class.getSimpleName()).build()).run();
+	}
+}
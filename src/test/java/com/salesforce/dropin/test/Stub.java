@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Builds stubs of WebDriver, WebElement and other Selenium interfaces for tests.
+ * <p>
+ * A stub answers the methods configured and returns null for all others. It equals only
+ * itself and describes itself by the given description. If a list of calls is given, each call
+ * gets recorded by its method name, optionally followed by a label, e.g. to tell elements apart.
+ * <pre>
+ * WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+ *         .returning("getTitle", "title")
+ *         .answering("findElement", args -&gt; Stub.element("[stub] -&gt; id: save").create())
+ *         .create();
+ * </pre>
+ *
+ * @since 3.0.23
+ */
+public class Stub<T> implements InvocationHandler {
+	/**
+	 * Answer to the call of a stubbed method.
+	 */
+	@FunctionalInterface
+	public interface Answer {
+		Object answer(Object[] args) throws Throwable;
+	}
+
+	private final Class<T> type;
+	private final Class<?>[] interfaces;
+	private final Map<String, Answer> answers = new HashMap<>();
+	private final Map<String, Function<Object[], String>> records = new HashMap<>();
+	private String description;
+	private List<String> calls;
+	private String label;
+
+	private Stub(Class<T> type, Class<?>[] moreInterfaces) {
+		this.type = type;
+		this.interfaces = new Class<?>[moreInterfaces.length + 1];
+		this.interfaces[0] = type;
+		System.arraycopy(moreInterfaces, 0, this.interfaces, 1, moreInterfaces.length);
+		this.description = type.getSimpleName() + " stub";
+	}
+
+	/**
+	 * @param type main interface of the stub
+	 * @param moreInterfaces further interfaces implemented by the stub
+	 * @return builder of the stub
+	 */
+	public static <T> Stub<T> of(Class<T> type, Class<?>... moreInterfaces) {
+		return new Stub<>(type, moreInterfaces);
+	}
+
+	/**
+	 * @param moreInterfaces further interfaces implemented by the driver, e.g. JavascriptExecutor
+	 * @return builder of a driver stub
+	 */
+	public static Stub<WebDriver> driver(Class<?>... moreInterfaces) {
+		return of(WebDriver.class, moreInterfaces);
+	}
+
+	/**
+	 * @param description returned by toString(), e.g. "[stub] -&gt; id: save" to be parsed as locator
+	 * @return builder of an element stub
+	 */
+	public static Stub<WebElement> element(String description) {
+		return of(WebElement.class).describedAs(description);
+	}
+
+	public Stub<T> describedAs(String description) {
+		this.description = description;
+		return this;
+	}
+
+	/**
+	 * @param calls list to add the method name of each call to
+	 * @return this builder
+	 */
+	public Stub<T> recordingInto(List<String> calls) {
+		return recordingInto(calls, null);
+	}
+
+	/**
+	 * @param calls list to add the method name of each call to
+	 * @param label appended to the method name, or null for none
+	 * @return this builder
+	 */
+	public Stub<T> recordingInto(List<String> calls, String label) {
+		this.calls = calls;
+		this.label = label;
+		return this;
+	}
+
+	/**
+	 * @param method name of the method whose calls get recorded differently
+	 * @param record creates the record from the arguments of the call
+	 * @return this builder
+	 */
+	public Stub<T> recording(String method, Function<Object[], String> record) {
+		records.put(method, record);
+		return this;
+	}
+
+	/**
+	 * @param method name of the method to answer
+	 * @param value returned by each call
+	 * @return this builder
+	 */
+	public Stub<T> returning(String method, Object value) {
+		return answering(method, args -> value);
+	}
+
+	/**
+	 * @param methods names of the methods returning the stub itself, e.g. to chain options
+	 * @return this builder
+	 */
+	public Stub<T> returningItself(String... methods) {
+		for (String method : methods) {
+			answers.put(method, null);
+		}
+		return this;
+	}
+
+	/**
+	 * @param method name of the method to answer, including toString, hashCode and equals
+	 * @param answer computes the result of each call or throws
+	 * @return this builder
+	 */
+	public Stub<T> answering(String method, Answer answer) {
+		answers.put(method, answer);
+		return this;
+	}
+
+	public T create() {
+		return type.cast(Proxy.newProxyInstance(Stub.class.getClassLoader(), interfaces, this));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		boolean objectMethod = method.getDeclaringClass() == Object.class;
+		if (calls != null && !objectMethod) {
+			Function<Object[], String> record = records.get(name);
+			calls.add((record != null) ? record.apply(args) : (label != null) ? name + " " + label : name);
+		}
+		if (answers.containsKey(name)) {
+			Answer answer = answers.get(name);
+			return (answer != null) ? answer.answer(args) : proxy;
+		}
+		if (objectMethod) {
+			switch (name) {
+			case "toString":
+				return description;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return proxy == args[0];
+			}
+		}
+		return null;
+	}
+}
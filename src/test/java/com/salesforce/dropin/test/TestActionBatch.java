@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.ActionBatch;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+
+/**
+ * Tests for executing several actions with a single script.
+ */
+public class TestActionBatch {
+	private final List<String> calls = new ArrayList<>();
+	private final List<String> steps = new ArrayList<>();
+	private Object scriptResult;
+	private WebDriverException titleIssue;
+
+	/**
+	 * Ensure that queued actions get executed by one script and reported as steps of their own.
+	 */
+	@Test()
+	public void testBatch() {
+		EventFiringWebDriver driver = createDriver();
+		WebElement first = driver.findElement(By.id("first"));
+		WebElement save = driver.findElement(By.id("save"));
+		calls.clear();
+		steps.clear();
+
+		try (ActionBatch batch = driver.batch()) {
+			first.clear();
+			first.sendKeys("Ja", "ne");
+			save.click();
+			Assert.assertEquals(batch.size(), 3);
+			Assert.assertTrue(calls.isEmpty(), calls.toString());
+			Assert.assertEquals(steps.toString(), "[BeforeAction clear 1, BeforeAction sendKeysByElement 2 Jane, BeforeAction clickByElement 3]");
+		}
+		Assert.assertEquals(calls.toString(), "[executeScript [[clear, first, null], [sendKeys, first, Jane], [click, save, null]]]");
+		Assert.assertEquals(steps.subList(3, steps.size()).toString(),
+				"[AfterAction clear 1, AfterAction sendKeysByElement 2 Jane, AfterAction clickByElement 3]");
+
+		// without a batch, actions get executed right away
+		calls.clear();
+		save.click();
+		Assert.assertEquals(calls.toString(), "[click save]");
+	}
+
+	/**
+	 * Ensure that other commands and special keys get executed after the actions queued before.
+	 */
+	@Test()
+	public void testOrder() {
+		EventFiringWebDriver driver = createDriver();
+		WebElement first = driver.findElement(By.id("first"));
+		calls.clear();
+
+		try (ActionBatch batch = driver.batch()) {
+			first.sendKeys("Jane");
+			driver.getTitle();
+			first.sendKeys("Doe");
+			first.sendKeys(Keys.ENTER);
+			Assert.assertEquals(batch.size(), 0);
+			try {
+				driver.batch();
+				Assert.fail("IllegalStateException expected");
+			} catch (IllegalStateException e) {
+				; // expected
+			}
+		}
+		Assert.assertEquals(calls.toString(), "[executeScript [[sendKeys, first, Jane]], getTitle, "
+				+ "executeScript [[sendKeys, first, Doe]], sendKeys first]");
+		driver.batch().close();
+	}
+
+	/**
+	 * Ensure that a command flushing the batch gets dispatched after the queued actions, and
+	 * that its exception gets reported against the command itself.
+	 */
+	@Test()
+	public void testFlushingCommandFails() {
+		EventFiringWebDriver driver = createDriver();
+		WebElement first = driver.findElement(By.id("first"));
+		steps.clear();
+		titleIssue = new WebDriverException("no title");
+
+		try (ActionBatch batch = driver.batch()) {
+			first.sendKeys("Jane");
+			try {
+				driver.getTitle();
+				Assert.fail("WebDriverException expected");
+			} catch (WebDriverException e) {
+				Assert.assertSame(e, titleIssue);
+			} finally {
+				titleIssue = null;
+			}
+		}
+		Assert.assertEquals(steps.toString(), "[BeforeAction sendKeysByElement 1 Jane, AfterAction sendKeysByElement 1 Jane, "
+				+ "BeforeGather getTitle 2, Exception getTitle 2]");
+	}
+
+	/**
+	 * Ensure that the action failing gets reported and the remaining ones get dropped.
+	 */
+	@Test()
+	public void testFailure() {
+		EventFiringWebDriver driver = createDriver();
+		WebElement first = driver.findElement(By.id("first"));
+		WebElement save = driver.findElement(By.id("save"));
+		steps.clear();
+		scriptResult = Arrays.asList(1L, "TypeError: e.click is not a function");
+
+		ActionBatch batch = driver.batch();
+		first.sendKeys("Jane");
+		save.click();
+		first.clear();
+		try {
+			batch.close();
+			Assert.fail("WebDriverException expected");
+		} catch (WebDriverException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Batched action 2 of 3 (click) failed, dropped the remaining 1: TypeError"),
+					e.getMessage());
+		}
+		Assert.assertEquals(steps.subList(3, steps.size()).toString(),
+				"[AfterAction sendKeysByElement 1 Jane, Exception clickByElement 2]");
+
+		// the batch has ended nevertheless
+		scriptResult = null;
+		calls.clear();
+		save.click();
+		Assert.assertEquals(calls.toString(), "[click save]");
+	}
+
+	private EventFiringWebDriver createDriver() {
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+				.answering("findElement", args -> element(args[0].toString().substring("By.id: ".length())))
+				.recording("executeScript", args -> "executeScript " + ((Object[]) args[1])[0])
+				.answering("executeScript", args -> scriptResult)
+				.answering("getTitle", args -> {
+					if (titleIssue != null)
+						throw titleIssue;
+					return null;
+				})
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "batchTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				record(step);
+			}
+
+			@Override
+			public void onException(Step step, Cmd cmd, Throwable issue) {
+				record(step);
+			}
+
+			private void record(Step step) {
+				if (step.getCmd() != Cmd.findElementByWebDriver) {
+					steps.add(step.getTypeOfLog() + " " + step.getCmd() + " " + step.getStepNumber()
+							+ (step.getParam2() != null ? " " + step.getParam2() : ""));
+				}
+			}
+		});
+		return driver;
+	}
+
+	private WebElement element(String id) {
+		return Stub.element(id).recordingInto(calls, id).create();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for running commands in parallel.
+ */
+public class TestAsyncCommands {
+	private static final int ROWS = 8;
+	private static final long LATENCY_MILLIS = 50L;
+
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final List<Step> steps = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterMethod
+	public void tearDown() {
+		System.clearProperty(EventFiringWebDriver.CONFIG_ASYNC_PARALLELISM);
+		maxRunning.set(0);
+	}
+
+	/**
+	 * Ensure that texts get read in parallel and each read gets reported as steps of its own.
+	 */
+	@Test()
+	public void testParallel() throws Exception {
+		System.setProperty(EventFiringWebDriver.CONFIG_ASYNC_PARALLELISM, "4");
+		EventFiringWebDriver driver = createDriver();
+		List<WebElement> rows = driver.findElements(By.className("row"));
+		steps.clear();
+
+		long start = System.nanoTime();
+		List<String> texts = driver.async().getTexts(rows).get();
+		long millis = (System.nanoTime() - start) / 1000000L;
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			expected.add("row " + i);
+		}
+		Assert.assertEquals(texts, expected);
+		Assert.assertEquals(maxRunning.get(), 4);
+		Assert.assertTrue(millis < ROWS * LATENCY_MILLIS, "reading took " + millis + " ms");
+
+		Set<String> threads = new HashSet<>();
+		int afterSteps = 0;
+		synchronized (steps) {
+			for (Step step : steps) {
+				Assert.assertEquals(step.getCmd(), Cmd.getText);
+				threads.add(step.getThreadName());
+				if (step.getTypeOfLog() == Type.AfterGather) {
+					afterSteps++;
+					Assert.assertTrue(step.getTimeElapsedStep() >= LATENCY_MILLIS * 1000000L, step.toString());
+				}
+			}
+		}
+		Assert.assertEquals(afterSteps, ROWS);
+		Assert.assertEquals(threads.size(), 4, threads.toString());
+		Assert.assertSame(driver.async(), driver.async());
+	}
+
+	/**
+	 * Ensure that commands of local drivers get serialized and exceptions get passed on.
+	 */
+	@Test()
+	public void testSerialized() throws Exception {
+		EventFiringWebDriver driver = createDriver();
+		List<WebElement> rows = driver.findElements(By.className("row"));
+		Assert.assertEquals(driver.async().getTexts(rows).get().size(), ROWS);
+		Assert.assertEquals(maxRunning.get(), 1);
+		Assert.assertEquals(driver.async().getTitle().get(), "title");
+
+		try {
+			driver.async().supply(webDriver -> webDriver.findElement(By.id("missing"))).get();
+			Assert.fail("ExecutionException expected");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof NoSuchElementException, e.getCause().toString());
+		}
+	}
+
+	private EventFiringWebDriver createDriver() {
+		final List<WebElement> rows = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			final String text = "row " + i;
+			rows.add(Stub.element("[stub] -> id: " + text).answering("getText", args -> {
+				int now = running.incrementAndGet();
+				maxRunning.accumulateAndGet(now, Math::max);
+				Thread.sleep(LATENCY_MILLIS);
+				running.decrementAndGet();
+				return text;
+			}).create());
+		}
+		WebDriver stub = Stub.driver()
+				.returning("findElements", rows)
+				.answering("findElement", args -> {
+					throw new NoSuchElementException("missing");
+				})
+				.returning("getTitle", "title")
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "asyncTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				steps.add(step);
+			}
+		});
+		return driver;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.AsyncEventListener;
+import com.salesforce.selenium.support.event.ListenerDispatcher;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for delivering events to a listener on a background thread.
+ */
+public class TestAsyncEventListener {
+
+	/**
+	 * Ensure that events get delivered in order on another thread and that closing the listener
+	 * waits for all of them.
+	 */
+	@Test()
+	public void testOrderedDelivery() {
+		final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+		final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+		ListenerDispatcher dispatcher = new ListenerDispatcher();
+		dispatcher.register(new AsyncEventListener(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				try {
+					Thread.sleep(20);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				calls.add(step.getTypeOfLog() + " " + step.getStepNumber());
+				threads.add(Thread.currentThread().getName());
+				if (step.getStepNumber() == 2)
+					throw new IllegalStateException("broken listener");
+			}
+
+			@Override
+			public void closeListener() {
+				calls.add("closed");
+			}
+		}));
+
+		long start = System.nanoTime();
+		for (int i = 1; i <= 5; i++) {
+			dispatcher.beforeClose(new Step(Type.BeforeAction, i, Cmd.close));
+			dispatcher.afterClose(new Step(Type.AfterAction, i, Cmd.close));
+		}
+		long dispatchMillis = (System.nanoTime() - start) / 1000000L;
+		Assert.assertTrue(dispatchMillis < 150L, "dispatching took " + dispatchMillis + " ms");
+
+		dispatcher.closeListener();
+		Assert.assertEquals(calls.size(), 11, calls.toString());
+		Assert.assertEquals(calls.get(0), "BeforeAction 1");
+		Assert.assertEquals(calls.get(3), "AfterAction 2");
+		Assert.assertEquals(calls.get(9), "AfterAction 5");
+		Assert.assertEquals(calls.get(10), "closed");
+		Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+
+		// events after closing are ignored
+		dispatcher.afterClose(new Step(Type.AfterAction, 6, Cmd.close));
+		Assert.assertEquals(calls.size(), 11);
+	}
+}
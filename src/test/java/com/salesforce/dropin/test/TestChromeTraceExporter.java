@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.salesforce.selenium.support.event.ChromeTraceExporter;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for exporting steps as Chrome Trace Event JSON.
+ */
+public class TestChromeTraceExporter {
+
+	/**
+	 * Ensure that commands are nested into interface runs and the session, timed by their after steps.
+	 */
+	@Test()
+	public void testNesting() throws IOException {
+		List<Map<String, Object>> events = export();
+		Map<String, Object> session = event(events, "session", "myTest");
+		Map<String, Object> webDriver = event(events, "interface", "WebDriver");
+		Map<String, Object> webElement = event(events, "interface", "WebElement");
+		Map<String, Object> get = event(events, "action", "webDriver.get");
+		Map<String, Object> getTitle = event(events, "gather", "webDriver.getTitle");
+		Map<String, Object> getText = event(events, "gather", "webElement.getText");
+
+		// the step ends at its time stamp and began the elapsed time before
+		assertSpan(get, 800000L, 200000L);
+		assertSpan(getTitle, 1050000L, 50000L);
+		assertSpan(getText, 1200000L, 100000L);
+		assertSpan(webDriver, 800000L, 300000L);
+		assertSpan(webElement, 1200000L, 100000L);
+		assertSpan(session, 800000L, 500000L);
+
+		assertContains(session, webDriver);
+		assertContains(session, webElement);
+		assertContains(webDriver, get);
+		assertContains(webDriver, getTitle);
+		assertContains(webElement, getText);
+		Assert.assertEquals(events.stream().filter(e -> "X".equals(e.get("ph"))).count(), 6L, events.toString());
+	}
+
+	/**
+	 * Ensure that exceptions are written as instant events and before steps are left out.
+	 */
+	@Test()
+	public void testException() throws IOException {
+		List<Map<String, Object>> events = export();
+		Map<String, Object> exception = event(events, "exception", "exception in webElement.click");
+		Assert.assertEquals(exception.get("ph"), "i");
+		Assert.assertEquals(exception.get("s"), "t");
+		Assert.assertEquals(exception.get("ts"), 1400000L);
+		Assert.assertFalse(exception.containsKey("dur"));
+		Assert.assertEquals(exception.get("tid"), event(events, "action", "webDriver.get").get("tid"));
+	}
+
+	/**
+	 * Ensure that consecutive commands on one thread do not overlap although their time stamps
+	 * have millisecond precision only.
+	 */
+	@Test()
+	public void testNoOverlap() throws IOException {
+		List<Step> steps = new ArrayList<>();
+		steps.add(step(Type.AfterAction, Cmd.get, 1000L, 200000000L));
+		// ended 1.6 ms after get by the time stamps, but actually began only 0.2 ms after it
+		steps.add(step(Type.AfterGather, Cmd.getTitle, 1001L, 1600000L));
+		steps.add(step(Type.AfterGather, Cmd.getText, 1003L, 1000000L));
+
+		StringWriter trace = new StringWriter();
+		ChromeTraceExporter.writeTrace(Collections.singletonMap("myTest", steps), trace);
+		List<Map<String, Object>> events = parseEvents(trace.toString());
+		Map<String, Object> get = event(events, "action", "webDriver.get");
+		Map<String, Object> getTitle = event(events, "gather", "webDriver.getTitle");
+		Map<String, Object> getText = event(events, "gather", "webElement.getText");
+
+		assertSpan(get, 800000L, 200000L);
+		assertSpan(getTitle, 1000000L, 1000L);
+		assertSpan(getText, 1002000L, 1000L);
+		assertSpan(event(events, "interface", "WebDriver"), 800000L, 201000L);
+		assertSpan(event(events, "session", "myTest"), 800000L, 203000L);
+	}
+
+	private List<Map<String, Object>> export() throws IOException {
+		List<Step> steps = new ArrayList<>();
+		steps.add(step(Type.BeforeAction, Cmd.get, 800L, -1L));
+		steps.add(step(Type.AfterAction, Cmd.get, 1000L, 200000000L));
+		steps.add(step(Type.AfterGather, Cmd.getTitle, 1100L, 50000000L));
+		steps.add(step(Type.AfterGather, Cmd.getText, 1300L, 100000000L));
+		Step exception = step(Type.Exception, Cmd.clickByElement, 1400L, -1L);
+		exception.setIssue(new NoSuchElementException("gone"));
+		steps.add(exception);
+
+		StringWriter trace = new StringWriter();
+		ChromeTraceExporter.writeTrace(Collections.singletonMap("myTest", steps), trace);
+		return parseEvents(trace.toString());
+	}
+
+	private Step step(Type type, Cmd cmd, long timeStampMillis, long elapsedNanos) {
+		Step step = new Step(type, 1, cmd);
+		step.setTimeStamp(timeStampMillis);
+		step.setTimeElapsedStep(elapsedNanos);
+		step.setThreadName("main");
+		return step;
+	}
+
+	private static Map<String, Object> event(List<Map<String, Object>> events, String category, String name) {
+		for (Map<String, Object> event : events) {
+			if (category.equals(event.get("cat")) && name.equals(event.get("name")))
+				return event;
+		}
+		throw new AssertionError("No event " + category + " " + name + " in " + events);
+	}
+
+	private static void assertSpan(Map<String, Object> span, long start, long duration) {
+		Assert.assertEquals(span.get("ph"), "X", span.toString());
+		Assert.assertEquals(span.get("ts"), start, span.toString());
+		Assert.assertEquals(span.get("dur"), duration, span.toString());
+	}
+
+	private static void assertContains(Map<String, Object> outer, Map<String, Object> inner) {
+		long outerStart = (Long) outer.get("ts");
+		long innerStart = (Long) inner.get("ts");
+		Assert.assertEquals(inner.get("tid"), outer.get("tid"));
+		Assert.assertTrue(outerStart <= innerStart
+				&& innerStart + (Long) inner.get("dur") <= outerStart + (Long) outer.get("dur"),
+				outer + " does not contain " + inner);
+	}
+
+	/*
+	 * Reads the top level fields of all trace events; nested objects like "args" are skipped.
+	 */
+	private static List<Map<String, Object>> parseEvents(String trace) throws IOException {
+		List<Map<String, Object>> events = new ArrayList<>();
+		try (JsonParser parser = new JsonFactory().createParser(trace)) {
+			while (parser.nextToken() != null) {
+				if (parser.currentToken() == JsonToken.FIELD_NAME && "traceEvents".equals(parser.currentName())) {
+					parser.nextToken();
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						Map<String, Object> event = new HashMap<>();
+						while (parser.nextToken() == JsonToken.FIELD_NAME) {
+							String name = parser.currentName();
+							JsonToken value = parser.nextToken();
+							if (value == JsonToken.VALUE_NUMBER_INT) {
+								event.put(name, parser.getLongValue());
+							} else if (value == JsonToken.VALUE_STRING) {
+								event.put(name, parser.getText());
+							} else {
+								parser.skipChildren();
+							}
+						}
+						events.add(event);
+					}
+				}
+			}
+		}
+		return events;
+	}
+}
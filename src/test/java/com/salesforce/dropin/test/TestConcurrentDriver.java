@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Stress test for using one EventFiringWebDriver from several threads at once.
+ */
+public class TestConcurrentDriver {
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 300;
+
+	/**
+	 * Ensure that step numbers stay unique per action, that each thread's exceptions get
+	 * attributed to its own command, and that listeners can be (un)registered meanwhile.
+	 */
+	@Test()
+	public void testConcurrentCommands() throws Exception {
+		WebDriver stub = Stub.driver()
+				.answering("findElement", args -> {
+					throw new NoSuchElementException("not there");
+				})
+				.returning("getTitle", "title")
+				.create();
+		final List<Step> recorded = Collections.synchronizedList(new ArrayList<>());
+		final EventFiringWebDriver driver = new EventFiringWebDriver(stub, "concurrentTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				recorded.add(step);
+			}
+
+			@Override
+			public void onException(Step step, Cmd cmd, Throwable issue) {
+				recorded.add(step);
+			}
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final String id = "t" + t;
+			futures.add(pool.submit(() -> {
+				Thread.currentThread().setName("worker-" + id);
+				start.await();
+				for (int i = 0; i < ITERATIONS; i++) {
+					driver.get("https://host/" + id);
+					driver.getTitle();
+					try {
+						driver.findElement(By.id(id));
+						Assert.fail("NoSuchElementException expected");
+					} catch (NoSuchElementException e) {
+						; // expected
+					}
+				}
+				return null;
+			}));
+		}
+		// meanwhile another thread keeps changing the registered listeners
+		futures.add(pool.submit(() -> {
+			start.await();
+			for (int i = 0; i < ITERATIONS; i++) {
+				AbstractStepListener listener = new AbstractStepListener() {
+					@Override
+					protected void onStep(Step step) {
+						// ignore
+					}
+				};
+				driver.register(listener);
+				driver.unregister(listener);
+			}
+			return null;
+		}));
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		Set<Integer> actionNumbers = new HashSet<>();
+		Map<String, Set<Integer>> beforeNumbersPerThread = new HashMap<>();
+		int exceptions = 0;
+		synchronized (recorded) {
+			for (Step step : recorded) {
+				if (step.getCmd() != Cmd.get && step.getTypeOfLog() != Type.Exception)
+					continue;
+				String thread = step.getThreadName();
+				String id = thread.substring("worker-".length());
+				switch (step.getTypeOfLog()) {
+				case BeforeAction:
+					beforeNumbersPerThread.computeIfAbsent(thread, k -> new HashSet<>()).add(step.getStepNumber());
+					break;
+				case AfterAction:
+					Assert.assertTrue(actionNumbers.add(step.getStepNumber()), "duplicate step number " + step.getStepNumber());
+					Assert.assertTrue(beforeNumbersPerThread.get(thread).contains(step.getStepNumber()));
+					Assert.assertEquals(step.getParam1(), "https://host/" + id);
+					break;
+				case Exception:
+					exceptions++;
+					Assert.assertEquals(step.getCmd(), Cmd.findElementByWebDriver);
+					Assert.assertEquals(step.getParam1(), "By.id(\"" + id + "\")");
+					break;
+				default:
+				}
+			}
+		}
+		Assert.assertEquals(actionNumbers.size(), THREADS * ITERATIONS);
+		Assert.assertEquals(exceptions, THREADS * ITERATIONS);
+	}
+}
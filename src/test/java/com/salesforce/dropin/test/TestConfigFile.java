@@ -14,6 +14,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.salesforce.selenium.support.event.Configuration;
 import com.salesforce.selenium.support.event.EventFiringWebDriver;
 
 /**
@@ -33,16 +34,65 @@ public class TestConfigFile {
 		Assert.assertTrue("By.id(\"password\"".contains(EventFiringWebDriver.getProperty("value4", "blah")));
 	}
 
+	@Test()
+	public void verifyTypedValues() {
+		Configuration config = Configuration.getInstance();
+		Assert.assertEquals(config.getInt("number", 0), 42);
+		Assert.assertEquals(config.getLong("number", 0L), 42L);
+		Assert.assertEquals(config.getInt("value1", 7), 7, "Invalid number should give default value");
+		Assert.assertTrue(config.getBoolean("flag", false));
+		Assert.assertFalse(config.getBoolean("value1", true));
+		Assert.assertTrue(config.getBoolean("nonexisting.key", true));
+
+		// system properties override the file
+		System.setProperty("number", "43");
+		try {
+			Assert.assertEquals(config.getInt("number", 0), 43);
+		} finally {
+			System.clearProperty("number");
+		}
+	}
+
+	@Test()
+	public void verifyReload() throws Exception {
+		Configuration config = Configuration.getInstance();
+		Assert.assertEquals(config.get("value1", "blah"), "foo");
+		writePropertiesFile("bar");
+		Assert.assertEquals(config.get("value1", "blah"), "foo", "File should only be read once");
+
+		// changes get picked up by the watcher
+		config.startWatching();
+		try {
+			writePropertiesFile("baz");
+			for (int i = 0; i < 200 && !"baz".equals(config.get("value1", "blah")); i++) {
+				Thread.sleep(50);
+			}
+			Assert.assertEquals(config.get("value1", "blah"), "baz");
+		} finally {
+			config.stopWatching();
+			writePropertiesFile("foo");
+			config.reload();
+		}
+		Assert.assertEquals(config.get("value1", "blah"), "foo");
+	}
+
 	@BeforeClass
 	public void createPropertiesFile() {
+		writePropertiesFile("foo");
+		Configuration.getInstance().reload();
+	}
+
+	private void writePropertiesFile(String value1) {
 		Properties tempProps = new Properties();
 		try (OutputStream output = new FileOutputStream(EventFiringWebDriver.PROPERTIES_FILENAME)) {
 
 			// set the properties value
-			tempProps.setProperty("value1", "foo");
+			tempProps.setProperty("value1", value1);
 			tempProps.setProperty("value2", "Foo");
 			tempProps.setProperty("value3", "By.id(\"password");
 			tempProps.setProperty("value4", "By.id(\"password\"");
+			tempProps.setProperty("number", "42");
+			tempProps.setProperty("flag", "TRUE");
 
 			// save properties to project root folder
 			tempProps.store(output, null);
@@ -55,5 +105,6 @@ public class TestConfigFile {
 	@AfterClass
 	public void deletePropertiesFile() {
 		new File(EventFiringWebDriver.PROPERTIES_FILENAME).delete();
+		Configuration.getInstance().reload();
 	}
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.DomSnapshot;
+import com.salesforce.selenium.support.event.DomSnapshot.Node;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+
+/**
+ * Tests for reading from a copy of the DOM.
+ */
+public class TestDomSnapshot {
+	private final List<String> calls = new ArrayList<>();
+
+	/**
+	 * Ensure that elements, texts and attributes get answered without further round-trips.
+	 */
+	@Test()
+	public void testQueries() {
+		EventFiringWebDriver driver = createDriver();
+		DomSnapshot snapshot = driver.snapshot();
+		Assert.assertEquals(calls.toString(), "[executeScript]");
+		Assert.assertEquals(snapshot.size(), 13);
+
+		List<Node> rows = snapshot.findElements("table.results tr.row");
+		Assert.assertEquals(rows.size(), 2);
+		Assert.assertEquals(rows.get(0).getText(), "Acme\nopen");
+		Assert.assertEquals(rows.get(1).getAttribute("data-id"), "2");
+		Assert.assertEquals(snapshot.findElements("tbody > tr, #title").size(), 3);
+		Assert.assertEquals(snapshot.findElements("table > tr").size(), 0);
+		Assert.assertEquals(snapshot.findElement(By.id("title")).getText(), "Accounts");
+		Assert.assertEquals(snapshot.findElements(By.className("row")).size(), 2);
+		Assert.assertEquals(snapshot.findElements("[data-id^='1']").size(), 1);
+		Assert.assertEquals(snapshot.findElements("td[hidden]").size(), 1);
+
+		try {
+			snapshot.findElement("span");
+			Assert.fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			; // expected
+		}
+		try {
+			snapshot.findElements("tr:first-child");
+			Assert.fail("InvalidSelectorException expected");
+		} catch (InvalidSelectorException e) {
+			; // expected
+		}
+		Assert.assertEquals(calls.toString(), "[executeScript]");
+	}
+
+	/**
+	 * Ensure that shadow roots get searched by shadow paths only and render their slots.
+	 */
+	@Test()
+	public void testShadowRoots() {
+		EventFiringWebDriver driver = createDriver();
+		DomSnapshot snapshot = driver.snapshot();
+
+		Assert.assertTrue(snapshot.findElements("lightning-badge b").isEmpty());
+		Node badge = snapshot.findElement("lightning-badge => b");
+		Assert.assertEquals(badge.getText(), "Status:");
+		Assert.assertEquals(badge.getHost().getTagName(), "lightning-badge");
+		Assert.assertEquals(snapshot.findElement("lightning-badge").getText(), "Status: New");
+	}
+
+	/**
+	 * Ensure that a snapshot gets stale by the next action.
+	 */
+	@Test()
+	public void testInvalidation() {
+		EventFiringWebDriver driver = createDriver();
+		DomSnapshot snapshot = driver.snapshot();
+		Node title = snapshot.findElement("#title");
+		driver.getTitle();
+		Assert.assertTrue(snapshot.isValid());
+
+		driver.get("about:blank");
+		Assert.assertFalse(snapshot.isValid());
+		try {
+			title.getText();
+			Assert.fail("StaleElementReferenceException expected");
+		} catch (StaleElementReferenceException e) {
+			; // expected
+		}
+	}
+
+	private EventFiringWebDriver createDriver() {
+		calls.clear();
+		Map<String, Object> page = element("body", null, true,
+				element("h1", map("id", "title"), true, "  Accounts "),
+				element("table", map("class", "results"), true,
+						element("tbody", null, true,
+								element("tr", map("class", "row", "data-id", "1"), true,
+										element("td", null, true, "Acme"),
+										element("td", null, true, "open"),
+										element("td", map("hidden", ""), false, "secret")),
+								element("tr", map("class", "row", "data-id", "2"), true,
+										element("td", null, true, "Globex")))),
+				badge());
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls).returning("executeScript", page).create();
+		return new EventFiringWebDriver(stub, "snapshotTest");
+	}
+
+	private static Map<String, Object> badge() {
+		Map<String, Object> badge = element("lightning-badge", null, true, "New");
+		badge.put("s", Arrays.asList(element("b", null, true, "Status:"), " ", element("slot", null, true)));
+		return badge;
+	}
+
+	private static Map<String, Object> element(String tag, Map<String, Object> attributes, boolean displayed,
+			Object... children) {
+		Map<String, Object> element = new HashMap<>();
+		element.put("t", tag);
+		element.put("a", (attributes != null) ? attributes : new HashMap<>());
+		element.put("d", displayed);
+		element.put("c", Arrays.asList(children));
+		return element;
+	}
+
+	private static Map<String, Object> map(String... keysAndValues) {
+		Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return map;
+	}
+}
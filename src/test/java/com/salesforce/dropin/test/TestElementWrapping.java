@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for the reuse of wrappers created by EventFiringWebDriver.
+ */
+public class TestElementWrapping {
+	private final List<Object[]> scriptArgs = new ArrayList<>();
+	private final WebElement element = (WebElement) stub(WebElement.class);
+
+	/**
+	 * Ensure that the navigation, options and target locator wrappers get created only once
+	 * per driver.
+	 */
+	@Test()
+	public void testWrapperReuse() {
+		EventFiringWebDriver driver = new EventFiringWebDriver((WebDriver) stub(WebDriver.class, JavascriptExecutor.class), "wrapperTest");
+		Assert.assertSame(driver.navigate(), driver.navigate());
+		Assert.assertSame(driver.manage(), driver.manage());
+		Assert.assertSame(driver.manage().timeouts(), driver.manage().timeouts());
+		Assert.assertSame(driver.manage().window(), driver.manage().window());
+		Assert.assertSame(driver.switchTo(), driver.switchTo());
+	}
+
+	/**
+	 * Ensure that the same element always gets the same wrapper and that script arguments only
+	 * get copied if they contain wrapped elements.
+	 */
+	@Test()
+	public void testElementWrapping() {
+		EventFiringWebDriver driver = new EventFiringWebDriver((WebDriver) stub(WebDriver.class, JavascriptExecutor.class), "wrapperTest");
+		WebElement wrapped = driver.findElement(By.id("save"));
+		Assert.assertNotSame(wrapped, element);
+		Assert.assertSame(driver.findElement(By.id("save")), wrapped);
+		Assert.assertSame(driver.findElements(By.id("save")).get(0), wrapped);
+
+		// no wrapped elements: the arguments get passed on as they are
+		List<String> list = Arrays.asList("a", "b");
+		Map<String, Object> map = Collections.singletonMap("key", "value");
+		Object[] args = new Object[] { "text", 42, list, map };
+		driver.executeScript("return 1;", args);
+		Assert.assertSame(scriptArgs.get(0), args);
+
+		// wrapped elements get unwrapped, even inside lists and maps
+		Map<String, Object> elementMap = new HashMap<>();
+		elementMap.put("element", wrapped);
+		elementMap.put("text", "value");
+		args = new Object[] { "text", Arrays.asList("a", wrapped), elementMap };
+		driver.executeScript("return 1;", args);
+		Object[] passed = scriptArgs.get(1);
+		Assert.assertNotSame(passed, args);
+		Assert.assertEquals(passed[0], "text");
+		Assert.assertSame(((List<?>) passed[1]).get(1), element);
+		Assert.assertEquals(((List<?>) passed[1]).get(0), "a");
+		Assert.assertSame(((Map<?, ?>) passed[2]).get("element"), element);
+		Assert.assertEquals(((Map<?, ?>) passed[2]).get("text"), "value");
+		Assert.assertSame(elementMap.get("element"), wrapped);
+	}
+
+	/**
+	 * Ensure that a wrapper reused for an element found by another locator reports the locator
+	 * of the latest lookup.
+	 */
+	@Test()
+	public void testLocatorOfReusedWrapper() {
+		WebElement foundById = equalElement("[[ChromeDriver: chrome on LINUX (1a2b)] -> id: save]");
+		WebElement foundByXpath = equalElement("[[ChromeDriver: chrome on LINUX (1a2b)] -> xpath: //button]");
+		WebDriver stub = Stub.driver()
+				.answering("findElement", args -> args[0] instanceof By.ById ? foundById : foundByXpath)
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "wrapperTest");
+		List<Step> clicks = new ArrayList<>();
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				if (step.getTypeOfLog() == Type.AfterAction && step.getCmd() == Cmd.clickByElement) {
+					clicks.add(step);
+				}
+			}
+		});
+
+		WebElement byId = driver.findElement(By.id("save"));
+		byId.click();
+		WebElement byXpath = driver.findElement(By.xpath("//button"));
+		Assert.assertSame(byXpath, byId);
+		byXpath.click();
+
+		Assert.assertEquals(clicks.size(), 2);
+		Assert.assertEquals(clicks.get(0).getElementLocator(), "By.id(\"save\")");
+		Assert.assertEquals(clicks.get(0).getParam1(), "By.id(\"save\")");
+		Assert.assertEquals(clicks.get(1).getElementLocator(), "By.xpath(\"//button\")");
+		Assert.assertEquals(clicks.get(1).getParam1(), "By.xpath(\"//button\")");
+		Assert.assertEquals(byId.toString(), foundByXpath.toString());
+	}
+
+	/*
+	 * Stub of an element equal to all other elements created by this method, as the browser
+	 * returns it for different locators.
+	 */
+	private WebElement equalElement(String description) {
+		return Stub.element(description)
+				.returning("hashCode", 42)
+				.answering("equals", args -> args[0] instanceof WebElement && args[0].hashCode() == 42)
+				.create();
+	}
+
+	/*
+	 * Stub for the given interfaces: finders return the one element, scripts record their
+	 * arguments, and any other method returning an interface gets a stub as well.
+	 */
+	private Object stub(Class<?>... interfaces) {
+		InvocationHandler handler = (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "toString":
+				return "[stub] -> id: save";
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "findElement":
+				return element;
+			case "findElements":
+				return Collections.singletonList(element);
+			case "executeScript":
+				scriptArgs.add((Object[]) args[1]);
+				return null;
+			default:
+				return method.getReturnType().isInterface() ? stub(method.getReturnType()) : null;
+			}
+		};
+		return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, handler);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.ElementProperties;
+import com.salesforce.selenium.support.event.ElementProperties.Property;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+
+/**
+ * Tests for fetching properties of several elements in one round-trip.
+ */
+public class TestFetchProperties {
+	private static final int ROWS = 3;
+
+	private final List<String> calls = new ArrayList<>();
+	private final List<Step> steps = new ArrayList<>();
+
+	/**
+	 * Ensure that all properties get fetched by one script and reported as one pair of steps.
+	 */
+	@Test()
+	public void testFetch() {
+		EventFiringWebDriver driver = createDriver();
+		List<ElementProperties> rows = driver.findAndFetchProperties(By.className("row"),
+				EnumSet.of(Property.TEXT, Property.DISPLAYED, Property.RECT), "href", "title");
+
+		Assert.assertEquals(calls.toString(), "[findElements, executeScript]");
+		Assert.assertEquals(rows.size(), ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			ElementProperties row = rows.get(i);
+			Assert.assertEquals(row.getText(), "row " + i);
+			Assert.assertEquals(row.isDisplayed(), i != 1);
+			Assert.assertEquals(row.getRect(), new Rectangle(10, 20 * i, 20, 100));
+			Assert.assertEquals(row.getAttribute("href"), "/row/" + i);
+			Assert.assertNull(row.getAttribute("title"));
+			Assert.assertTrue(row.getElement().toString().contains("row" + i), row.getElement().toString());
+		}
+		try {
+			rows.get(0).getTagName();
+			Assert.fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			; // expected
+		}
+
+		Assert.assertEquals(steps.size(), 2);
+		Step after = steps.get(1);
+		Assert.assertEquals(after.getCmd(), Cmd.fetchProperties);
+		Assert.assertEquals(after.getParam1(), "TEXT,DISPLAYED,RECT,@href,@title");
+		Assert.assertEquals(after.getParam2(), String.valueOf(ROWS));
+		Assert.assertTrue(after.getReturnValue().startsWith("[{TEXT=row 0, DISPLAYED=true, RECT="), after.getReturnValue());
+	}
+
+	/**
+	 * Ensure that no script gets executed for no elements.
+	 */
+	@Test()
+	public void testNoElements() {
+		EventFiringWebDriver driver = createDriver();
+		calls.clear();
+		Assert.assertTrue(driver.fetchProperties(new ArrayList<>(), EnumSet.of(Property.TEXT)).isEmpty());
+		Assert.assertTrue(calls.isEmpty(), calls.toString());
+	}
+
+	private EventFiringWebDriver createDriver() {
+		calls.clear();
+		steps.clear();
+		final List<WebElement> rows = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			final String id = "row" + i;
+			rows.add(Stub.element("[stub] -> id: " + id).recordingInto(calls, id).create());
+		}
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+				.returning("findElements", rows)
+				.answering("executeScript", args -> {
+					Object[] scriptArgs = (Object[]) args[1];
+					Assert.assertEquals(scriptArgs[0], rows);
+					Assert.assertEquals(scriptArgs[1], Arrays.asList("TEXT", "DISPLAYED", "RECT"));
+					List<Object> result = new ArrayList<>();
+					for (int i = 0; i < ROWS; i++) {
+						Map<String, Object> row = new HashMap<>();
+						row.put("TEXT", "row " + i);
+						row.put("DISPLAYED", i != 1);
+						row.put("RECT", Arrays.asList(10L, 20.2 * i, 100L, 20L));
+						Map<String, Object> attributes = new HashMap<>();
+						attributes.put("href", "/row/" + i);
+						attributes.put("title", null);
+						row.put("attributes", attributes);
+						result.add(row);
+					}
+					return result;
+				})
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "fetchTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				if (step.getCmd() == Cmd.fetchProperties) {
+					steps.add(step);
+				}
+			}
+		});
+		return driver;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.FlameGraph;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for folding steps into flame graph stacks.
+ */
+public class TestFlameGraph {
+
+	/**
+	 * Ensure that steps are folded by test, page, command and locator and weighted by elapsed time.
+	 */
+	@Test()
+	public void testFolding() throws IOException {
+		List<Step> steps = new ArrayList<>();
+		steps.add(step(Type.AfterAction, Cmd.get, "https://acme.my.salesforce.com/lightning/r/Account/001xx000003DGb2AAG/view?x=1", null, 2000000L));
+		steps.add(step(Type.AfterGather, Cmd.getText, null, "By.id(\"name\")", 1000000L));
+		steps.add(step(Type.AfterGather, Cmd.getText, null, "By.id(\"name\")", 3000000L));
+		steps.add(step(Type.BeforeAction, Cmd.clickByElement, null, "By.id(\"save\")", -1L));
+
+		FlameGraph flameGraph = new FlameGraph();
+		flameGraph.addSteps("myTest", steps);
+		Map<String, Long> stacks = flameGraph.getStacks();
+
+		String page = "https://acme.my.salesforce.com/lightning/r/Account/{id}/view";
+		Assert.assertEquals(stacks.size(), 2, stacks.toString());
+		Assert.assertEquals(stacks.get("myTest;" + page + ";webDriver.get"), Long.valueOf(2000L));
+		Assert.assertEquals(stacks.get("myTest;" + page + ";webElement.getText;By.id(\"name\")"), Long.valueOf(4000L));
+
+		StringWriter svg = new StringWriter();
+		flameGraph.writeSvg("title", svg);
+		Assert.assertTrue(svg.toString().contains("<title>webElement.getText (0.004 s)</title>"), svg.toString());
+
+		StringWriter speedscope = new StringWriter();
+		flameGraph.writeSpeedscope("suite", speedscope);
+		Assert.assertTrue(speedscope.toString().contains("\"weights\":[2000,4000]"), speedscope.toString());
+	}
+
+	/**
+	 * Ensure that IDs in URLs get replaced so that visits of the same page can be merged.
+	 */
+	@Test()
+	public void testNormalizeUrl() {
+		Assert.assertEquals(FlameGraph.normalizeUrl("https://host/apex/Page?id=1#top"), "https://host/apex/Page");
+		Assert.assertEquals(FlameGraph.normalizeUrl("https://host/orders/12345/items"), "https://host/orders/{id}/items");
+		Assert.assertEquals(FlameGraph.normalizeUrl("https://host/lightning/page/home"), "https://host/lightning/page/home");
+	}
+
+	private Step step(Type type, Cmd cmd, String param1, String locator, long elapsedNanos) {
+		Step step = new Step(type, 1, cmd);
+		step.setParam1(param1);
+		step.setElementLocator(locator);
+		step.setTimeElapsedStep(elapsedNanos);
+		return step;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+
+/**
+ * Tests for drawing borders around found elements.
+ */
+public class TestHighlighting {
+	private static final int ROWS = 200;
+
+	private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterMethod
+	public void tearDown() {
+		System.clearProperty("border.color.enabled");
+		System.clearProperty(EventFiringWebDriver.CONFIG_BORDER_COLOR_MODE);
+		calls.clear();
+	}
+
+	/**
+	 * Ensure that all elements found at once get highlighted by one script.
+	 */
+	@Test()
+	public void testImmediate() {
+		EventFiringWebDriver driver = createDriver("immediate");
+		Assert.assertEquals(driver.findElements(By.className("row")).size(), ROWS);
+		Assert.assertEquals(calls.toString(), "[findElements, executeScript " + ROWS + "]");
+	}
+
+	/**
+	 * Ensure that highlighting waits for the next command which is not a lookup.
+	 */
+	@Test()
+	public void testDeferred() {
+		EventFiringWebDriver driver = createDriver("deferred");
+		driver.findElements(By.className("row"));
+		driver.findElement(By.id("save"));
+		Assert.assertEquals(calls.toString(), "[findElements, findElement]");
+		driver.getTitle();
+		Assert.assertEquals(calls.toString(), "[findElements, findElement, executeScript " + (ROWS + 1) + ", getTitle]");
+
+		// found elements get dropped when closing the browser
+		driver.findElement(By.id("save"));
+		driver.close();
+		Assert.assertEquals(calls.subList(4, calls.size()).toString(), "[findElement, close]");
+	}
+
+	/**
+	 * Ensure that highlighting happens on another thread.
+	 */
+	@Test()
+	public void testAsync() throws InterruptedException {
+		EventFiringWebDriver driver = createDriver("async");
+		driver.findElements(By.className("row"));
+		for (int i = 0; i < 100 && calls.size() < 2; i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(calls.toString(), "[findElements, executeScript " + ROWS + " on EventFiringWebDriver-highlighter]");
+	}
+
+	private EventFiringWebDriver createDriver(String mode) {
+		System.setProperty("border.color.enabled", "true");
+		System.setProperty(EventFiringWebDriver.CONFIG_BORDER_COLOR_MODE, mode);
+		final WebElement element = Stub.element("[stub] -> id: row").create();
+		final List<WebElement> rows = new ArrayList<>();
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(element);
+		}
+		final String testThread = Thread.currentThread().getName();
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+				.returning("findElement", element)
+				.returning("findElements", rows)
+				.recording("executeScript", args -> {
+					String thread = Thread.currentThread().getName();
+					return "executeScript " + ((List<?>) ((Object[]) args[1])[0]).size()
+							+ (testThread.equals(thread) ? "" : " on " + thread);
+				})
+				.create();
+		return new EventFiringWebDriver(stub, "highlightingTest");
+	}
+}
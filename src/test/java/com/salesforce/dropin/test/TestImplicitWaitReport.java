@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.ImplicitWaitReport;
+import com.salesforce.selenium.support.event.ImplicitWaitReport.LocatorBurn;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for accounting lookups against the implicit wait.
+ */
+public class TestImplicitWaitReport {
+	private static final long MS = 1000000L;
+
+	/**
+	 * Ensure that failed, absent and slow lookups get charged per locator and per test.
+	 */
+	@Test()
+	public void testCharging() {
+		List<Step> steps = new ArrayList<>();
+		steps.add(lookup(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"a\")", "found", 100 * MS, 5000L));
+		steps.add(lookup(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"b\")", "found", 100 * MS, 5000L));
+		steps.add(lookup(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"c\")", "found", 1100 * MS, 5000L));
+		steps.add(lookup(Type.Exception, Cmd.findElementByWebDriver, "By.id(\"spinner\")", null, 5050 * MS, 5000L));
+		steps.add(lookup(Type.AfterGather, Cmd.findElementsByWebDriver, "By.id(\"spinner\")", null, 5020 * MS, 5000L));
+		// lookups without implicit wait are never charged
+		steps.add(lookup(Type.Exception, Cmd.findElementByWebDriver, "By.id(\"d\")", null, 800 * MS, 0L));
+
+		ImplicitWaitReport report = new ImplicitWaitReport();
+		List<LocatorBurn> burns = report.addSteps("myTest", steps);
+		Assert.assertEquals(burns.get(0).getLocator(), "By.id(\"spinner\")");
+		Assert.assertEquals(burns.get(0).getLookups(), 2);
+		Assert.assertEquals(burns.get(0).getFailed(), 1);
+		Assert.assertEquals(burns.get(0).getAbsent(), 1);
+		Assert.assertEquals(burns.get(0).getLostNanos(), 10000 * MS);
+		Assert.assertEquals(burns.get(1).getLocator(), "By.id(\"c\")");
+		Assert.assertEquals(burns.get(1).getSlow(), 1);
+		Assert.assertEquals(burns.get(1).getLostNanos(), 1000 * MS);
+		Assert.assertEquals(report.getLostNanos("myTest"), 11000 * MS);
+
+		StringWriter writer = new StringWriter();
+		report.write(writer);
+		Assert.assertTrue(writer.toString().contains("    10.000        2        1        1        0  By.id(\"spinner\")"),
+				writer.toString());
+		Assert.assertFalse(writer.toString().contains("By.id(\"d\")"), writer.toString());
+	}
+
+	/**
+	 * Ensure that the driver stamps the implicit wait on lookups and reports a failed lookup
+	 * as exception step of the lookup command.
+	 */
+	@Test()
+	public void testDriverTracksImplicitWait() {
+		WebDriver stub = Stub.driver(WebDriver.Options.class, WebDriver.Timeouts.class)
+				.returningItself("manage", "timeouts", "implicitlyWait")
+				.returning("findElements", Collections.emptyList())
+				.answering("findElement", args -> {
+					throw new NoSuchElementException("not there");
+				})
+				.create();
+		List<Step> recorded = new ArrayList<>();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "implicitWaitTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				recorded.add(step);
+			}
+		});
+
+		driver.manage().timeouts().implicitlyWait(2, TimeUnit.SECONDS);
+		Assert.assertTrue(driver.findElements(By.id("absent")).isEmpty());
+		try {
+			driver.findElement(By.id("missing"));
+			Assert.fail("NoSuchElementException expected");
+		} catch (NoSuchElementException e) {
+			; // expected
+		}
+
+		Step absent = recorded.get(recorded.size() - 3);
+		Assert.assertEquals(absent.getTypeOfLog(), Type.AfterGather);
+		Assert.assertEquals(absent.getImplicitWait(), 2000L);
+		Step failed = recorded.get(recorded.size() - 1);
+		Assert.assertEquals(failed.getTypeOfLog(), Type.Exception);
+		Assert.assertEquals(failed.getCmd(), Cmd.findElementByWebDriver);
+		Assert.assertEquals(failed.getParam1(), "By.id(\"missing\")");
+		Assert.assertEquals(failed.getImplicitWait(), 2000L);
+		Assert.assertTrue(failed.getTimeInDriver() >= 0L);
+		Assert.assertTrue(failed.getIssue() instanceof NoSuchElementException);
+	}
+
+	private Step lookup(Type type, Cmd cmd, String locator, String returnValue, long nanos, long implicitWait) {
+		Step step = new Step(type, 1, cmd);
+		step.setParam1(locator);
+		step.setReturnValue(returnValue);
+		step.setTimeElapsedStep(nanos);
+		step.setTimeInDriver(nanos);
+		step.setImplicitWait(implicitWait);
+		return step;
+	}
+}
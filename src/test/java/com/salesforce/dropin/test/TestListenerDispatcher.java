@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.ListenerDispatcher;
+import com.salesforce.selenium.support.event.ListenerDispatcher.ListenerStats;
+import com.salesforce.selenium.support.event.ListenerDispatcher.State;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Field;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for passing events on to registered listeners.
+ */
+public class TestListenerDispatcher {
+
+	/**
+	 * Ensure that listeners get called in the order of registration and no longer after
+	 * having been unregistered.
+	 */
+	@Test()
+	public void testRegistration() {
+		final List<String> calls = new ArrayList<>();
+		final List<Long> dispatchTimes = new ArrayList<>();
+		ListenerDispatcher dispatcher = new ListenerDispatcher() {
+			@Override
+			protected void beforeDispatch(Step step) {
+				calls.add("stamp " + step.getCmd());
+			}
+
+			@Override
+			protected void afterDispatch(long nanos) {
+				dispatchTimes.add(nanos);
+			}
+		};
+		RecordingListener first = new RecordingListener("first", calls);
+		RecordingListener second = new RecordingListener("second", calls);
+		dispatcher.register(first);
+		dispatcher.register(second);
+
+		dispatcher.afterGetText(new Step(Type.AfterGather, 1, Cmd.getText), "text", null);
+		dispatcher.unregister(first);
+		dispatcher.beforeClose(new Step(Type.BeforeAction, 2, Cmd.close));
+
+		Assert.assertEquals(calls.toString(), "[stamp getText, first getText, second getText, stamp close, second close]");
+		Assert.assertEquals(dispatchTimes.size(), 2);
+		Assert.assertEquals(dispatcher.getListeners().size(), 1);
+	}
+
+	/**
+	 * Ensure that exceptions thrown by a listener are passed on unwrapped.
+	 */
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testListenerException() {
+		ListenerDispatcher dispatcher = new ListenerDispatcher();
+		dispatcher.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				throw new IllegalStateException("broken listener");
+			}
+		});
+		dispatcher.beforeClose(new Step(Type.BeforeAction, 1, Cmd.close));
+	}
+
+	/**
+	 * Ensure that listeners only get the commands they are interested in and that fields
+	 * nobody reads are neither computed nor kept.
+	 */
+	@Test()
+	public void testInterests() {
+		final List<String> calls = new ArrayList<>();
+		ListenerDispatcher dispatcher = new ListenerDispatcher();
+		RecordingListener all = new RecordingListener("all", calls);
+		RecordingListener texts = new RecordingListener("texts", calls, EnumSet.of(Cmd.getText),
+				EnumSet.of(Field.RETURN_VALUE));
+		dispatcher.register(texts);
+		Assert.assertTrue(dispatcher.isObserved(Cmd.getText));
+		Assert.assertFalse(dispatcher.isObserved(Cmd.close));
+
+		final AtomicInteger evaluations = new AtomicInteger();
+		Step step = new Step(Type.AfterGather, 1, Cmd.getText);
+		step.setLazily(Field.PARAM1, () -> "locator" + evaluations.incrementAndGet());
+		step.setReturnValue("text");
+		dispatcher.afterGetText(step, "text", null);
+		Assert.assertNull(step.getParam1());
+		Assert.assertEquals(step.getReturnValue(), "text");
+		Assert.assertEquals(evaluations.get(), 0);
+
+		dispatcher.register(all);
+		Assert.assertTrue(dispatcher.isObserved(Cmd.close));
+		step = new Step(Type.AfterGather, 2, Cmd.getText);
+		step.setLazily(Field.PARAM1, () -> "locator" + evaluations.incrementAndGet());
+		dispatcher.afterGetText(step, "text", null);
+		dispatcher.beforeClose(new Step(Type.BeforeAction, 3, Cmd.close));
+		Assert.assertEquals(step.getParam1(), "locator1");
+		Assert.assertEquals(step.getParam1(), "locator1");
+		Assert.assertEquals(calls.toString(), "[texts getText, texts getText, all getText, all close]");
+	}
+
+	/**
+	 * Ensure that the driver skips creating steps for commands no listener is interested in,
+	 * yet keeps counting them.
+	 */
+	@Test()
+	public void testUnobservedCommands() {
+		WebDriver stub = Stub.driver().returning("findElement", Stub.element("[stub] -> id: save").create()).create();
+		final List<Step> recorded = new ArrayList<>();
+		System.setProperty(EventFiringWebDriver.CONFIG_LOG_COMMANDS, "findElementByWebDriver");
+		try {
+			EventFiringWebDriver driver = new EventFiringWebDriver(stub, "unobservedTest");
+			driver.register(new AbstractStepListener() {
+				@Override
+				public Set<Cmd> getCmdsOfInterest() {
+					return EnumSet.of(Cmd.findElementByWebDriver, Cmd.get);
+				}
+
+				@Override
+				protected void onStep(Step step) {
+					recorded.add(step);
+				}
+			});
+			driver.getTitle();
+			driver.get("https://host/page");
+			driver.findElement(By.id("save"));
+		} finally {
+			System.clearProperty(EventFiringWebDriver.CONFIG_LOG_COMMANDS);
+		}
+
+		Assert.assertEquals(recorded.size(), 4);
+		Assert.assertEquals(recorded.get(0).getCmd(), Cmd.get);
+		Step found = recorded.get(3);
+		Assert.assertEquals(found.getCmd(), Cmd.findElementByWebDriver);
+		Assert.assertEquals(found.getParam1(), "By.id(\"save\")");
+		Assert.assertEquals(found.getReturnValue(), "[stub] -> id: save");
+	}
+
+	/**
+	 * Ensure that a listener exceeding its budget too often gets its events asynchronously
+	 * from then on.
+	 */
+	@Test()
+	public void testBudget() {
+		final List<String> threads = new ArrayList<>();
+		ListenerDispatcher dispatcher = new ListenerDispatcher(TimeUnit.MILLISECONDS.toNanos(1), 2, 0);
+		AbstractStepListener slow = new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				synchronized (threads) {
+					threads.add(Thread.currentThread().getName());
+				}
+			}
+		};
+		dispatcher.register(slow);
+		for (int i = 1; i <= 4; i++) {
+			dispatcher.afterClose(new Step(Type.AfterAction, i, Cmd.close));
+		}
+		ListenerStats stats = dispatcher.getListenerStats().get(0);
+		Assert.assertEquals(stats.getState(), State.ASYNC);
+		Assert.assertEquals(stats.getEvents(), 4);
+		Assert.assertTrue(stats.getBudgetBreaches() >= 2, stats.toString());
+
+		dispatcher.closeListener();
+		Assert.assertEquals(threads.size(), 4);
+		Assert.assertEquals(threads.get(0), Thread.currentThread().getName());
+		Assert.assertNotEquals(threads.get(3), Thread.currentThread().getName());
+		Assert.assertEquals(dispatcher.getListeners().get(0), slow);
+	}
+
+	/**
+	 * Ensure that a demoted listener which keeps falling behind, making the test thread wait for
+	 * space in its queue, gets disabled and closed.
+	 */
+	@Test()
+	public void testBudgetWhenAsync() {
+		final List<String> calls = new ArrayList<>();
+		ListenerDispatcher dispatcher;
+		System.setProperty(EventFiringWebDriver.CONFIG_ASYNC_QUEUE_SIZE, "1");
+		try {
+			dispatcher = new ListenerDispatcher(TimeUnit.MILLISECONDS.toNanos(1), 2, 0);
+			dispatcher.register(new AbstractStepListener() {
+				@Override
+				protected void onStep(Step step) {
+					try {
+						Thread.sleep(20);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					synchronized (calls) {
+						calls.add("step " + step.getStepNumber());
+					}
+				}
+
+				@Override
+				public void closeListener() {
+					synchronized (calls) {
+						calls.add("close");
+					}
+				}
+			});
+			for (int i = 1; i <= 10; i++) {
+				dispatcher.afterClose(new Step(Type.AfterAction, i, Cmd.close));
+			}
+		} finally {
+			System.clearProperty(EventFiringWebDriver.CONFIG_ASYNC_QUEUE_SIZE);
+		}
+
+		ListenerStats stats = dispatcher.getListenerStats().get(0);
+		Assert.assertEquals(stats.getState(), State.DISABLED);
+		Assert.assertTrue(stats.getBudgetBreaches() >= 4, stats.toString());
+		Assert.assertTrue(stats.getEvents() < 10, stats.toString());
+		// the events queued before got passed on when closing it
+		synchronized (calls) {
+			Assert.assertEquals(calls.get(calls.size() - 1), "close", calls.toString());
+			Assert.assertEquals(calls.size(), stats.getEvents() + 1, calls.toString());
+		}
+		dispatcher.closeListener();
+		Assert.assertEquals(calls.size(), stats.getEvents() + 1, calls.toString());
+	}
+
+	/**
+	 * Ensure that a listener which keeps throwing gets disabled without failing the test if
+	 * a maximum number of failures is configured.
+	 */
+	@Test()
+	public void testFailures() {
+		final List<String> calls = new ArrayList<>();
+		ListenerDispatcher dispatcher = new ListenerDispatcher(0L, 1, 2);
+		dispatcher.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				throw new IllegalStateException("broken listener");
+			}
+		});
+		dispatcher.register(new RecordingListener("healthy", calls));
+		for (int i = 1; i <= 3; i++) {
+			dispatcher.beforeClose(new Step(Type.BeforeAction, i, Cmd.close));
+		}
+
+		Assert.assertEquals(calls.size(), 3);
+		List<ListenerStats> stats = dispatcher.getListenerStats();
+		Assert.assertEquals(stats.get(0).getState(), State.DISABLED);
+		Assert.assertEquals(stats.get(0).getFailures(), 2);
+		Assert.assertEquals(stats.get(1).getState(), State.INLINE);
+		Assert.assertEquals(stats.get(1).getEvents(), 3);
+	}
+
+	private static class RecordingListener extends AbstractStepListener {
+		private final String name;
+		private final List<String> calls;
+		private final Set<Cmd> cmds;
+		private final Set<Field> fields;
+
+		RecordingListener(String name, List<String> calls) {
+			this(name, calls, EnumSet.allOf(Cmd.class), EnumSet.allOf(Field.class));
+		}
+
+		RecordingListener(String name, List<String> calls, Set<Cmd> cmds, Set<Field> fields) {
+			this.name = name;
+			this.calls = calls;
+			this.cmds = cmds;
+			this.fields = fields;
+		}
+
+		@Override
+		public Set<Cmd> getCmdsOfInterest() {
+			return cmds;
+		}
+
+		@Override
+		public Set<Field> getFieldsOfInterest() {
+			return fields;
+		}
+
+		@Override
+		protected void onStep(Step step) {
+			calls.add(name + " " + step.getCmd());
+		}
+	}
+}
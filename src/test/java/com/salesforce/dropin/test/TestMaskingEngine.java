@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.MaskingEngine;
+
+/**
+ * Tests for hiding sensitive data in steps.
+ */
+public class TestMaskingEngine {
+	private final MaskingEngine engine = new MaskingEngine(Arrays.asList("password", "pass", "secret", "cret_k"),
+			"Bearer [\\w.-]+|JSESSIONID=\\w+");
+
+	/**
+	 * Ensure that any of the locators is found, including overlapping ones.
+	 */
+	@Test()
+	public void testSensitiveLocators() {
+		Assert.assertTrue(engine.isSensitiveLocator("By.id(\"password\")"));
+		Assert.assertTrue(engine.isSensitiveLocator("By.id(\"user_pass\")"));
+		Assert.assertTrue(engine.isSensitiveLocator("By.id(\"secret_key\")"));
+		Assert.assertTrue(engine.isSensitiveLocator("By.id(\"secrecret_k\")"));
+		Assert.assertFalse(engine.isSensitiveLocator("By.id(\"username\")"));
+		Assert.assertFalse(engine.isSensitiveLocator("By.id(\"pas\")"));
+		Assert.assertFalse(engine.isSensitiveLocator(null));
+		Assert.assertFalse(new MaskingEngine(Collections.emptyList(), null).isSensitiveLocator("password"));
+	}
+
+	/**
+	 * Ensure that typed text and attribute values get masked.
+	 */
+	@Test()
+	public void testKeysAndAttributes() {
+		Assert.assertEquals(engine.maskKeys("By.id(\"password\")", "top", "secret"), MaskingEngine.MASK);
+		Assert.assertEquals(engine.maskKeys("By.id(\"username\")", "admin", "@example.com"), "admin@example.com");
+		Assert.assertEquals(engine.maskKeys("By.id(\"header\")", "Bearer abc.def-1 sent"), "******** sent");
+		Assert.assertEquals(engine.maskKeys(null, "x"), "x");
+
+		Assert.assertEquals(engine.maskAttribute("By.id(\"password\")", "value", "topsecret"), MaskingEngine.MASK);
+		Assert.assertEquals(engine.maskAttribute("By.id(\"password\")", "class", "input"), "input");
+		Assert.assertEquals(engine.maskAttribute("By.id(\"cookie\")", "value", "JSESSIONID=ab12; path=/"), "********; path=/");
+		Assert.assertNull(engine.maskAttribute("By.id(\"password\")", "value", null));
+	}
+
+	/**
+	 * Ensure that text without sensitive values is returned as is.
+	 */
+	@Test()
+	public void testValues() {
+		String source = "<html><body>JSESSIONID=1 and Bearer x and JSESSIONID=2</body></html>";
+		Assert.assertEquals(engine.maskValues(source), "<html><body>******** and ******** and ********</body></html>");
+		String harmless = "<html><body>nothing to hide</body></html>";
+		Assert.assertSame(engine.maskValues(harmless), harmless);
+		Assert.assertSame(new MaskingEngine(Collections.emptyList(), null).maskValues(source), source);
+	}
+
+	/**
+	 * Ensure that script arguments get rendered and masked.
+	 */
+	@Test()
+	public void testArguments() {
+		WebElement password = element("[[ChromeDriver: chrome on MAC] -> id: password]");
+		WebElement search = element("[[ChromeDriver: chrome on MAC] -> id: search]");
+		Assert.assertEquals(engine.maskArguments(search, "text", 42, Arrays.asList("Bearer t0ken", search),
+				Collections.singletonMap("key", "JSESSIONID=abc")),
+				"[By.id(\"search\"), text, 42, [********, By.id(\"search\")], {key=********}]");
+		Assert.assertEquals(engine.maskArguments(password, "topsecret", Arrays.asList("x")),
+				"[By.id(\"password\"), ********, [********]]");
+		Assert.assertNull(engine.maskArguments());
+	}
+
+	private WebElement element(String description) {
+		return Stub.element(description).create();
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriver.Navigation;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.PageTiming;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for attaching page timing to the steps loading pages.
+ */
+public class TestPageTiming {
+	private final List<String> calls = new ArrayList<>();
+	private final List<Step> steps = new ArrayList<>();
+	private double timeOrigin = 1000d;
+
+	@AfterMethod
+	public void tearDown() {
+		System.clearProperty(EventFiringWebDriver.CONFIG_PAGE_TIMING);
+		calls.clear();
+		steps.clear();
+	}
+
+	/**
+	 * Ensure that navigating gets the timing of the loaded page attached.
+	 */
+	@Test()
+	public void testNavigation() {
+		System.setProperty(EventFiringWebDriver.CONFIG_PAGE_TIMING, "true");
+		EventFiringWebDriver driver = createDriver();
+
+		driver.get("https://example.com/");
+		Assert.assertEquals(calls.toString(), "[get, executeAsyncScript]");
+		PageTiming timing = afterStep(Cmd.get).getPageTiming();
+		Assert.assertNotNull(timing);
+		Assert.assertEquals(timing.getUrl(), "https://example.com/");
+		Assert.assertEquals(timing.getTtfb(), 120d);
+		Assert.assertEquals(timing.getLcp(), 850.5d);
+		Assert.assertEquals(timing.getCls(), 0d);
+		Assert.assertEquals(timing.getInp(), -1d);
+		Assert.assertNull(beforeStep(Cmd.get).getPageTiming());
+		Assert.assertTrue(afterStep(Cmd.get).toString().contains(",page timing:PageTiming [url=https://example.com/"));
+
+		driver.navigate().refresh();
+		Assert.assertNotNull(afterStep(Cmd.refresh).getPageTiming());
+	}
+
+	/**
+	 * Ensure that clicks get the timing attached only if they loaded another page.
+	 */
+	@Test()
+	public void testClick() {
+		System.setProperty(EventFiringWebDriver.CONFIG_PAGE_TIMING, "true");
+		EventFiringWebDriver driver = createDriver();
+		driver.get("https://example.com/");
+		WebElement link = driver.findElement(By.id("link"));
+
+		link.click();
+		Assert.assertNull(afterStep(Cmd.clickByElement).getPageTiming());
+
+		timeOrigin = 2000d;
+		link.click();
+		Assert.assertEquals(afterStep(Cmd.clickByElement).getPageTiming().getTimeOrigin(), 2000d);
+	}
+
+	/**
+	 * Ensure that there is no timing unless configured.
+	 */
+	@Test()
+	public void testDisabled() {
+		EventFiringWebDriver driver = createDriver();
+		driver.get("https://example.com/");
+		Assert.assertEquals(calls.toString(), "[get]");
+		Assert.assertNull(afterStep(Cmd.get).getPageTiming());
+	}
+
+	private Step beforeStep(Cmd cmd) {
+		return lastStep(Type.BeforeAction, cmd);
+	}
+
+	private Step afterStep(Cmd cmd) {
+		return lastStep(Type.AfterAction, cmd);
+	}
+
+	private Step lastStep(Type type, Cmd cmd) {
+		for (int i = steps.size() - 1; i >= 0; i--) {
+			Step step = steps.get(i);
+			if (step.getTypeOfLog() == type && step.getCmd() == cmd)
+				return step;
+		}
+		throw new AssertionError("No step " + type + " " + cmd + " in " + steps);
+	}
+
+	private EventFiringWebDriver createDriver() {
+		Navigation navigation = Stub.of(Navigation.class).recordingInto(calls).create();
+		WebElement link = Stub.element("link").recordingInto(calls).create();
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+				.answering("executeAsyncScript", args -> {
+					Map<String, Object> result = new HashMap<>();
+					result.put("url", "https://example.com/");
+					result.put("timeOrigin", timeOrigin);
+					result.put("dns", 0L);
+					result.put("ttfb", 120L);
+					result.put("domContentLoaded", 400.25d);
+					result.put("load", 610L);
+					result.put("lcp", 850.5d);
+					result.put("cls", 0L);
+					result.put("inp", -1L);
+					return result;
+				})
+				.returning("navigate", navigation)
+				.returning("findElement", link)
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "pageTimingTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				steps.add(step);
+			}
+		});
+		return driver;
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.PrometheusExporter;
+import com.salesforce.selenium.support.event.PrometheusMetricsListener;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for the Prometheus metrics endpoint.
+ */
+public class TestPrometheusExporter {
+
+	@BeforeMethod
+	public void resetMetrics() {
+		PrometheusExporter.reset();
+	}
+
+	@AfterMethod
+	public void stopEndpoint() {
+		PrometheusExporter.stop();
+	}
+
+	/**
+	 * Ensure that histograms, counters and gauges get rendered in the Prometheus text format.
+	 */
+	@Test()
+	public void testScrape() {
+		PrometheusMetricsListener listener = new PrometheusMetricsListener();
+		listener.beforeGetText(afterStep(Type.BeforeGather, Cmd.getText, -1L), null);
+		listener.afterGetText(afterStep(Type.AfterGather, Cmd.getText, 3000000L), "text", null);
+		listener.afterClick(afterStep(Type.AfterAction, Cmd.clickByElement, 700000000L), null);
+		listener.onException(new Step(Type.Exception, 1, Cmd.findElementByWebDriver), Cmd.findElementByWebDriver,
+				new NoSuchElementException("not there"));
+
+		String metrics = PrometheusExporter.scrape();
+		Assert.assertTrue(metrics.contains("webdriver_command_duration_seconds_bucket{cmd=\"getText\",le=\"0.005\"} 1"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_command_duration_seconds_bucket{cmd=\"clickByElement\",le=\"0.5\"} 0"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_command_duration_seconds_bucket{cmd=\"clickByElement\",le=\"1.0\"} 1"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_command_duration_seconds_count{cmd=\"clickByElement\"} 1"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_active_sessions 1"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_commands_total 2"), metrics);
+		Assert.assertTrue(metrics.contains("webdriver_exceptions_total{type=\"org.openqa.selenium.NoSuchElementException\"} 1"), metrics);
+
+		listener.closeListener();
+		listener.closeListener();
+		Assert.assertTrue(PrometheusExporter.scrape().contains("webdriver_active_sessions 0"));
+	}
+
+	/**
+	 * Ensure that the metrics are served via HTTP on localhost.
+	 */
+	@Test()
+	public void testEndpoint() throws IOException {
+		int port = PrometheusExporter.start(0);
+		Assert.assertTrue(PrometheusExporter.isRunning());
+
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + PrometheusExporter.METRICS_PATH).openConnection();
+		Assert.assertEquals(connection.getResponseCode(), 200);
+		Assert.assertTrue(connection.getContentType().startsWith("text/plain"));
+		try (InputStream is = connection.getInputStream()) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				bos.write(buffer, 0, read);
+			}
+			Assert.assertTrue(new String(bos.toByteArray(), StandardCharsets.UTF_8).contains("# TYPE webdriver_commands_total counter"));
+		}
+	}
+
+	private Step afterStep(Type type, Cmd cmd, long elapsedNanos) {
+		Step step = new Step(type, 1, cmd);
+		step.setTimeElapsedStep(elapsedNanos);
+		return step;
+	}
+}
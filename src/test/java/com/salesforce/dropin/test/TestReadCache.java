@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriver.TargetLocator;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.interactions.HasInputDevices;
+import org.openqa.selenium.interactions.Interactive;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for answering gather commands from the read cache.
+ */
+public class TestReadCache {
+	private final List<String> calls = new ArrayList<>();
+	private final List<Step> steps = new ArrayList<>();
+
+	@AfterMethod
+	public void tearDown() {
+		System.clearProperty(EventFiringWebDriver.CONFIG_READ_CACHE);
+		calls.clear();
+		steps.clear();
+	}
+
+	/**
+	 * Ensure that answers get reused until the next action and get marked as cached.
+	 */
+	@Test()
+	public void testCache() {
+		System.setProperty(EventFiringWebDriver.CONFIG_READ_CACHE, "true");
+		EventFiringWebDriver driver = createDriver(true);
+		WebElement header = driver.findElement(By.id("header"));
+		calls.clear();
+
+		Assert.assertEquals(driver.getTitle(), "title");
+		Assert.assertEquals(driver.getTitle(), "title");
+		Assert.assertEquals(header.getText(), "text");
+		Assert.assertEquals(header.getText(), "text");
+		Assert.assertEquals(header.getCssValue("color"), "color");
+		Assert.assertEquals(header.getCssValue("width"), "width");
+		Assert.assertEquals(calls.toString(), "[getTitle, getText header, getCssValue header, getCssValue header]");
+		Assert.assertEquals(driver.getReadCache().getHits(), 2L);
+		Assert.assertEquals(driver.getReadCache().getMisses(), 4L);
+
+		List<Step> titleSteps = new ArrayList<>();
+		for (Step step : steps) {
+			if (step.getTypeOfLog() == Type.AfterGather && step.getCmd() == Step.Cmd.getTitle) {
+				titleSteps.add(step);
+			}
+		}
+		Assert.assertEquals(titleSteps.size(), 2);
+		Assert.assertFalse(titleSteps.get(0).isCached());
+		Assert.assertTrue(titleSteps.get(1).isCached());
+		Assert.assertTrue(titleSteps.get(1).toString().endsWith(",cached"), titleSteps.get(1).toString());
+
+		// any action invalidates all answers
+		header.click();
+		calls.clear();
+		driver.getTitle();
+		header.getText();
+		Assert.assertEquals(calls.toString(), "[getTitle, getText header]");
+	}
+
+	/**
+	 * Ensure that W3C actions, which are not reported as steps, invalidate all answers as well.
+	 */
+	@Test()
+	public void testActions() {
+		System.setProperty(EventFiringWebDriver.CONFIG_READ_CACHE, "true");
+		EventFiringWebDriver driver = createDriver(true);
+		WebElement header = driver.findElement(By.id("header"));
+		Actions actions = new Actions(driver);
+		driver.getTitle();
+		header.getText();
+		calls.clear();
+
+		actions.click(header).sendKeys("abc").perform();
+		Assert.assertEquals(calls.toString(), "[perform]");
+		Assert.assertEquals(driver.getTitle(), "title");
+		Assert.assertEquals(header.getText(), "text");
+		Assert.assertEquals(calls.toString(), "[perform, getTitle, getText header]");
+
+		calls.clear();
+		driver.resetInputState();
+		driver.getTitle();
+		Assert.assertEquals(calls.toString(), "[resetInputState, getTitle]");
+	}
+
+	/**
+	 * Ensure that accepting, dismissing and typing into alerts, which may change the page,
+	 * invalidate all answers as well.
+	 */
+	@Test()
+	public void testAlert() {
+		System.setProperty(EventFiringWebDriver.CONFIG_READ_CACHE, "true");
+		EventFiringWebDriver driver = createDriver(true);
+		WebElement header = driver.findElement(By.id("header"));
+		Alert alert = driver.switchTo().alert();
+		driver.getTitle();
+		header.getText();
+		calls.clear();
+
+		alert.accept();
+		Assert.assertEquals(driver.getTitle(), "title");
+		Assert.assertEquals(header.getText(), "text");
+		Assert.assertEquals(calls.toString(), "[accept, getTitle, getText header]");
+
+		calls.clear();
+		alert.sendKeys("abc");
+		driver.getTitle();
+		alert.dismiss();
+		driver.getTitle();
+		Assert.assertEquals(calls.toString(), "[sendKeys, getTitle, dismiss, getTitle]");
+	}
+
+	/**
+	 * Ensure that the cache also works without listeners and hands out copies of mutable answers.
+	 */
+	@Test()
+	public void testUnobserved() {
+		System.setProperty(EventFiringWebDriver.CONFIG_READ_CACHE, "true");
+		EventFiringWebDriver driver = createDriver(false);
+
+		Set<String> handles = driver.getWindowHandles();
+		handles.clear();
+		Assert.assertEquals(driver.getWindowHandles().size(), 2);
+		Assert.assertEquals(driver.getCurrentUrl(), "url");
+		Assert.assertEquals(driver.getCurrentUrl(), "url");
+		Assert.assertEquals(calls.toString(), "[getWindowHandles, getCurrentUrl]");
+
+		driver.get("url");
+		driver.getCurrentUrl();
+		Assert.assertEquals(calls.toString(), "[getWindowHandles, getCurrentUrl, get, getCurrentUrl]");
+	}
+
+	/**
+	 * Ensure that there is no cache unless configured.
+	 */
+	@Test()
+	public void testDisabled() {
+		EventFiringWebDriver driver = createDriver(true);
+		driver.getTitle();
+		driver.getTitle();
+		Assert.assertEquals(calls.toString(), "[getTitle, getTitle]");
+		Assert.assertNull(driver.getReadCache());
+	}
+
+	private EventFiringWebDriver createDriver(boolean observed) {
+		Set<String> handles = new LinkedHashSet<>();
+		handles.add("first");
+		handles.add("second");
+		Alert alert = Stub.of(Alert.class).recordingInto(calls).create();
+		WebDriver stub = Stub.driver(HasInputDevices.class, Interactive.class).recordingInto(calls)
+				.answering("findElement", args -> element(args[0].toString().substring("By.id: ".length())))
+				.returning("getTitle", "title")
+				.returning("getCurrentUrl", "url")
+				.returning("switchTo", Stub.of(TargetLocator.class).returning("alert", alert).create())
+				.answering("getWindowHandles", args -> new LinkedHashSet<>(handles))
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "readCacheTest");
+		if (observed) {
+			driver.register(new AbstractStepListener() {
+				@Override
+				protected void onStep(Step step) {
+					steps.add(step);
+				}
+			});
+		}
+		return driver;
+	}
+
+	private WebElement element(String id) {
+		return Stub.element(id).recordingInto(calls, id)
+				.returning("getText", "text")
+				.answering("getCssValue", args -> args[0])
+				.create();
+	}
+}
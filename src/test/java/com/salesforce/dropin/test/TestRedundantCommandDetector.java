@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.RedundantCommandDetector;
+import com.salesforce.selenium.support.event.RedundantCommandDetector.Finding;
+import com.salesforce.selenium.support.event.RedundantCommandDetector.Waste;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+
+/**
+ * Tests for detecting redundant commands.
+ */
+public class TestRedundantCommandDetector {
+	private static final long MS = 1000000L;
+
+	/**
+	 * Ensure that each wasteful pattern gets detected and its saving estimated.
+	 */
+	@Test()
+	public void testPatterns() {
+		List<Step> steps = new ArrayList<>();
+		steps.add(step(Type.AfterAction, Cmd.get, "https://host/page", null));
+		// a freshly loaded page is always in its default content
+		steps.add(step(Type.AfterAction, Cmd.defaultContent, null, null));
+		steps.add(step(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"save\")", null));
+		steps.add(step(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"save\")", null));
+		steps.add(step(Type.AfterGather, Cmd.isDisplayed, "By.id(\"save\")", "By.id(\"save\")"));
+		steps.add(step(Type.AfterGather, Cmd.isDisplayed, "By.id(\"save\")", "By.id(\"save\")"));
+		steps.add(step(Type.AfterGather, Cmd.isDisplayed, "By.id(\"save\")", "By.id(\"save\")"));
+		steps.add(step(Type.AfterAction, Cmd.clickByElement, "By.id(\"save\")", "By.id(\"save\")"));
+		steps.add(step(Type.AfterGather, Cmd.getCurrentUrl, null, null));
+		// an action in between makes the second lookup necessary
+		steps.add(step(Type.AfterGather, Cmd.findElementByWebDriver, "By.id(\"save\")", null));
+		steps.add(step(Type.AfterAction, Cmd.frameByIndex, "0", null));
+		steps.add(step(Type.AfterAction, Cmd.defaultContent, null, null));
+		steps.add(step(Type.AfterAction, Cmd.defaultContent, null, null));
+
+		RedundantCommandDetector detector = new RedundantCommandDetector();
+		List<Finding> findings = detector.addSteps("myTest", steps);
+		Assert.assertEquals(findings.size(), 4, findings.toString());
+		Assert.assertEquals(count(findings, Waste.REPEATED_LOOKUP), 1);
+		Assert.assertEquals(count(findings, Waste.REPEATED_READ), 2);
+		Assert.assertEquals(count(findings, Waste.URL_AFTER_CLICK), 1);
+		Assert.assertEquals(count(findings, Waste.REDUNDANT_DEFAULT_CONTENT), 2);
+		Assert.assertEquals(findings.get(0).getSavedNanos(), 20 * MS);
+
+		StringWriter writer = new StringWriter();
+		detector.write(writer);
+		Assert.assertTrue(writer.toString().contains("myTest                                                                  6        0.060"),
+				writer.toString());
+	}
+
+	private int count(List<Finding> findings, Waste waste) {
+		for (Finding finding : findings) {
+			if (finding.getWaste() == waste)
+				return finding.getOccurrences();
+		}
+		return 0;
+	}
+
+	private Step step(Type type, Cmd cmd, String param1, String elementLocator) {
+		Step step = new Step(type, 1, cmd);
+		step.setParam1(param1);
+		step.setElementLocator(elementLocator);
+		step.setTimeElapsedStep(12 * MS);
+		step.setTimeInDriver(10 * MS);
+		return step;
+	}
+}
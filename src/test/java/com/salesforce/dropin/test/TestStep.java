@@ -6,6 +6,10 @@
  */
 package com.salesforce.dropin.test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import org.testng.Assert;
@@ -14,6 +18,7 @@ import org.testng.annotations.Test;
 import com.salesforce.selenium.support.event.Step;
 import com.salesforce.selenium.support.event.Step.Cmd;
 import com.salesforce.selenium.support.event.Step.Type;
+import com.salesforce.selenium.support.event.StepClock;
 
 /**
  * Tests using the Step object.
@@ -95,4 +100,45 @@ public class TestStep {
 		String nullString = Step.getLocatorFromWebElement((String) null);
 		Assert.assertEquals(nullString, null);
 	}
+
+	/**
+	 * Ensure that steps of different sessions do not disturb each other's timings.
+	 */
+	@Test()
+	public void testSessionClocks() {
+		StepClock slowSession = new StepClock("slow");
+		StepClock fastSession = new StepClock("fast");
+		new Step(Type.BeforeAction, 1, Cmd.clickByElement, slowSession);
+		try { Thread.sleep(50L); } catch (InterruptedException e) {	; /* ignore */ }
+		new Step(Type.BeforeAction, 1, Cmd.clickByElement, fastSession);
+		Step fastStep = new Step(Type.AfterAction, 1, Cmd.clickByElement, fastSession);
+		Step slowStep = new Step(Type.AfterAction, 1, Cmd.clickByElement, slowSession);
+
+		Assert.assertTrue(fastStep.getTimeElapsedStep() < 50000000L, "fast step took " + fastStep.getTimeElapsedStep());
+		Assert.assertTrue(slowStep.getTimeElapsedStep() >= 50000000L, "slow step took " + slowStep.getTimeElapsedStep());
+		Assert.assertEquals(fastStep.getRecordId(), "fast-2");
+		Assert.assertEquals(slowStep.getRecordId(), "slow-2");
+	}
+
+	/**
+	 * Ensure that record ids stay unique if several threads create steps of the same session.
+	 */
+	@Test()
+	public void testRecordIdsAcrossThreads() throws InterruptedException {
+		final StepClock clock = new StepClock();
+		final Set<String> ids = Collections.synchronizedSet(new HashSet<>());
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					ids.add(new Step(Type.BeforeGather, 1, Cmd.getText, clock).getRecordId());
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(ids.size(), 4000);
+	}
 }
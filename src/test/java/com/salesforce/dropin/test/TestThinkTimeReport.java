@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.Step.Type;
+import com.salesforce.selenium.support.event.ThinkTimeReport;
+import com.salesforce.selenium.support.event.ThinkTimeReport.Breakdown;
+import com.salesforce.selenium.support.event.ThinkTimeReport.Gap;
+
+/**
+ * Tests for splitting test time into driver, think and framework time.
+ */
+public class TestThinkTimeReport {
+	private static final long MS = 1000000L;
+
+	/**
+	 * Ensure that wall time gets split into driver, framework and think time and that the
+	 * worst gap is reported with its surrounding steps.
+	 */
+	@Test()
+	public void testBreakdown() {
+		List<Step> steps = new ArrayList<>();
+		// click from 1000 to 1100 ms, 80 ms in the driver, 5 ms in listeners and 17 ms elsewhere in the framework
+		steps.add(step(Type.BeforeAction, Cmd.clickByElement, 1000L, -1L, -1L, 2 * MS));
+		steps.add(step(Type.AfterAction, Cmd.clickByElement, 1100L, 100 * MS, 80 * MS, 3 * MS));
+		// test code sleeps 2 seconds, then getText from 3100 to 3150 ms
+		steps.add(step(Type.BeforeGather, Cmd.getText, 3100L, -1L, -1L, 0L));
+		steps.add(step(Type.AfterGather, Cmd.getText, 3150L, 50 * MS, 50 * MS, 0L));
+		// 300 ms of test code before the last command, recorded without driver time
+		steps.add(step(Type.BeforeAction, Cmd.clickByElement, 3450L, -1L, -1L, 0L));
+		steps.add(step(Type.AfterAction, Cmd.clickByElement, 3500L, 50 * MS, -1L, 0L));
+
+		ThinkTimeReport report = new ThinkTimeReport(2);
+		Breakdown breakdown = report.addSteps("myTest", steps);
+		Assert.assertEquals(breakdown.getCommands(), 3);
+		Assert.assertEquals(breakdown.getWallNanos(), 2500 * MS);
+		Assert.assertEquals(breakdown.getDriverNanos(), 180 * MS);
+		Assert.assertEquals(breakdown.getFrameworkNanos(), 22 * MS);
+		Assert.assertEquals(breakdown.getThinkNanos(), 2298 * MS);
+
+		List<Gap> gaps = breakdown.getWorstGaps();
+		Assert.assertEquals(gaps.size(), 2);
+		Assert.assertEquals(gaps.get(0).getNanos(), 2000 * MS);
+		Assert.assertEquals(gaps.get(0).getPrevious(), steps.get(1));
+		Assert.assertEquals(gaps.get(0).getNext(), steps.get(2));
+		Assert.assertEquals(gaps.get(1).getNanos(), 300 * MS);
+
+		report.addSteps("otherTest", steps);
+		Breakdown suite = report.getSuite();
+		Assert.assertEquals(suite.getThinkNanos(), 4596 * MS);
+		Assert.assertEquals(suite.getWorstGaps().size(), 2);
+
+		StringWriter writer = new StringWriter();
+		report.write(writer);
+		Assert.assertTrue(writer.toString().contains("2.000 s in myTest"), writer.toString());
+	}
+
+	/**
+	 * Ensure that gaps between two actions are measured in nanoseconds, even when they are shorter
+	 * than a millisecond or the time stamps got rounded across a millisecond boundary.
+	 */
+	@Test()
+	public void testGapBetweenActions() {
+		List<Step> steps = new ArrayList<>();
+		steps.add(step(Type.BeforeAction, Cmd.clickByElement, 1000L, -1L, -1L, 0L));
+		steps.add(step(Type.AfterAction, Cmd.clickByElement, 1000L, MS / 2, MS / 2, 0L));
+		// 0.3 ms of test code and 0.1 ms of listeners within the same millisecond
+		Step sameMillisecond = step(Type.BeforeAction, Cmd.sendKeysByElement, 1000L, -1L, -1L, MS / 10);
+		sameMillisecond.setTimeSinceLastAction(4 * MS / 10);
+		steps.add(sameMillisecond);
+		steps.add(step(Type.AfterAction, Cmd.sendKeysByElement, 1001L, MS / 2, MS / 2, 0L));
+		// 0.2 ms of test code crossing into the next millisecond
+		Step nextMillisecond = step(Type.BeforeAction, Cmd.clickByElement, 1002L, -1L, -1L, 0L);
+		nextMillisecond.setTimeSinceLastAction(2 * MS / 10);
+		steps.add(nextMillisecond);
+		steps.add(step(Type.AfterAction, Cmd.clickByElement, 1002L, MS / 2, MS / 2, 0L));
+
+		List<Gap> gaps = ThinkTimeReport.analyze("myTest", steps, 10).getWorstGaps();
+		Assert.assertEquals(gaps.size(), 2);
+		Assert.assertEquals(gaps.get(0).getNanos(), 3 * MS / 10);
+		Assert.assertEquals(gaps.get(0).getNext(), sameMillisecond);
+		Assert.assertEquals(gaps.get(1).getNanos(), 2 * MS / 10);
+		Assert.assertEquals(gaps.get(1).getNext(), nextMillisecond);
+	}
+
+	private Step step(Type type, Cmd cmd, long timeStamp, long elapsed, long inDriver, long inFramework) {
+		Step step = new Step(type, 1, cmd);
+		step.setTimeStamp(timeStamp);
+		step.setTimeElapsedStep(elapsed);
+		step.setTimeInDriver(inDriver);
+		step.setTimeInFramework(inFramework);
+		return step;
+	}
+}
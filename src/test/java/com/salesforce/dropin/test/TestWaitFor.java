@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019, salesforce.com, inc.
+ * All rights reserved.
+ * Licensed under the BSD 3-Clause license.
+ * For full license text, see LICENSE.txt file in the repo root  or https://opensource.org/licenses/BSD-3-Clause
+ */
+package com.salesforce.dropin.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.internal.WrapsElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.salesforce.selenium.support.event.AbstractStepListener;
+import com.salesforce.selenium.support.event.EventFiringWebDriver;
+import com.salesforce.selenium.support.event.Step;
+import com.salesforce.selenium.support.event.Step.Cmd;
+import com.salesforce.selenium.support.event.WaitCondition;
+import com.salesforce.selenium.support.findby.FindByJS;
+import com.salesforce.selenium.support.findby.JSElementLocator;
+
+/**
+ * Tests for waiting in the browser.
+ */
+public class TestWaitFor {
+	private final List<String> calls = new ArrayList<>();
+	private final List<String> steps = new ArrayList<>();
+	private Object scriptResult;
+	@FindByJS(script = "return document.querySelector('button.save')", waitForIdleMillis = 1500)
+	private WebElement saveButton;
+
+	/**
+	 * Ensure that a wait takes one script call and gets reported as one pair of steps.
+	 */
+	@Test()
+	public void testMet() {
+		EventFiringWebDriver driver = createDriver();
+		WebElement found = element("save");
+		scriptResult = Arrays.asList(true, found);
+
+		WebElement element = driver.waitFor(WaitCondition.visible(By.id("save")), 5, TimeUnit.SECONDS);
+		Assert.assertEquals(calls.toString(), "[executeAsyncScript [css, [id=\"save\"], visible, null, 5000]]");
+		Assert.assertEquals(((WrapsElement) element).getWrappedElement(), found);
+		Assert.assertEquals(steps.toString(), "[BeforeAction waitFor 1 visible(By.id: save), AfterAction waitFor 1 visible(By.id: save)]");
+
+		calls.clear();
+		scriptResult = Arrays.asList(true, null);
+		Assert.assertNull(driver.waitFor(WaitCondition.gone(By.xpath("//div[@class='spinner']")), 100, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(calls.toString(), "[executeAsyncScript [xpath, //div[@class='spinner'], gone, null, 100]]");
+		Assert.assertTrue(steps.get(steps.size() - 1).startsWith("AfterAction waitFor 2 "), steps.toString());
+	}
+
+	/**
+	 * Ensure that a condition not met in time gets reported as exception.
+	 */
+	@Test()
+	public void testTimeout() {
+		EventFiringWebDriver driver = createDriver();
+		scriptResult = Arrays.asList(false, null);
+		try {
+			driver.waitFor(WaitCondition.textEquals(By.cssSelector("h1"), "Done"), 1, TimeUnit.SECONDS);
+			Assert.fail("TimeoutException expected");
+		} catch (TimeoutException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Timed out after 1000 ms waiting for text(By.cssSelector: h1, Done)"),
+					e.getMessage());
+		}
+		Assert.assertEquals(steps.get(steps.size() - 1), "Exception waitFor 1 text(By.cssSelector: h1, Done)");
+	}
+
+	/**
+	 * Ensure that waiting for idle takes one script call, also before a {@link FindByJS} lookup,
+	 * and none if the page has been seen idle since the last action.
+	 */
+	@Test()
+	public void testFrameworkIdle() throws Exception {
+		EventFiringWebDriver driver = createDriver();
+		scriptResult = Arrays.asList(true, 0L);
+		driver.waitForFrameworkIdle(2, TimeUnit.SECONDS);
+		Assert.assertEquals(calls.toString(), "[executeAsyncScript [300, 2000]]");
+		Assert.assertEquals(steps.get(steps.size() - 1), "AfterAction waitFor 1 frameworkIdle(300 ms)");
+		driver.waitForFrameworkIdle(2, TimeUnit.SECONDS);
+		Assert.assertEquals(calls.size(), 1, calls.toString());
+		Assert.assertEquals(steps.size(), 2, steps.toString());
+		// waiting for a longer quiet period than seen requires another wait
+		driver.waitFor(WaitCondition.frameworkIdle(1000L), 2, TimeUnit.SECONDS);
+		Assert.assertEquals(calls.toString(), "[executeAsyncScript [300, 2000], executeAsyncScript [1000, 2000]]");
+
+		calls.clear();
+		JSElementLocator locator = new JSElementLocator(driver, getClass().getDeclaredField("saveButton"));
+		Assert.assertNotNull(locator.findElement());
+		Assert.assertNotNull(locator.findElement());
+		Assert.assertEquals(calls.toString(), "[executeScript, executeScript]");
+
+		calls.clear();
+		driver.get("about:blank");
+		Assert.assertNotNull(locator.findElement());
+		Assert.assertEquals(calls.toString(), "[get, executeAsyncScript [300, 1500], executeScript]");
+
+		// any other script may change the page
+		calls.clear();
+		driver.executeScript("document.querySelector('button.save').click()");
+		Assert.assertNotNull(locator.findElement());
+		Assert.assertEquals(calls.toString(), "[executeScript, executeAsyncScript [300, 1500], executeScript]");
+	}
+
+	/**
+	 * Ensure that waiting for idle before a {@link FindByJS} lookup requires an EventFiringWebDriver.
+	 */
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testFrameworkIdleWithoutEventFiringDriver() throws Exception {
+		WebDriver plain = Stub.driver(JavascriptExecutor.class).create();
+		new JSElementLocator(plain, getClass().getDeclaredField("saveButton")).findElement();
+	}
+
+	/**
+	 * Ensure that locators which cannot be evaluated by the script get rejected.
+	 */
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testUnsupportedLocator() {
+		WaitCondition.present(By.linkText("Save"));
+	}
+
+	private EventFiringWebDriver createDriver() {
+		calls.clear();
+		steps.clear();
+		WebDriver stub = Stub.driver(JavascriptExecutor.class).recordingInto(calls)
+				.recording("executeAsyncScript", args -> "executeAsyncScript " + Arrays.toString((Object[]) args[1]))
+				.answering("executeAsyncScript", args -> scriptResult)
+				.answering("executeScript", args -> element("save"))
+				.create();
+		EventFiringWebDriver driver = new EventFiringWebDriver(stub, "waitTest");
+		driver.register(new AbstractStepListener() {
+			@Override
+			protected void onStep(Step step) {
+				record(step);
+			}
+
+			@Override
+			public void onException(Step step, Cmd cmd, Throwable issue) {
+				record(step);
+			}
+
+			private void record(Step step) {
+				steps.add(step.getTypeOfLog() + " " + step.getCmd() + " " + step.getStepNumber() + " " + step.getParam1());
+			}
+		});
+		return driver;
+	}
+
+	private WebElement element(String id) {
+		return Stub.element("[stub] -> id: " + id).create();
+	}
+}